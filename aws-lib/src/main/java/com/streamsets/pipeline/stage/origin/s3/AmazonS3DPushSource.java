@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.s3;
+
+import com.streamsets.pipeline.api.ConfigDef;
+import com.streamsets.pipeline.api.ConfigDefBean;
+import com.streamsets.pipeline.api.ConfigGroups;
+import com.streamsets.pipeline.api.ExecutionMode;
+import com.streamsets.pipeline.api.GenerateResourceBundle;
+import com.streamsets.pipeline.api.PushSource;
+import com.streamsets.pipeline.api.StageDef;
+import com.streamsets.pipeline.configurablestage.DPushSource;
+
+import static com.streamsets.pipeline.config.OriginAvroSchemaSource.SOURCE;
+
+@StageDef(
+    version = 1,
+    label = "Amazon S3 (Multithreaded)",
+    description = "Reads files from Amazon S3 using multiple threads",
+    icon="s3.png",
+    execution = ExecutionMode.STANDALONE,
+    recordsByRef = true,
+    resetOffset = true,
+    onlineHelpRefUrl ="index.html#datacollector/UserGuide/Origins/AmazonS3.html#task_gfj_ssv_yq"
+)
+@ConfigGroups(Groups.class)
+@GenerateResourceBundle
+public class AmazonS3DPushSource extends DPushSource {
+
+  @ConfigDefBean()
+  public S3ConfigBean s3ConfigBean;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "10",
+      label = "Number of Threads",
+      description = "Number of objects read concurrently, one per thread",
+      displayPosition = 130,
+      group = "S3",
+      min = 1
+  )
+  public int numberOfThreads = 10;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "256",
+      label = "Prefetch Size (KB)",
+      description = "Bytes read ahead from the start of the objects to be read next, 0 disables prefetching",
+      displayPosition = 140,
+      group = "S3",
+      min = 0
+  )
+  public int prefetchSizeKB = 256;
+
+  @Override
+  protected PushSource createPushSource() {
+    s3ConfigBean.dataFormatConfig.avroSchemaSource = SOURCE;
+    return new AmazonS3PushSource(s3ConfigBean, numberOfThreads, prefetchSizeKB);
+  }
+}
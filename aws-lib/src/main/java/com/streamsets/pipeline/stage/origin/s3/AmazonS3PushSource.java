@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.s3;
+
+import com.google.common.base.Throwables;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.BasePushSource;
+import com.streamsets.pipeline.config.DataFormat;
+import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Multithreaded variant of {@link AmazonS3Source}: the pipeline runners read different objects concurrently, taking
+ * them from a listing shared by all of them, while the heads of the objects to be read next are prefetched in the
+ * background.
+ * <p/>
+ * Every runner commits the offset of its current object keyed by the object key, the listing commits a watermark
+ * up to which all objects have been fully read.
+ */
+public class AmazonS3PushSource extends BasePushSource {
+  private static final Logger LOG = LoggerFactory.getLogger(AmazonS3PushSource.class);
+
+  private final S3ConfigBean s3ConfigBean;
+  private final int numberOfThreads;
+  private final int prefetchSizeKB;
+
+  private S3Spooler spooler;
+  private S3Prefetcher prefetcher;
+  private ExecutorService executorService;
+
+  public AmazonS3PushSource(S3ConfigBean s3ConfigBean, int numberOfThreads, int prefetchSizeKB) {
+    this.s3ConfigBean = s3ConfigBean;
+    this.numberOfThreads = numberOfThreads;
+    this.prefetchSizeKB = prefetchSizeKB;
+  }
+
+  @Override
+  protected List<ConfigIssue> init() {
+    List<ConfigIssue> issues = super.init();
+    // the parser factory is shared by all the runners
+    s3ConfigBean.dataFormatConfig.stringBuilderPoolSize = numberOfThreads;
+    s3ConfigBean.init(getContext(), issues);
+
+    if (s3ConfigBean.dataFormat == DataFormat.WHOLE_FILE) {
+      issues.add(getContext().createConfigIssue(
+          Groups.DATA_FORMAT.name(),
+          S3ConfigBean.S3_CONFIG_BEAN_PREFIX + "dataFormat",
+          Errors.S3_SPOOLDIR_08,
+          s3ConfigBean.dataFormat.getLabel()
+      ));
+    }
+
+    //preview settings
+    if (getContext().isPreview()) {
+      s3ConfigBean.basicConfig.maxWaitTime = 1000;
+    }
+
+    if (issues.isEmpty()) {
+      spooler = new S3Spooler(getContext(), s3ConfigBean);
+      spooler.init();
+      prefetcher = new S3Prefetcher(s3ConfigBean, prefetchSizeKB * 1024, numberOfThreads);
+    }
+    return issues;
+  }
+
+  @Override
+  public int getNumberOfThreads() {
+    return numberOfThreads;
+  }
+
+  @Override
+  public void produce(Map<String, String> lastOffsets, int maxBatchSize) throws StageException {
+    int batchSize = Math.min(s3ConfigBean.basicConfig.maxBatchSize, maxBatchSize);
+    S3ObjectListing listing = new S3ObjectListing(
+        getContext(),
+        s3ConfigBean,
+        spooler,
+        prefetcher,
+        lastOffsets,
+        Math.max(s3ConfigBean.s3FileConfig.poolSize, numberOfThreads)
+    );
+
+    executorService = new SafeScheduledExecutorService(numberOfThreads, AmazonS3Runnable.THREAD_PREFIX);
+    ExecutorCompletionService<Object> completionService = new ExecutorCompletionService<>(executorService);
+
+    List<Future> futures = new ArrayList<>(numberOfThreads);
+    for (int threadNumber = 0; threadNumber < numberOfThreads; threadNumber++) {
+      AmazonS3Runnable runnable = new AmazonS3Runnable(
+          getContext(),
+          s3ConfigBean,
+          listing,
+          prefetcher,
+          spooler,
+          threadNumber,
+          batchSize,
+          numberOfThreads
+      );
+      futures.add(completionService.submit(runnable, null));
+    }
+
+    try {
+      while (!futures.isEmpty()) {
+        Future future = completionService.take();
+        futures.remove(future);
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      LOG.error("Interrupted while waiting for the pipeline runners", e);
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      LOG.error("Pipeline runner failed: {}", e.toString(), e);
+      Throwable cause = Throwables.getRootCause(e);
+      if (cause instanceof StageException) {
+        throw (StageException) cause;
+      }
+      throw new StageException(Errors.S3_SPOOLDIR_26, e.toString(), e);
+    } finally {
+      shutdownExecutorIfNeeded();
+    }
+  }
+
+  @Override
+  public void destroy() {
+    shutdownExecutorIfNeeded();
+    if (prefetcher != null) {
+      prefetcher.destroy();
+    }
+    if (spooler != null) {
+      spooler.destroy();
+    }
+    s3ConfigBean.destroy();
+    super.destroy();
+  }
+
+  private void shutdownExecutorIfNeeded() {
+    if (executorService != null && !executorService.isTerminated()) {
+      LOG.info("Shutting down executor service");
+      executorService.shutdownNow();
+    }
+  }
+}
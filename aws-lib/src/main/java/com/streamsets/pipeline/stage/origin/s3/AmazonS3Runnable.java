@@ -0,0 +1,339 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.s3;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.google.common.base.Throwables;
+import com.streamsets.pipeline.api.BatchContext;
+import com.streamsets.pipeline.api.BatchMaker;
+import com.streamsets.pipeline.api.ErrorCode;
+import com.streamsets.pipeline.api.PushSource;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.api.ext.io.ObjectLengthException;
+import com.streamsets.pipeline.api.ext.io.OverrunException;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.config.PostProcessingOptions;
+import com.streamsets.pipeline.lib.parser.DataParser;
+import com.streamsets.pipeline.lib.parser.DataParserException;
+import com.streamsets.pipeline.lib.parser.RecoverableDataParserException;
+import com.streamsets.pipeline.lib.util.ThreadUtil;
+import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A pipeline runner of the {@link AmazonS3PushSource}, it reads one object at a time, taking the next one from the
+ * shared {@link S3ObjectListing} and committing the offset of the object with every batch.
+ */
+class AmazonS3Runnable implements Runnable {
+  private static final Logger LOG = LoggerFactory.getLogger(AmazonS3Runnable.class);
+
+  static final String THREAD_PREFIX = "Amazon S3 Runner - ";
+
+  private final PushSource.Context context;
+  private final S3ConfigBean s3ConfigBean;
+  private final S3ObjectListing listing;
+  private final S3Prefetcher prefetcher;
+  private final S3Spooler spooler;
+  private final int threadNumber;
+  private final int batchSize;
+  private final int prefetchCount;
+
+  private ErrorRecordHandler errorRecordHandler;
+  private S3ObjectSummary currentObject;
+  // last committed offset of the current object
+  private String currentOffset;
+  private S3Object object;
+  private DataParser parser;
+
+  AmazonS3Runnable(
+      PushSource.Context context,
+      S3ConfigBean s3ConfigBean,
+      S3ObjectListing listing,
+      S3Prefetcher prefetcher,
+      S3Spooler spooler,
+      int threadNumber,
+      int batchSize,
+      int prefetchCount
+  ) {
+    this.context = context;
+    this.s3ConfigBean = s3ConfigBean;
+    this.listing = listing;
+    this.prefetcher = prefetcher;
+    this.spooler = spooler;
+    this.threadNumber = threadNumber;
+    this.batchSize = batchSize;
+    this.prefetchCount = prefetchCount;
+  }
+
+  @Override
+  public void run() {
+    Thread.currentThread().setName(THREAD_PREFIX + threadNumber);
+    try {
+      while (!context.isStopped()) {
+        BatchContext batchContext = context.startBatch();
+        errorRecordHandler = new DefaultErrorRecordHandler(context, batchContext);
+        try {
+          produce(batchContext);
+        } catch (StageException ex) {
+          handleStageError(ex.getErrorCode(), ex);
+          // the records of the failed batch were not committed, the object is read again from its last committed
+          // offset, after a while so a failing object does not keep the runner spinning
+          closeObject();
+          ThreadUtil.sleep(s3ConfigBean.basicConfig.maxWaitTime);
+        }
+      }
+    } finally {
+      closeObject();
+    }
+  }
+
+  private void produce(BatchContext batchContext) throws StageException {
+    if (currentObject == null) {
+      S3ObjectListing.Entry next = listing.next();
+      if (next == null) {
+        LOG.debug("No new object available, producing empty batch");
+        context.processBatch(batchContext);
+        ThreadUtil.sleep(s3ConfigBean.basicConfig.maxWaitTime);
+        return;
+      }
+      currentObject = next.getObject();
+      currentOffset = next.getOffset();
+      LOG.debug("Object '{}' with offset '{}' fetched from listing", currentObject.getKey(), currentOffset);
+      prefetcher.prefetch(listing.peek(prefetchCount));
+    }
+
+    if (object == null) {
+      try {
+        object = prefetcher.open(currentObject);
+      } catch (AmazonS3Exception ex) {
+        if (ex.getStatusCode() == 404 || "NoSuchKey".equals(ex.getErrorCode())) {
+          // the object was deleted since it was listed, it is skipped
+          LOG.error("Object '{}' no longer exists, skipping it: {}", currentObject.getKey(), ex.toString(), ex);
+          listing.completed(currentObject);
+          currentObject = null;
+          currentOffset = null;
+        }
+        throw new StageException(Errors.S3_SPOOLDIR_25, ex.toString(), ex);
+      } catch (AmazonClientException ex) {
+        // the object is opened again after a while
+        throw new StageException(Errors.S3_SPOOLDIR_25, ex.toString(), ex);
+      }
+    }
+
+    String offset;
+    boolean badObject = false;
+    try {
+      offset = produce(currentObject, currentOffset, batchContext.getBatchMaker());
+    } catch (BadSpoolObjectException ex) {
+      LOG.error(Errors.S3_SPOOLDIR_01.getMessage(), ex.getObject(), ex.getPos(), ex.toString(), ex);
+      context.reportError(Errors.S3_SPOOLDIR_01, ex.getObject(), ex.getPos(), ex.toString());
+      offset = S3Constants.MINUS_ONE;
+      badObject = true;
+    }
+
+    AmazonS3Source.S3Offset s3Offset = new AmazonS3Source.S3Offset(
+        currentObject.getKey(),
+        offset,
+        currentObject.getETag(),
+        String.valueOf(currentObject.getLastModified().getTime())
+    );
+    if (!context.processBatch(batchContext, currentObject.getKey(), s3Offset.toString())) {
+      // the offset was not committed, the object is read again from the last committed offset
+      closeObject();
+    } else if (S3Constants.MINUS_ONE.equals(offset)) {
+      // post processed or error handled only after the last offset of the object has been committed, and before
+      // the object is done so that it is post processed after a restart if stopped in between
+      try {
+        if (badObject) {
+          postProcessOrErrorHandle(
+              currentObject,
+              s3ConfigBean.errorConfig.errorHandlingOption,
+              s3ConfigBean.errorConfig.errorBucket,
+              s3ConfigBean.errorConfig.errorPrefix,
+              s3ConfigBean.errorConfig.archivingOption
+          );
+        } else {
+          postProcessOrErrorHandle(
+              currentObject,
+              s3ConfigBean.postProcessingConfig.postProcessing,
+              s3ConfigBean.postProcessingConfig.postProcessBucket,
+              s3ConfigBean.postProcessingConfig.postProcessPrefix,
+              s3ConfigBean.postProcessingConfig.archivingOption
+          );
+        }
+      } finally {
+        // its records are committed, it must not be read again even if post processing failed
+        listing.completed(currentObject);
+        currentObject = null;
+        currentOffset = null;
+      }
+    } else {
+      currentOffset = offset;
+    }
+  }
+
+  private String produce(S3ObjectSummary s3Object, String offset, BatchMaker batchMaker)
+      throws StageException, BadSpoolObjectException {
+    try {
+      if (parser == null) {
+        String recordId = s3ConfigBean.s3Config.bucket + s3ConfigBean.s3Config.delimiter + s3Object.getKey();
+        parser = s3ConfigBean.dataFormatConfig.getParserFactory().getParser(recordId, object.getObjectContent(),
+            offset);
+      }
+      int i = 0;
+      while (i < batchSize) {
+        try {
+          Record record;
+
+          try {
+            record = parser.parse();
+          } catch (RecoverableDataParserException ex) {
+            // Propagate partially parsed record to error stream
+            record = ex.getUnparsedRecord();
+            setHeaders(record);
+            errorRecordHandler.onError(new OnRecordErrorException(record, ex.getErrorCode(), ex.getParams()));
+
+            // We'll simply continue reading pass this recoverable error
+            continue;
+          }
+
+          if (record != null) {
+            setHeaders(record);
+            batchMaker.addRecord(record);
+            i++;
+            offset = parser.getOffset();
+          } else {
+            offset = S3Constants.MINUS_ONE;
+            break;
+          }
+        } catch (ObjectLengthException ex) {
+          String exOffset = offset;
+          offset = S3Constants.MINUS_ONE;
+          errorRecordHandler.onError(Errors.S3_SPOOLDIR_02, s3Object.getKey(), exOffset, ex);
+        }
+      }
+    } catch (AmazonClientException e) {
+      LOG.error("Error processing object with key '{}' offset '{}'", s3Object.getKey(), offset, e);
+      throw new StageException(Errors.S3_SPOOLDIR_25, e.toString(), e);
+    } catch (IOException | DataParserException ex) {
+      if (!(ex.getCause() instanceof AbortedException)) {
+        offset = S3Constants.MINUS_ONE;
+        String exOffset;
+        if (ex instanceof OverrunException) {
+          exOffset = String.valueOf(((OverrunException) ex).getStreamOffset());
+        } else {
+          try {
+            exOffset = (parser != null) ? parser.getOffset() : S3Constants.MINUS_ONE;
+          } catch (IOException ex1) {
+            LOG.warn("Could not get the object offset to report with error, reason: {}", ex1.toString(), ex);
+            exOffset = S3Constants.MINUS_ONE;
+          }
+        }
+
+        switch (context.getOnErrorRecord()) {
+          case DISCARD:
+            break;
+          case TO_ERROR:
+            throw new BadSpoolObjectException(s3Object.getKey(), exOffset, ex);
+          case STOP_PIPELINE:
+            context.reportError(Errors.S3_SPOOLDIR_03, s3Object.getKey(), exOffset, ex.toString(), ex);
+            throw new StageException(Errors.S3_SPOOLDIR_03, s3Object.getKey(), exOffset, ex.toString(), ex);
+          default:
+            throw new IllegalStateException(Utils.format("Unknown OnError value '{}'",
+                context.getOnErrorRecord(), ex));
+        }
+      }
+      // else the pipeline is stopping, the records read so far are produced
+    } finally {
+      if (S3Constants.MINUS_ONE.equals(offset)) {
+        closeObject();
+      }
+    }
+    return offset;
+  }
+
+  private void setHeaders(Record record) {
+    if (s3ConfigBean.enableMetaData) {
+      Map<String, Object> metaData = AmazonS3Util.getMetaData(object);
+      for (Map.Entry<String, Object> entry : metaData.entrySet()) {
+        String value = entry.getValue() == null ? "" : entry.getValue().toString();
+        record.getHeader().setAttribute(entry.getKey(), value);
+      }
+      record.getHeader().setAttribute("Name", object.getKey());
+    }
+  }
+
+  private void postProcessOrErrorHandle(
+      S3ObjectSummary s3Object,
+      PostProcessingOptions postProcessing,
+      String postProcessBucket,
+      String postProcessFolder,
+      S3ArchivingOption archivingOption
+  ) throws StageException {
+    try {
+      spooler.postProcessOrErrorHandle(
+          s3Object.getKey(),
+          postProcessing,
+          postProcessBucket,
+          postProcessFolder,
+          archivingOption
+      );
+    } catch (AmazonClientException e) {
+      throw new StageException(Errors.S3_SPOOLDIR_24, e.toString(), e);
+    }
+  }
+
+  private void closeObject() {
+    if (parser != null) {
+      try {
+        parser.close();
+      } catch (IOException ex) {
+        LOG.debug("Exception while closing parser : '{}'", ex.toString(), ex);
+      }
+      parser = null;
+    }
+    if (object != null) {
+      try {
+        object.close();
+      } catch (IOException ex) {
+        LOG.debug("Exception while closing S3 object : '{}'", ex.toString(), ex);
+      }
+      object = null;
+    }
+  }
+
+  private void handleStageError(ErrorCode errorCode, Exception e) {
+    LOG.error("Error while reading object: {}", e.toString(), e);
+    try {
+      errorRecordHandler.onError(errorCode, e);
+    } catch (StageException se) {
+      LOG.error("Error when routing to stage error", se);
+      // way to get the stage exception from the runner to the source thread
+      Throwables.propagate(se);
+    }
+  }
+}
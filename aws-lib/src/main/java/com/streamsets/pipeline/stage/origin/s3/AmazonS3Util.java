@@ -253,7 +253,40 @@ public class AmazonS3Util {
       CredentialValue customerKey,
       CredentialValue customerKeyMd5
   ) throws StageException {
-    GetObjectRequest getObjectRequest = new GetObjectRequest(bucket, objectKey).withRange(0, range);
+    return getObjectRange(s3Client, bucket, objectKey, 0, range, useSSE, customerKey, customerKeyMd5);
+  }
+
+  static S3Object getObjectRange(
+      AmazonS3 s3Client,
+      String bucket,
+      String objectKey,
+      long start,
+      long end,
+      boolean useSSE,
+      CredentialValue customerKey,
+      CredentialValue customerKeyMd5
+  ) throws StageException {
+    return getObjectRange(s3Client, bucket, objectKey, start, end, null, useSSE, customerKey, customerKeyMd5);
+  }
+
+  /**
+   * Returns the given range of the object, or null if an ETag is given and the object no longer has it.
+   */
+  static S3Object getObjectRange(
+      AmazonS3 s3Client,
+      String bucket,
+      String objectKey,
+      long start,
+      long end,
+      String eTag,
+      boolean useSSE,
+      CredentialValue customerKey,
+      CredentialValue customerKeyMd5
+  ) throws StageException {
+    GetObjectRequest getObjectRequest = new GetObjectRequest(bucket, objectKey).withRange(start, end);
+    if (eTag != null) {
+      getObjectRequest.withMatchingETagConstraint(eTag);
+    }
     if (useSSE) {
       SSECustomerKey sseCustomerKey = new SSECustomerKey(customerKey.get());
       sseCustomerKey.setMd5(customerKeyMd5.get());
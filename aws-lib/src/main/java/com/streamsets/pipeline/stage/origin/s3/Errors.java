@@ -27,6 +27,7 @@ public enum Errors implements ErrorCode {
   S3_SPOOLDIR_04("Buffer Limit must be equal or greater than {}KB and equal or less than {}MB"),
   S3_SPOOLDIR_06("File Pattern configuration is required"),
   S3_SPOOLDIR_07("Error Handling cannot be {} when Post Processing is {}"),
+  S3_SPOOLDIR_08("Data format '{}' is not supported by the multithreaded origin"),
 
   S3_SPOOLDIR_10("Endpoint cannot be empty"),
   S3_SPOOLDIR_11("Bucket name cannot be empty"),
@@ -39,6 +40,7 @@ public enum Errors implements ErrorCode {
   S3_SPOOLDIR_23("Unable to fetch object, reason : {}"),
   S3_SPOOLDIR_24("Unable to move object, reason : {}"),
   S3_SPOOLDIR_25("Unable to get object content, reason : {}"),
+  S3_SPOOLDIR_26("Failure while waiting for the pipeline runners to complete, reason : {}"),
   ;
 
   private final String msg;
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.s3;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.streamsets.pipeline.api.PushSource;
+import com.streamsets.pipeline.api.Source;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.lib.util.AntPathMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Listing of the objects to read, shared by all the runners of the {@link AmazonS3PushSource}.
+ * <p/>
+ * Objects are listed in batches, each listing continues after the last object listed so far, and handed out to the
+ * runners in listing order. A runner commits the offset of the object it reads under the object key, so objects
+ * finish out of order. The watermark is the last object up to which all handed out objects are done, it is committed
+ * under {@link #WATERMARK_OFFSET_KEY} and the offsets of the objects up to it are removed.
+ * <p/>
+ * After a restart the listing starts again at the watermark, objects with an offset are resumed from it (or skipped if
+ * they were done), objects that were handed out but had no offset committed yet are read again.
+ */
+class S3ObjectListing {
+  private static final Logger LOG = LoggerFactory.getLogger(S3ObjectListing.class);
+
+  static final String WATERMARK_OFFSET_KEY = "$com.streamsets.pipeline.stage.origin.s3.watermark$";
+  private static final String ZERO = "0";
+
+  private static final Comparator<S3ObjectSummary> KEY_ORDER = Comparator.comparing(S3ObjectSummary::getKey);
+  private static final Comparator<S3ObjectSummary> TIMESTAMP_ORDER =
+      Comparator.comparing(S3ObjectSummary::getLastModified).thenComparing(S3ObjectSummary::getKey);
+
+  /**
+   * An object handed out to a runner and the offset to start reading it from.
+   */
+  static class Entry {
+    private final S3ObjectSummary object;
+    private final String offset;
+
+    Entry(S3ObjectSummary object, String offset) {
+      this.object = object;
+      this.offset = offset;
+    }
+
+    S3ObjectSummary getObject() {
+      return object;
+    }
+
+    String getOffset() {
+      return offset;
+    }
+  }
+
+  private final PushSource.Context context;
+  private final S3ConfigBean s3ConfigBean;
+  private final AmazonS3 s3Client;
+  private final S3Spooler spooler;
+  private final S3Prefetcher prefetcher;
+  private final AntPathMatcher pathMatcher;
+  private final int listingSize;
+  private final Deque<S3ObjectSummary> listed;
+  // handed out objects not under the watermark yet, TRUE once done
+  private final TreeMap<S3ObjectSummary, Boolean> handedOut;
+  // offsets of the previous run by object key, kept until the listing gets to their objects
+  private final Map<String, AmazonS3Source.S3Offset> restored;
+  private AmazonS3Source.S3Offset listingMarker;
+  private long nextListingMillis;
+
+  S3ObjectListing(
+      PushSource.Context context,
+      S3ConfigBean s3ConfigBean,
+      S3Spooler spooler,
+      S3Prefetcher prefetcher,
+      Map<String, String> lastOffsets,
+      int listingSize
+  ) throws StageException {
+    this.context = context;
+    this.s3ConfigBean = s3ConfigBean;
+    this.s3Client = s3ConfigBean.s3Config.getS3Client();
+    this.spooler = spooler;
+    this.prefetcher = prefetcher;
+    this.listingSize = listingSize;
+    pathMatcher = new AntPathMatcher(s3ConfigBean.s3Config.delimiter);
+    listed = new ArrayDeque<>(listingSize);
+    handedOut = new TreeMap<>(
+        (s3ConfigBean.s3FileConfig.objectOrdering == ObjectOrdering.TIMESTAMP) ? TIMESTAMP_ORDER : KEY_ORDER
+    );
+    restored = new HashMap<>();
+    listingMarker = AmazonS3Source.S3Offset.fromString(null);
+    if (lastOffsets != null) {
+      for (Map.Entry<String, String> entry : lastOffsets.entrySet()) {
+        if (WATERMARK_OFFSET_KEY.equals(entry.getKey())) {
+          listingMarker = AmazonS3Source.S3Offset.fromString(entry.getValue());
+        } else if (!Source.POLL_SOURCE_OFFSET_KEY.equals(entry.getKey()) && entry.getValue() != null) {
+          restored.put(entry.getKey(), AmazonS3Source.S3Offset.fromString(entry.getValue()));
+        }
+      }
+    }
+    LOG.debug("Listing from '{}', {} objects to resume or skip", listingMarker.getKey(), restored.size());
+  }
+
+  /**
+   * Hands out the next object to read.
+   *
+   * @return the next object and the offset to read it from, <b>NULL</b> if there are no objects to read now.
+   */
+  synchronized Entry next() throws StageException {
+    while (!listed.isEmpty() || list()) {
+      S3ObjectSummary object = listed.poll();
+      AmazonS3Source.S3Offset offset = restored.remove(object.getKey());
+      if (offset != null && !isSameObject(object, offset)) {
+        // replaced since the offset was committed, it is a new object
+        offset = null;
+      }
+      if (offset != null && S3Constants.MINUS_ONE.equals(offset.getOffset())) {
+        // read in the previous run, it may have been stopped before post processing it
+        LOG.debug("Object '{}' was already read, skipping it", object.getKey());
+        // it may have been read ahead as one of the next objects
+        prefetcher.discard(object);
+        postProcess(object);
+        handedOut.put(object, true);
+        advanceWatermark();
+      } else {
+        handedOut.put(object, false);
+        return new Entry(object, (offset == null) ? ZERO : offset.getOffset());
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the objects that will be handed out next, without handing them out.
+   *
+   * @param count maximum number of objects to return.
+   * @return the objects that will be handed out next.
+   */
+  synchronized List<S3ObjectSummary> peek(int count) {
+    return listed.stream().limit(count).collect(Collectors.toList());
+  }
+
+  /**
+   * Marks a handed out object as done, its last offset must have been committed already.
+   *
+   * @param object the object read.
+   */
+  synchronized void completed(S3ObjectSummary object) {
+    handedOut.put(object, true);
+    advanceWatermark();
+  }
+
+  private void advanceWatermark() {
+    List<S3ObjectSummary> done = new ArrayList<>();
+    while (!handedOut.isEmpty() && handedOut.firstEntry().getValue()) {
+      done.add(handedOut.pollFirstEntry().getKey());
+    }
+    if (!done.isEmpty()) {
+      // watermark first, if stopped in between the offsets left behind are below it and discarded on restart
+      S3ObjectSummary watermark = done.get(done.size() - 1);
+      context.commitOffset(WATERMARK_OFFSET_KEY, toOffset(watermark).toString());
+      for (S3ObjectSummary object : done) {
+        context.commitOffset(object.getKey(), null);
+      }
+    }
+  }
+
+  // returns FALSE if there are no new objects
+  private boolean list() throws StageException {
+    long now = System.currentTimeMillis();
+    if (now < nextListingMillis) {
+      return false;
+    }
+    List<S3ObjectSummary> objects;
+    try {
+      switch (s3ConfigBean.s3FileConfig.objectOrdering) {
+        case TIMESTAMP:
+          objects = AmazonS3Util.listObjectsChronologically(
+              s3Client,
+              s3ConfigBean,
+              pathMatcher,
+              listingMarker,
+              listingSize
+          );
+          break;
+        case LEXICOGRAPHICAL:
+          objects = AmazonS3Util.listObjectsLexicographically(
+              s3Client,
+              s3ConfigBean,
+              pathMatcher,
+              listingMarker,
+              listingSize
+          );
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown ordering: " + s3ConfigBean.s3FileConfig.objectOrdering.getLabel());
+      }
+    } catch (AmazonClientException ex) {
+      throw new StageException(Errors.S3_SPOOLDIR_23, ex.toString(), ex);
+    }
+    LOG.debug("Listed '{}' objects after '{}'", objects.size(), listingMarker.getKey());
+    if (objects.isEmpty()) {
+      nextListingMillis = now + s3ConfigBean.basicConfig.maxWaitTime;
+      discardRestored();
+      return false;
+    }
+    listed.addAll(objects);
+    listingMarker = toOffset(objects.get(objects.size() - 1));
+    return true;
+  }
+
+  // everything after the watermark has been listed, the objects of the offsets still left are gone
+  private void discardRestored() {
+    for (String key : restored.keySet()) {
+      LOG.debug("Object '{}' of offset '{}' no longer exists", key, restored.get(key));
+      context.commitOffset(key, null);
+    }
+    restored.clear();
+  }
+
+  private void postProcess(S3ObjectSummary object) throws StageException {
+    try {
+      spooler.postProcessOrErrorHandle(
+          object.getKey(),
+          s3ConfigBean.postProcessingConfig.postProcessing,
+          s3ConfigBean.postProcessingConfig.postProcessBucket,
+          s3ConfigBean.postProcessingConfig.postProcessPrefix,
+          s3ConfigBean.postProcessingConfig.archivingOption
+      );
+    } catch (AmazonClientException ex) {
+      throw new StageException(Errors.S3_SPOOLDIR_24, ex.toString(), ex);
+    }
+  }
+
+  private static boolean isSameObject(S3ObjectSummary object, AmazonS3Source.S3Offset offset) {
+    return object.getETag().equals(offset.geteTag()) &&
+        String.valueOf(object.getLastModified().getTime()).equals(offset.getTimestamp());
+  }
+
+  // fully read objects, the listing continues after them
+  private static AmazonS3Source.S3Offset toOffset(S3ObjectSummary object) {
+    return new AmazonS3Source.S3Offset(
+        object.getKey(),
+        S3Constants.MINUS_ONE,
+        object.getETag(),
+        String.valueOf(object.getLastModified().getTime())
+    );
+  }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads the first bytes of the objects the runners of the {@link AmazonS3PushSource} are going to read next, while
+ * they are still parsing their current objects. Small objects are read completely, so reading many of them is not
+ * one request round trip after the other. The rest of a bigger object is requested when the parser gets to it.
+ */
+class S3Prefetcher {
+  private static final Logger LOG = LoggerFactory.getLogger(S3Prefetcher.class);
+  private static final String PREFETCH_THREAD_NAME = "Amazon S3 Prefetch - %d";
+
+  private final S3ConfigBean s3ConfigBean;
+  private final AmazonS3 s3Client;
+  private final int prefetchSize;
+  private final ExecutorService executor;
+  private final Map<String, Future<S3Object>> prefetched;
+
+  /**
+   * Creates a prefetcher.
+   *
+   * @param s3ConfigBean the origin configuration.
+   * @param prefetchSize number of bytes to read ahead of each object, zero disables prefetching.
+   * @param threads number of concurrent prefetch requests.
+   */
+  S3Prefetcher(S3ConfigBean s3ConfigBean, int prefetchSize, int threads) {
+    this.s3ConfigBean = s3ConfigBean;
+    this.s3Client = s3ConfigBean.s3Config.getS3Client();
+    this.prefetchSize = prefetchSize;
+    executor = (prefetchSize > 0) ? Executors.newFixedThreadPool(
+        threads,
+        new ThreadFactoryBuilder().setNameFormat(PREFETCH_THREAD_NAME).setDaemon(true).build()
+    ) : null;
+    prefetched = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Starts reading ahead the given objects, objects being read ahead already are ignored.
+   *
+   * @param objects objects to read ahead.
+   */
+  void prefetch(List<S3ObjectSummary> objects) {
+    if (executor != null) {
+      for (S3ObjectSummary object : objects) {
+        if (object.getSize() > 0) {
+          prefetched.computeIfAbsent(object.getKey(), key -> executor.submit(() -> readHead(object)));
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the object to read, with its content starting with the prefetched bytes if it was read ahead.
+   *
+   * @param object the object to read.
+   * @return the object to read, the caller must close it.
+   */
+  S3Object open(S3ObjectSummary object) throws StageException {
+    Future<S3Object> future = prefetched.remove(object.getKey());
+    if (future != null) {
+      try {
+        S3Object s3Object = future.get();
+        if (object.getETag().equals(s3Object.getObjectMetadata().getETag())) {
+          return s3Object;
+        }
+        LOG.debug("Object '{}' changed since it was prefetched", object.getKey());
+      } catch (InterruptedException ex) {
+        future.cancel(true);
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException ex) {
+        LOG.warn("Could not prefetch object '{}', reading it directly: {}", object.getKey(), ex.toString(), ex);
+      }
+    }
+    return AmazonS3Util.getObject(
+        s3Client,
+        s3ConfigBean.s3Config.bucket,
+        object.getKey(),
+        s3ConfigBean.sseConfig.useCustomerSSEKey,
+        s3ConfigBean.sseConfig.customerKey,
+        s3ConfigBean.sseConfig.customerKeyMd5
+    );
+  }
+
+  /**
+   * Drops what was read ahead of an object that is not going to be read.
+   *
+   * @param object the object not to read.
+   */
+  void discard(S3ObjectSummary object) {
+    Future<S3Object> future = prefetched.remove(object.getKey());
+    if (future != null) {
+      release(future);
+    }
+  }
+
+  void destroy() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+    for (Future<S3Object> future : prefetched.values()) {
+      release(future);
+    }
+    prefetched.clear();
+  }
+
+  // stops the read ahead or, if it is done already, closes the object it read
+  private static void release(Future<S3Object> future) {
+    if (!future.cancel(true)) {
+      try {
+        future.get().close();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException | CancellationException | IOException ex) {
+        LOG.debug("Nothing to release: {}", ex.toString(), ex);
+      }
+    }
+  }
+
+  private S3Object readHead(S3ObjectSummary object) throws StageException, IOException {
+    long headSize = Math.min(object.getSize(), prefetchSize);
+    try (S3Object head = AmazonS3Util.getObjectRange(
+        s3Client,
+        s3ConfigBean.s3Config.bucket,
+        object.getKey(),
+        0,
+        headSize - 1,
+        s3ConfigBean.sseConfig.useCustomerSSEKey,
+        s3ConfigBean.sseConfig.customerKey,
+        s3ConfigBean.sseConfig.customerKeyMd5
+    )) {
+      byte[] bytes = IOUtils.toByteArray(head.getObjectContent());
+      InputStream content = new ByteArrayInputStream(bytes);
+      if (bytes.length < object.getSize()) {
+        content = new SequenceInputStream(
+            content,
+            new RemainderInputStream(object, bytes.length, head.getObjectMetadata().getETag())
+        );
+      }
+      S3Object s3Object = new S3Object();
+      s3Object.setBucketName(head.getBucketName());
+      s3Object.setKey(head.getKey());
+      s3Object.setObjectMetadata(head.getObjectMetadata());
+      // the metadata is the one of the range request
+      s3Object.getObjectMetadata().setContentLength(object.getSize());
+      s3Object.setObjectContent(content);
+      return s3Object;
+    }
+  }
+
+  /**
+   * The bytes of an object after the prefetched ones, requested on the first read.
+   */
+  private class RemainderInputStream extends InputStream {
+    private final S3ObjectSummary object;
+    private final long start;
+    private final String eTag;
+    private S3Object remainder;
+
+    RemainderInputStream(S3ObjectSummary object, long start, String eTag) {
+      this.object = object;
+      this.start = start;
+      this.eTag = eTag;
+    }
+
+    private InputStream getStream() throws IOException {
+      if (remainder == null) {
+        try {
+          remainder = AmazonS3Util.getObjectRange(
+              s3Client,
+              s3ConfigBean.s3Config.bucket,
+              object.getKey(),
+              start,
+              object.getSize() - 1,
+              eTag,
+              s3ConfigBean.sseConfig.useCustomerSSEKey,
+              s3ConfigBean.sseConfig.customerKey,
+              s3ConfigBean.sseConfig.customerKeyMd5
+          );
+        } catch (StageException ex) {
+          throw new IOException(ex);
+        }
+        if (remainder == null) {
+          // the prefetched bytes and the remainder would be from different versions of the object
+          throw new IOException(Utils.format("Object '{}' changed since it was prefetched", object.getKey()));
+        }
+      }
+      return remainder.getObjectContent();
+    }
+
+    @Override
+    public int read() throws IOException {
+      return getStream().read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      return getStream().read(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (remainder != null) {
+        remainder.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.s3;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.config.DataFormat;
+import com.streamsets.pipeline.config.PostProcessingOptions;
+import com.streamsets.pipeline.sdk.PushSourceRunner;
+import com.streamsets.pipeline.stage.common.AmazonS3TestSuite;
+import com.streamsets.pipeline.stage.common.TestUtil;
+import com.streamsets.pipeline.stage.lib.aws.AWSConfig;
+import com.streamsets.pipeline.stage.lib.aws.AWSRegions;
+import com.streamsets.pipeline.stage.lib.aws.ProxyConfig;
+import com.streamsets.pipeline.stage.origin.lib.BasicConfig;
+import com.streamsets.pipeline.stage.origin.lib.DataParserFormatConfig;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestAmazonS3PushSource extends AmazonS3TestSuite {
+
+  private static final String BUCKET_NAME = "push-bucket";
+  private static final String ERROR_BUCKET = "push-error-bucket";
+  private static final String POSTPROCESS_BUCKET = "push-post-process-bucket";
+  private static final int OBJECTS = 20;
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+    setupS3();
+    populateFakes3();
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+    teardownS3();
+  }
+
+  private static void populateFakes3() throws Exception {
+    BasicAWSCredentials credentials = new BasicAWSCredentials("foo", "bar");
+    AmazonS3 s3client = AmazonS3ClientBuilder
+        .standard()
+        .withCredentials(new AWSStaticCredentialsProvider(credentials))
+        .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration("http://localhost:" + port, null))
+        .withPathStyleAccessEnabled(true)
+        .withChunkedEncodingDisabled(true)
+        .build();
+
+    TestUtil.createBucket(s3client, BUCKET_NAME);
+    TestUtil.createBucket(s3client, ERROR_BUCKET);
+    TestUtil.createBucket(s3client, POSTPROCESS_BUCKET);
+
+    for (int i = 0; i < OBJECTS; i++) {
+      // 3 records per object, keys and timestamps ascend together
+      InputStream in = new ByteArrayInputStream(String.format("a%1$02d\nb%1$02d\nc%1$02d\n", i).getBytes());
+      s3client.putObject(new PutObjectRequest(BUCKET_NAME, String.format("file%02d.log", i), in, new ObjectMetadata()));
+    }
+  }
+
+  @Test
+  public void testProduceAllObjects() throws Exception {
+    testProduceAllObjects(ObjectOrdering.TIMESTAMP, 0);
+    testProduceAllObjects(ObjectOrdering.LEXICOGRAPHICAL, 0);
+  }
+
+  @Test
+  public void testProduceAllObjectsWithPrefetch() throws Exception {
+    testProduceAllObjects(ObjectOrdering.TIMESTAMP, 1);
+    testProduceAllObjects(ObjectOrdering.LEXICOGRAPHICAL, 256);
+  }
+
+  private void testProduceAllObjects(ObjectOrdering ordering, int prefetchSizeKB) throws Exception {
+    AmazonS3PushSource source = createSource(ordering, 3, prefetchSizeKB);
+    PushSourceRunner runner = new PushSourceRunner.Builder(AmazonS3DPushSource.class, source)
+        .addOutputLane("lane")
+        .build();
+    List<Record> records = Collections.synchronizedList(new ArrayList<>());
+    runner.runInit();
+    try {
+      runner.runProduce(new HashMap<>(), 2, output -> {
+        records.addAll(output.getRecords().get("lane"));
+        if (records.size() >= OBJECTS * 3) {
+          runner.setStop();
+        }
+      });
+      runner.waitOnProduce();
+
+      Assert.assertEquals(OBJECTS * 3, records.size());
+      Set<String> lines = new HashSet<>();
+      for (Record record : records) {
+        lines.add(record.get("/text").getValueAsString());
+      }
+      Assert.assertEquals(OBJECTS * 3, lines.size());
+
+      Map<String, String> offsets = runner.getOffsets();
+      AmazonS3Source.S3Offset watermark =
+          AmazonS3Source.S3Offset.fromString(offsets.get(S3ObjectListing.WATERMARK_OFFSET_KEY));
+      Assert.assertEquals(String.format("file%02d.log", OBJECTS - 1), watermark.getKey());
+      Assert.assertEquals(S3Constants.MINUS_ONE, watermark.getOffset());
+    } finally {
+      runner.runDestroy();
+    }
+
+    // restarting from the committed offsets produces nothing
+    source = createSource(ordering, 3, prefetchSizeKB);
+    PushSourceRunner restartRunner = new PushSourceRunner.Builder(AmazonS3DPushSource.class, source)
+        .addOutputLane("lane")
+        .build();
+    Map<String, String> lastOffsets = new HashMap<>(runner.getOffsets());
+    AtomicInteger batches = new AtomicInteger();
+    records.clear();
+    restartRunner.runInit();
+    try {
+      restartRunner.runProduce(lastOffsets, 2, output -> {
+        records.addAll(output.getRecords().get("lane"));
+        if (batches.incrementAndGet() >= 3) {
+          restartRunner.setStop();
+        }
+      });
+      restartRunner.waitOnProduce();
+      Assert.assertEquals(0, records.size());
+    } finally {
+      restartRunner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testResumeObject() throws Exception {
+    AmazonS3PushSource source = createSource(ObjectOrdering.LEXICOGRAPHICAL, 1, 0);
+    PushSourceRunner runner = new PushSourceRunner.Builder(AmazonS3DPushSource.class, source)
+        .addOutputLane("lane")
+        .build();
+    List<Record> records = Collections.synchronizedList(new ArrayList<>());
+    runner.runInit();
+    try {
+      runner.runProduce(new HashMap<>(), 2, output -> {
+        records.addAll(output.getRecords().get("lane"));
+        runner.setStop();
+      });
+      runner.waitOnProduce();
+    } finally {
+      runner.runDestroy();
+    }
+    Assert.assertEquals(2, records.size());
+    Assert.assertEquals("a00", records.get(0).get("/text").getValueAsString());
+    Assert.assertEquals("b00", records.get(1).get("/text").getValueAsString());
+
+    // the restarted origin continues with the same object from its committed offset
+    source = createSource(ObjectOrdering.LEXICOGRAPHICAL, 1, 0);
+    PushSourceRunner restartRunner = new PushSourceRunner.Builder(AmazonS3DPushSource.class, source)
+        .addOutputLane("lane")
+        .build();
+    Map<String, String> lastOffsets = new HashMap<>(runner.getOffsets());
+    records.clear();
+    restartRunner.runInit();
+    try {
+      restartRunner.runProduce(lastOffsets, 2, output -> {
+        records.addAll(output.getRecords().get("lane"));
+        restartRunner.setStop();
+      });
+      restartRunner.waitOnProduce();
+    } finally {
+      restartRunner.runDestroy();
+    }
+    Assert.assertEquals(1, records.size());
+    Assert.assertEquals("c00", records.get(0).get("/text").getValueAsString());
+  }
+
+  @Test
+  public void testWholeFileNotSupported() throws Exception {
+    S3ConfigBean s3ConfigBean = createConfigBean(ObjectOrdering.TIMESTAMP);
+    s3ConfigBean.dataFormat = DataFormat.WHOLE_FILE;
+    AmazonS3PushSource source = new AmazonS3PushSource(s3ConfigBean, 1, 0);
+    PushSourceRunner runner = new PushSourceRunner.Builder(AmazonS3DPushSource.class, source)
+        .addOutputLane("lane")
+        .build();
+    List<Stage.ConfigIssue> issues = runner.runValidateConfigs();
+    boolean found = false;
+    for (Stage.ConfigIssue issue : issues) {
+      found |= issue.toString().contains(Errors.S3_SPOOLDIR_08.getCode());
+    }
+    Assert.assertTrue(found);
+  }
+
+  private AmazonS3PushSource createSource(ObjectOrdering ordering, int numberOfThreads, int prefetchSizeKB) {
+    return new AmazonS3PushSource(createConfigBean(ordering), numberOfThreads, prefetchSizeKB);
+  }
+
+  private S3ConfigBean createConfigBean(ObjectOrdering ordering) {
+    S3ConfigBean s3ConfigBean = new S3ConfigBean();
+    s3ConfigBean.basicConfig = new BasicConfig();
+    s3ConfigBean.basicConfig.maxWaitTime = 100;
+    s3ConfigBean.basicConfig.maxBatchSize = 1000;
+
+    s3ConfigBean.sseConfig = new S3SSEConfigBean();
+    s3ConfigBean.sseConfig.useCustomerSSEKey = false;
+
+    s3ConfigBean.dataFormatConfig = new DataParserFormatConfig();
+    s3ConfigBean.dataFormat = DataFormat.TEXT;
+    s3ConfigBean.dataFormatConfig.charset = "UTF-8";
+    s3ConfigBean.dataFormatConfig.textMaxLineLen = 1024;
+
+    s3ConfigBean.errorConfig = new S3ErrorConfig();
+    s3ConfigBean.errorConfig.errorHandlingOption = PostProcessingOptions.NONE;
+    s3ConfigBean.errorConfig.errorPrefix = "error-prefix";
+    s3ConfigBean.errorConfig.errorBucket = ERROR_BUCKET;
+
+    s3ConfigBean.postProcessingConfig = new S3PostProcessingConfig();
+    s3ConfigBean.postProcessingConfig.archivingOption = S3ArchivingOption.MOVE_TO_BUCKET;
+    s3ConfigBean.postProcessingConfig.postProcessing = PostProcessingOptions.NONE;
+    s3ConfigBean.postProcessingConfig.postProcessBucket = POSTPROCESS_BUCKET;
+    s3ConfigBean.postProcessingConfig.postProcessPrefix = "post-process-prefix";
+
+    s3ConfigBean.s3FileConfig = new S3FileConfig();
+    s3ConfigBean.s3FileConfig.overrunLimit = 65;
+    s3ConfigBean.s3FileConfig.prefixPattern = "*.log";
+    s3ConfigBean.s3FileConfig.objectOrdering = ordering;
+    s3ConfigBean.s3FileConfig.poolSize = 5;
+
+    s3ConfigBean.s3Config = new S3ConnectionSourceConfig();
+    s3ConfigBean.s3Config.region = AWSRegions.OTHER;
+    s3ConfigBean.s3Config.endpoint = "http://localhost:" + port;
+    s3ConfigBean.s3Config.bucket = BUCKET_NAME;
+    s3ConfigBean.s3Config.awsConfig = new AWSConfig();
+    s3ConfigBean.s3Config.awsConfig.awsAccessKeyId = () -> "foo";
+    s3ConfigBean.s3Config.awsConfig.awsSecretAccessKey = () -> "bar";
+    s3ConfigBean.s3Config.awsConfig.disableChunkedEncoding = true;
+    s3ConfigBean.s3Config.commonPrefix = "";
+    s3ConfigBean.s3Config.delimiter = "/";
+    s3ConfigBean.proxyConfig = new ProxyConfig();
+    return s3ConfigBean;
+  }
+}
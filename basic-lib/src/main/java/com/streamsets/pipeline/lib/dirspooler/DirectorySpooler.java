@@ -28,6 +28,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
@@ -39,6 +40,10 @@ import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
@@ -46,6 +51,8 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -72,6 +79,9 @@ public class DirectorySpooler {
   private final Comparator<Path> pathComparator;
   private final boolean processSubdirectories;
   private final long spoolingPeriodSec;
+  private final boolean useWatchService;
+  // max(mtime, ctime) of the queued files, so the queue ordering does not stat the files on every comparison
+  private final Map<Path, Long> timestamps = new ConcurrentHashMap<>();
   private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
 
   public enum FilePostProcessing {NONE, DELETE, ARCHIVE}
@@ -94,6 +104,7 @@ public class DirectorySpooler {
     private boolean useLastModifiedTimestamp;
     private boolean processSubdirectories;
     private long spoolingPeriodSec = 5;
+    private boolean useWatchService;
 
     private Builder() {
       postProcessing = FilePostProcessing.NONE;
@@ -178,6 +189,11 @@ public class DirectorySpooler {
       return this;
     }
 
+    public Builder setUseWatchService(boolean useWatchService) {
+      this.useWatchService = useWatchService;
+      return this;
+    }
+
     public DirectorySpooler build() {
       Preconditions.checkArgument(context != null, "context not specified");
       Preconditions.checkArgument(spoolDir != null, "spool dir not specified");
@@ -199,7 +215,8 @@ public class DirectorySpooler {
           waitForPathAppearance,
           useLastModifiedTimestamp,
           processSubdirectories,
-          spoolingPeriodSec
+          spoolingPeriodSec,
+          useWatchService
       );
     }
   }
@@ -229,7 +246,8 @@ public class DirectorySpooler {
         true,
         false,
         processSubdirectories,
-        5
+        5,
+        false
     );
   }
 
@@ -246,7 +264,8 @@ public class DirectorySpooler {
       boolean waitForPathAppearance,
       final boolean useLastModified,
       boolean processSubdirectories,
-      long spoolingPeriodSec
+      long spoolingPeriodSec,
+      boolean useWatchService
   ) {
     this.context = context;
     this.spoolDir = spoolDir;
@@ -261,6 +280,7 @@ public class DirectorySpooler {
     this.useLastModified = useLastModified;
     this.processSubdirectories = processSubdirectories;
     this.spoolingPeriodSec = spoolingPeriodSec;
+    this.useWatchService = useWatchService;
 
     pathComparator = new Comparator<Path>() {
       @Override
@@ -272,19 +292,17 @@ public class DirectorySpooler {
               return 1;
             }
 
-            if (!Files.exists(file1)) {
-              return 1;
+            Long time1 = timestamps.get(file1);
+            if (time1 == null) {
+              if (!Files.exists(file1)) {
+                return 1;
+              }
+              time1 = getTimestamp(file1);
+            }
+            Long time2 = timestamps.get(file2);
+            if (time2 == null) {
+              time2 = getTimestamp(file2);
             }
-
-            FileTime mtime1 = Files.getLastModifiedTime(file1);
-            FileTime mtime2 = Files.getLastModifiedTime(file2);
-            // SDC-8566: if last modified timestamp is less, compare the creation timestamp
-            // for example, mv command will update the creation timestamp only not last modified timestamp
-            FileTime ctime1 = (FileTime) Files.getAttribute(file1, "unix:ctime");
-            FileTime ctime2 = (FileTime) Files.getAttribute(file2, "unix:ctime");
-
-            long time1 = Math.max(mtime1.toMillis(), ctime1.toMillis());
-            long time2 = Math.max(mtime2.toMillis(), ctime2.toMillis());
 
             int compares = Long.compare(time1, time2);
 
@@ -305,6 +323,14 @@ public class DirectorySpooler {
     };
   }
 
+  // SDC-8566: if last modified timestamp is less, compare the creation timestamp
+  // for example, mv command will update the creation timestamp only not last modified timestamp
+  private static long getTimestamp(Path file) throws IOException {
+    FileTime mtime = Files.getLastModifiedTime(file);
+    FileTime ctime = (FileTime) Files.getAttribute(file, "unix:ctime");
+    return Math.max(mtime.toMillis(), ctime.toMillis());
+  }
+
   private volatile Path currentFile;
 
   private Path spoolDirPath;
@@ -314,6 +340,7 @@ public class DirectorySpooler {
   private PriorityBlockingQueue<Path> filesQueue;
   private Path previousFile;
   private ScheduledExecutorService scheduledExecutor;
+  private volatile WatchService watchService;
   private boolean waitForPathAppearance;
 
   private Meter spoolQueueMeter;
@@ -323,6 +350,7 @@ public class DirectorySpooler {
 
   volatile FilePurger purger;
   volatile FileFinder finder;
+  volatile FileWatcher watcher;
 
   private void checkBaseDir(Path path) {
     Preconditions.checkState(path.isAbsolute(), Utils.formatL("Path '{}' is not an absolute path", path));
@@ -413,13 +441,28 @@ public class DirectorySpooler {
       handleOlderFiles(currentFile);
     }
 
-    scheduledExecutor = new SafeScheduledExecutorService(1, "directory-spooler");
+    // the file watcher blocks one thread for as long as the spooler runs
+    scheduledExecutor = new SafeScheduledExecutorService(useWatchService ? 2 : 1, "directory-spooler");
+
+    if (useWatchService) {
+      // registered before the initial scan so files landing while scanning are not missed
+      watchService = spoolDirPath.getFileSystem().newWatchService();
+      watcher = new FileWatcher();
+      // events are queued by the watch service until the watcher is started
+      watcher.register(listDirectories(currentFile));
+    }
 
     findAndQueueFiles(currentFile, true, false);
 
     finder = new FileFinder();
+    // with a file watcher, the periodic scan only reconciles events that were lost (overflows, unsupported
+    // file systems)
     scheduledExecutor.scheduleAtFixedRate(finder, spoolingPeriodSec, spoolingPeriodSec, TimeUnit.SECONDS);
 
+    if (watcher != null) {
+      scheduledExecutor.submit(watcher);
+    }
+
     if (postProcessing == FilePostProcessing.ARCHIVE && archiveRetentionMillis > 0) {
       // create and schedule file purger only if the retention time is > 0
       purger = new FilePurger();
@@ -429,6 +472,14 @@ public class DirectorySpooler {
 
   public void destroy() {
     running = false;
+    try {
+      if (watchService != null) {
+        watchService.close();
+        watchService = null;
+      }
+    } catch (IOException ex) {
+      LOG.warn("Error while closing the watch service, {}", ex.toString(), ex);
+    }
     try {
       if (scheduledExecutor != null) {
         scheduledExecutor.shutdownNow();
@@ -520,6 +571,7 @@ public class DirectorySpooler {
       }
     }
     if (!filesQueue.contains(file)) {
+      cacheTimestamp(file);
       filesQueue.add(file);
       spoolQueueMeter.mark(filesQueue.size());
     } else {
@@ -527,6 +579,17 @@ public class DirectorySpooler {
     }
   }
 
+  private void cacheTimestamp(Path file) {
+    if (useLastModified) {
+      try {
+        timestamps.put(file, getTimestamp(file));
+      } catch (IOException ex) {
+        // the comparator looks it up again and deals with the missing file
+        LOG.debug("Could not read timestamp of file '{}': {}", file, ex.toString());
+      }
+    }
+  }
+
   private boolean canPoolFiles() {
     if(waitForPathAppearance) {
       try {
@@ -566,6 +629,7 @@ public class DirectorySpooler {
       if (next != null) {
         currentFile = next;
         previousFile = next;
+        timestamps.remove(next);
       }
       closeLock.readLock().unlock();
     }
@@ -635,48 +699,11 @@ public class DirectorySpooler {
     DirectoryStream.Filter<Path> filter = new DirectoryStream.Filter<Path>() {
       @Override
       public boolean accept(Path entry) throws IOException {
-        boolean accept = false;
-        // SDC-3551: Pick up only files with mtime strictly less than scan time.
-        if (entry != null && fileMatcher.matches(entry.getFileName()) && Files.getLastModifiedTime(entry).toMillis() < scanTime) {
-          if (startingFile == null || startingFile.toString().isEmpty()) {
-            accept = true;
-          } else {
-            try {
-              int compares = compare(entry, startingFile);
-              accept = (compares == 0 && includeStartingFile) || (compares > 0);
-            } catch (NoSuchFileException ex) {
-              // This happens only if timestamp is used, when the mtime is looked up for the startingFile
-              // which has been archived, so this file must be newer since it is still in the directory
-              // (if it was older it would have been consumed and archived earlier)
-              return true;
-            }
-          }
-        }
-        return accept;
+        return DirectorySpooler.this.accept(entry, startingFile, includeStartingFile, scanTime);
       }
     };
 
-
-    final List<Path> directories = new ArrayList<>();
-
-    if (processSubdirectories && useLastModified) {
-      EnumSet<FileVisitOption> opts = EnumSet.noneOf(FileVisitOption.class);
-      try {
-        Files.walkFileTree(spoolDirPath, opts, Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
-          @Override
-          public FileVisitResult preVisitDirectory(
-              Path dirPath, BasicFileAttributes attributes
-          ) throws IOException {
-            directories.add(dirPath);
-            return FileVisitResult.CONTINUE;
-          }
-        });
-      } catch (Exception ex) {
-        throw new IOException("findAndQueueFiles(): walkFileTree error. startingFile " + startingFile + ex.getMessage(), ex);
-      }
-    } else {
-      directories.add(spoolDirPath);
-    }
+    final List<Path> directories = listDirectories(startingFile);
 
     closeLock.writeLock().lock();
     try {
@@ -706,6 +733,52 @@ public class DirectorySpooler {
     return directories;
   }
 
+  private boolean accept(Path entry, Path startingFile, boolean includeStartingFile, long scanTime)
+      throws IOException {
+    boolean accept = false;
+    // SDC-3551: Pick up only files with mtime strictly less than scan time.
+    if (entry != null && fileMatcher.matches(entry.getFileName()) && Files.getLastModifiedTime(entry).toMillis() < scanTime) {
+      if (startingFile == null || startingFile.toString().isEmpty()) {
+        accept = true;
+      } else {
+        try {
+          int compares = compare(entry, startingFile);
+          accept = (compares == 0 && includeStartingFile) || (compares > 0);
+        } catch (NoSuchFileException ex) {
+          // This happens only if timestamp is used, when the mtime is looked up for the startingFile
+          // which has been archived, so this file must be newer since it is still in the directory
+          // (if it was older it would have been consumed and archived earlier)
+          return true;
+        }
+      }
+    }
+    return accept;
+  }
+
+  private List<Path> listDirectories(Path startingFile) throws IOException {
+    final List<Path> directories = new ArrayList<>();
+
+    if (processSubdirectories && useLastModified) {
+      EnumSet<FileVisitOption> opts = EnumSet.noneOf(FileVisitOption.class);
+      try {
+        Files.walkFileTree(spoolDirPath, opts, Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult preVisitDirectory(
+              Path dirPath, BasicFileAttributes attributes
+          ) throws IOException {
+            directories.add(dirPath);
+            return FileVisitResult.CONTINUE;
+          }
+        });
+      } catch (Exception ex) {
+        throw new IOException("findAndQueueFiles(): walkFileTree error. startingFile " + startingFile + ex.getMessage(), ex);
+      }
+    } else {
+      directories.add(spoolDirPath);
+    }
+    return directories;
+  }
+
   void handleOlderFiles(final Path startingFile) throws IOException {
     if (postProcessing != FilePostProcessing.NONE) {
       final ArrayList<Path> toProcess = new ArrayList<>();
@@ -787,6 +860,90 @@ public class DirectorySpooler {
     }
   }
 
+  /**
+   * Queues the files as the spool directory reports them, so they don't wait for the next directory scan. Files
+   * go through the same checks the scan does, events that are lost (overflows) are left to the {@link FileFinder}.
+   */
+  class FileWatcher implements Runnable {
+
+    void register(List<Path> directories) throws IOException {
+      for (Path dir : directories) {
+        LOG.debug("Watching directory '{}'", dir);
+        dir.register(
+            watchService,
+            StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY,
+            StandardWatchEventKinds.ENTRY_DELETE
+        );
+      }
+    }
+
+    @Override
+    public void run() {
+      LOG.debug("Starting file watcher on '{}'", spoolDirPath);
+      WatchService service = watchService;
+      if (service == null) {
+        return;
+      }
+      try {
+        while (running) {
+          WatchKey key = service.take();
+          Path dir = (Path) key.watchable();
+          boolean rescan = false;
+          for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+              rescan = true;
+            } else {
+              rescan |= handle(event.kind(), dir.resolve((Path) event.context()));
+            }
+          }
+          key.reset();
+          if (rescan) {
+            finder.run();
+          }
+        }
+      } catch (ClosedWatchServiceException | InterruptedException ex) {
+        LOG.debug("File watcher on '{}' stopped", spoolDirPath);
+      }
+    }
+
+    // returns if the directory has to be scanned
+    private boolean handle(WatchEvent.Kind<?> kind, Path file) {
+      closeLock.writeLock().lock();
+      try {
+        if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+          filesQueue.remove(file);
+          timestamps.remove(file);
+        } else if (Files.isDirectory(file)) {
+          if (processSubdirectories && useLastModified) {
+            // files may have landed before the watch on the new directory was in place
+            register(Arrays.asList(file));
+            return true;
+          }
+        } else if (filesQueue.contains(file)) {
+          if (useLastModified) {
+            // the new timestamp may move the file within the queue
+            filesQueue.remove(file);
+            addFileToQueue(file, false);
+          }
+        } else if (filesQueue.size() < maxSpoolFiles && accept(file, currentFile, false, System.currentTimeMillis())) {
+          LOG.trace("Found file '{}'", file);
+          addFileToQueue(file, true);
+          pendingFilesCounter.inc(filesQueue.size() - pendingFilesCounter.getCount());
+        }
+      } catch (NoSuchFileException ex) {
+        // gone already, the delete event takes care of it
+        timestamps.remove(file);
+      } catch (IOException | RuntimeException ex) {
+        LOG.warn("Error while handling event '{}' for file '{}': {}", kind, file, ex.toString(), ex);
+        return true;
+      } finally {
+        closeLock.writeLock().unlock();
+      }
+      return false;
+    }
+  }
+
   class FilePurger implements Runnable {
 
     @Override
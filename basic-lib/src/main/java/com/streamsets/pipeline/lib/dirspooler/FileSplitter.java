@@ -0,0 +1,263 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.dirspooler;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.ByteStreams;
+import com.streamsets.pipeline.stage.origin.spooldir.BadSpoolFileException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Divides large line oriented files into byte ranges that several {@link SpoolDirRunnable}s read at the same time.
+ *
+ * Range boundaries are moved forward to the start of the next line, so every range holds whole records. The runner
+ * that got the file from the spooler owns it: it reads ranges like everybody else, and it is the only one committing
+ * the offset of the file. The committed position is the start of the first range that is not done yet, everything
+ * before it has been processed.
+ */
+public class FileSplitter {
+  private static final int BUFFER_SIZE = 8 * 1024;
+
+  private final long splitSize;
+  private final List<SplitFile> files = new CopyOnWriteArrayList<>();
+
+  public FileSplitter(long splitSize) {
+    this.splitSize = splitSize;
+  }
+
+  /**
+   * Splits the file starting from the given position and makes its ranges available to all runners. Returns NULL
+   * if the file is read from the start and is not worth splitting.
+   */
+  SplitFile split(File file, long position) throws IOException {
+    long size = file.length();
+    if (position == 0 && size <= splitSize) {
+      return null;
+    }
+    SplitFile splitFile = new SplitFile(file, getBoundaries(file, position, size));
+    files.add(splitFile);
+    return splitFile;
+  }
+
+  /**
+   * Returns a pending range of any file being read in ranges, NULL if there is none.
+   */
+  Split nextSplit() {
+    for (SplitFile file : files) {
+      Split split = file.next();
+      if (split != null) {
+        return split;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Whether the file is being read in ranges.
+   */
+  boolean isSplit(File file) {
+    for (SplitFile splitFile : files) {
+      if (splitFile.getFile().equals(file)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  void remove(SplitFile file) {
+    files.remove(file);
+  }
+
+  @VisibleForTesting
+  List<Long> getBoundaries(File file, long position, long size) throws IOException {
+    List<Long> boundaries = new ArrayList<>();
+    boundaries.add(position);
+    byte[] buffer = new byte[BUFFER_SIZE];
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      long boundary = position + splitSize;
+      while (boundary < size) {
+        // a range starts right after the new line that ends the last record of the previous range
+        raf.seek(boundary - 1);
+        long lineStart = -1;
+        long read;
+        while (lineStart < 0 && (read = raf.read(buffer)) > 0) {
+          for (int i = 0; i < read; i++) {
+            if (buffer[i] == '\n') {
+              lineStart = raf.getFilePointer() - read + i + 1;
+              break;
+            }
+          }
+        }
+        if (lineStart < 0 || lineStart >= size) {
+          break;
+        }
+        boundaries.add(lineStart);
+        boundary = lineStart + splitSize;
+      }
+    }
+    boundaries.add(size);
+    return boundaries;
+  }
+
+  /**
+   * A file being read in ranges.
+   */
+  static class SplitFile {
+    private final File file;
+    private final List<Split> splits;
+    private final Deque<Split> pending;
+    private final BitSet done;
+    private int inFlight;
+    private BadSpoolFileException failure;
+    private long recordCount;
+    private long errorCount;
+
+    SplitFile(File file, List<Long> boundaries) {
+      this.file = file;
+      splits = new ArrayList<>(boundaries.size() - 1);
+      for (int i = 0; i < boundaries.size() - 1; i++) {
+        splits.add(new Split(this, i, boundaries.get(i), boundaries.get(i + 1)));
+      }
+      pending = new ArrayDeque<>(splits);
+      done = new BitSet(splits.size());
+    }
+
+    File getFile() {
+      return file;
+    }
+
+    int getSplitCount() {
+      return splits.size();
+    }
+
+    synchronized Split next() {
+      Split split = (failure == null) ? pending.poll() : null;
+      if (split != null) {
+        inFlight++;
+      }
+      return split;
+    }
+
+    /**
+     * Called once the last batch of the range has been processed.
+     */
+    synchronized void finished(Split split) {
+      done.set(split.index);
+      inFlight--;
+      notifyAll();
+    }
+
+    synchronized void fail(BadSpoolFileException ex) {
+      if (failure == null) {
+        failure = ex;
+      }
+      pending.clear();
+    }
+
+    synchronized BadSpoolFileException getFailure() {
+      return failure;
+    }
+
+    synchronized boolean isFailed() {
+      return failure != null;
+    }
+
+    /**
+     * All ranges have been read (or dropped because of a failure) and their batches processed.
+     */
+    synchronized boolean isDone() {
+      return pending.isEmpty() && inFlight == 0;
+    }
+
+    /**
+     * Position everything before has been processed.
+     */
+    synchronized long getPosition() {
+      int first = done.nextClearBit(0);
+      return (first < splits.size()) ? splits.get(first).start : splits.get(splits.size() - 1).end;
+    }
+
+    synchronized void addCounts(long records, long errors) {
+      recordCount += records;
+      errorCount += errors;
+    }
+
+    synchronized long getRecordCount() {
+      return recordCount;
+    }
+
+    synchronized long getErrorCount() {
+      return errorCount;
+    }
+
+    synchronized void await(long millis) throws InterruptedException {
+      if (!isDone()) {
+        wait(millis);
+      }
+    }
+  }
+
+  /**
+   * A range of a file, [start, end) in bytes. Read by one runner at a time.
+   */
+  static class Split {
+    private final SplitFile file;
+    private final int index;
+    private final long start;
+    private final long end;
+
+    Split(SplitFile file, int index, long start, long end) {
+      this.file = file;
+      this.index = index;
+      this.start = start;
+      this.end = end;
+    }
+
+    SplitFile getSplitFile() {
+      return file;
+    }
+
+    long getStart() {
+      return start;
+    }
+
+    long getEnd() {
+      return end;
+    }
+
+    InputStream open() throws IOException {
+      FileInputStream in = new FileInputStream(file.getFile());
+      try {
+        in.getChannel().position(start);
+      } catch (IOException ex) {
+        in.close();
+        throw ex;
+      }
+      return ByteStreams.limit(in, end - start);
+    }
+  }
+}
@@ -34,6 +34,8 @@ import com.streamsets.pipeline.api.lineage.EndPointType;
 import com.streamsets.pipeline.api.lineage.LineageEvent;
 import com.streamsets.pipeline.api.lineage.LineageEventType;
 import com.streamsets.pipeline.api.lineage.LineageSpecificAttribute;
+import com.streamsets.pipeline.config.Compression;
+import com.streamsets.pipeline.lib.io.MappedFileReader;
 import com.streamsets.pipeline.lib.io.fileref.FileRefUtil;
 import com.streamsets.pipeline.lib.io.fileref.LocalFileRef;
 import com.streamsets.pipeline.lib.parser.DataParser;
@@ -80,6 +82,7 @@ public class SpoolDirRunnable implements Runnable {
   private static final String MINUS_ONE = "-1";
   private static final String ZERO = "0";
   private static final String BASE_DIR = "baseDir";
+  private static final String SPLIT_START = "splitStart";
 
   public static final String FILE_SEPARATOR = System.getProperty("file.separator");
 
@@ -91,6 +94,7 @@ public class SpoolDirRunnable implements Runnable {
   private final DirectorySpooler spooler;
   private final Map<String, Object> gaugeMap;
   private final boolean useLastModified;
+  private final FileSplitter fileSplitter;
 
   private DataParser parser;
   private SpoolDirConfigBean conf;
@@ -112,6 +116,12 @@ public class SpoolDirRunnable implements Runnable {
 
   private File currentFile;
 
+  // file this runner got from the spooler and is reading in ranges together with the other runners
+  private FileSplitter.SplitFile splitFile;
+  // range being read, either of the own split file or of a split file of another runner
+  private FileSplitter.Split currentSplit;
+  private String splitOffset = ZERO;
+
   public SpoolDirRunnable(
       PushSource.Context context,
       int threadNumber,
@@ -119,7 +129,8 @@ public class SpoolDirRunnable implements Runnable {
       Map<String, Offset> offsets,
       String lastSourcFileName,
       DirectorySpooler spooler,
-      SpoolDirConfigBean conf
+      SpoolDirConfigBean conf,
+      FileSplitter fileSplitter
   ) {
     this.context = context;
     this.threadNumber = threadNumber;
@@ -128,6 +139,7 @@ public class SpoolDirRunnable implements Runnable {
     this.lastSourceFileName = lastSourcFileName;
     this.spooler = spooler;
     this.conf = conf;
+    this.fileSplitter = fileSplitter;
     this.parserFactory = conf.dataFormatConfig.getParserFactory();
     this.shouldSendNoMoreDataEvent = false;
     this.rateLimitElEval = FileRefUtil.createElEvalForRateLimit(context);
@@ -167,7 +179,15 @@ public class SpoolDirRunnable implements Runnable {
     // if lastSourceOffset is NULL (beginning of source) it returns 0
     String offset = lastSourceOffset.getOffset();
 
-    if (hasToFetchNextFileFromSpooler(fullPath, offset)) {
+    if (splitFile == null && hasToFetchNextFileFromSpooler(fullPath, offset)) {
+      if (fileSplitter != null && currentSplit == null) {
+        currentSplit = fileSplitter.nextSplit();
+      }
+      if (currentSplit != null) {
+        // help reading a file another runner is reading in ranges before looking for a new file
+        return produceSplit(lastSourceOffset, batchContext);
+      }
+
       updateGauge(Status.SPOOLING, null);
       currentFile = null;
       try {
@@ -229,6 +249,10 @@ public class SpoolDirRunnable implements Runnable {
           SpoolDirEvents.NEW_FILE.create(context, batchContext).with("filepath", currentFile.getAbsolutePath()).createAndSend();
           noMoreDataFileCount++;
           totalFiles++;
+
+          if (fileSplitter != null) {
+            splitFile = split(file, offset);
+          }
         }
 
       } catch (InterruptedException ex) {
@@ -243,8 +267,12 @@ public class SpoolDirRunnable implements Runnable {
       try {
         updateGauge(Status.READING, offset);
 
-        // we ask for a batch from the currentFile starting at offset
-        offset = generateBatch(currentFile, offset, batchSize, batchContext.getBatchMaker());
+        if (splitFile != null) {
+          offset = generateSplitBatch(batchContext);
+        } else {
+          // we ask for a batch from the currentFile starting at offset
+          offset = generateBatch(currentFile, offset, batchSize, batchContext.getBatchMaker());
+        }
 
         if (MINUS_ONE.equals(offset)) {
           SpoolDirEvents.FINISHED_FILE.create(context, batchContext)
@@ -293,15 +321,33 @@ public class SpoolDirRunnable implements Runnable {
       noMoreDataFileCount = 0;
     }
 
+    if (fileSplitter != null && currentFile == null) {
+      // without a file of its own the runner leaves the offsets alone, the file it got them from may be read in
+      // ranges by another runner
+      context.processBatch(batchContext);
+      updateGauge(Status.BATCH_GENERATED, offset);
+      return lastSourceOffset;
+    }
+
     Offset newOffset = new Offset(Offset.VERSION_ONE, file, offset);
+    if (splitFile != null && !MINUS_ONE.equals(offset)) {
+      newOffset.setSplitPosition(splitFile.getPosition());
+    }
 
-    if (lastSourceFile != null) {
+    if (lastSourceFile != null
+        && (fileSplitter == null || !fileSplitter.isSplit(new File(spooler.getSpoolDir(), lastSourceFile)))) {
       context.commitOffset(lastSourceFile, null);
     }
 
     // Process And Commit offsets
     context.processBatch(batchContext, newOffset.getFile(), newOffset.getOffsetString());
 
+    finishSplitBatch();
+    if (splitFile != null && MINUS_ONE.equals(offset)) {
+      fileSplitter.remove(splitFile);
+      splitFile = null;
+    }
+
     // if this is the end of the file, do post processing
     if (currentFile != null && newOffset.getOffset().equals(MINUS_ONE)) {
       spooler.doPostProcessing(Paths.get(spooler.getSpoolDir() + FILE_SEPARATOR + newOffset.getFile()));
@@ -312,6 +358,102 @@ public class SpoolDirRunnable implements Runnable {
     return newOffset;
   }
 
+  /**
+   * Produces a batch from a range of a file owned by another runner. The offset of the file is committed by its
+   * owner, this runner's offset does not change.
+   */
+  private Offset produceSplit(Offset lastSourceOffset, BatchContext batchContext) throws StageException {
+    updateGauge(Status.READING, splitOffset);
+    readSplit(batchContext);
+    context.processBatch(batchContext);
+    finishSplitBatch();
+    updateGauge(Status.BATCH_GENERATED, splitOffset);
+    return lastSourceOffset;
+  }
+
+  /**
+   * Produces a batch from the next range of the file this runner owns. Returns -1 once all the ranges of the file
+   * have been processed, 0 otherwise.
+   */
+  private String generateSplitBatch(BatchContext batchContext) throws StageException, BadSpoolFileException {
+    if (currentSplit == null) {
+      currentSplit = splitFile.next();
+    }
+    if (currentSplit != null) {
+      readSplit(batchContext);
+    } else if (!splitFile.isDone()) {
+      // the other runners are still reading ranges of the file, an empty batch commits their progress
+      try {
+        splitFile.await(TimeUnit.SECONDS.toMillis(conf.poolingTimeoutSecs));
+      } catch (InterruptedException ex) {
+        LOG.warn("Waiting for ranges of file '{}' interrupted", currentFile);
+      }
+    }
+    if (!splitFile.isDone()) {
+      return ZERO;
+    }
+    perFileRecordCount = splitFile.getRecordCount();
+    perFileErrorCount = splitFile.getErrorCount();
+    if (splitFile.isFailed()) {
+      throw splitFile.getFailure();
+    }
+    return MINUS_ONE;
+  }
+
+  private void readSplit(BatchContext batchContext) throws StageException {
+    FileSplitter.SplitFile file = currentSplit.getSplitFile();
+    perFileRecordCount = 0;
+    perFileErrorCount = 0;
+    if (file.isFailed()) {
+      // reading another range of the file failed, the rest of this one is not needed
+      IOUtils.closeQuietly(parser);
+      parser = null;
+      splitOffset = MINUS_ONE;
+    } else {
+      try {
+        splitOffset = generateBatch(file.getFile(), splitOffset, batchSize, batchContext.getBatchMaker());
+      } catch (BadSpoolFileException ex) {
+        // reported by the runner owning the file once all its ranges are done
+        file.fail(ex);
+        splitOffset = MINUS_ONE;
+      }
+    }
+    file.addCounts(perFileRecordCount, perFileErrorCount);
+  }
+
+  // a range is done only once its last batch has been processed
+  private void finishSplitBatch() {
+    if (currentSplit != null && MINUS_ONE.equals(splitOffset)) {
+      currentSplit.getSplitFile().finished(currentSplit);
+      currentSplit = null;
+      splitOffset = ZERO;
+    }
+  }
+
+  private FileSplitter.SplitFile split(String file, String offset) {
+    Offset lastOffset = offsets.get(file);
+    Long splitPosition = (lastOffset == null) ? null : lastOffset.getSplitPosition();
+    if (splitPosition == null && !ZERO.equals(offset)) {
+      // partially read by a single runner before, keep it that way
+      return null;
+    }
+    try {
+      FileSplitter.SplitFile split = fileSplitter.split(currentFile, splitPosition == null ? 0 : splitPosition);
+      if (split != null) {
+        LOG.debug("Reading file '{}' in '{}' ranges", currentFile, split.getSplitCount());
+      }
+      return split;
+    } catch (IOException ex) {
+      LOG.warn("Could not split file '{}', reading it with one thread: {}", currentFile, ex.toString(), ex);
+      return null;
+    }
+  }
+
+  // the reader is handed to the parser as is, compressed files must go through the decompressing stream
+  private boolean isMemoryMapped() {
+    return conf.memoryMapFiles && conf.dataFormatConfig.compression == Compression.NONE;
+  }
+
   /**
    * Processes a batch from the specified file and offset up to a maximum batch size. If the file is fully processed
    * it must return -1, otherwise it must return the offset to continue from next invocation.
@@ -337,7 +479,19 @@ public class SpoolDirRunnable implements Runnable {
             parser = parserFactory.getParser(file.getName(), getFileMetadata(file), localFileRef);
             break;
           default:
-            parser = parserFactory.getParser(file.getName(), new FileInputStream(file), offset);
+            if (currentSplit == null && isMemoryMapped()) {
+              parser = parserFactory.getParser(
+                  file.getName(),
+                  new MappedFileReader(file, parserFactory.getSettings().getCharset()),
+                  Long.parseLong(offset)
+              );
+            } else {
+              parser = parserFactory.getParser(
+                  file.getName(),
+                  (currentSplit == null) ? new FileInputStream(file) : currentSplit.open(),
+                  offset
+              );
+            }
         }
       }
 
@@ -501,6 +655,9 @@ public class SpoolDirRunnable implements Runnable {
     record.getHeader().setAttribute(HeaderAttributeConstants.LAST_MODIFIED_TIME, String.valueOf(file.lastModified()));
     record.getHeader().setAttribute(HeaderAttributeConstants.OFFSET, offset == null ? "0" : offset);
     record.getHeader().setAttribute(BASE_DIR, conf.spoolDir);
+    if (currentSplit != null) {
+      record.getHeader().setAttribute(SPLIT_START, String.valueOf(currentSplit.getStart()));
+    }
   }
 
   private enum Status {
@@ -522,9 +679,10 @@ public class SpoolDirRunnable implements Runnable {
 
   private void updateGauge(Status status, String offset) {
     gaugeMap.put(STATUS, status.name());
+    File file = (currentSplit != null) ? currentSplit.getSplitFile().getFile() : currentFile;
     gaugeMap.put(
         CURRENT_FILE,
-        currentFile == null ? "" : currentFile.getName()
+        file == null ? "" : file.getName()
     );
     gaugeMap.put(
         OFFSET,
@@ -29,6 +29,7 @@ public class SpoolDirRunnableBuilder {
   private String lastSourcFileName;
   private DirectorySpooler spooler;
   private SpoolDirConfigBean conf;
+  private FileSplitter fileSplitter;
 
   public SpoolDirRunnableBuilder() {}
 
@@ -67,7 +68,21 @@ public class SpoolDirRunnableBuilder {
     return this;
   }
 
+  public SpoolDirRunnableBuilder fileSplitter(FileSplitter fileSplitter) {
+    this.fileSplitter = fileSplitter;
+    return this;
+  }
+
   public SpoolDirRunnable build() {
-    return new SpoolDirRunnable(context, threadNumber, batchSize, offsets, lastSourcFileName, spooler, conf);
+    return new SpoolDirRunnable(
+        context,
+        threadNumber,
+        batchSize,
+        offsets,
+        lastSourcFileName,
+        spooler,
+        conf,
+        fileSplitter
+    );
   }
 }
@@ -16,6 +16,7 @@
 package com.streamsets.pipeline.stage.destination.http;
 
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.RateLimiter;
 import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.Record;
@@ -25,6 +26,7 @@ import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorException;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.RecordSerializer;
 import com.streamsets.pipeline.lib.http.Errors;
 import com.streamsets.pipeline.lib.http.Groups;
 import com.streamsets.pipeline.lib.http.HttpClientCommon;
@@ -59,6 +61,7 @@ public class HttpClientTarget extends BaseTarget {
   private final HttpClientTargetConfig conf;
   private final HttpClientCommon httpClientCommon;
   private DataGeneratorFactory generatorFactory;
+  private RecordSerializer recordSerializer;
   private ErrorRecordHandler errorRecordHandler;
   private RateLimiter rateLimiter;
 
@@ -152,6 +155,9 @@ public class HttpClientTarget extends BaseTarget {
 
   private void writeOneRequestPerRecord(Batch batch) throws StageException {
     List<Future<Response>> responses = new ArrayList<>();
+    if (recordSerializer == null) {
+      recordSerializer = generatorFactory.createRecordSerializer();
+    }
     Iterator<Record> records = batch.getRecords();
     while (records.hasNext()) {
       Record record = records.next();
@@ -161,15 +167,16 @@ public class HttpClientTarget extends BaseTarget {
       rateLimiter.acquire();
       try {
         if (method == HttpMethod.POST || method == HttpMethod.PUT) {
-          StreamingOutput streamingOutput = outputStream -> {
-            try (DataGenerator dataGenerator = generatorFactory.getGenerator(outputStream)) {
-              dataGenerator.write(record);
-              dataGenerator.flush();
-            } catch (DataGeneratorException e) {
-              throw new IOException(e);
-            }
-          };
-          responses.add(asyncInvoker.method(method.getLabel(), Entity.entity(streamingOutput, contentType)));
+          // serialized here as the serializer is not thread safe, the request is sent by the client threads
+          byte[] entity;
+          try {
+            entity = recordSerializer.serialize(record);
+          } catch (IOException | DataGeneratorException e) {
+            // reported with the responses to keep them in line with the records
+            responses.add(Futures.immediateFailedFuture(new IOException(e)));
+            continue;
+          }
+          responses.add(asyncInvoker.method(method.getLabel(), Entity.entity(entity, contentType)));
         } else {
           responses.add(asyncInvoker.method(method.getLabel()));
         }
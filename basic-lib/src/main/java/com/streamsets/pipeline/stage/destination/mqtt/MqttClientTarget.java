@@ -21,8 +21,8 @@ import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.base.BaseTarget;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
-import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.RecordSerializer;
 import com.streamsets.pipeline.lib.http.Groups;
 import com.streamsets.pipeline.lib.http.HttpClientCommon;
 import com.streamsets.pipeline.lib.mqtt.Errors;
@@ -38,7 +38,6 @@ import org.eclipse.paho.client.mqttv3.MqttMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.util.Iterator;
 import java.util.List;
 
@@ -49,6 +48,7 @@ public class MqttClientTarget extends BaseTarget implements MqttCallback {
   private final MqttClientTargetConfigBean publisherConf;
   private final MqttClientCommon mqttClientCommon;
   private DataGeneratorFactory generatorFactory;
+  private RecordSerializer recordSerializer;
   private ErrorRecordHandler errorRecordHandler;
   private MqttClient mqttClient = null;
 
@@ -90,14 +90,14 @@ public class MqttClientTarget extends BaseTarget implements MqttCallback {
         // if connection is closed try reconnecting
         mqttClient = mqttClientCommon.createMqttClient(this);
       }
+      if (recordSerializer == null) {
+        recordSerializer = generatorFactory.createRecordSerializer();
+      }
       Iterator<Record> records = batch.getRecords();
       while (records.hasNext()) {
         Record record = records.next();
-        ByteArrayOutputStream byteBufferOutputStream = new ByteArrayOutputStream();
-        try (DataGenerator dataGenerator = generatorFactory.getGenerator(byteBufferOutputStream)) {
-          dataGenerator.write(record);
-          dataGenerator.flush();
-          MqttMessage message = new MqttMessage(byteBufferOutputStream.toByteArray());
+        try {
+          MqttMessage message = new MqttMessage(recordSerializer.serialize(record));
           message.setQos(commonConf.qos.getValue());
           message.setRetained(publisherConf.retained);
           mqttClient.publish(publisherConf.topic, message);
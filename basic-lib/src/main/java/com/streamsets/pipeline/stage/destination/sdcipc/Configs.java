@@ -142,6 +142,21 @@ public class Configs {
   )
   public boolean compression;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Max Parallel Requests",
+      description = "Maximum number of requests a batch is split into. The requests are sent in parallel across the " +
+          "healthy SDC RPC connections, records of different requests can arrive in any order. Use 1 to send whole " +
+          "batch in a single request.",
+      displayPosition = 120,
+      group = "ADVANCED",
+      min = 1,
+      max = 100
+  )
+  public int maxParallelRequests = 1;
+
   // This flag indicates that connection validation must apply the retry and backoff.
   boolean retryDuringValidation = false;
 
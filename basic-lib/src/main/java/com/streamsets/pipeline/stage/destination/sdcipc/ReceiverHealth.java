@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.sdcipc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks the receivers (host:port) requests are sent to, round robin over the receivers that are healthy. A receiver
+ * that failed is skipped for a period of time that grows exponentially with its consecutive failures, when all
+ * receivers are failing the one that is going to be retried soonest is used.
+ */
+class ReceiverHealth {
+  static final long BACK_OFF_MS = 1000;
+  static final long MAX_BACK_OFF_MS = 60 * 1000;
+
+  private final List<String> hostPorts;
+  private final Map<String, Integer> failures;
+  private final Map<String, Long> unhealthyUntil;
+  private int next;
+
+  ReceiverHealth(List<String> hostPorts) {
+    this.hostPorts = new ArrayList<>(hostPorts);
+    failures = new HashMap<>();
+    unhealthyUntil = new HashMap<>();
+  }
+
+  synchronized String next() {
+    long now = System.currentTimeMillis();
+    String soonest = null;
+    long soonestUntil = Long.MAX_VALUE;
+    for (int i = 0; i < hostPorts.size(); i++) {
+      int idx = (next + i) % hostPorts.size();
+      String hostPort = hostPorts.get(idx);
+      long until = unhealthyUntil.getOrDefault(hostPort, 0L);
+      if (until <= now) {
+        next = (idx + 1) % hostPorts.size();
+        return hostPort;
+      }
+      if (until < soonestUntil) {
+        soonest = hostPort;
+        soonestUntil = until;
+      }
+    }
+    next = (next + 1) % hostPorts.size();
+    return soonest;
+  }
+
+  synchronized void failed(String hostPort) {
+    int count = failures.merge(hostPort, 1, Integer::sum);
+    unhealthyUntil.put(hostPort, System.currentTimeMillis() + getBackOff(count));
+  }
+
+  synchronized void succeeded(String hostPort) {
+    failures.remove(hostPort);
+    unhealthyUntil.remove(hostPort);
+  }
+
+  synchronized boolean isHealthy(String hostPort) {
+    return unhealthyUntil.getOrDefault(hostPort, 0L) <= System.currentTimeMillis();
+  }
+
+  static long getBackOff(int failures) {
+    return Math.min(MAX_BACK_OFF_MS, BACK_OFF_MS << Math.min(failures - 1, 16));
+  }
+
+}
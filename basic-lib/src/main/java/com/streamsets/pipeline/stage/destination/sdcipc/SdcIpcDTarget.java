@@ -26,7 +26,7 @@ import com.streamsets.pipeline.configurablestage.DTarget;
 @StageDef(
   // We're reusing upgrader for both ToErrorSdcIpcDTarget and SdcIpcDTarget, make sure that you
   // upgrade both versions at the same time when changing.
-    version = 2,
+    version = 3,
     label = "SDC RPC",
     description = "Sends records via SDC RPC to a Data Collector pipeline that uses an SDC RPC origin",
     icon="sdcipc.png",
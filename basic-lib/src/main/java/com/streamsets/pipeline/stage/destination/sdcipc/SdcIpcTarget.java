@@ -15,7 +15,10 @@
  */
 package com.streamsets.pipeline.stage.destination.sdcipc;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Record;
@@ -30,12 +33,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.ConnectException;
 import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class SdcIpcTarget extends BaseTarget {
   private static final Logger LOG = LoggerFactory.getLogger(SdcIpcTarget.class);
@@ -45,6 +54,8 @@ public class SdcIpcTarget extends BaseTarget {
   final List<String> standByHostPorts;
   final List<String> activeHostPorts;
   int lastActive;
+  private ReceiverHealth receiverHealth;
+  private ExecutorService executor;
 
   public SdcIpcTarget(Configs config) {
     this.config = config;
@@ -60,10 +71,26 @@ public class SdcIpcTarget extends BaseTarget {
     issues.addAll(config.init(getContext()));
     if (issues.isEmpty()) {
       initializeHostPortsLists();
+      if (config.maxParallelRequests > 1) {
+        receiverHealth = new ReceiverHealth(config.hostPorts);
+        executor = Executors.newFixedThreadPool(
+            config.maxParallelRequests,
+            new ThreadFactoryBuilder().setNameFormat("SDC RPC Sender %d").setDaemon(true).build()
+        );
+      }
     }
     return issues;
   }
 
+  @Override
+  public void destroy() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+    super.destroy();
+  }
+
   int getActiveConnectionsNumber() {
     int count = (int) Math.log(config.hostPorts.size()) + 1;
     return (count < 2) ? 2 : count;
@@ -113,79 +140,190 @@ public class SdcIpcTarget extends BaseTarget {
     }
   }
 
-  HttpURLConnection createWriteConnection(boolean isRetry) throws IOException, StageException {
-    HttpURLConnection  conn = config.createConnection(getHostPort(isRetry));
+  HttpURLConnection createWriteConnection(String hostPort) throws IOException, StageException {
+    HttpURLConnection  conn = config.createConnection(hostPort);
     conn.setRequestMethod("POST");
     conn.setRequestProperty(Constants.CONTENT_TYPE_HEADER, Constants.APPLICATION_BINARY);
     conn.setRequestProperty(Constants.X_SDC_JSON1_FRAGMENTABLE_HEADER, "true");
     conn.setDefaultUseCaches(false);
     conn.setDoOutput(true);
     conn.setDoInput(true);
+    // stream the records instead of buffering the whole request body in memory first
+    conn.setChunkedStreamingMode(0);
     return conn;
   }
 
   @Override
   public void write(Batch batch) throws StageException {
-    ContextExtensions ext = (ContextExtensions) getContext();
+    List<Record> records = Lists.newArrayList(batch.getRecords());
+    int requests = Math.min(config.maxParallelRequests, records.size());
+    if (requests > 1) {
+      writeInParallel(batch, records, requests);
+      return;
+    }
+
     boolean ok = false;
     int retryCount = 0;
     String errorReason = null;
-    HttpURLConnection conn = null;
 
     while (!ok && retryCount <= config.retriesPerBatch) {
       LOG.debug("Writing out batch for entity '{}' and offset '{}' retry '{}'", batch.getSourceEntity(), batch.getSourceOffset(), retryCount);
       config.backOffWait(retryCount);
 
-      try {
-        conn = createWriteConnection(retryCount > 0);
-        if (config.compression) {
-          conn.setRequestProperty(Constants.X_SDC_COMPRESSION_HEADER, Constants.SNAPPY_COMPRESSION);
-        }
-        OutputStream os = conn.getOutputStream();
-        if (config.compression) {
-          os = new SnappyFramedOutputStream(os);
-        }
-        RecordWriter writer = ext.createRecordWriter(os);
-        Iterator<Record> it = batch.getRecords();
-        while (it.hasNext()) {
-          Record record = it.next();
-          writer.write(record);
-        }
-        writer.close();
-        os.close();
-        ok = conn.getResponseCode() == HttpURLConnection.HTTP_OK;
-        if (!ok) {
-          errorReason = conn.getResponseMessage();
-          LOG.warn("Batch for entity '{}' and offset '{}' could not be written out: {}", batch.getSourceEntity(), batch.getSourceOffset(), errorReason);
-        } else {
-          LOG.debug("Batch for entity '{}' and offset '{}' written out on retry '{}'", batch.getSourceEntity(), batch.getSourceOffset(), retryCount);
-        }
-      } catch (IOException ex) {
-        errorReason = ex.toString();
-        LOG.warn("Batch for entity '{}' and offset '{}' could not be written out: {}", batch.getSourceEntity(), batch.getSourceOffset(), errorReason, ex);
-
-        if (conn != null) {
-          conn.disconnect();
-        }
+      errorReason = send(getHostPort(retryCount > 0), records);
+      ok = errorReason == null;
+      if (!ok) {
+        LOG.warn("Batch for entity '{}' and offset '{}' could not be written out: {}", batch.getSourceEntity(), batch.getSourceOffset(), errorReason);
+      } else {
+        LOG.debug("Batch for entity '{}' and offset '{}' written out on retry '{}'", batch.getSourceEntity(), batch.getSourceOffset(), retryCount);
       }
       retryCount++;
     }
     if (!ok) {
-      OnRecordError onErrorRecord = getContext().getOnErrorRecord();
-      // this branch only happens when the pipeline error handling strategy is "send to RPC". if we can't forward to
-      // that pipeline, then it's a pipeline-stopping problem.
-      if (onErrorRecord == null) {
-        throw new StageException(Errors.IPC_DEST_20, errorReason);
+      handleFailedRecords(records, errorReason);
+    }
+  }
+
+  /**
+   * Splits the batch into the given number of requests and sends them in parallel, each request to the next healthy
+   * receiver. Every request is retried on its own (on another receiver), only records of requests that failed all
+   * retries are handled as failed.
+   */
+  private void writeInParallel(Batch batch, List<Record> records, int requests) throws StageException {
+    int requestSize = (records.size() + requests - 1) / requests;
+    List<List<Record>> chunks = Lists.partition(records, requestSize);
+    LOG.debug("Writing out batch for entity '{}' and offset '{}' in '{}' requests", batch.getSourceEntity(), batch.getSourceOffset(), chunks.size());
+
+    List<Future<String>> futures = new ArrayList<>(chunks.size());
+    for (List<Record> chunk : chunks) {
+      futures.add(executor.submit(() -> sendWithRetries(chunk)));
+    }
+
+    List<Record> failed = new ArrayList<>();
+    String errorReason = null;
+    for (int i = 0; i < futures.size(); i++) {
+      String reason;
+      try {
+        reason = futures.get(i).get();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        reason = ex.toString();
+      } catch (ExecutionException ex) {
+        Throwables.propagateIfInstanceOf(ex.getCause(), StageException.class);
+        reason = ex.getCause().toString();
+      }
+      if (reason != null) {
+        failed.addAll(chunks.get(i));
+        errorReason = reason;
+      }
+    }
+    if (!failed.isEmpty()) {
+      LOG.warn("'{}' records of batch for entity '{}' and offset '{}' could not be written out: {}", failed.size(), batch.getSourceEntity(), batch.getSourceOffset(), errorReason);
+      handleFailedRecords(failed, errorReason);
+    }
+  }
+
+  private String sendWithRetries(List<Record> records) throws StageException {
+    String errorReason = null;
+    for (int retryCount = 0; retryCount <= config.retriesPerBatch; retryCount++) {
+      config.backOffWait(retryCount);
+      String hostPort = receiverHealth.next();
+      errorReason = send(hostPort, records);
+      if (errorReason == null) {
+        receiverHealth.succeeded(hostPort);
+        return null;
       }
+      LOG.warn("Request with '{}' records to '{}' failed on retry '{}': {}", records.size(), hostPort, retryCount, errorReason);
+      receiverHealth.failed(hostPort);
+    }
+    return errorReason;
+  }
 
-      errorRecordHandler.onError(
-          Lists.newArrayList(batch.getRecords()),
-          new StageException(
-              Errors.IPC_DEST_20,
-              errorReason
-          )
-      );
+  /**
+   * Sends the records to the given receiver, returns null if the receiver accepted them or the reason why the
+   * records were not accepted.
+   * <p/>
+   * A kept-alive connection may have been closed by the receiver while idle and the JDK does not retry streamed
+   * requests, so a request failing on an I/O error is sent once more on another connection before giving up. Failures
+   * to connect and timeouts are not retried, the receiver is not available.
+   */
+  private String send(String hostPort, List<Record> records) throws StageException {
+    try {
+      return post(hostPort, records);
+    } catch (ConnectException | SocketTimeoutException ex) {
+      return ex.toString();
+    } catch (IOException ex) {
+      LOG.debug("Request to '{}' failed, retrying on a new connection: {}", hostPort, ex.toString());
+      try {
+        return post(hostPort, records);
+      } catch (IOException retryEx) {
+        return retryEx.toString();
+      }
     }
   }
 
+  private String post(String hostPort, List<Record> records) throws IOException, StageException {
+    ContextExtensions ext = (ContextExtensions) getContext();
+    HttpURLConnection conn = null;
+    try {
+      conn = createWriteConnection(hostPort);
+      if (config.compression) {
+        conn.setRequestProperty(Constants.X_SDC_COMPRESSION_HEADER, Constants.SNAPPY_COMPRESSION);
+      }
+      OutputStream os = conn.getOutputStream();
+      if (config.compression) {
+        os = new SnappyFramedOutputStream(os);
+      }
+      RecordWriter writer = ext.createRecordWriter(os);
+      for (Record record : records) {
+        writer.write(record);
+      }
+      writer.close();
+      os.close();
+      if (conn.getResponseCode() == HttpURLConnection.HTTP_OK) {
+        consume(conn, conn.getInputStream());
+        return null;
+      }
+      String errorReason = conn.getResponseMessage();
+      consume(conn, conn.getErrorStream());
+      return errorReason;
+    } catch (IOException ex) {
+      LOG.debug("Request to '{}' failed: {}", hostPort, ex.toString(), ex);
+      // the connection is broken, it must not go back to the keep-alive cache
+      if (conn != null) {
+        conn.disconnect();
+      }
+      throw ex;
+    }
+  }
+
+  // The connection is only kept alive (and reused by the next request) once the response was read completely
+  private static void consume(HttpURLConnection conn, InputStream is) {
+    if (is != null) {
+      try (InputStream in = is) {
+        ByteStreams.exhaust(in);
+      } catch (IOException ex) {
+        LOG.debug("Could not read the response: {}", ex.toString(), ex);
+        conn.disconnect();
+      }
+    }
+  }
+
+  private void handleFailedRecords(List<Record> records, String errorReason) throws StageException {
+    OnRecordError onErrorRecord = getContext().getOnErrorRecord();
+    // this branch only happens when the pipeline error handling strategy is "send to RPC". if we can't forward to
+    // that pipeline, then it's a pipeline-stopping problem.
+    if (onErrorRecord == null) {
+      throw new StageException(Errors.IPC_DEST_20, errorReason);
+    }
+
+    errorRecordHandler.onError(
+        records,
+        new StageException(
+            Errors.IPC_DEST_20,
+            errorReason
+        )
+    );
+  }
+
 }
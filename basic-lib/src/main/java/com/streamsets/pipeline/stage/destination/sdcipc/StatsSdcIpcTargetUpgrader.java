@@ -38,6 +38,12 @@ public class StatsSdcIpcTargetUpgrader implements StageUpgrader {
             "sslEnabled",
             "tlsEnabled"
         );
+        if (toVersion == 2) {
+          break;
+        }
+        // fall through
+      case 2:
+        upgradeV2ToV3(configs);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", fromVersion));
@@ -45,4 +51,8 @@ public class StatsSdcIpcTargetUpgrader implements StageUpgrader {
     return configs;
   }
 
+  private static void upgradeV2ToV3(List<Config> configs) {
+    configs.add(new Config("config.maxParallelRequests", 1));
+  }
+
 }
@@ -54,16 +54,31 @@ import java.util.concurrent.TimeUnit;
 public class IpcServer {
   private static final Logger LOG = LoggerFactory.getLogger(IpcServer.class);
 
-  private final Stage.Context context;
   private final Configs configs;
   private Server httpServer;
   private final BlockingQueue<List<Record>> queue;
-  private IpcServlet servlet;
+  private final AbstractIpcServlet servlet;
+  // null when the records are not handed over through the queue
+  private final IpcServlet queueServlet;
+  private final int concurrentRequests;
 
   public IpcServer(Stage.Context context, Configs configs) {
-    this.context = context;
     this.configs = configs;
     queue = new SynchronousQueue<>();
+    queueServlet = new IpcServlet(context, configs, queue);
+    servlet = queueServlet;
+    concurrentRequests = 1;
+  }
+
+  /**
+   * Server for the given servlet able to serve given number of requests at the same time.
+   */
+  public IpcServer(Configs configs, AbstractIpcServlet servlet, int concurrentRequests) {
+    this.configs = configs;
+    queue = null;
+    queueServlet = null;
+    this.servlet = servlet;
+    this.concurrentRequests = concurrentRequests;
   }
 
   private int getJettyServerMinimumThreads() {
@@ -77,7 +92,7 @@ public class IpcServer {
   }
 
   public void start() throws Exception {
-    int numberOfThreads = getJettyServerMinimumThreads();
+    int numberOfThreads = getJettyServerMinimumThreads() + concurrentRequests - 1;
     QueuedThreadPool threadPool = new QueuedThreadPool(numberOfThreads, numberOfThreads, 60000,
                                                        new ArrayBlockingQueue<Runnable>(20));
     threadPool.setName("sdcipc-server");
@@ -108,7 +123,6 @@ public class IpcServer {
     connector.setPort(configs.port);
     server.setConnectors(new Connector[]{connector});
 
-    servlet = new IpcServlet(context, configs, queue);
     ServletContextHandler contextHandler = new ServletContextHandler();
     contextHandler.addFilter(DisableTraceFilter.class, "/*", EnumSet.allOf(DispatcherType.class));
     contextHandler.addServlet(new ServletHolder(new PingServlet()), Constants.PING_PATH);
@@ -159,8 +173,8 @@ public class IpcServer {
             Thread.sleep(50);
           }
           if (servlet.isInPost()) {
-            // release the queue before forcing a shutdown
-            cancelBatch();
+            // release the waiting requests before forcing a shutdown
+            servlet.cancelRequests();
             LOG.warn("Servlet not completing POST after 30secs, forcing a shutdown");
           }
         } catch (InterruptedException ex) {
@@ -181,15 +195,12 @@ public class IpcServer {
 
   public void cancelBatch() {
     LOG.debug("Cancel batch");
-    servlet.batchCancelled();
-    synchronized (queue) {
-      queue.notify();
-    }
+    queueServlet.cancelRequests();
   }
 
   public void doneWithBatch() {
     LOG.debug("Done with batch");
-    servlet.batchDone();
+    queueServlet.batchDone();
     synchronized (queue) {
       queue.notify();
     }
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.sdcipc;
+
+import com.streamsets.pipeline.api.BatchContext;
+import com.streamsets.pipeline.api.PushSource;
+import com.streamsets.pipeline.api.Record;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Serves requests concurrently, every request is read on its own servlet thread and processed as a batch by the
+ * next free pipeline runner. The request is acknowledged once the runner committed the batch.
+ */
+@SuppressWarnings({"squid:S2226", "squid:S1989", "squid:S1948"})
+public class PushIpcServlet extends AbstractIpcServlet {
+  private static final Logger LOG = LoggerFactory.getLogger(PushIpcServlet.class);
+
+  private final PushSource.Context context;
+
+  public PushIpcServlet(PushSource.Context context, Configs configs) {
+    super(context, configs);
+    this.context = context;
+  }
+
+  @Override
+  protected void process(HttpServletRequest req, HttpServletResponse resp, List<Record> records) throws IOException {
+    // Blocks until there is a free runner
+    BatchContext batchContext = context.startBatch();
+    for (Record record : records) {
+      batchContext.getBatchMaker().addRecord(record);
+    }
+    if (context.processBatch(batchContext)) {
+      LOG.debug("Batch done");
+      resp.setStatus(HttpServletResponse.SC_OK);
+    } else if (context.isStopped()) {
+      LOG.debug("Pipeline stopped before batch from '{}' was processed", req.getRemoteAddr());
+      resp.setStatus(HttpServletResponse.SC_GONE);
+    } else {
+      LOG.warn("Batch from '{}' could not be processed", req.getRemoteAddr());
+      resp.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Batch could not be processed");
+    }
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.sdcipc;
+
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.BasePushSource;
+import com.streamsets.pipeline.lib.util.ThreadUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multithreaded variant of {@link SdcIpcSource}: requests are read concurrently on the server threads and every
+ * request is processed as a batch by one of the pipeline runners.
+ */
+public class SdcIpcPushSource extends BasePushSource {
+  private static final Logger LOG = LoggerFactory.getLogger(SdcIpcPushSource.class);
+  private static final long PRODUCE_LOOP_INTERVAL_MS = 1000;
+
+  private final Configs configs;
+  private final int numThreads;
+  private IpcServer ipcServer;
+
+  public SdcIpcPushSource(Configs configs, int numThreads) {
+    this.configs = configs;
+    this.numThreads = numThreads;
+  }
+
+  @Override
+  protected List<ConfigIssue> init() {
+    List<ConfigIssue> issues = super.init();
+    issues.addAll(configs.init(getContext()));
+    return issues;
+  }
+
+  @Override
+  public int getNumberOfThreads() {
+    return numThreads;
+  }
+
+  @Override
+  public void produce(Map<String, String> lastOffsets, int maxBatchSize) throws StageException {
+    // Runners are only available once produce() is called
+    ipcServer = new IpcServer(configs, new PushIpcServlet(getContext(), configs), numThreads);
+    try {
+      ipcServer.start();
+    } catch (Exception ex) {
+      LOG.error("Could not start IPC server: {}", ex.toString(), ex);
+      throw new StageException(Errors.IPC_ORIG_20, ex.toString(), ex);
+    }
+    try {
+      while (!getContext().isStopped()) {
+        ThreadUtil.sleep(PRODUCE_LOOP_INTERVAL_MS);
+      }
+    } finally {
+      ipcServer.stop();
+    }
+  }
+
+}
@@ -53,6 +53,8 @@ public enum Errors implements ErrorCode {
   SPOOLDIR_33("Cannot Serialize Offset: {}"),
   SPOOLDIR_34("Cannot Deserialize Offset: {}"),
   SPOOLDIR_35("Spool Directory Runner Failed. Reason {}"),
+  SPOOLDIR_36("Files can only be split for uncompressed data with one record per line, no header lines and a charset " +
+      "encoding new lines as a single byte"),
   ;
 
   private final String msg;
@@ -30,8 +30,11 @@ public class Offset {
   private static final String ZERO = "0";
   public static final String NULL_FILE = "NULL_FILE_ID-48496481-5dc5-46ce-9c31-3ab3e034730c";
   private static final String POS = "POS";
+  private static final String SPLIT_POS = "SPLIT_POS";
   private final String file;
   private String fileOffset;
+  // byte position of a file read in ranges, everything before it has been processed
+  private Long splitPosition;
 
   public Offset(String version, String offsetString) throws StageException {
     if (version.equals(VERSION_ONE)) {
@@ -50,6 +53,9 @@ public class Offset {
         if (offset.startsWith("{")) {
           Map<String, String> map = OffsetUtil.deserializeOffsetMap(offset);
           this.fileOffset = map.get(POS) == null ? ZERO : map.get(POS);
+          if (map.get(SPLIT_POS) != null) {
+            this.splitPosition = Long.parseLong(map.get(SPLIT_POS));
+          }
         } else {
           this.fileOffset = offset;
         }
@@ -64,6 +70,9 @@ public class Offset {
   public String getOffsetString() throws StageException {
     Map<String, String> map = new HashMap<>();
     map.put(POS, getOffset());
+    if (splitPosition != null) {
+      map.put(SPLIT_POS, String.valueOf(splitPosition));
+    }
 
     try {
       return OffsetUtil.serializeOffsetMap(map);
@@ -84,6 +93,14 @@ public class Offset {
     return fileOffset;
   }
 
+  public Long getSplitPosition() {
+    return splitPosition;
+  }
+
+  public void setSplitPosition(Long splitPosition) {
+    this.splitPosition = splitPosition;
+  }
+
   public String getRawFile() {
     return file;
   }
@@ -62,6 +62,36 @@ public class SpoolDirConfigBean {
   )
   public int numberOfThreads = 1;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "0",
+      label = "File Split Size (MB)",
+      description = "Files larger than this are divided into ranges that several threads read at the same time. " +
+          "Records must not span lines. Use 0 to read every file with a single thread",
+      displayPosition = 12,
+      group = "FILES",
+      min = 0,
+      max = Integer.MAX_VALUE,
+      dependsOn = "dataFormat",
+      triggeredByValue = {"TEXT", "JSON", "DELIMITED", "LOG"}
+  )
+  public int fileSplitSizeMB;
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Memory Map Files",
+      description = "Reads uncompressed files through a memory mapped view of the file instead of a stream, " +
+          "which saves copying the data. Compressed files and archives are read with a stream",
+      displayPosition = 13,
+      group = "FILES",
+      dependsOn = "dataFormat",
+      triggeredByValue = {"TEXT", "JSON", "DELIMITED", "LOG"}
+  )
+  public boolean memoryMapFiles;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.MODEL,
@@ -187,6 +217,18 @@ public class SpoolDirConfigBean {
   )
   public long spoolingPeriod = 5;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Watch for New Files",
+      description = "Picks up new files as the file system reports them, the spooling period scan still runs to " +
+          "catch files the file system did not report",
+      displayPosition = 62,
+      group = "FILES"
+  )
+  public boolean useWatchService;
+
   @ConfigDef(
       required = false,
       type = ConfigDef.Type.STRING,
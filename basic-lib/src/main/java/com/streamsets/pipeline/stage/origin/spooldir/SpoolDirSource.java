@@ -21,8 +21,13 @@ import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.Source;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.base.BasePushSource;
+import com.streamsets.pipeline.config.Compression;
+import com.streamsets.pipeline.config.CsvHeader;
+import com.streamsets.pipeline.config.JsonMode;
+import com.streamsets.pipeline.config.OnParseError;
 import com.streamsets.pipeline.config.PostProcessingOptions;
 import com.streamsets.pipeline.lib.dirspooler.DirectorySpooler;
+import com.streamsets.pipeline.lib.dirspooler.FileSplitter;
 import com.streamsets.pipeline.lib.dirspooler.SpoolDirRunnable;
 import com.streamsets.pipeline.lib.dirspooler.SpoolDirRunnableBuilder;
 import com.streamsets.pipeline.lib.dirspooler.SpoolDirUtil;
@@ -31,8 +36,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.UnsupportedEncodingException;
 import java.nio.file.PathMatcher;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -64,6 +71,7 @@ public class SpoolDirSource extends BasePushSource {
   private int numberOfThreads;
   private ExecutorService executorService;
   private String lastSourceFileName;
+  private FileSplitter fileSplitter;
 
   public SpoolDirSource(SpoolDirConfigBean conf) {
     this.conf = conf;
@@ -139,6 +147,16 @@ public class SpoolDirSource extends BasePushSource {
 
     validateInitialFileToProcess(issues);
 
+    if (conf.fileSplitSizeMB > 0 && !isSplittable()) {
+      issues.add(
+          getContext().createConfigIssue(
+              Groups.FILES.name(),
+              SPOOLDIR_CONFIG_BEAN_PREFIX + "fileSplitSizeMB",
+              Errors.SPOOLDIR_36
+          )
+      );
+    }
+
     if (conf.errorArchiveDir != null && !conf.errorArchiveDir.isEmpty()) {
       validateDir(
           conf.errorArchiveDir,
@@ -198,7 +216,8 @@ public class SpoolDirSource extends BasePushSource {
               .setPostProcessing(DirectorySpooler.FilePostProcessing.valueOf(conf.postProcessing.name()))
               .waitForPathAppearance(waitForPathToBePresent)
               .processSubdirectories(conf.processSubdirectories)
-              .setSpoolingPeriodSec(conf.spoolingPeriod);
+              .setSpoolingPeriodSec(conf.spoolingPeriod)
+              .setUseWatchService(conf.useWatchService);
 
       if (conf.postProcessing == PostProcessingOptions.ARCHIVE) {
         builder.setArchiveDir(conf.archiveDir);
@@ -282,6 +301,36 @@ public class SpoolDirSource extends BasePushSource {
     }
   }
 
+  // byte ranges can only be aligned to record boundaries when a record is a line
+  private boolean isSplittable() {
+    if (conf.dataFormatConfig.compression != Compression.NONE || !isNewLineSingleByte(conf.dataFormatConfig.charset)) {
+      return false;
+    }
+    switch (conf.dataFormat) {
+      case TEXT:
+        return !conf.dataFormatConfig.useCustomDelimiter;
+      case LOG:
+        // lines that don't match the log format are appended to the previous record
+        return conf.dataFormatConfig.onParseError != OnParseError.INCLUDE_AS_STACK_TRACE;
+      case JSON:
+        return conf.dataFormatConfig.jsonContent == JsonMode.MULTIPLE_OBJECTS;
+      case DELIMITED:
+        return conf.dataFormatConfig.csvHeader == CsvHeader.NO_HEADER && conf.dataFormatConfig.csvSkipStartLines == 0;
+      default:
+        return false;
+    }
+  }
+
+  // the splitter looks for '\n' bytes, which in charsets like UTF-16 may be part of any character
+  private static boolean isNewLineSingleByte(String charset) {
+    try {
+      return Arrays.equals("\n".getBytes(charset), new byte[] {'\n'});
+    } catch (UnsupportedEncodingException ex) {
+      // reported by the data format validation
+      return true;
+    }
+  }
+
   private void validateInitialFileToProcess(List<ConfigIssue> issues) {
     if (conf.initialFileToProcess != null && !conf.initialFileToProcess.isEmpty()) {
       try {
@@ -394,6 +443,7 @@ public class SpoolDirSource extends BasePushSource {
 
     try {
       executorService = new SafeScheduledExecutorService(numberOfThreads, SpoolDirRunnable.SPOOL_DIR_THREAD_PREFIX);
+      fileSplitter = (conf.fileSplitSizeMB > 0) ? new FileSplitter(conf.fileSplitSizeMB * 1024L * 1024L) : null;
 
       ExecutorCompletionService<Future> completionService = new ExecutorCompletionService<>(executorService);
 
@@ -451,6 +501,7 @@ public class SpoolDirSource extends BasePushSource {
         .lastSourcFileName(getLastSourceFileName())
         .spooler(getSpooler())
         .conf(conf)
+        .fileSplitter(fileSplitter)
         .build();
   }
 }
@@ -92,6 +92,24 @@ public class SpoolDirSourceUpgrader implements StageUpgrader {
         // fall through
       case 9:
         upgradeV9ToV10(configs);
+        if (toVersion == 10) {
+          break;
+        }
+        // fall through
+      case 10:
+        upgradeV10ToV11(configs);
+        if (toVersion == 11) {
+          break;
+        }
+        // fall through
+      case 11:
+        upgradeV11ToV12(configs);
+        if (toVersion == 12) {
+          break;
+        }
+        // fall through
+      case 12:
+        upgradeV12ToV13(configs);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", fromVersion));
@@ -99,6 +117,18 @@ public class SpoolDirSourceUpgrader implements StageUpgrader {
     return configs;
   }
 
+  private void upgradeV12ToV13(List<Config> configs) {
+    configs.add(new Config(joiner.join(CONF, "memoryMapFiles"), false));
+  }
+
+  private void upgradeV11ToV12(List<Config> configs) {
+    configs.add(new Config(joiner.join(CONF, "fileSplitSizeMB"), 0));
+  }
+
+  private void upgradeV10ToV11(List<Config> configs) {
+    configs.add(new Config(joiner.join(CONF, "useWatchService"), false));
+  }
+
   private void upgradeV9ToV10(List<Config> configs) {
     configs.add(new Config(joiner.join(CONF, "spoolingPeriod"), 5));
   }
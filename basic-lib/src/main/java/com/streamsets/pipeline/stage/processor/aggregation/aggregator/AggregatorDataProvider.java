@@ -243,11 +243,15 @@ public class AggregatorDataProvider {
     Utils.checkState(started, "Not started");
     Utils.checkState(!stopped, "Already stopped");
     Utils.checkNotNull(aggregator, "aggregator");
-    Utils.checkArgument(
-        aggregators.contains(aggregator),
-        Utils.formatL("Aggregator {} is not registered to provider", aggregator)
-    );
-    return data.get(aggregator);
+    // called for every record, the registration check (and its message) only when there is no data
+    AggregatorData aggregatorData = data.get(aggregator);
+    if (aggregatorData == null) {
+      Utils.checkArgument(
+          aggregators.contains(aggregator),
+          Utils.formatL("Aggregator {} is not registered to provider", aggregator)
+      );
+    }
+    return aggregatorData;
   }
 
   private Map<Aggregator, AggregatorData> aggregateDataWindows(Map<Aggregator, AggregatorData> result) {
@@ -17,6 +17,8 @@ package com.streamsets.pipeline.stage.processor.aggregation.aggregator;
 
 import com.streamsets.pipeline.api.impl.Utils;
 
+import java.util.concurrent.atomic.DoubleAccumulator;
+
 /**
  * Double Maximum Aggregator.
  */
@@ -47,7 +49,9 @@ public class DoubleMaxAggregator extends SimpleAggregator<DoubleMaxAggregator, D
   }
 
   private class Data extends AggregatorData<DoubleMaxAggregator, Double> {
-    private Double current;
+    private final DoubleAccumulator current = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+    // cleared once the first value has been accumulated, until then there is no max
+    private volatile boolean empty = true;
 
     public Data(String name, long time) {
       super(name, time);
@@ -61,19 +65,16 @@ public class DoubleMaxAggregator extends SimpleAggregator<DoubleMaxAggregator, D
     @Override
     public void process(Double value) {
       if (value != null) {
-        synchronized (this) {
-          if (current == null) {
-            current = value;
-          } else if (value > current) {
-            current = value;
-          }
+        current.accumulate(value);
+        if (empty) {
+          empty = false;
         }
       }
     }
 
     @Override
-    public synchronized Double get() {
-      return current;
+    public Double get() {
+      return (empty) ? null : current.get();
     }
 
     @Override
@@ -17,6 +17,9 @@ package com.streamsets.pipeline.stage.processor.aggregation.aggregator;
 
 import com.streamsets.pipeline.api.impl.Utils;
 
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Double Standard Deviation Aggregator.
  */
@@ -77,9 +80,9 @@ public class DoubleStdDevAggregator extends SimpleAggregator<DoubleStdDevAggrega
   }
 
   private class Data extends AggregatorData<DoubleStdDevAggregator, Double> {
-    private long count;
-    private double total;
-    private double totalSquare;
+    private final LongAdder count = new LongAdder();
+    private final DoubleAdder total = new DoubleAdder();
+    private final DoubleAdder totalSquare = new DoubleAdder();
 
     public Data(String name, long time) {
       super(name, time);
@@ -93,25 +96,31 @@ public class DoubleStdDevAggregator extends SimpleAggregator<DoubleStdDevAggrega
     @Override
     public void process(Double value) {
       if (value != null) {
-        synchronized (this) {
-          count++;
-          total += value;
-          totalSquare += value * value;
-        }
+        count.increment();
+        total.add(value);
+        totalSquare.add(value * value);
       }
     }
 
     @Override
-    public synchronized Double get() {
-      return (count < 2) ? -1 : Math.sqrt((count * totalSquare - total * total) / (count * (count - 1)));
+    public Double get() {
+      return stdDev(count.sum(), total.sum(), totalSquare.sum());
+    }
+
+    // the cells are read one after the other while records may still be processed, the variance is clamped at zero
+    // so a slightly skewed read does not produce NaN
+    private double stdDev(long count, double total, double totalSquare) {
+      return (count < 2) ? -1 : Math.sqrt(Math.max(0, (count * totalSquare - total * total) / (count * (count - 1))));
     }
 
     @Override
     public Aggregatable<DoubleStdDevAggregator> getAggregatable() {
       DoubleStdDevAggregatable aggregatable = new DoubleStdDevAggregatable().setName(getName());
-      synchronized (this) {
-        aggregatable.setCount(count).setTotal(total).setTotalSquare(totalSquare).setStdDev(get());
-      }
+      long count = this.count.sum();
+      double total = this.total.sum();
+      double totalSquare = this.totalSquare.sum();
+      aggregatable.setCount(count).setTotal(total).setTotalSquare(totalSquare)
+          .setStdDev(stdDev(count, total, totalSquare));
       return aggregatable;
     }
 
@@ -128,11 +137,9 @@ public class DoubleStdDevAggregator extends SimpleAggregator<DoubleStdDevAggrega
           aggregatable.getClass().getSimpleName(),
           DoubleStdDevAggregatable.class.getSimpleName()
       ));
-      synchronized (this) {
-        count += ((DoubleStdDevAggregatable) aggregatable).getCount();
-        total += ((DoubleStdDevAggregatable) aggregatable).getTotal();
-        totalSquare += ((DoubleStdDevAggregatable) aggregatable).getTotalSquare();
-      }
+      count.add(((DoubleStdDevAggregatable) aggregatable).getCount());
+      total.add(((DoubleStdDevAggregatable) aggregatable).getTotal());
+      totalSquare.add(((DoubleStdDevAggregatable) aggregatable).getTotalSquare());
     }
   }
 
@@ -17,6 +17,8 @@ package com.streamsets.pipeline.stage.processor.aggregation.aggregator;
 
 import com.streamsets.pipeline.api.impl.Utils;
 
+import java.util.concurrent.atomic.LongAccumulator;
+
 /**
  * Long Maximum Aggregator.
  */
@@ -47,7 +49,9 @@ public class LongMaxAggregator extends SimpleAggregator<LongMaxAggregator, Long>
   }
 
   private class Data extends AggregatorData<LongMaxAggregator, Long> {
-    private Long current;
+    private final LongAccumulator current = new LongAccumulator(Long::max, Long.MIN_VALUE);
+    // cleared once the first value has been accumulated, until then there is no max
+    private volatile boolean empty = true;
 
     public Data(String name, long time) {
       super(name, time);
@@ -61,19 +65,16 @@ public class LongMaxAggregator extends SimpleAggregator<LongMaxAggregator, Long>
     @Override
     public void process(Long value) {
       if (value != null) {
-        synchronized (this) {
-          if (current == null) {
-            current = value;
-          } else if (value > current) {
-            current = value;
-          }
+        current.accumulate(value);
+        if (empty) {
+          empty = false;
         }
       }
     }
 
     @Override
-    public synchronized Long get() {
-      return current;
+    public Long get() {
+      return (empty) ? null : current.get();
     }
 
     @Override
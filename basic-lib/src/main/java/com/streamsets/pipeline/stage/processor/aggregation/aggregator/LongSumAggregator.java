@@ -17,6 +17,8 @@ package com.streamsets.pipeline.stage.processor.aggregation.aggregator;
 
 import com.streamsets.pipeline.api.impl.Utils;
 
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Long Average Aggregator.
  */
@@ -57,8 +59,8 @@ public class LongSumAggregator extends SimpleAggregator<LongSumAggregator, Long>
   }
 
   private class Data extends AggregatorData<LongSumAggregator, Long> {
-    private long sum;
-    private long count;
+    private final LongAdder sum = new LongAdder();
+    private final LongAdder count = new LongAdder();
 
     public Data(String name, long time) {
       super(name, time);
@@ -72,24 +74,20 @@ public class LongSumAggregator extends SimpleAggregator<LongSumAggregator, Long>
     @Override
     public void process(Long value) {
       if (value != null) {
-        synchronized (this) {
-          sum += value;
-          count++;
-        }
+        sum.add(value);
+        count.increment();
       }
     }
 
     @Override
-    public synchronized Long get() {
-      return (count == 0) ? null : sum;
+    public Long get() {
+      return (count.sum() == 0) ? null : sum.sum();
     }
 
     @Override
     public Aggregatable<LongSumAggregator> getAggregatable() {
       LongSumAggregatable aggregatable = new LongSumAggregatable().setName(getName());
-      synchronized (this) {
-        aggregatable.setCount(count).setSum(sum);
-      }
+      aggregatable.setCount(count.sum()).setSum(sum.sum());
       return aggregatable;
     }
 
@@ -106,10 +104,8 @@ public class LongSumAggregator extends SimpleAggregator<LongSumAggregator, Long>
           aggregatable.getClass().getSimpleName(),
           LongSumAggregatable.class.getSimpleName()
       ));
-      synchronized (this) {
-        sum += ((LongSumAggregatable) aggregatable).getSum();
-        count += ((LongSumAggregatable) aggregatable).getCount();
-      }
+      sum.add(((LongSumAggregatable) aggregatable).getSum());
+      count.add((long) ((LongSumAggregatable) aggregatable).getCount());
     }
   }
 
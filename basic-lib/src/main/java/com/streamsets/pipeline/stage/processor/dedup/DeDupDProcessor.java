@@ -29,12 +29,13 @@ import com.streamsets.pipeline.configurablestage.DProcessor;
 import java.util.List;
 
 @StageDef(
-    version = 1,
+    version = 2,
     label = "Record Deduplicator",
     description = "Separates unique and duplicate records based on field comparison",
     icon="dedup.png",
     outputStreams = OutputStreams.class,
     execution = ExecutionMode.STANDALONE,
+    upgrader = DeDupProcessorUpgrader.class,
     onlineHelpRefUrl ="index.html#datacollector/UserGuide/Processors/RDeduplicator.html#task_ikr_c2f_zq"
 )
 @ConfigGroups(Groups.class)
@@ -90,9 +91,41 @@ public class DeDupDProcessor extends DProcessor {
   @FieldSelectorModel
   public List<String> fieldsToCompare;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.MODEL,
+      defaultValue = "HEAP",
+      label = "Store Hashes In",
+      description = "Off heap storage avoids garbage collection overhead for large windows. A memory mapped file " +
+          "also keeps the window across pipeline restarts.",
+      displayPosition = 50,
+      group = "DE_DUP"
+  )
+  @ValueChooserModel(DeDupIndexTypeChooserValues.class)
+  public DeDupIndexType indexType = DeDupIndexType.HEAP;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.STRING,
+      label = "Index File",
+      description = "Absolute path of the file backing the index. It's reset when Max Records to Compare changes.",
+      displayPosition = 60,
+      group = "DE_DUP",
+      dependsOn = "indexType",
+      triggeredByValue = "MAPPED_FILE"
+  )
+  public String windowFile = "";
+
   @Override
   protected Processor createProcessor() {
-    return new DeDupProcessor(recordCountWindow, timeWindowSecs, compareFields, fieldsToCompare);
+    return new DeDupProcessor(
+        recordCountWindow,
+        timeWindowSecs,
+        compareFields,
+        fieldsToCompare,
+        indexType,
+        windowFile
+    );
   }
 
 }
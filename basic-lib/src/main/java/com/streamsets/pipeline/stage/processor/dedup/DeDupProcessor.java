@@ -31,6 +31,8 @@ import com.streamsets.pipeline.lib.queue.XEvictingQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -40,20 +42,30 @@ import java.util.concurrent.TimeUnit;
 public class DeDupProcessor extends RecordProcessor {
   private static final long MEMORY_USAGE_PER_HASH = 85;
   private static final String CACHE_KEY = "cache";
+  private static final String INDEX_KEY = "index";
   private static final Logger LOG = LoggerFactory.getLogger(DeDupProcessor.class);
 
   private final  int recordCountWindow;
   private final  int timeWindowSecs;
   private final  SelectFields compareFields;
   private final  List<String> fieldsToCompare;
+  private final  DeDupIndexType indexType;
+  private final  String windowFile;
   private CacheCleaner cacheCleaner;
 
   public DeDupProcessor(int recordCountWindow, int timeWindowSecs,
       SelectFields compareFields, List<String> fieldsToCompare) {
+    this(recordCountWindow, timeWindowSecs, compareFields, fieldsToCompare, DeDupIndexType.HEAP, null);
+  }
+
+  public DeDupProcessor(int recordCountWindow, int timeWindowSecs,
+      SelectFields compareFields, List<String> fieldsToCompare, DeDupIndexType indexType, String windowFile) {
     this.recordCountWindow = recordCountWindow;
     this.timeWindowSecs = timeWindowSecs;
     this.compareFields = compareFields;
     this.fieldsToCompare = fieldsToCompare;
+    this.indexType = indexType;
+    this.windowFile = windowFile;
   }
 
   private static final Object VOID = new Object();
@@ -62,6 +74,7 @@ public class DeDupProcessor extends RecordProcessor {
   private HashingUtil.RecordFunnel funnel;
   private Cache<HashCode, HashCode> hashCache;
   private XEvictingQueue<HashCode> hashBuffer;
+  private OffHeapHashIndex hashIndex;
   private String uniqueLane;
   private String duplicateLane;
 
@@ -83,9 +96,14 @@ public class DeDupProcessor extends RecordProcessor {
       issues.add(getContext().createConfigIssue(Groups.DE_DUP.name(), "compareFields", Errors.DEDUP_02));
     }
 
+    if (indexType == DeDupIndexType.MAPPED_FILE && (windowFile == null || windowFile.trim().isEmpty())) {
+      issues.add(getContext().createConfigIssue(Groups.DE_DUP.name(), "windowFile", Errors.DEDUP_05));
+    }
+
     long estimatedMemory = MEMORY_USAGE_PER_HASH * recordCountWindow;
     long maxPipelineMemoryBytes = getContext().getPipelineMaxMemory() * 1000 * 1000;
-    if (estimatedMemory > maxPipelineMemoryBytes) {
+    // Off heap indexes don't count towards the heap
+    if (indexType == DeDupIndexType.HEAP && estimatedMemory > maxPipelineMemoryBytes) {
       issues.add(getContext().createConfigIssue(Groups.DE_DUP.name(), "recordCountWindow", Errors.DEDUP_03,
         recordCountWindow, estimatedMemory / (1000 * 1000), getContext().getPipelineMaxMemory()));
         //MiB to bytes conversion, use  1000 * 1000 instead of 1024 * 1024
@@ -97,25 +115,14 @@ public class DeDupProcessor extends RecordProcessor {
           HashingUtil.getRecordFunnel(fieldsToCompare, false, true);
 
       Map<String, Object> runnerSharedMap = getContext().getStageRunnerSharedMap();
-      synchronized (runnerSharedMap) {
-        if(!runnerSharedMap.containsKey(CACHE_KEY)) {
-          CacheBuilder cacheBuilder = CacheBuilder.newBuilder();
-          if (timeWindowSecs > 0) {
-            cacheBuilder.expireAfterWrite(timeWindowSecs, TimeUnit.SECONDS);
-          }
-          if(LOG.isDebugEnabled()) {
-            cacheBuilder.recordStats();
-          }
-          hashCache = cacheBuilder.build();
-
-          runnerSharedMap.put(CACHE_KEY, hashCache);
-        } else {
-          hashCache = (Cache<HashCode, HashCode>) runnerSharedMap.get(CACHE_KEY);
-        }
+      if (indexType == DeDupIndexType.HEAP) {
+        initCache(runnerSharedMap);
+        cacheCleaner = new CacheCleaner(hashCache, "DeDupProcessor", 10 * 60 * 1000);
+        hashBuffer = XEvictingQueue.create(recordCountWindow);
+      } else {
+        initIndex(runnerSharedMap, issues);
       }
-      cacheCleaner = new CacheCleaner(hashCache, "DeDupProcessor", 10 * 60 * 1000);
 
-      hashBuffer = XEvictingQueue.create(recordCountWindow);
       hashAttrName = getInfo() + ".hash";
       uniqueLane = getContext().getOutputLanes().get(OutputStreams.UNIQUE.ordinal());
       duplicateLane = getContext().getOutputLanes().get(OutputStreams.DUPLICATE.ordinal());
@@ -123,10 +130,68 @@ public class DeDupProcessor extends RecordProcessor {
     return issues;
   }
 
+  @SuppressWarnings("unchecked")
+  private void initCache(Map<String, Object> runnerSharedMap) {
+    synchronized (runnerSharedMap) {
+      if(!runnerSharedMap.containsKey(CACHE_KEY)) {
+        CacheBuilder cacheBuilder = CacheBuilder.newBuilder();
+        if (timeWindowSecs > 0) {
+          cacheBuilder.expireAfterWrite(timeWindowSecs, TimeUnit.SECONDS);
+        }
+        if(LOG.isDebugEnabled()) {
+          cacheBuilder.recordStats();
+        }
+        hashCache = cacheBuilder.build();
+
+        runnerSharedMap.put(CACHE_KEY, hashCache);
+      } else {
+        hashCache = (Cache<HashCode, HashCode>) runnerSharedMap.get(CACHE_KEY);
+      }
+    }
+  }
+
+  private void initIndex(Map<String, Object> runnerSharedMap, List<ConfigIssue> issues) {
+    // All runners of a multithreaded pipeline share the index, it is striped to keep contention low
+    synchronized (runnerSharedMap) {
+      hashIndex = (OffHeapHashIndex) runnerSharedMap.get(INDEX_KEY);
+      if (hashIndex == null) {
+        long timeWindowMillis = TimeUnit.SECONDS.toMillis(timeWindowSecs);
+        try {
+          if (indexType == DeDupIndexType.MAPPED_FILE) {
+            hashIndex = OffHeapHashIndex.open(new File(windowFile), recordCountWindow, timeWindowMillis);
+          } else {
+            hashIndex = OffHeapHashIndex.create(recordCountWindow, timeWindowMillis);
+          }
+          runnerSharedMap.put(INDEX_KEY, hashIndex);
+        } catch (IOException | OutOfMemoryError e) {
+          // Direct memory is limited separately from the heap, running out of it is a configuration problem
+          LOG.error("Can't create deduplication index", e);
+          issues.add(getContext().createConfigIssue(Groups.DE_DUP.name(), "indexType", Errors.DEDUP_06, e.toString()));
+        }
+      }
+    }
+  }
+
+  @Override
+  public void destroy() {
+    if (hashIndex != null) {
+      try {
+        hashIndex.close();
+      } catch (IOException e) {
+        LOG.error("Error closing deduplication index", e);
+      }
+    }
+    super.destroy();
+  }
+
   boolean duplicateCheck(Record record) throws ExecutionException {
     HashCode hash = hasher.hashObject(record, funnel);
     record.getHeader().setAttribute(hashAttrName, hash.toString());
 
+    if (hashIndex != null) {
+      return !hashIndex.add(hash);
+    }
+
     HashCode hashInstance = hashCache.get(hash, () -> hash);
     // We are riding on the fact that if the instance is the same we just added and it is not a dup
     boolean dup = hashInstance != hash;
@@ -145,7 +210,7 @@ public class DeDupProcessor extends RecordProcessor {
 
   @Override
   public void process(Batch batch, BatchMaker batchMaker) throws StageException {
-    if (!batch.getRecords().hasNext()) {
+    if (cacheCleaner != null && !batch.getRecords().hasNext()) {
       // No records - take the opportunity to clean up the cache so that we don't hold on to memory indefinitely
       cacheCleaner.periodicCleanUp();
     }
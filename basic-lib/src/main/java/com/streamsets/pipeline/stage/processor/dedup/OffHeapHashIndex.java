@@ -0,0 +1,418 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.dedup;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.HashCode;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+
+/**
+ * Set of 128-bit hashes with a bounded size and optional time window, stored outside of the java heap.
+ *
+ * The index is split into a power of two number of stripes, each guarded by its own lock and selected by the hash
+ * itself, so that several pipeline runners can share the index without contending on a single lock. Every stripe
+ * holds a FIFO ring of entries (hash + insertion time) and an open-addressing (linear probing) table of int references
+ * into the ring. When a stripe is full its oldest entry is evicted, entries older than the time window are evicted
+ * lazily when the stripe is next updated. As hashes are uniformly distributed the stripes fill up evenly, so the
+ * eviction order is FIFO per stripe and approximately FIFO for the index as a whole; small indexes use a single
+ * stripe and are exact.
+ *
+ * The stripes are either direct byte buffers or regions of a memory mapped file. In the latter case the content of
+ * the index survives restarts of the pipeline (and of the JVM).
+ */
+public class OffHeapHashIndex implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(OffHeapHashIndex.class);
+
+  private static final long MAGIC = 0x5344434445445550L;
+  private static final int VERSION = 1;
+  private static final int FILE_HEADER_SIZE = 64;
+  private static final int CLEAN_FLAG_OFFSET = 28;
+
+  private static final int MIN_ENTRIES_PER_STRIPE = 1024;
+  private static final int MAX_STRIPES = 64;
+  private static final long MAX_STRIPE_BYTES = 1L << 30;
+
+  private final Stripe[] stripes;
+  private final int stripeMask;
+  private final long timeWindowMillis;
+  private final RandomAccessFile file;
+  private final FileLock lock;
+  private final MappedByteBuffer header;
+  private boolean closed;
+
+  private OffHeapHashIndex(
+      Stripe[] stripes,
+      long timeWindowMillis,
+      RandomAccessFile file,
+      FileLock lock,
+      MappedByteBuffer header
+  ) {
+    this.stripes = stripes;
+    this.stripeMask = stripes.length - 1;
+    this.timeWindowMillis = timeWindowMillis;
+    this.file = file;
+    this.lock = lock;
+    this.header = header;
+  }
+
+  /**
+   * Creates an index backed by direct memory; its content is lost when the index is garbage collected.
+   *
+   * @param capacity maximum number of hashes kept by the index
+   * @param timeWindowMillis hashes older than this are evicted, zero to keep hashes until the index is full
+   */
+  public static OffHeapHashIndex create(int capacity, long timeWindowMillis) {
+    Layout layout = new Layout(capacity);
+    Stripe[] stripes = new Stripe[layout.stripes];
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new Stripe(ByteBuffer.allocateDirect((int) layout.stripeBytes), layout);
+    }
+    return new OffHeapHashIndex(stripes, timeWindowMillis, null, null, null);
+  }
+
+  /**
+   * Opens (or creates) an index persisted in the given file. If the file was written by an index with a different
+   * capacity it is reset.
+   *
+   * @param path file backing the index, it is locked for as long as the index is open
+   * @param capacity maximum number of hashes kept by the index
+   * @param timeWindowMillis hashes older than this are evicted, zero to keep hashes until the index is full
+   */
+  public static OffHeapHashIndex open(File path, int capacity, long timeWindowMillis) throws IOException {
+    Layout layout = new Layout(capacity);
+    long fileSize = FILE_HEADER_SIZE + layout.stripes * layout.stripeBytes;
+
+    RandomAccessFile file = new RandomAccessFile(path, "rw");
+    try {
+      FileChannel channel = file.getChannel();
+      FileLock lock;
+      try {
+        lock = channel.tryLock();
+      } catch (OverlappingFileLockException ex) {
+        lock = null;
+      }
+      if (lock == null) {
+        throw new IOException(Utils.format("File '{}' is in use by another deduplicator", path));
+      }
+
+      MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_HEADER_SIZE);
+      boolean reuse = file.length() == fileSize &&
+          header.getLong(0) == MAGIC &&
+          header.getInt(8) == VERSION &&
+          header.getInt(12) == layout.stripes &&
+          header.getInt(16) == layout.capacity &&
+          header.getInt(20) == layout.tableSize;
+      boolean clean = header.getInt(CLEAN_FLAG_OFFSET) == 1;
+
+      if (!reuse) {
+        LOG.info("Initializing deduplication index file '{}' for {} records", path, capacity);
+        // Truncating and growing the file again zeroes it, which is a valid empty index
+        file.setLength(0);
+        file.setLength(fileSize);
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_HEADER_SIZE);
+        header.putLong(0, MAGIC);
+        header.putInt(8, VERSION);
+        header.putInt(12, layout.stripes);
+        header.putInt(16, layout.capacity);
+        header.putInt(20, layout.tableSize);
+        clean = true;
+      }
+
+      Stripe[] stripes = new Stripe[layout.stripes];
+      for (int i = 0; i < stripes.length; i++) {
+        MappedByteBuffer buffer = channel.map(
+            FileChannel.MapMode.READ_WRITE,
+            FILE_HEADER_SIZE + i * layout.stripeBytes,
+            layout.stripeBytes
+        );
+        stripes[i] = new Stripe(buffer, layout);
+        if (!clean) {
+          // The index was not closed properly, an update might have been interrupted half way
+          stripes[i].rebuild();
+        }
+      }
+      if (!clean) {
+        LOG.warn("Deduplication index file '{}' was not closed properly, rebuilt its hash tables", path);
+      }
+
+      // Until closed, the content of the file can't be trusted to be consistent
+      header.putInt(CLEAN_FLAG_OFFSET, 0);
+      header.force();
+      return new OffHeapHashIndex(stripes, timeWindowMillis, file, lock, header);
+    } catch (IOException | RuntimeException ex) {
+      file.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * Adds the hash to the index.
+   *
+   * @return true if the hash was added, false if it was already present (i.e. is a duplicate)
+   */
+  public boolean add(HashCode hash) {
+    Preconditions.checkArgument(hash.bits() == 128, "Expected a 128-bit hash, got %s bits", hash.bits());
+    ByteBuffer bytes = ByteBuffer.wrap(hash.asBytes());
+    return add(bytes.getLong(), bytes.getLong());
+  }
+
+  /**
+   * Adds the hash given as its two 64-bit halves to the index.
+   *
+   * @return true if the hash was added, false if it was already present (i.e. is a duplicate)
+   */
+  public boolean add(long hi, long lo) {
+    long now = System.currentTimeMillis();
+    long expireBefore = timeWindowMillis > 0 ? now - timeWindowMillis : Long.MIN_VALUE;
+    return stripes[(int) hi & stripeMask].add(hi, lo, now, expireBefore);
+  }
+
+  /**
+   * Number of hashes currently in the index, including the ones past the time window not yet evicted.
+   */
+  public long size() {
+    long size = 0;
+    for (Stripe stripe : stripes) {
+      size += stripe.size();
+    }
+    return size;
+  }
+
+  /**
+   * Flushes a file backed index to disk and releases the file. Direct memory is released once the index is garbage
+   * collected.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (file != null) {
+      try {
+        for (Stripe stripe : stripes) {
+          stripe.force();
+        }
+        header.putInt(CLEAN_FLAG_OFFSET, 1);
+        header.force();
+        lock.release();
+      } finally {
+        file.close();
+      }
+    }
+  }
+
+  /**
+   * Sizes of the stripes for a given capacity.
+   */
+  private static final class Layout {
+    final int stripes;
+    final int capacity;
+    final int tableSize;
+    final long stripeBytes;
+
+    Layout(int totalCapacity) {
+      Preconditions.checkArgument(totalCapacity > 0, "Capacity must be greater than zero");
+      int count = 1;
+      while (count < MAX_STRIPES && totalCapacity / (count * 2) >= MIN_ENTRIES_PER_STRIPE) {
+        count *= 2;
+      }
+      while (Stripe.bytes(capacityPerStripe(totalCapacity, count)) > MAX_STRIPE_BYTES) {
+        count *= 2;
+      }
+      this.stripes = count;
+      this.capacity = capacityPerStripe(totalCapacity, count);
+      this.tableSize = Stripe.tableSize(capacity);
+      this.stripeBytes = Stripe.bytes(capacity);
+    }
+
+    private static int capacityPerStripe(int totalCapacity, int stripes) {
+      return (int) (((long) totalCapacity + stripes - 1) / stripes);
+    }
+  }
+
+  /**
+   * Single stripe of the index. Layout of the buffer:
+   *
+   * int head, int size, 8 bytes padding
+   * capacity entries of (long hi, long lo, long timestamp) forming the FIFO ring
+   * tableSize int slots, each either 0 (empty) or 1 + index of an entry in the ring
+   */
+  private static final class Stripe {
+    private static final int HEADER_SIZE = 16;
+    private static final int ENTRY_SIZE = 24;
+    private static final int SLOT_SIZE = 4;
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final int tableOffset;
+    private final int tableMask;
+    private int head;
+    private int size;
+
+    Stripe(ByteBuffer buffer, Layout layout) {
+      this.buffer = buffer;
+      this.capacity = layout.capacity;
+      this.tableOffset = HEADER_SIZE + capacity * ENTRY_SIZE;
+      this.tableMask = layout.tableSize - 1;
+      this.head = buffer.getInt(0);
+      this.size = buffer.getInt(4);
+      if (head < 0 || head >= capacity || size < 0 || size > capacity) {
+        LOG.warn("Invalid deduplication index stripe (head {}, size {}), resetting it", head, size);
+        head = 0;
+        size = 0;
+        rebuild();
+      }
+    }
+
+    static int tableSize(int capacity) {
+      // Keep the load factor at or below 0.5 so that probe sequences stay short
+      return Integer.highestOneBit(Math.max(capacity, 1) * 2 - 1) << 1;
+    }
+
+    static long bytes(int capacity) {
+      return HEADER_SIZE + (long) capacity * ENTRY_SIZE + (long) tableSize(capacity) * SLOT_SIZE;
+    }
+
+    synchronized int size() {
+      return size;
+    }
+
+    synchronized boolean add(long hi, long lo, long now, long expireBefore) {
+      while (size > 0 && timestamp(head) < expireBefore) {
+        removeOldest();
+      }
+
+      int slot = home(lo);
+      int ref;
+      while ((ref = slot(slot)) != 0) {
+        int entry = ref - 1;
+        if (lo(entry) == lo && hi(entry) == hi) {
+          return false;
+        }
+        slot = (slot + 1) & tableMask;
+      }
+
+      if (size == capacity) {
+        removeOldest();
+        // Removal shifts slots around, the free slot has to be looked up again
+        slot = home(lo);
+        while (slot(slot) != 0) {
+          slot = (slot + 1) & tableMask;
+        }
+      }
+
+      int entry = (head + size) % capacity;
+      int offset = HEADER_SIZE + entry * ENTRY_SIZE;
+      buffer.putLong(offset, hi);
+      buffer.putLong(offset + 8, lo);
+      buffer.putLong(offset + 16, now);
+      setSlot(slot, entry + 1);
+      setHeadAndSize(head, size + 1);
+      return true;
+    }
+
+    synchronized void rebuild() {
+      for (int slot = 0; slot <= tableMask; slot++) {
+        setSlot(slot, 0);
+      }
+      for (int i = 0; i < size; i++) {
+        int entry = (head + i) % capacity;
+        int slot = home(lo(entry));
+        while (slot(slot) != 0) {
+          slot = (slot + 1) & tableMask;
+        }
+        setSlot(slot, entry + 1);
+      }
+      setHeadAndSize(head, size);
+    }
+
+    synchronized void force() {
+      if (buffer instanceof MappedByteBuffer) {
+        ((MappedByteBuffer) buffer).force();
+      }
+    }
+
+    private void removeOldest() {
+      int entry = head;
+      int slot = home(lo(entry));
+      while (slot(slot) != entry + 1) {
+        slot = (slot + 1) & tableMask;
+      }
+      deleteSlot(slot);
+      setHeadAndSize((head + 1) % capacity, size - 1);
+    }
+
+    // Backward shift deletion, moves following entries of the probe sequence into the hole so that no tombstones
+    // are needed
+    private void deleteSlot(int hole) {
+      int next = (hole + 1) & tableMask;
+      int ref;
+      while ((ref = slot(next)) != 0) {
+        int home = home(lo(ref - 1));
+        if (((next - home) & tableMask) >= ((next - hole) & tableMask)) {
+          setSlot(hole, ref);
+          hole = next;
+        }
+        next = (next + 1) & tableMask;
+      }
+      setSlot(hole, 0);
+    }
+
+    private void setHeadAndSize(int head, int size) {
+      this.head = head;
+      this.size = size;
+      buffer.putInt(0, head);
+      buffer.putInt(4, size);
+    }
+
+    private int home(long lo) {
+      return (int) lo & tableMask;
+    }
+
+    private int slot(int slot) {
+      return buffer.getInt(tableOffset + slot * SLOT_SIZE);
+    }
+
+    private void setSlot(int slot, int ref) {
+      buffer.putInt(tableOffset + slot * SLOT_SIZE, ref);
+    }
+
+    private long hi(int entry) {
+      return buffer.getLong(HEADER_SIZE + entry * ENTRY_SIZE);
+    }
+
+    private long lo(int entry) {
+      return buffer.getLong(HEADER_SIZE + entry * ENTRY_SIZE + 8);
+    }
+
+    private long timestamp(int entry) {
+      return buffer.getLong(HEADER_SIZE + entry * ENTRY_SIZE + 16);
+    }
+  }
+}
@@ -15,6 +15,7 @@
  */
 package com.streamsets.pipeline.stage.processor.fieldfilter;
 
+import com.streamsets.datacollector.record.FieldPath;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.base.SingleLaneRecordProcessor;
@@ -35,6 +36,7 @@ public class FieldFilterProcessor extends SingleLaneRecordProcessor {
 
   private final FilterOperation filterOperation;
   private final List<String> fields;
+  private List<FieldPath> compiledFields;
   private ELEval fieldPathEval;
   private ELVars fieldPathVars;
 
@@ -48,31 +50,46 @@ public class FieldFilterProcessor extends SingleLaneRecordProcessor {
   protected List<ConfigIssue> init() {
     fieldPathEval = getContext().createELEval("fields");
     fieldPathVars = getContext().createELVars();
+    compiledFields = new ArrayList<>(fields.size());
+    for (String field : fields) {
+      FieldPath compiled = null;
+      try {
+        compiled = FieldPath.compileExpression(field);
+      } catch (IllegalArgumentException ex) {
+        // left to the per record matching, which reports it the same way it always did
+      }
+      compiledFields.add(compiled);
+    }
     return super.init();
   }
 
+  private List<String> getMatchingFieldPaths(int fieldIndex, Record record) throws StageException {
+    FieldPath compiled = compiledFields.get(fieldIndex);
+    if (compiled != null && compiled.isLiteral()) {
+      return Collections.singletonList(compiled.getPath());
+    }
+    return FieldPathExpressionUtil.evaluateMatchingFieldPaths(
+        fields.get(fieldIndex), fieldPathEval, fieldPathVars,
+        record
+    );
+  }
+
   @Override
   protected void process(Record record, SingleLaneBatchMaker batchMaker) throws StageException {
-    Set<String> fieldPaths = record.getEscapedFieldPaths();
+    Set<String> fieldPaths;
     List<String> list;
     switch(filterOperation) {
       case REMOVE:
         list = new ArrayList<>();
-        for(String field : fields) {
-          List<String> matchingFieldPaths = FieldPathExpressionUtil.evaluateMatchingFieldPaths(
-              field, fieldPathEval, fieldPathVars,
-              record
-          );
-          list.addAll(matchingFieldPaths);
+        for (int i = 0; i < fields.size(); i++) {
+          list.addAll(getMatchingFieldPaths(i, record));
         }
         break;
       case REMOVE_NULL:
+        fieldPaths = record.getEscapedFieldPaths();
         list = new ArrayList<>();
-        for (String field : fields) {
-          List<String> matchingFieldPaths = FieldPathExpressionUtil.evaluateMatchingFieldPaths(
-              field, fieldPathEval, fieldPathVars,
-              record
-          );
+        for (int i = 0; i < fields.size(); i++) {
+          List<String> matchingFieldPaths = getMatchingFieldPaths(i, record);
           for (String fieldPath : matchingFieldPaths) {
             if (fieldPaths.contains(fieldPath) && record.get(fieldPath).getValue() == null) {
               list.add(fieldPath);
@@ -92,9 +109,11 @@ public class FieldFilterProcessor extends SingleLaneRecordProcessor {
 
         Set<String> fieldsToRemove = new HashSet<>();
         //List all the possible field paths in this record
+        fieldPaths = record.getEscapedFieldPaths();
         fieldsToRemove.addAll(fieldPaths);
 
-        for(String field : fields) {
+        for (int i = 0; i < fields.size(); i++) {
+          String field = fields.get(i);
           //Keep parent fields
 
           //get the parent fieldPaths for each of the fields to keep
@@ -111,10 +130,7 @@ public class FieldFilterProcessor extends SingleLaneRecordProcessor {
           //remove the field path itself from the fieldsToRemove set
           //Consider wild card characters
 
-          List<String> matchingFieldPaths = FieldPathExpressionUtil.evaluateMatchingFieldPaths(
-              field, fieldPathEval, fieldPathVars,
-              record
-          );
+          List<String> matchingFieldPaths = getMatchingFieldPaths(i, record);
           fieldsToRemove.removeAll(matchingFieldPaths);
           //Keep the children of the field
 
@@ -36,6 +36,7 @@ import java.io.FileWriter;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
 import java.nio.file.attribute.FileTime;
@@ -808,4 +809,58 @@ public class TestDirectorySpooler {
 
     spooler.destroy();
   }
+
+  // files land by being moved into the spool directory once they are complete
+  private File landFile(String name, long lastModified) throws Exception {
+    File staging = new File(spoolDir.getParentFile(), "staging");
+    staging.mkdirs();
+    Path file = new File(staging, name).toPath();
+    Files.write(file, name.getBytes());
+    Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified));
+    return Files.move(file, new File(spoolDir, name).toPath()).toFile().getAbsoluteFile();
+  }
+
+  @Test
+  public void testWatchServicePicksUpNewFiles() throws Exception {
+    assertTrue(spoolDir.mkdirs());
+    DirectorySpooler.Builder builder = initializeAndGetBuilder()
+        .setMaxSpoolFiles(10)
+        .setSpoolingPeriodSec(3600)
+        .setUseWatchService(true);
+    DirectorySpooler spooler = builder.build();
+
+    spooler.init(null);
+    Assert.assertNull(spooler.poolForFile(0, TimeUnit.MILLISECONDS));
+
+    // the periodic scan won't run during the test, the file can only be found through the watch service
+    File logFile = landFile("x1.log", System.currentTimeMillis() - 1000);
+    Assert.assertEquals(logFile, spooler.poolForFile(10, TimeUnit.SECONDS));
+
+    // older than the current file
+    landFile("x0.log", System.currentTimeMillis() - 1000);
+    Assert.assertNull(spooler.poolForFile(500, TimeUnit.MILLISECONDS));
+    spooler.destroy();
+  }
+
+  @Test
+  public void testWatchServiceKeepsTimestampOrdering() throws Exception {
+    assertTrue(spoolDir.mkdirs());
+    DirectorySpooler.Builder builder = initializeAndGetBuilder()
+        .setMaxSpoolFiles(10)
+        .setSpoolingPeriodSec(3600)
+        .setUseLastModifiedTimestamp(true)
+        .setUseWatchService(true);
+    DirectorySpooler spooler = builder.build();
+
+    spooler.init("");
+
+    long now = System.currentTimeMillis();
+    File logFile2 = landFile("x2.log", now - 2000);
+    Thread.sleep(50);
+    File logFile1 = landFile("x1.log", now - 1000);
+
+    Assert.assertEquals(logFile2, spooler.poolForFile(10, TimeUnit.SECONDS));
+    Assert.assertEquals(logFile1, spooler.poolForFile(10, TimeUnit.SECONDS));
+    spooler.destroy();
+  }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.dirspooler;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import com.streamsets.pipeline.stage.origin.spooldir.BadSpoolFileException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.UUID;
+
+public class TestFileSplitter {
+
+  private File createFile(int lines) throws Exception {
+    File dir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(dir.mkdirs());
+    File file = new File(dir, "file-0.log");
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < lines; i++) {
+      // lines of different lengths, so boundaries rarely fall on a line start
+      sb.append(i).append('\n');
+    }
+    Files.write(file.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  private String read(FileSplitter.Split split) throws Exception {
+    try (InputStream in = split.open()) {
+      return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+    }
+  }
+
+  @Test
+  public void testSmallFileNotSplit() throws Exception {
+    File file = createFile(10);
+    FileSplitter splitter = new FileSplitter(file.length());
+    Assert.assertNull(splitter.split(file, 0));
+    Assert.assertNull(splitter.nextSplit());
+  }
+
+  @Test
+  public void testSplitsAlignedToLines() throws Exception {
+    File file = createFile(1000);
+    FileSplitter splitter = new FileSplitter(1000);
+    FileSplitter.SplitFile splitFile = splitter.split(file, 0);
+    Assert.assertNotNull(splitFile);
+    Assert.assertTrue(splitFile.getSplitCount() > 1);
+
+    StringBuilder content = new StringBuilder();
+    FileSplitter.Split split;
+    while ((split = splitter.nextSplit()) != null) {
+      String text = read(split);
+      Assert.assertTrue(text.endsWith("\n"));
+      if (split.getStart() > 0) {
+        // the previous range ended with a whole line
+        Assert.assertEquals('\n', new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8)
+            .charAt((int) split.getStart() - 1));
+      }
+      content.append(text);
+    }
+    Assert.assertEquals(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), content.toString());
+  }
+
+  @Test
+  public void testPositionOnlyMovesPastDoneRanges() throws Exception {
+    File file = createFile(1000);
+    FileSplitter splitter = new FileSplitter(1000);
+    FileSplitter.SplitFile splitFile = splitter.split(file, 0);
+    FileSplitter.Split split0 = splitter.nextSplit();
+    FileSplitter.Split split1 = splitter.nextSplit();
+    FileSplitter.Split split2 = splitter.nextSplit();
+
+    Assert.assertEquals(0, splitFile.getPosition());
+    splitFile.finished(split1);
+    Assert.assertEquals(0, splitFile.getPosition());
+    splitFile.finished(split0);
+    Assert.assertEquals(split2.getStart(), splitFile.getPosition());
+    Assert.assertFalse(splitFile.isDone());
+
+    FileSplitter.Split split;
+    while ((split = splitter.nextSplit()) != null) {
+      splitFile.finished(split);
+    }
+    splitFile.finished(split2);
+    Assert.assertTrue(splitFile.isDone());
+    Assert.assertEquals(file.length(), splitFile.getPosition());
+  }
+
+  @Test
+  public void testFailureDropsPendingRanges() throws Exception {
+    File file = createFile(1000);
+    FileSplitter splitter = new FileSplitter(1000);
+    FileSplitter.SplitFile splitFile = splitter.split(file, 0);
+    FileSplitter.Split split0 = splitter.nextSplit();
+
+    splitFile.fail(new BadSpoolFileException(file.getAbsolutePath(), "0", new IOException()));
+    Assert.assertTrue(splitFile.isFailed());
+    Assert.assertNull(splitter.nextSplit());
+    Assert.assertFalse(splitFile.isDone());
+    splitFile.finished(split0);
+    Assert.assertTrue(splitFile.isDone());
+  }
+
+  @Test
+  public void testSplitFromPosition() throws Exception {
+    File file = createFile(1000);
+    FileSplitter splitter = new FileSplitter(1000);
+    List<Long> boundaries = splitter.getBoundaries(file, 0, file.length());
+
+    // resuming from a committed position reads only what follows it, even if it is less than a split
+    long position = boundaries.get(boundaries.size() - 2);
+    FileSplitter.SplitFile splitFile = splitter.split(file, position);
+    Assert.assertEquals(1, splitFile.getSplitCount());
+    Assert.assertEquals(position, splitter.nextSplit().getStart());
+    Assert.assertEquals(ImmutableList.of(position, file.length()), splitter.getBoundaries(file, position, file.length()));
+  }
+}
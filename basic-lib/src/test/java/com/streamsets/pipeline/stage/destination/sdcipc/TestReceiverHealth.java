@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.sdcipc;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestReceiverHealth {
+
+  @Test
+  public void testRoundRobin() {
+    ReceiverHealth health = new ReceiverHealth(ImmutableList.of("a:1", "b:1", "c:1"));
+    Assert.assertEquals("a:1", health.next());
+    Assert.assertEquals("b:1", health.next());
+    Assert.assertEquals("c:1", health.next());
+    Assert.assertEquals("a:1", health.next());
+  }
+
+  @Test
+  public void testFailedReceiverIsSkipped() {
+    ReceiverHealth health = new ReceiverHealth(ImmutableList.of("a:1", "b:1"));
+    health.failed("a:1");
+    Assert.assertFalse(health.isHealthy("a:1"));
+    Assert.assertEquals("b:1", health.next());
+    Assert.assertEquals("b:1", health.next());
+
+    health.succeeded("a:1");
+    Assert.assertTrue(health.isHealthy("a:1"));
+    Assert.assertEquals("a:1", health.next());
+  }
+
+  @Test
+  public void testAllReceiversFailing() {
+    ReceiverHealth health = new ReceiverHealth(ImmutableList.of("a:1", "b:1"));
+    health.failed("a:1");
+    health.failed("b:1");
+    health.failed("b:1");
+    // a:1 is retried sooner as it failed fewer times
+    Assert.assertEquals("a:1", health.next());
+  }
+
+  @Test
+  public void testBackOff() {
+    Assert.assertEquals(ReceiverHealth.BACK_OFF_MS, ReceiverHealth.getBackOff(1));
+    Assert.assertEquals(2 * ReceiverHealth.BACK_OFF_MS, ReceiverHealth.getBackOff(2));
+    Assert.assertEquals(ReceiverHealth.MAX_BACK_OFF_MS, ReceiverHealth.getBackOff(100));
+  }
+
+}
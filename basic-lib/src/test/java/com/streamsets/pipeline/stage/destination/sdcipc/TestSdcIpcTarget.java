@@ -24,6 +24,7 @@ import com.streamsets.pipeline.api.ext.RecordReader;
 import com.streamsets.pipeline.sdk.RecordCreator;
 import com.streamsets.pipeline.sdk.TargetRunner;
 import com.streamsets.pipeline.stage.util.tls.TLSTestUtils;
+import com.streamsets.testing.NetworkUtils;
 import org.eclipse.jetty.server.Connector;
 import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConnectionFactory;
@@ -47,13 +48,16 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.ConnectException;
 import java.net.HttpURLConnection;
+import java.net.SocketException;
 import java.security.KeyPair;
 import java.security.cert.Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TestSdcIpcTarget {
 
@@ -181,6 +185,51 @@ public class TestSdcIpcTarget {
     }
   }
 
+  @Test
+  public void testWriteRetriedOnBrokenConnection() throws Exception {
+    HttpURLConnection conn = Mockito.mock(MockHttpURLConnection.class);
+    Configs config = new ForTestConfigs(conn);
+    config.appId = () -> "appId";
+    config.connectionTimeOutMs = 100;
+    config.readTimeOutMs = 200;
+    config.hostPorts = ImmutableList.of("localhost:10000");
+    config.retriesPerBatch = 0;
+    config.tlsConfigBean.tlsEnabled = false;
+    config.tlsConfigBean.trustStoreFilePath = "";
+    config.tlsConfigBean.trustStorePassword = () -> "";
+    config.hostVerification = true;
+
+    SdcIpcTarget target = new SdcIpcTarget(config);
+
+    TargetRunner runner = new TargetRunner.Builder(SdcIpcDTarget.class, target)
+        .setOnRecordError(OnRecordError.TO_ERROR).build();
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    Mockito.when(conn.getResponseCode()).thenReturn(HttpURLConnection.HTTP_OK);
+    Mockito.when(conn.getHeaderField(Mockito.eq(Constants.X_SDC_PING_HEADER))).thenReturn(Constants.X_SDC_PING_VALUE);
+
+    try {
+      runner.runInit();
+
+      // kept-alive connection closed by the receiver, the request goes again over a new one
+      Mockito.when(conn.getOutputStream()).thenThrow(new SocketException("Connection reset")).thenReturn(baos);
+      runner.runWrite(ImmutableList.of(RecordCreator.create(), RecordCreator.create()));
+      Assert.assertTrue(runner.getErrorRecords().isEmpty());
+      Assert.assertTrue(runner.getErrors().isEmpty());
+      Mockito.verify(conn, Mockito.times(2)).getOutputStream();
+      Mockito.verify(conn).disconnect();
+
+      // receiver not available, no second attempt
+      Mockito.reset(conn);
+      Mockito.when(conn.getOutputStream()).thenThrow(new ConnectException("Connection refused"));
+      runner.runWrite(ImmutableList.of(RecordCreator.create(), RecordCreator.create()));
+      Assert.assertEquals(2, runner.getErrorRecords().size());
+      Mockito.verify(conn, Mockito.times(1)).getOutputStream();
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
   private void testWriteError(boolean connectionError, boolean badResponse) throws Exception {
     int writeResponseCode = (badResponse) ? HttpURLConnection.HTTP_BAD_REQUEST : HttpURLConnection.HTTP_OK;
 
@@ -280,6 +329,7 @@ public class TestSdcIpcTarget {
 
   private static class ReceiverServlet extends HttpServlet {
     boolean compressedData;
+    final AtomicInteger requests = new AtomicInteger();
 
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
@@ -305,6 +355,7 @@ public class TestSdcIpcTarget {
                          req.getHeader(Constants.X_SDC_COMPRESSION_HEADER).equals(Constants.SNAPPY_COMPRESSION);
         InputStream is = req.getInputStream();
         while (is.read() > 1);
+        requests.incrementAndGet();
         resp.setStatus(HttpServletResponse.SC_OK);
       }
     }
@@ -508,5 +559,51 @@ public class TestSdcIpcTarget {
     }
   }
 
+  @Test
+  public void testParallelRequests() throws Exception {
+    Server server = new Server(0);
+    ServletContextHandler context = new ServletContextHandler();
+    ReceiverServlet servlet = new ReceiverServlet();
+    context.addServlet(new ServletHolder(servlet), Constants.IPC_PATH);
+    context.setContextPath("/");
+    server.setHandler(context);
+    try {
+      server.start();
+
+      Configs config = new Configs();
+      config.appId = () -> "appId";
+      config.connectionTimeOutMs = 1000;
+      config.readTimeOutMs = 2000;
+      // nothing listens on the second one, its requests have to be retried on the first one
+      config.hostPorts = Arrays.asList(
+          "localhost:" + server.getURI().getPort(),
+          "localhost:" + NetworkUtils.getRandomPort()
+      );
+      config.retriesPerBatch = 2;
+      config.tlsConfigBean.tlsEnabled = false;
+      config.hostVerification = true;
+      config.compression = true;
+      config.maxParallelRequests = 4;
+
+      SdcIpcTarget target = new SdcIpcTarget(config);
+      TargetRunner runner = new TargetRunner.Builder(SdcIpcDTarget.class, target)
+          .setOnRecordError(OnRecordError.TO_ERROR).build();
+      try {
+        runner.runInit();
+        List<Record> records = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+          records.add(RecordCreator.create());
+        }
+        runner.runWrite(records);
+        Assert.assertTrue(runner.getErrorRecords().isEmpty());
+        Assert.assertTrue(runner.getErrors().isEmpty());
+        Assert.assertEquals(4, servlet.requests.get());
+      } finally {
+        runner.runDestroy();
+      }
+    } finally {
+      server.stop();
+    }
+  }
 
 }
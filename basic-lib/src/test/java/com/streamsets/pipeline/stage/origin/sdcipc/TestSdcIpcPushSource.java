@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.sdcipc;
+
+import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.ext.ContextExtensions;
+import com.streamsets.pipeline.api.ext.RecordWriter;
+import com.streamsets.pipeline.sdk.PushSourceRunner;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import com.streamsets.pipeline.stage.destination.sdcipc.Constants;
+import com.streamsets.testing.NetworkUtils;
+import org.awaitility.Duration;
+import org.iq80.snappy.SnappyFramedOutputStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+
+public class TestSdcIpcPushSource {
+
+  private static HttpURLConnection createConnection(int port, String path) throws Exception {
+    HttpURLConnection conn = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+    conn.setRequestProperty(Constants.X_SDC_APPLICATION_ID_HEADER, "appId");
+    conn.setConnectTimeout(1000);
+    conn.setReadTimeout(10000);
+    return conn;
+  }
+
+  private static boolean isRunning(int port) {
+    try {
+      return createConnection(port, Constants.IPC_PATH).getResponseCode() == HttpURLConnection.HTTP_OK;
+    } catch (Exception ex) {
+      return false;
+    }
+  }
+
+  private static int sendRecords(int port, ContextExtensions ext, List<Record> records) throws Exception {
+    HttpURLConnection conn = createConnection(port, Constants.IPC_PATH);
+    conn.setRequestMethod("POST");
+    conn.setRequestProperty(Constants.CONTENT_TYPE_HEADER, Constants.APPLICATION_BINARY);
+    conn.setRequestProperty(Constants.X_SDC_COMPRESSION_HEADER, Constants.SNAPPY_COMPRESSION);
+    conn.setDoOutput(true);
+    OutputStream os = new SnappyFramedOutputStream(conn.getOutputStream());
+    RecordWriter writer = ext.createRecordWriter(os);
+    for (Record record : records) {
+      writer.write(record);
+    }
+    writer.close();
+    return conn.getResponseCode();
+  }
+
+  @Test
+  public void testConcurrentRequests() throws Exception {
+    final int threads = 4;
+    final Configs configs = new Configs();
+    configs.appId = () -> "appId";
+    configs.tlsConfigBean.tlsEnabled = false;
+    configs.port = NetworkUtils.getRandomPort();
+    configs.maxRecordSize = 10;
+    SdcIpcPushSource source = new SdcIpcPushSource(configs, threads);
+    PushSourceRunner runner = new PushSourceRunner.Builder(SdcIpcDPushSource.class, source)
+        .addOutputLane("lane")
+        .build();
+    runner.runInit();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      // every runner blocks until all of them got a batch, which only happens if requests are served concurrently
+      CountDownLatch allRunnersBusy = new CountDownLatch(threads);
+      AtomicInteger received = new AtomicInteger();
+      runner.runProduce(Collections.emptyMap(), 10, output -> {
+        received.addAndGet(output.getRecords().get("lane").size());
+        allRunnersBusy.countDown();
+        try {
+          allRunnersBusy.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      await().atMost(Duration.TEN_SECONDS).until(() -> isRunning(configs.port));
+
+      ContextExtensions ext = (ContextExtensions) runner.getContext();
+      List<Future<Integer>> responses = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        Record r1 = RecordCreator.create();
+        r1.set(Field.create(i));
+        Record r2 = RecordCreator.create();
+        r2.set(Field.create(i));
+        responses.add(executor.submit(() -> sendRecords(configs.port, ext, ImmutableList.of(r1, r2))));
+      }
+      for (Future<Integer> response : responses) {
+        Assert.assertEquals(HttpURLConnection.HTTP_OK, (int) response.get(20, TimeUnit.SECONDS));
+      }
+      Assert.assertEquals(0, allRunnersBusy.getCount());
+      Assert.assertEquals(2 * threads, received.get());
+
+      runner.setStop();
+      runner.waitOnProduce();
+    } finally {
+      executor.shutdownNow();
+      runner.runDestroy();
+    }
+  }
+
+}
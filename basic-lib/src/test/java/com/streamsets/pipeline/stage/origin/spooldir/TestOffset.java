@@ -124,4 +124,15 @@ public class TestOffset {
     Assert.assertEquals(fileName, offset.getFile());
     Assert.assertEquals("0", offset.getOffset());
   }
+
+  @Test
+  public void testSplitPosition() throws Exception {
+    Offset offset = new Offset(Offset.VERSION_ONE, "file1", "0");
+    Assert.assertNull(offset.getSplitPosition());
+    offset.setSplitPosition(1024L);
+
+    Offset read = new Offset(Offset.VERSION_ONE, offset.getFile(), offset.getOffsetString());
+    Assert.assertEquals("0", read.getOffset());
+    Assert.assertEquals(Long.valueOf(1024), read.getSplitPosition());
+  }
 }
@@ -1006,4 +1006,156 @@ public class TestSpoolDirSource {
     }
   }
 
+  private static final int SPLIT_FILE_LINES = 200000;
+
+  // lines of 7 bytes, 1.4 MB
+  private File createSplitFile() throws Exception {
+    File dir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(dir.mkdirs());
+    List<String> lines = new ArrayList<>(SPLIT_FILE_LINES);
+    for (int i = 0; i < SPLIT_FILE_LINES; i++) {
+      lines.add(String.format("%06d", i));
+    }
+    try (FileOutputStream outputStream = new FileOutputStream(new File(dir, "file-0.log"))) {
+      IOUtils.writeLines(lines, "\n", outputStream);
+    }
+    return dir;
+  }
+
+  private SpoolDirConfigBean createTextConf(File dir) {
+    SpoolDirConfigBean conf = new SpoolDirConfigBean();
+    conf.dataFormat = DataFormat.TEXT;
+    conf.spoolDir = dir.getAbsolutePath();
+    conf.batchSize = 1000;
+    conf.overrunLimit = 100;
+    conf.poolingTimeoutSecs = 1;
+    conf.filePattern = "file-[0-9].log";
+    conf.pathMatcherMode = PathMatcherMode.GLOB;
+    conf.maxSpoolFiles = 10;
+    conf.initialFileToProcess = null;
+    conf.dataFormatConfig.compression = Compression.NONE;
+    conf.dataFormatConfig.filePatternInArchive = "*";
+    conf.errorArchiveDir = null;
+    conf.postProcessing = PostProcessingOptions.NONE;
+    conf.retentionTimeMins = 10;
+    conf.dataFormatConfig.textMaxLineLen = 10;
+    conf.dataFormatConfig.onParseError = OnParseError.ERROR;
+    conf.dataFormatConfig.maxStackTraceLines = 0;
+    conf.allowLateDirectory = false;
+    return conf;
+  }
+
+  private List<Record> readSplitFile(File dir, Map<String, String> lastSourceOffset, int expected) throws Exception {
+    SpoolDirConfigBean conf = createTextConf(dir);
+    conf.numberOfThreads = 3;
+    conf.fileSplitSizeMB = 1;
+    return readFile(conf, lastSourceOffset, expected);
+  }
+
+  private List<Record> readFile(
+      SpoolDirConfigBean conf,
+      Map<String, String> lastSourceOffset,
+      int expected
+  ) throws Exception {
+    SpoolDirSource source = new SpoolDirSource(conf);
+    PushSourceRunner runner = new PushSourceRunner.Builder(SpoolDirDSource.class, source).addOutputLane("lane").build();
+
+    final List<Record> records = Collections.synchronizedList(new ArrayList<>(expected));
+    runner.runInit();
+    try {
+      runner.runProduce(lastSourceOffset, 1000, output -> {
+        records.addAll(output.getRecords().get("lane"));
+        // the file is done once its offset is -1
+        if ("file-0.log".equals(output.getOffsetEntity()) && output.getNewOffset().contains("\"-1\"")) {
+          runner.setStop();
+        }
+      });
+      runner.waitOnProduce();
+      TestOffsetUtil.compare("file-0.log::-1", runner.getOffsets());
+    } finally {
+      runner.runDestroy();
+    }
+    Assert.assertEquals(expected, records.size());
+    return records;
+  }
+
+  @Test
+  public void testSplitFileWithMultipleThreads() throws Exception {
+    File dir = createSplitFile();
+    List<Record> records = readSplitFile(dir, new HashMap<>(), SPLIT_FILE_LINES);
+
+    // every line exactly once
+    boolean[] seen = new boolean[SPLIT_FILE_LINES];
+    for (Record record : records) {
+      int line = Integer.parseInt(record.get("/text").getValueAsString());
+      Assert.assertFalse(seen[line]);
+      seen[line] = true;
+    }
+  }
+
+  @Test
+  public void testSplitFileResumesFromSplitPosition() throws Exception {
+    File dir = createSplitFile();
+    // the ranges before line 150000 were processed
+    Map<String, String> lastSourceOffset = ImmutableMap.of(
+        SpoolDirSource.OFFSET_VERSION, OFFSET_VERSION_ONE,
+        "file-0.log", "{\"POS\":\"0\",\"SPLIT_POS\":\"" + (150000 * 7) + "\"}"
+    );
+    List<Record> records = readSplitFile(dir, lastSourceOffset, SPLIT_FILE_LINES - 150000);
+    Assert.assertEquals("150000", records.get(0).get("/text").getValueAsString());
+  }
+
+  private boolean hasSplitIssue(SpoolDirConfigBean conf) throws Exception {
+    conf.numberOfThreads = 3;
+    conf.fileSplitSizeMB = 1;
+    SpoolDirSource source = new SpoolDirSource(conf);
+    PushSourceRunner runner = new PushSourceRunner.Builder(SpoolDirDSource.class, source).addOutputLane("lane").build();
+    return runner.runValidateConfigs().stream().anyMatch(issue -> issue.toString().contains(Errors.SPOOLDIR_36.name()));
+  }
+
+  @Test
+  public void testSplitRequiresOneRecordPerLine() throws Exception {
+    File dir = new File(createTestDir());
+    Assert.assertFalse(hasSplitIssue(createTextConf(dir)));
+
+    SpoolDirConfigBean conf = createTextConf(dir);
+    conf.dataFormatConfig.useCustomDelimiter = true;
+    Assert.assertTrue(hasSplitIssue(conf));
+
+    // new lines are 2 bytes
+    conf = createTextConf(dir);
+    conf.dataFormatConfig.charset = "UTF-16";
+    Assert.assertTrue(hasSplitIssue(conf));
+
+    // stack traces span several lines
+    conf = createTextConf(dir);
+    conf.dataFormat = DataFormat.LOG;
+    conf.dataFormatConfig.onParseError = OnParseError.INCLUDE_AS_STACK_TRACE;
+    conf.dataFormatConfig.maxStackTraceLines = 50;
+    Assert.assertTrue(hasSplitIssue(conf));
+  }
+
+  @Test
+  public void testMemoryMappedFile() throws Exception {
+    File dir = createSplitFile();
+    SpoolDirConfigBean conf = createTextConf(dir);
+    conf.memoryMapFiles = true;
+    List<Record> records = readFile(conf, new HashMap<>(), SPLIT_FILE_LINES);
+    for (int i = 0; i < SPLIT_FILE_LINES; i++) {
+      Assert.assertEquals(String.format("%06d", i), records.get(i).get("/text").getValueAsString());
+    }
+  }
+
+  @Test
+  public void testMemoryMappedFileResumesFromOffset() throws Exception {
+    File dir = createSplitFile();
+    SpoolDirConfigBean conf = createTextConf(dir);
+    conf.memoryMapFiles = true;
+    Map<String, String> lastSourceOffset = ImmutableMap.of(
+        SpoolDirSource.OFFSET_VERSION, OFFSET_VERSION_ONE,
+        "file-0.log", "{\"POS\":\"" + (150000 * 7) + "\"}"
+    );
+    List<Record> records = readFile(conf, lastSourceOffset, SPLIT_FILE_LINES - 150000);
+    Assert.assertEquals("150000", records.get(0).get("/text").getValueAsString());
+  }
 }
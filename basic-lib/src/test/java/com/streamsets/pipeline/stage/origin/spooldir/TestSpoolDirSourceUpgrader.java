@@ -76,4 +76,40 @@ public class TestSpoolDirSourceUpgrader {
     assertEquals(5, upgraded.get(0).getValue());
     assertEquals("conf.spoolingPeriod", upgraded.get(0).getName());
   }
+
+  @Test
+  public void testV10toV11() throws StageException {
+    SpoolDirSourceUpgrader spoolDirSourceUpgrader = new SpoolDirSourceUpgrader();
+
+    List<Config> configs = new ArrayList<>();
+    List<Config> upgraded = spoolDirSourceUpgrader.upgrade("x", "y", "z", 10, 11, configs);
+
+    assertEquals(1, upgraded.size());
+    assertEquals(false, upgraded.get(0).getValue());
+    assertEquals("conf.useWatchService", upgraded.get(0).getName());
+  }
+
+  @Test
+  public void testV11toV12() throws StageException {
+    SpoolDirSourceUpgrader spoolDirSourceUpgrader = new SpoolDirSourceUpgrader();
+
+    List<Config> configs = new ArrayList<>();
+    List<Config> upgraded = spoolDirSourceUpgrader.upgrade("x", "y", "z", 11, 12, configs);
+
+    assertEquals(1, upgraded.size());
+    assertEquals(0, upgraded.get(0).getValue());
+    assertEquals("conf.fileSplitSizeMB", upgraded.get(0).getName());
+  }
+
+  @Test
+  public void testV12toV13() throws StageException {
+    SpoolDirSourceUpgrader spoolDirSourceUpgrader = new SpoolDirSourceUpgrader();
+
+    List<Config> configs = new ArrayList<>();
+    List<Config> upgraded = spoolDirSourceUpgrader.upgrade("x", "y", "z", 12, 13, configs);
+
+    assertEquals(1, upgraded.size());
+    assertEquals(false, upgraded.get(0).getValue());
+    assertEquals("conf.memoryMapFiles", upgraded.get(0).getName());
+  }
 }
@@ -20,7 +20,10 @@ import com.streamsets.pipeline.stage.processor.aggregation.WindowType;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 public class TestGroupByAggregator {
 
@@ -70,4 +73,39 @@ public class TestGroupByAggregator {
     aggregators.stop();
   }
 
+  @Test
+  public void testConcurrentProcess() throws Exception {
+    Aggregators aggregators = new Aggregators(2, WindowType.ROLLING);
+    GroupByAggregator aggregator = aggregators.createGroupBy("g", LongSumAggregator.class);
+    aggregators.start(1);
+
+    int threads = 8;
+    int iterations = 10000;
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> workers = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      Thread worker = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException ex) {
+          throw new RuntimeException(ex);
+        }
+        for (int j = 0; j < iterations; j++) {
+          aggregator.process((j % 2 == 0) ? "even" : "odd", 1L);
+        }
+      });
+      worker.start();
+      workers.add(worker);
+    }
+    start.countDown();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+
+    long expected = threads * iterations / 2;
+    Assert.assertEquals(ImmutableMap.of("even", expected, "odd", expected), aggregator.get());
+
+    aggregators.stop();
+  }
+
 }
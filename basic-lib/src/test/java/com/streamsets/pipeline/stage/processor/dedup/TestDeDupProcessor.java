@@ -25,8 +25,11 @@ import com.streamsets.pipeline.sdk.ProcessorRunner;
 import com.streamsets.pipeline.sdk.RecordCreator;
 import com.streamsets.pipeline.sdk.StageRunner;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -36,6 +39,9 @@ import java.util.Map;
 
 public class TestDeDupProcessor {
 
+  @Rule
+  public TemporaryFolder testFolder = new TemporaryFolder();
+
   private Record createRecordWithValue(String value) {
     Record record = RecordCreator.create();
     Map<String, Field> map = new HashMap<>();
@@ -523,4 +529,60 @@ public class TestDeDupProcessor {
 //    }
 //  }
 
+
+  @Test
+  public void testOffHeapIndex() throws Exception {
+    Processor processor = new DeDupProcessor(4, 0, SelectFields.ALL_FIELDS, Collections.EMPTY_LIST,
+        DeDupIndexType.OFF_HEAP, null);
+    ProcessorRunner runner = new ProcessorRunner.Builder(DeDupDProcessor.class, processor)
+        .addOutputLane("unique")
+        .addOutputLane("duplicate")
+        .build();
+    runner.runInit();
+    try {
+      List<Record> input = ImmutableList.of(
+          createRecordWithValue("a"),
+          createRecordWithValue("b"),
+          createRecordWithValue("a")
+      );
+      StageRunner.Output output = runner.runProcess(input);
+      Assert.assertEquals(2, output.getRecords().get("unique").size());
+      Assert.assertEquals(1, output.getRecords().get("duplicate").size());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testMappedFileIndexSurvivesRestart() throws Exception {
+    String windowFile = new File(testFolder.getRoot(), "dedup.idx").getAbsolutePath();
+    for (int run = 0; run < 2; run++) {
+      Processor processor = new DeDupProcessor(4, 0, SelectFields.ALL_FIELDS, Collections.EMPTY_LIST,
+          DeDupIndexType.MAPPED_FILE, windowFile);
+      ProcessorRunner runner = new ProcessorRunner.Builder(DeDupDProcessor.class, processor)
+          .addOutputLane("unique")
+          .addOutputLane("duplicate")
+          .build();
+      runner.runInit();
+      try {
+        StageRunner.Output output = runner.runProcess(ImmutableList.of(createRecordWithValue("a")));
+        // Unique on the first run, duplicate after restart
+        Assert.assertEquals(run == 0 ? 1 : 0, output.getRecords().get("unique").size());
+        Assert.assertEquals(run == 0 ? 0 : 1, output.getRecords().get("duplicate").size());
+      } finally {
+        runner.runDestroy();
+      }
+    }
+  }
+
+  @Test(expected = StageException.class)
+  public void testMappedFileIndexRequiresFile() throws Exception {
+    Processor processor = new DeDupProcessor(4, 0, SelectFields.ALL_FIELDS, Collections.EMPTY_LIST,
+        DeDupIndexType.MAPPED_FILE, "");
+    ProcessorRunner runner = new ProcessorRunner.Builder(DeDupDProcessor.class, processor)
+        .addOutputLane("unique")
+        .addOutputLane("duplicate")
+        .build();
+    runner.runInit();
+  }
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.dedup;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class TestOffHeapHashIndex {
+  private static final HashFunction HASHER = Hashing.murmur3_128();
+
+  @Rule
+  public TemporaryFolder testFolder = new TemporaryFolder();
+
+  private static HashCode hash(Object value) {
+    return HASHER.hashString(String.valueOf(value), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testDuplicates() throws Exception {
+    OffHeapHashIndex index = OffHeapHashIndex.create(10, 0);
+    Assert.assertTrue(index.add(hash("a")));
+    Assert.assertTrue(index.add(hash("b")));
+    Assert.assertFalse(index.add(hash("a")));
+    Assert.assertFalse(index.add(hash("b")));
+    Assert.assertEquals(2, index.size());
+    index.close();
+  }
+
+  @Test
+  public void testCountWindow() throws Exception {
+    OffHeapHashIndex index = OffHeapHashIndex.create(3, 0);
+    Assert.assertTrue(index.add(hash("a")));
+    Assert.assertTrue(index.add(hash("b")));
+    Assert.assertTrue(index.add(hash("c")));
+    // Evicts "a"
+    Assert.assertTrue(index.add(hash("d")));
+    Assert.assertEquals(3, index.size());
+    Assert.assertFalse(index.add(hash("b")));
+    Assert.assertTrue(index.add(hash("a")));
+    index.close();
+  }
+
+  @Test
+  public void testTimeWindow() throws Exception {
+    OffHeapHashIndex index = OffHeapHashIndex.create(10, 50);
+    Assert.assertTrue(index.add(hash("a")));
+    Assert.assertFalse(index.add(hash("a")));
+    Thread.sleep(100);
+    Assert.assertTrue(index.add(hash("a")));
+    Assert.assertEquals(1, index.size());
+    index.close();
+  }
+
+  @Test
+  public void testAgainstReference() throws Exception {
+    // Small enough for a single stripe, so eviction is exactly FIFO
+    int capacity = 1000;
+    OffHeapHashIndex index = OffHeapHashIndex.create(capacity, 0);
+    Set<HashCode> reference = new LinkedHashSet<>();
+    Random random = new Random(0);
+    for (int i = 0; i < 100000; i++) {
+      HashCode hash = hash(random.nextInt(3000));
+      boolean added = !reference.contains(hash);
+      if (added) {
+        if (reference.size() == capacity) {
+          reference.remove(reference.iterator().next());
+        }
+        reference.add(hash);
+      }
+      Assert.assertEquals(added, index.add(hash));
+    }
+    Assert.assertEquals(reference.size(), index.size());
+    index.close();
+  }
+
+  @Test
+  public void testStripedCapacity() throws Exception {
+    int capacity = 100000;
+    OffHeapHashIndex index = OffHeapHashIndex.create(capacity, 0);
+    for (int i = 0; i < capacity * 2; i++) {
+      Assert.assertTrue(index.add(hash(i)));
+    }
+    // Stripes are rounded up, the index holds at least its capacity and the most recent hashes
+    Assert.assertTrue(index.size() >= capacity);
+    Assert.assertFalse(index.add(hash(capacity * 2 - 1)));
+    index.close();
+  }
+
+  @Test
+  public void testMappedFileSurvivesReopen() throws Exception {
+    File file = new File(testFolder.getRoot(), "dedup.idx");
+    OffHeapHashIndex index = OffHeapHashIndex.open(file, 100, 0);
+    Assert.assertTrue(index.add(hash("a")));
+    Assert.assertTrue(index.add(hash("b")));
+    index.close();
+
+    index = OffHeapHashIndex.open(file, 100, 0);
+    Assert.assertEquals(2, index.size());
+    Assert.assertFalse(index.add(hash("a")));
+    Assert.assertTrue(index.add(hash("c")));
+    index.close();
+
+    // Different capacity resets the index
+    index = OffHeapHashIndex.open(file, 200, 0);
+    Assert.assertEquals(0, index.size());
+    Assert.assertTrue(index.add(hash("a")));
+    index.close();
+  }
+
+  @Test(expected = IOException.class)
+  public void testMappedFileIsLocked() throws Exception {
+    File file = new File(testFolder.getRoot(), "dedup.idx");
+    OffHeapHashIndex index = OffHeapHashIndex.open(file, 100, 0);
+    try {
+      OffHeapHashIndex.open(file, 100, 0);
+    } finally {
+      index.close();
+    }
+  }
+}
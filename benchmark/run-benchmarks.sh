@@ -0,0 +1,42 @@
+#!/bin/bash
+#
+# Copyright 2017 StreamSets Inc.
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#     http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+#
+
+# Runs the JMH benchmarks and writes the results as JSON to results/<version>-<timestamp>.json so runs of
+# different releases can be compared.
+#
+# Any argument is passed to JMH, e.g. to run only the record benchmarks with a single fork:
+#
+#   ./run-benchmarks.sh 'RecordBenchmark' -f 1
+#
+
+set -e
+
+BASEDIR=$(cd "$(dirname "$0")" && pwd)
+cd "${BASEDIR}"
+
+if [ ! -f target/benchmarks.jar ]; then
+  mvn -B -q package -DskipTests
+fi
+
+VERSION=$(sed -n 's|^  <version>\(.*\)</version>|\1|p' pom.xml | head -1)
+RESULTS_DIR=${RESULTS_DIR:-${BASEDIR}/results}
+mkdir -p "${RESULTS_DIR}"
+RESULTS_FILE="${RESULTS_DIR}/${VERSION}-$(date +%Y%m%d%H%M%S).json"
+
+java ${JAVA_OPTS} -jar target/benchmarks.jar "$@" -rf json -rff "${RESULTS_FILE}"
+
+echo "Results written to ${RESULTS_FILE}"
@@ -0,0 +1,44 @@
+#!/bin/bash
+#
+# Copyright 2017 StreamSets Inc.
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#     http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+#
+
+# Runs a pipeline headless for a fixed amount of time and writes its throughput, batch latency percentiles, per stage
+# processing time, GC and allocation figures as JSON to results/pipeline-<name>-<timestamp>.json.
+#
+# SDC_DIST must point to a built SDC dist (the one under dist/target), for example:
+#
+#   SDC_DIST=../dist/target/streamsets-datacollector-3.2.0.0-SNAPSHOT/streamsets-datacollector-3.2.0.0-SNAPSHOT \
+#     ./run-pipeline-benchmark.sh --pipeline pipelines/dev_data_trash.json --rate 0 --duration 60
+#
+# --rate sets the records/sec the Dev Data Generator origins produce, 0 for as fast as the pipeline takes them.
+#
+
+set -e
+
+BASEDIR=$(cd "$(dirname "$0")" && pwd)
+cd "${BASEDIR}"
+
+if [ -z "${SDC_DIST}" ]; then
+  echo "SDC_DIST must be set to the SDC dist directory"
+  exit 1
+fi
+
+if [ ! -f target/benchmarks.jar ]; then
+  mvn -B -q package -DskipTests
+fi
+
+java ${JAVA_OPTS} -cp target/benchmarks.jar com.streamsets.datacollector.benchmark.pipeline.PipelineBenchmark \
+  --dist "${SDC_DIST}" "$@"
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.benchmark;
+
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Record shapes the benchmarks are parameterized with. Each shape has a field path pointing to a leaf field deep
+ * enough in the record to be representative of how stages access it.
+ */
+public enum RecordShape {
+  /** 10 fields of mixed types. */
+  FLAT("/f5") {
+    @Override
+    public Field createField() {
+      return createFlat(10);
+    }
+  },
+  /** 500 fields of mixed types. */
+  WIDE("/f250") {
+    @Override
+    public Field createField() {
+      return createFlat(500);
+    }
+  },
+  /** Maps nested 10 levels deep with a few fields at every level. */
+  NESTED("/l1/l2/l3/l4/l5/l6/l7/l8/l9/f2") {
+    @Override
+    public Field createField() {
+      return createNested(10);
+    }
+  },
+  /** A list of 100 small maps next to a list of 100 numbers. */
+  LIST_HEAVY("/items[50]/name") {
+    @Override
+    public Field createField() {
+      List<Field> items = new ArrayList<>();
+      List<Field> numbers = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        LinkedHashMap<String, Field> item = new LinkedHashMap<>();
+        item.put("id", Field.create(i));
+        item.put("name", Field.create("item-" + i));
+        item.put("price", Field.create(new BigDecimal("10.25")));
+        items.add(Field.createListMap(item));
+        numbers.add(Field.create((long) i));
+      }
+      LinkedHashMap<String, Field> root = new LinkedHashMap<>();
+      root.put("id", Field.create("order-1"));
+      root.put("items", Field.create(items));
+      root.put("numbers", Field.create(numbers));
+      return Field.createListMap(root);
+    }
+  },
+  ;
+
+  private final String fieldPath;
+
+  RecordShape(String fieldPath) {
+    this.fieldPath = fieldPath;
+  }
+
+  public abstract Field createField();
+
+  public String getFieldPath() {
+    return fieldPath;
+  }
+
+  public RecordImpl createRecord(String sourceId) {
+    RecordImpl record = new RecordImpl("benchmark", sourceId, null, null);
+    record.set(createField());
+    return record;
+  }
+
+  public List<RecordImpl> createRecords(int count) {
+    List<RecordImpl> records = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      records.add(createRecord("id-" + i));
+    }
+    return records;
+  }
+
+  private static Field createFlat(int fields) {
+    LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+    for (int i = 0; i < fields; i++) {
+      map.put("f" + i, createValue(i));
+    }
+    return Field.createListMap(map);
+  }
+
+  private static Field createNested(int depth) {
+    LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+    for (int i = 0; i < 3; i++) {
+      map.put("f" + i, createValue(i));
+    }
+    if (depth > 1) {
+      map.put("l" + (11 - depth), createNested(depth - 1));
+    }
+    return Field.createListMap(map);
+  }
+
+  private static Field createValue(int i) {
+    switch (i % 5) {
+      case 0:
+        return Field.create(i);
+      case 1:
+        return Field.create((long) i * 1000);
+      case 2:
+        return Field.create("value-" + i);
+      case 3:
+        return Field.create(i / 3.0d);
+      default:
+        return Field.createDatetime(new Date(1500000000000L + i));
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.benchmark.el;
+
+import com.streamsets.datacollector.el.CompiledELEvaluator;
+import com.streamsets.datacollector.el.ELEvaluator;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.el.ELEval;
+import com.streamsets.pipeline.api.el.ELEvalException;
+import com.streamsets.pipeline.api.el.ELVars;
+import com.streamsets.pipeline.lib.el.RecordEL;
+import com.streamsets.pipeline.lib.el.StringEL;
+import com.streamsets.pipeline.lib.el.TimeEL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the interpreting ELEvaluator with CompiledELEvaluator on typical per-record expressions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ELEvaluatorBenchmark {
+
+  @Param({"interpreted", "compiled"})
+  public String evaluator;
+
+  @Param({
+    "${record:value('/name')}",
+    "${str:toUpper(record:value('/name'))}",
+    "${record:value('/number') > 5 && record:value('/number') < 20 ? 'in' : 'out'}",
+    "/data/${YYYY()}/${MM()}/${DD()}/${record:value('/name')}",
+    "${1 + 2 * 3}"
+  })
+  public String expression;
+
+  private ELEval eval;
+  private ELVars vars;
+
+  @Setup
+  public void setup() {
+    Class<?>[] elClasses = {RecordEL.class, StringEL.class, TimeEL.class};
+    if ("compiled".equals(evaluator)) {
+      eval = new CompiledELEvaluator("benchmark", false, new HashMap<String, Object>(), elClasses);
+    } else {
+      eval = new ELEvaluator("benchmark", false, new HashMap<String, Object>(), elClasses);
+    }
+
+    RecordImpl record = new RecordImpl("benchmark", "id", null, null);
+    Map<String, Field> map = new HashMap<>();
+    map.put("name", Field.create("streamsets"));
+    map.put("number", Field.create(10));
+    record.set(Field.create(map));
+
+    vars = eval.createVariables();
+    RecordEL.setRecordInContext(vars, record);
+    TimeEL.setCalendarInContext(vars, java.util.Calendar.getInstance());
+  }
+
+  @Benchmark
+  public Object evaluate() throws ELEvalException {
+    return eval.eval(vars, expression, Object.class);
+  }
+}
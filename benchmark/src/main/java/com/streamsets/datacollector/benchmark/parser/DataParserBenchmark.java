@@ -0,0 +1,181 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.benchmark.parser;
+
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.config.CsvHeader;
+import com.streamsets.pipeline.config.CsvMode;
+import com.streamsets.pipeline.config.CsvRecordType;
+import com.streamsets.pipeline.config.JsonMode;
+import com.streamsets.pipeline.config.OriginAvroSchemaSource;
+import com.streamsets.pipeline.lib.parser.DataParser;
+import com.streamsets.pipeline.lib.parser.DataParserFactory;
+import com.streamsets.pipeline.lib.parser.DataParserFactoryBuilder;
+import com.streamsets.pipeline.lib.parser.DataParserFormat;
+import com.streamsets.pipeline.lib.util.AvroSchemaHelper;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing the same rows (alternating string and integer columns) from the JSON, delimited and Avro data formats.
+ * Results are per record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DataParserBenchmark {
+  private static final int ROWS = 1000;
+
+  @Param({"JSON", "DELIMITED", "AVRO"})
+  public DataParserFormat format;
+
+  @Param({"10", "100"})
+  public int columns;
+
+  private DataParserFactory factory;
+  private byte[] data;
+
+  @Setup
+  public void setup() throws IOException {
+    Stage.Context context = ContextInfoCreator.createSourceContext(
+        "benchmark",
+        false,
+        OnRecordError.TO_ERROR,
+        Collections.<String>emptyList()
+    );
+    DataParserFactoryBuilder builder = new DataParserFactoryBuilder(context, format)
+        .setMaxDataLen(1024 * 1024)
+        .setOverRunLimit(10 * 1024 * 1024);
+    switch (format) {
+      case JSON:
+        builder.setMode(JsonMode.MULTIPLE_OBJECTS);
+        data = createJson();
+        break;
+      case DELIMITED:
+        builder.setMode(CsvMode.CSV).setMode(CsvHeader.WITH_HEADER).setMode(CsvRecordType.LIST_MAP);
+        data = createDelimited();
+        break;
+      case AVRO:
+        builder.setConfig(AvroSchemaHelper.SCHEMA_SOURCE_KEY, OriginAvroSchemaSource.SOURCE);
+        data = createAvro();
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported format " + format);
+    }
+    factory = builder.build();
+  }
+
+  private static String value(int row, int column) {
+    return "value-" + row + "-" + column;
+  }
+
+  private byte[] createJson() {
+    StringBuilder sb = new StringBuilder();
+    for (int row = 0; row < ROWS; row++) {
+      sb.append('{');
+      for (int column = 0; column < columns; column++) {
+        if (column > 0) {
+          sb.append(',');
+        }
+        sb.append("\"c").append(column).append("\":");
+        if (column % 2 == 0) {
+          sb.append('"').append(value(row, column)).append('"');
+        } else {
+          sb.append(row * column);
+        }
+      }
+      sb.append("}\n");
+    }
+    return sb.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private byte[] createDelimited() {
+    StringBuilder sb = new StringBuilder();
+    for (int column = 0; column < columns; column++) {
+      sb.append(column > 0 ? "," : "").append('c').append(column);
+    }
+    sb.append('\n');
+    for (int row = 0; row < ROWS; row++) {
+      for (int column = 0; column < columns; column++) {
+        sb.append(column > 0 ? "," : "").append(column % 2 == 0 ? value(row, column) : row * column);
+      }
+      sb.append('\n');
+    }
+    return sb.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private byte[] createAvro() throws IOException {
+    SchemaBuilder.FieldAssembler<Schema> fields = SchemaBuilder.record("row").fields();
+    for (int column = 0; column < columns; column++) {
+      fields = column % 2 == 0 ? fields.requiredString("c" + column) : fields.requiredInt("c" + column);
+    }
+    Schema schema = fields.endRecord();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(schema))) {
+      writer.create(schema, out);
+      for (int row = 0; row < ROWS; row++) {
+        GenericRecord record = new GenericData.Record(schema);
+        for (int column = 0; column < columns; column++) {
+          record.put("c" + column, column % 2 == 0 ? value(row, column) : row * column);
+        }
+        writer.append(record);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void parse(Blackhole blackhole) throws Exception {
+    try (DataParser parser = factory.getParser("benchmark", new ByteArrayInputStream(data), "0")) {
+      Record record = parser.parse();
+      while (record != null) {
+        blackhole.consume(record);
+        record = parser.parse();
+      }
+    }
+  }
+}
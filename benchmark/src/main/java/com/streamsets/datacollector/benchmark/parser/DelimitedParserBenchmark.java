@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.benchmark.parser;
+
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.config.CsvHeader;
+import com.streamsets.pipeline.config.CsvMode;
+import com.streamsets.pipeline.config.CsvRecordType;
+import com.streamsets.pipeline.lib.parser.DataParser;
+import com.streamsets.pipeline.lib.parser.DataParserFactory;
+import com.streamsets.pipeline.lib.parser.DataParserFactoryBuilder;
+import com.streamsets.pipeline.lib.parser.DataParserFormat;
+import com.streamsets.pipeline.lib.util.DelimitedDataConstants;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing delimited rows with a header (alternating string and integer columns, some of the strings quoted) with
+ * the Apache Commons CSV based parser and with the fast parser, with and without type inference.
+ * Results are per record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DelimitedParserBenchmark {
+  private static final int ROWS = 1000;
+
+  public enum Engine {
+    COMMONS_CSV(false, false),
+    FAST(true, false),
+    FAST_INFER_TYPES(true, true),
+    ;
+
+    private final boolean fastParser;
+    private final boolean inferTypes;
+
+    Engine(boolean fastParser, boolean inferTypes) {
+      this.fastParser = fastParser;
+      this.inferTypes = inferTypes;
+    }
+  }
+
+  @Param({"COMMONS_CSV", "FAST", "FAST_INFER_TYPES"})
+  public Engine engine;
+
+  @Param({"10", "100"})
+  public int columns;
+
+  private DataParserFactory factory;
+  private byte[] data;
+
+  @Setup
+  public void setup() {
+    Stage.Context context = ContextInfoCreator.createSourceContext(
+        "benchmark",
+        false,
+        OnRecordError.TO_ERROR,
+        Collections.<String>emptyList()
+    );
+    factory = new DataParserFactoryBuilder(context, DataParserFormat.DELIMITED)
+        .setMaxDataLen(1024 * 1024)
+        .setOverRunLimit(10 * 1024 * 1024)
+        .setMode(CsvMode.CSV)
+        .setMode(CsvHeader.WITH_HEADER)
+        .setMode(CsvRecordType.LIST_MAP)
+        .setConfig(DelimitedDataConstants.FAST_PARSER, engine.fastParser)
+        .setConfig(DelimitedDataConstants.INFER_TYPES, engine.inferTypes)
+        .build();
+    data = createDelimited();
+  }
+
+  private byte[] createDelimited() {
+    StringBuilder sb = new StringBuilder();
+    for (int column = 0; column < columns; column++) {
+      sb.append(column > 0 ? "," : "").append('c').append(column);
+    }
+    sb.append('\n');
+    for (int row = 0; row < ROWS; row++) {
+      for (int column = 0; column < columns; column++) {
+        sb.append(column > 0 ? "," : "");
+        if (column % 4 == 0) {
+          sb.append("\"value, ").append(row).append('"');
+        } else if (column % 2 == 0) {
+          sb.append("value-").append(row).append('-').append(column);
+        } else {
+          sb.append(row * column);
+        }
+      }
+      sb.append('\n');
+    }
+    return sb.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void parse(Blackhole blackhole) throws Exception {
+    try (DataParser parser = factory.getParser("benchmark", new ByteArrayInputStream(data), "0")) {
+      Record record = parser.parse();
+      while (record != null) {
+        blackhole.consume(record);
+        record = parser.parse();
+      }
+    }
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.benchmark.parser;
+
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.config.CsvHeader;
+import com.streamsets.pipeline.config.CsvMode;
+import com.streamsets.pipeline.config.CsvRecordType;
+import com.streamsets.pipeline.config.JsonMode;
+import com.streamsets.pipeline.lib.io.MappedFileReader;
+import com.streamsets.pipeline.lib.parser.DataParser;
+import com.streamsets.pipeline.lib.parser.DataParserFactory;
+import com.streamsets.pipeline.lib.parser.DataParserFactoryBuilder;
+import com.streamsets.pipeline.lib.parser.DataParserFormat;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a local file of the given size with an <code>InputStreamReader</code> (what the Directory origin does by
+ * default) and with a {@link MappedFileReader}, both just draining the reader and parsing the whole file. Results are
+ * per file, the file is generated once per trial in the temporary directory.
+ * <p/>
+ * The default size keeps a run short, for the 10GB numbers use <code>-p sizeMB=10240</code> (it needs as much free
+ * space in the temporary directory, and the file should not fit in the page cache to measure cold reads).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LocalFileReadBenchmark {
+  private static final int COLUMNS = 10;
+
+  public enum ReaderType {
+    STREAM,
+    MAPPED
+  }
+
+  @Param({"TEXT", "JSON", "DELIMITED"})
+  public DataParserFormat format;
+
+  @Param({"STREAM", "MAPPED"})
+  public ReaderType reader;
+
+  @Param({"512"})
+  public int sizeMB;
+
+  private DataParserFactory factory;
+  private File file;
+
+  @Setup
+  public void setup() throws IOException {
+    Stage.Context context = ContextInfoCreator.createSourceContext(
+        "benchmark",
+        false,
+        OnRecordError.TO_ERROR,
+        Collections.<String>emptyList()
+    );
+    DataParserFactoryBuilder builder = new DataParserFactoryBuilder(context, format)
+        .setMaxDataLen(1024 * 1024)
+        .setOverRunLimit(10 * 1024 * 1024);
+    switch (format) {
+      case TEXT:
+        break;
+      case JSON:
+        builder.setMode(JsonMode.MULTIPLE_OBJECTS);
+        break;
+      case DELIMITED:
+        builder.setMode(CsvMode.CSV).setMode(CsvHeader.NO_HEADER).setMode(CsvRecordType.LIST_MAP);
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported format " + format);
+    }
+    factory = builder.build();
+    file = Files.createTempFile("benchmark", "." + format.name().toLowerCase()).toFile();
+    createFile();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file.toPath());
+  }
+
+  // lines of alternating string and integer columns, with some non ASCII characters so the decoder is exercised
+  private void createFile() throws IOException {
+    long size = sizeMB * 1024L * 1024L;
+    long written = 0;
+    StringBuilder sb = new StringBuilder();
+    try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+      for (int row = 0; written < size; row++) {
+        sb.setLength(0);
+        sb.append(format == DataParserFormat.JSON ? "{" : "");
+        for (int column = 0; column < COLUMNS; column++) {
+          if (column > 0) {
+            sb.append(format == DataParserFormat.TEXT ? " " : ",");
+          }
+          if (format == DataParserFormat.JSON) {
+            sb.append("\"c").append(column).append("\":");
+          }
+          if (column % 2 == 0) {
+            String value = "valu\u00e9-" + row + "-" + column;
+            sb.append(format == DataParserFormat.JSON ? "\"" + value + "\"" : value);
+          } else {
+            sb.append(row * column);
+          }
+        }
+        sb.append(format == DataParserFormat.JSON ? "}\n" : "\n");
+        writer.append(sb);
+        // every string column has a 2 byte character
+        written += sb.length() + COLUMNS / 2;
+      }
+    }
+  }
+
+  private Reader createReader() throws IOException {
+    switch (reader) {
+      case STREAM:
+        return new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+      case MAPPED:
+        return new MappedFileReader(file, StandardCharsets.UTF_8);
+      default:
+        throw new IllegalArgumentException("Unsupported reader " + reader);
+    }
+  }
+
+  @Benchmark
+  public long read() throws IOException {
+    long chars = 0;
+    char[] buffer = new char[16 * 1024];
+    try (Reader fileReader = createReader()) {
+      int read;
+      while ((read = fileReader.read(buffer)) > -1) {
+        chars += read;
+      }
+    }
+    return chars;
+  }
+
+  @Benchmark
+  public void parse(Blackhole blackhole) throws Exception {
+    // the same factory calls the Directory origin makes with and without memory mapped files
+    DataParser parser = (reader == ReaderType.MAPPED)
+        ? factory.getParser(file.getName(), createReader(), 0)
+        : factory.getParser(file.getName(), new FileInputStream(file), "0");
+    try {
+      Record record = parser.parse();
+      while (record != null) {
+        blackhole.consume(record);
+        record = parser.parse();
+      }
+    } finally {
+      parser.close();
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.benchmark.pipeline;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pipeline metrics together with JVM wide GC and allocation counters taken at one point in time.
+ */
+class MetricsSample {
+  private static final ObjectMapper JSON = new ObjectMapper();
+
+  private final long nanoTime;
+  private final JsonNode metrics;
+  private final Map<String, long[]> gc;
+  private final Map<Long, Long> allocatedBytes;
+
+  private MetricsSample(long nanoTime, JsonNode metrics, Map<String, long[]> gc, Map<Long, Long> allocatedBytes) {
+    this.nanoTime = nanoTime;
+    this.metrics = metrics;
+    this.gc = gc;
+    this.allocatedBytes = allocatedBytes;
+  }
+
+  static MetricsSample take(String pipelineMetricsJson) throws Exception {
+    long nanoTime = System.nanoTime();
+    Map<String, long[]> gc = new LinkedHashMap<>();
+    for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+      gc.put(bean.getName(), new long[]{bean.getCollectionCount(), bean.getCollectionTime()});
+    }
+    Map<Long, Long> allocatedBytes = new HashMap<>();
+    ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    if (threadBean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+      if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+        long[] ids = allocationBean.getAllThreadIds();
+        long[] bytes = allocationBean.getThreadAllocatedBytes(ids);
+        for (int i = 0; i < ids.length; i++) {
+          if (bytes[i] >= 0) {
+            allocatedBytes.put(ids[i], bytes[i]);
+          }
+        }
+      }
+    }
+    return new MetricsSample(nanoTime, JSON.readTree(pipelineMetricsJson), gc, allocatedBytes);
+  }
+
+  long getNanoTime() {
+    return nanoTime;
+  }
+
+  /**
+   * Counter value, 0 if the pipeline does not have the counter.
+   */
+  long getCounter(String name) {
+    return metrics.path("counters").path(name).path("count").asLong(0);
+  }
+
+  JsonNode getTimer(String name) {
+    return metrics.path("timers").path(name);
+  }
+
+  Iterable<String> getTimerNames() {
+    return () -> metrics.path("timers").fieldNames();
+  }
+
+  Map<String, long[]> getGc() {
+    return gc;
+  }
+
+  /**
+   * Bytes allocated since the given sample by the threads alive now. Threads that ended in between are not
+   * accounted for, threads started in between are accounted for in full.
+   */
+  long getAllocatedBytesSince(MetricsSample previous) {
+    long total = 0;
+    for (Map.Entry<Long, Long> entry : allocatedBytes.entrySet()) {
+      Long before = previous.allocatedBytes.get(entry.getKey());
+      total += entry.getValue() - (before == null ? 0 : before);
+    }
+    return total;
+  }
+
+  boolean isAllocationSupported() {
+    return !allocatedBytes.isEmpty();
+  }
+}
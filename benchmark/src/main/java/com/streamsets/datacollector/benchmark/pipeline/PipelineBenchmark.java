@@ -0,0 +1,261 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.benchmark.pipeline;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.streamsets.datacollector.MiniSDC;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a pipeline headless in a {@link MiniSDC} for a fixed amount of time and reports its throughput, batch
+ * latency percentiles, per stage processing time, GC activity and allocation rate as JSON.
+ * <p/>
+ * Dev Data Generator origins in the pipeline can be driven at a fixed rate (using the pipeline rate limit) or as fast
+ * as the pipeline can take records, which together with Trash destinations measures the capacity of the processors in
+ * between.
+ * <p/>
+ * Usage:
+ * <pre>
+ *   PipelineBenchmark --dist &lt;SDC dist dir&gt; --pipeline &lt;pipeline JSON&gt; [--warmup &lt;secs&gt;]
+ *     [--duration &lt;secs&gt;] [--rate &lt;records/sec, 0 unbounded&gt;] [--batch-size &lt;records&gt;]
+ *     [--report &lt;file&gt;]
+ * </pre>
+ * The SDC configuration and resources are taken from the dist directory unless the <code>sdc.conf.dir</code> and
+ * <code>sdc.resources.dir</code> system properties are set, data and logs always go to a new temporary directory.
+ */
+public class PipelineBenchmark {
+  private static final String DEV_DATA_GENERATOR = "com_streamsets_pipeline_stage_devtest_RandomDataGeneratorSource";
+  private static final String STAGE_TIMER_PREFIX = "stage.";
+  private static final String STAGE_TIMER_SUFFIX = ".batchProcessing.timer";
+
+  private final ObjectMapper json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+  private File dist;
+  private File pipelineFile;
+  private long warmupSecs = 30;
+  private long durationSecs = 60;
+  private Long rate;
+  private Integer batchSize;
+  private File report;
+
+  public static void main(String[] args) throws Exception {
+    PipelineBenchmark benchmark = new PipelineBenchmark();
+    if (!benchmark.parseArgs(args)) {
+      System.err.println(
+          "Usage: PipelineBenchmark --dist <SDC dist dir> --pipeline <pipeline JSON> [--warmup <secs>] " +
+          "[--duration <secs>] [--rate <records/sec, 0 unbounded>] [--batch-size <records>] [--report <file>]"
+      );
+      System.exit(1);
+    }
+    benchmark.run();
+    System.exit(0);
+  }
+
+  private boolean parseArgs(String[] args) {
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      String value = args[i + 1];
+      switch (args[i]) {
+        case "--dist":
+          dist = new File(value);
+          break;
+        case "--pipeline":
+          pipelineFile = new File(value);
+          break;
+        case "--warmup":
+          warmupSecs = Long.parseLong(value);
+          break;
+        case "--duration":
+          durationSecs = Long.parseLong(value);
+          break;
+        case "--rate":
+          rate = Long.parseLong(value);
+          break;
+        case "--batch-size":
+          batchSize = Integer.parseInt(value);
+          break;
+        case "--report":
+          report = new File(value);
+          break;
+        default:
+          return false;
+      }
+    }
+    return args.length % 2 == 0 && dist != null && pipelineFile != null && durationSecs > 0;
+  }
+
+  private void run() throws Exception {
+    ObjectNode pipeline = (ObjectNode) json.readTree(pipelineFile);
+    configureSyntheticOrigins(pipeline);
+    String pipelineName = pipeline.path("info").path("name").asText(pipelineFile.getName());
+    if (report == null) {
+      String timestamp = new SimpleDateFormat("yyyyMMddHHmmss").format(new Date());
+      report = new File("results", "pipeline-" + pipelineName + "-" + timestamp + ".json");
+    }
+
+    File workDir = Files.createTempDirectory("sdc-pipeline-benchmark").toFile();
+    setDirectory("sdc.conf.dir", new File(dist, "etc"));
+    setDirectory("sdc.resources.dir", new File(dist, "resources"));
+    setDirectory("sdc.static-web.dir", new File(dist, "sdc-static-web"));
+    System.setProperty("sdc.data.dir", new File(workDir, "data").getAbsolutePath());
+    System.setProperty("sdc.log.dir", new File(workDir, "log").getAbsolutePath());
+
+    MiniSDC miniSDC = new MiniSDC(dist.getAbsolutePath());
+    miniSDC.startSDC();
+    MetricsSample start;
+    MetricsSample end;
+    try {
+      miniSDC.createAndStartPipeline(json.writeValueAsString(pipeline));
+      log("Warming up for %d secs", warmupSecs);
+      TimeUnit.SECONDS.sleep(warmupSecs);
+      start = MetricsSample.take(miniSDC.getPipelineMetrics());
+      log("Measuring for %d secs", durationSecs);
+      TimeUnit.SECONDS.sleep(durationSecs);
+      end = MetricsSample.take(miniSDC.getPipelineMetrics());
+      miniSDC.stopPipeline();
+    } finally {
+      miniSDC.stop();
+    }
+
+    Map<String, Object> result = createReport(pipelineName, start, end);
+    if (report.getAbsoluteFile().getParentFile() != null) {
+      report.getAbsoluteFile().getParentFile().mkdirs();
+    }
+    json.writeValue(report, result);
+    log("%s", json.writeValueAsString(result));
+    log("Report written to %s", report.getAbsolutePath());
+  }
+
+  // the rate is enforced with the pipeline rate limit, the origins themselves produce batches without delay
+  private void configureSyntheticOrigins(ObjectNode pipeline) {
+    if (rate != null) {
+      setConfig(pipeline, "rateLimit", rate);
+    }
+    for (JsonNode stage : pipeline.path("stages")) {
+      if (DEV_DATA_GENERATOR.equals(stage.path("stageName").asText())) {
+        if (rate != null) {
+          setConfig((ObjectNode) stage, "delay", 0);
+        }
+        if (batchSize != null) {
+          setConfig((ObjectNode) stage, "batchSize", batchSize);
+        }
+      }
+    }
+  }
+
+  private static void setConfig(ObjectNode configurable, String name, Object value) {
+    for (JsonNode config : configurable.withArray("configuration")) {
+      if (name.equals(config.path("name").asText())) {
+        ((ObjectNode) config).putPOJO("value", value);
+        return;
+      }
+    }
+    configurable.withArray("configuration").addObject().put("name", name).putPOJO("value", value);
+  }
+
+  private static void setDirectory(String property, File dir) {
+    if (System.getProperty(property) == null) {
+      System.setProperty(property, dir.getAbsolutePath());
+    }
+  }
+
+  private Map<String, Object> createReport(String pipelineName, MetricsSample start, MetricsSample end) {
+    double secs = (end.getNanoTime() - start.getNanoTime()) / 1e9;
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("pipeline", pipelineName);
+    result.put("rateLimit", rate);
+    result.put("warmupSecs", warmupSecs);
+    result.put("durationSecs", secs);
+
+    Map<String, Object> records = new LinkedHashMap<>();
+    long input = delta(start, end, "pipeline.batchInputRecords.counter");
+    long output = delta(start, end, "pipeline.batchOutputRecords.counter");
+    records.put("input", input);
+    records.put("output", output);
+    records.put("error", delta(start, end, "pipeline.batchErrorRecords.counter"));
+    records.put("inputPerSec", input / secs);
+    records.put("outputPerSec", output / secs);
+    result.put("records", records);
+
+    // the batch timers keep the last 60 seconds, percentiles cover the end of the measurement
+    Map<String, Object> batches = new LinkedHashMap<>();
+    batches.put("count", delta(start, end, "pipeline.batchCount.counter"));
+    batches.put("latencyMillis", percentiles(end.getTimer("pipeline.batchProcessing.timer")));
+    result.put("batches", batches);
+
+    Map<String, Object> stages = new LinkedHashMap<>();
+    for (String timer : end.getTimerNames()) {
+      if (timer.startsWith(STAGE_TIMER_PREFIX) && timer.endsWith(STAGE_TIMER_SUFFIX)) {
+        String stage = timer.substring(STAGE_TIMER_PREFIX.length(), timer.length() - STAGE_TIMER_SUFFIX.length());
+        Map<String, Object> stageResult = new LinkedHashMap<>();
+        stageResult.put("inputRecords", delta(start, end, STAGE_TIMER_PREFIX + stage + ".inputRecords.counter"));
+        stageResult.put("outputRecords", delta(start, end, STAGE_TIMER_PREFIX + stage + ".outputRecords.counter"));
+        stageResult.put("batchProcessingMillis", percentiles(end.getTimer(timer)));
+        stages.put(stage, stageResult);
+      }
+    }
+    result.put("stages", stages);
+
+    Map<String, Object> gc = new LinkedHashMap<>();
+    long gcMillis = 0;
+    for (Map.Entry<String, long[]> entry : end.getGc().entrySet()) {
+      long[] before = start.getGc().get(entry.getKey());
+      Map<String, Object> collector = new LinkedHashMap<>();
+      collector.put("collections", entry.getValue()[0] - before[0]);
+      collector.put("timeMillis", entry.getValue()[1] - before[1]);
+      gcMillis += entry.getValue()[1] - before[1];
+      gc.put(entry.getKey(), collector);
+    }
+    gc.put("timePercent", gcMillis / (secs * 10));
+    result.put("gc", gc);
+
+    if (end.isAllocationSupported()) {
+      Map<String, Object> allocation = new LinkedHashMap<>();
+      long bytes = end.getAllocatedBytesSince(start);
+      allocation.put("bytes", bytes);
+      allocation.put("bytesPerSec", bytes / secs);
+      allocation.put("bytesPerRecord", input == 0 ? null : (double) bytes / input);
+      result.put("allocation", allocation);
+    }
+    return result;
+  }
+
+  private static long delta(MetricsSample start, MetricsSample end, String counter) {
+    return end.getCounter(counter) - start.getCounter(counter);
+  }
+
+  // timers are serialized in seconds
+  private static Map<String, Object> percentiles(JsonNode timer) {
+    Map<String, Object> percentiles = new LinkedHashMap<>();
+    for (String name : new String[]{"mean", "p50", "p75", "p95", "p99", "p999", "max"}) {
+      percentiles.put(name, timer.path(name).asDouble() * 1000);
+    }
+    return percentiles;
+  }
+
+  private static void log(String format, Object... args) {
+    System.out.println(String.format(format, args));
+  }
+}
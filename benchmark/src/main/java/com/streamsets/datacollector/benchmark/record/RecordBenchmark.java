@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.benchmark.record;
+
+import com.streamsets.datacollector.benchmark.RecordShape;
+import com.streamsets.datacollector.record.FieldPath;
+import com.streamsets.datacollector.record.PathElement;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Field path access, field path parsing and cloning of records of different shapes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RecordBenchmark {
+
+  @Param({"FLAT", "WIDE", "NESTED", "LIST_HEAVY"})
+  public RecordShape shape;
+
+  private RecordImpl record;
+  private String fieldPath;
+  private FieldPath compiledFieldPath;
+  private Field field;
+
+  @Setup
+  public void setup() {
+    record = shape.createRecord("id");
+    fieldPath = shape.getFieldPath();
+    compiledFieldPath = FieldPath.compile(fieldPath);
+    field = Field.create("new value");
+  }
+
+  @Benchmark
+  public Field get() {
+    return record.get(fieldPath);
+  }
+
+  @Benchmark
+  public Field getCompiled() {
+    return record.get(compiledFieldPath);
+  }
+
+  @Benchmark
+  public Field set() {
+    return record.set(fieldPath, field);
+  }
+
+  @Benchmark
+  public boolean has() {
+    return record.has(fieldPath);
+  }
+
+  @Benchmark
+  public List<PathElement> parsePath() {
+    return PathElement.parse(fieldPath, true);
+  }
+
+  @Benchmark
+  public RecordImpl cloneRecord() {
+    return record.clone();
+  }
+
+  // the clone shares the value with the original record until it is accessed, this includes the copy
+  @Benchmark
+  public Field cloneRecordAndGet() {
+    return record.clone().get(fieldPath);
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.benchmark.record;
+
+import com.streamsets.datacollector.benchmark.RecordShape;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.datacollector.record.io.KryoRecordWriter;
+import com.streamsets.datacollector.record.io.RecordEncoding;
+import com.streamsets.datacollector.record.io.RecordWriterReaderFactory;
+import com.streamsets.datacollector.record.io.SdcJsonRecordWriter;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.ext.RecordReader;
+import com.streamsets.pipeline.api.ext.RecordWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading back records with the SDC record encodings (the ones used by snapshots, error records and
+ * the SDC Record data format). Results are per record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RecordWriterBenchmark {
+  private static final int RECORDS = 100;
+
+  @Param({"JSON1", "KRYO1"})
+  public RecordEncoding encoding;
+
+  @Param({"FLAT", "WIDE", "NESTED", "LIST_HEAVY"})
+  public RecordShape shape;
+
+  private List<RecordImpl> records;
+  private ByteArrayOutputStream buffer;
+  private byte[] encoded;
+
+  @Setup
+  public void setup() throws IOException {
+    records = shape.createRecords(RECORDS);
+    buffer = new ByteArrayOutputStream(1024 * 1024);
+    encoded = write().toByteArray();
+  }
+
+  private RecordWriter createWriter(OutputStream os) throws IOException {
+    os.write(encoding.getMagicNumber());
+    switch (encoding) {
+      case JSON1:
+        return new SdcJsonRecordWriter(os);
+      case KRYO1:
+        return new KryoRecordWriter(os);
+      default:
+        throw new IllegalArgumentException("Unsupported encoding " + encoding);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public ByteArrayOutputStream write() throws IOException {
+    buffer.reset();
+    RecordWriter writer = createWriter(buffer);
+    for (RecordImpl record : records) {
+      writer.write(record);
+    }
+    writer.flush();
+    return buffer;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void read(Blackhole blackhole) throws IOException {
+    RecordReader reader = RecordWriterReaderFactory.createRecordReader(
+        new ByteArrayInputStream(encoded),
+        0,
+        Integer.MAX_VALUE
+    );
+    Record record = reader.readRecord();
+    while (record != null) {
+      blackhole.consume(record);
+      record = reader.readRecord();
+    }
+    reader.close();
+  }
+}
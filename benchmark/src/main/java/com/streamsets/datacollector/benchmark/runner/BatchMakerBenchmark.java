@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.benchmark.runner;
+
+import com.google.common.collect.ImmutableList;
+import com.streamsets.datacollector.benchmark.RecordShape;
+import com.streamsets.datacollector.config.StageConfiguration;
+import com.streamsets.datacollector.config.StageDefinition;
+import com.streamsets.datacollector.config.StageType;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.datacollector.runner.BatchMakerImpl;
+import com.streamsets.datacollector.runner.StageContext;
+import com.streamsets.datacollector.runner.StagePipe;
+import com.streamsets.datacollector.runner.StageRuntime;
+import com.streamsets.datacollector.util.Configuration;
+import com.streamsets.pipeline.api.Stage;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records added to a batch by a processor, either copied (the default) or by reference (stages declaring
+ * recordsByRef). Results are per record.
+ * <p/>
+ * The stage the batch maker belongs to is a stub, its getters are part of the measured time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class BatchMakerBenchmark {
+  private static final int BATCH_SIZE = 1000;
+
+  @Param({"FLAT", "WIDE", "NESTED", "LIST_HEAVY"})
+  public RecordShape shape;
+
+  @Param({"false", "true"})
+  public boolean recordsByRef;
+
+  private StagePipe stagePipe;
+  private List<RecordImpl> records;
+
+  @Setup
+  public void setup() {
+    StageConfiguration stageConfiguration = Mockito.mock(StageConfiguration.class, Mockito.withSettings().stubOnly());
+    Mockito.when(stageConfiguration.getOutputLanes()).thenReturn(ImmutableList.of("out"));
+    StageDefinition stageDefinition = Mockito.mock(StageDefinition.class, Mockito.withSettings().stubOnly());
+    Mockito.when(stageDefinition.getType()).thenReturn(StageType.PROCESSOR);
+    Mockito.when(stageDefinition.getRecordsByRef()).thenReturn(recordsByRef);
+    Stage.Info info = Mockito.mock(Stage.Info.class, Mockito.withSettings().stubOnly());
+    Mockito.when(info.getInstanceName()).thenReturn("processor");
+    StageContext context = Mockito.mock(StageContext.class, Mockito.withSettings().stubOnly());
+    Mockito.when(context.isPreview()).thenReturn(false);
+    StageRuntime stageRuntime = Mockito.mock(StageRuntime.class, Mockito.withSettings().stubOnly());
+    Mockito.when(stageRuntime.getInfo()).thenReturn(info);
+    Mockito.when(stageRuntime.getConfiguration()).thenReturn(stageConfiguration);
+    Mockito.when(stageRuntime.getDefinition()).thenReturn(stageDefinition);
+    Mockito.when(stageRuntime.getContext()).thenReturn(context);
+    stagePipe = new StagePipe(
+        "benchmark",
+        "0",
+        new Configuration(),
+        stageRuntime,
+        ImmutableList.of("in"),
+        ImmutableList.of("out"),
+        Collections.<String>emptyList(),
+        null,
+        null,
+        null
+    );
+
+    records = shape.createRecords(BATCH_SIZE);
+    for (RecordImpl record : records) {
+      // records coming from an upstream stage
+      record.setInitialRecord(false);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public BatchMakerImpl addRecord() {
+    BatchMakerImpl batchMaker = new BatchMakerImpl(stagePipe, false);
+    for (RecordImpl record : records) {
+      batchMaker.addRecord(record);
+    }
+    return batchMaker;
+  }
+}
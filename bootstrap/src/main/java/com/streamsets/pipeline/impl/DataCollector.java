@@ -43,4 +43,9 @@ public interface DataCollector {
   List<URI> getWorkerList() throws URISyntaxException;
 
   public String storeRules(String name, String tag, String ruleDefinition) throws Exception;
+
+  /**
+   * Returns the metrics of the running pipeline as JSON, same format the REST API returns them in.
+   */
+  String getPipelineMetrics() throws Exception;
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.record;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.streamsets.pipeline.lib.util.FieldPathExpressionUtil;
+import com.streamsets.pipeline.lib.util.FieldRegexUtil;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A parsed field path. Field paths are parsed once and kept in a bounded cache, so getting the handle of a path
+ * that was used before does not parse it again.
+ * <p/>
+ * Handles are immutable and can be shared between threads and records.
+ */
+public final class FieldPath {
+  static final int MAX_CACHED_PATHS = 10000;
+
+  // field paths as used by the Record API, single quote escaped
+  private static final Cache<String, FieldPath> ESCAPED_PATHS =
+      CacheBuilder.newBuilder().maximumSize(MAX_CACHED_PATHS).build();
+
+  // field path expressions as configured in stages, may contain wildcards and field path EL expressions
+  private static final Cache<String, FieldPath> EXPRESSIONS =
+      CacheBuilder.newBuilder().maximumSize(MAX_CACHED_PATHS).build();
+
+  private final String path;
+  private final PathElement[] elements;
+  private final boolean literal;
+
+  private FieldPath(String path, List<PathElement> elements, boolean literal) {
+    this.path = path;
+    this.elements = elements.toArray(new PathElement[elements.size()]);
+    this.literal = literal;
+  }
+
+  /**
+   * Returns the handle of a single quote escaped field path, the form the Record API takes field paths in.
+   *
+   * @throws IllegalArgumentException if the field path is not valid.
+   */
+  public static FieldPath compile(String fieldPath) {
+    FieldPath compiled = ESCAPED_PATHS.getIfPresent(fieldPath);
+    if (compiled == null) {
+      compiled = new FieldPath(fieldPath, PathElement.parse(fieldPath, true), true);
+      ESCAPED_PATHS.put(fieldPath, compiled);
+    }
+    return compiled;
+  }
+
+  /**
+   * Returns the handle of a field path expression, which may contain wildcards and field path EL expressions.
+   *
+   * @throws IllegalArgumentException if the field path expression is not valid.
+   */
+  public static FieldPath compileExpression(String fieldPathExpression) {
+    FieldPath compiled = EXPRESSIONS.getIfPresent(fieldPathExpression);
+    if (compiled == null) {
+      boolean literal = !FieldRegexUtil.hasWildCards(fieldPathExpression) &&
+          !FieldPathExpressionUtil.isFieldPathExpressionFast(fieldPathExpression);
+      // literal paths are used as is with the Record API, they are parsed the way the Record API parses them
+      compiled = new FieldPath(
+          fieldPathExpression,
+          literal ? PathElement.parse(fieldPathExpression, true) : PathElement.parse(fieldPathExpression, false, true),
+          literal
+      );
+      EXPRESSIONS.put(fieldPathExpression, compiled);
+    }
+    return compiled;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * Number of elements, including the root element.
+   */
+  public int size() {
+    return elements.length;
+  }
+
+  public PathElement getElement(int index) {
+    return elements[index];
+  }
+
+  public List<PathElement> getElements() {
+    return Collections.unmodifiableList(Arrays.asList(elements));
+  }
+
+  /**
+   * Returns true if the path refers to a single field, false if it has wildcards or field path EL expressions and
+   * has to be matched against the field paths of a record.
+   */
+  public boolean isLiteral() {
+    return literal;
+  }
+
+  @Override
+  public String toString() {
+    return path;
+  }
+}
@@ -24,12 +24,11 @@ import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.apache.commons.io.IOUtils;
 
-import java.io.Closeable;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.Iterator;
 
-public class CsvParser implements Closeable, AutoCloseable {
+public class CsvParser implements DelimitedRecordReader, AutoCloseable {
   private long currentPos;
   private long skipLinesPosCorrection;
   private final CSVParser parser;
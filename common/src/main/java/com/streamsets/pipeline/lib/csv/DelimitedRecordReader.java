@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads delimited records as arrays of column values.
+ */
+public interface DelimitedRecordReader extends Closeable {
+
+  /**
+   * Returns the column names read from the header record, or null if the format has no header.
+   */
+  String[] getHeaders() throws IOException;
+
+  /**
+   * Returns the columns of the next record, or null if there are no more records.
+   */
+  String[] read() throws IOException;
+
+  /**
+   * Returns the reader position (in chars) of the next record.
+   */
+  long getReaderPosition();
+
+}
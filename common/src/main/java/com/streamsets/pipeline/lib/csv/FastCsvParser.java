@@ -0,0 +1,489 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.csv;
+
+import com.streamsets.pipeline.api.ext.io.ObjectLengthException;
+import com.streamsets.pipeline.api.ext.io.OverrunException;
+import com.streamsets.pipeline.api.ext.io.OverrunReader;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.util.ExceptionUtils;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delimited parser that reads chunks of the reader into its own buffer and scans the buffer for delimiters, line
+ * ends and escapes directly, taking runs of plain characters in one step. Values not spanning two chunks are created
+ * straight from the buffer.
+ * <p/>
+ * It follows the lexing rules of Apache Commons CSV for the settings of the given {@link CSVFormat} (delimiter,
+ * quote, escape, comment marker, empty lines, surrounding spaces, trim, null string and trailing delimiter), so it
+ * returns the same columns as {@link OverrunCsvParser}. Reader positions are the exact char offset of the next
+ * record.
+ */
+public class FastCsvParser implements DelimitedRecordReader {
+  private static final int BUFFER_SIZE = 8 * 1024;
+  private static final int END_OF_STREAM = -1;
+  private static final int UNDEFINED = -2;
+  private static final int DISABLED = -3;
+
+  private enum TokenType { TOKEN, EORECORD, EOF, COMMENT }
+
+  private final OverrunReader reader;
+  private final int maxObjectLen;
+  private final int delimiter;
+  private final int quote;
+  private final int escape;
+  private final int commentMarker;
+  private final boolean ignoreSurroundingSpaces;
+  private final boolean ignoreEmptyLines;
+  private final boolean trim;
+  private final boolean trailingDelimiter;
+  private final String nullString;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private final StringBuilder content = new StringBuilder();
+  private final List<String> columns = new ArrayList<>();
+  private final String[] headers;
+  private int pos;
+  private int limit;
+  private long bufferPos;
+  private boolean eof;
+  private int lastChar = UNDEFINED;
+  // value of the current token when taken straight from the buffer, otherwise it is in content
+  private String value;
+  // an EOF token carrying a value
+  private boolean ready;
+  private long currentPos;
+  private boolean overrun;
+  private boolean closed;
+
+  public FastCsvParser(
+      OverrunReader reader,
+      CSVFormat format,
+      long initialPosition,
+      int skipStartLines,
+      int maxObjectLen
+  ) throws IOException {
+    Utils.checkNotNull(reader, "reader");
+    Utils.checkNotNull(format, "format");
+    Utils.checkArgument(initialPosition >= 0, "initialPosition must be greater or equal than zero");
+    Utils.checkArgument(skipStartLines >= 0, "skipStartLines must be greater or equal than zero");
+    this.reader = reader;
+    this.maxObjectLen = maxObjectLen;
+    delimiter = format.getDelimiter();
+    quote = toInt(format.getQuoteCharacter());
+    escape = toInt(format.getEscapeCharacter());
+    commentMarker = toInt(format.getCommentMarker());
+    ignoreSurroundingSpaces = format.getIgnoreSurroundingSpaces();
+    ignoreEmptyLines = format.getIgnoreEmptyLines();
+    trim = format.getTrim();
+    trailingDelimiter = format.getTrailingDelimiter();
+    nullString = format.getNullString();
+
+    if (initialPosition == 0 || format.getSkipHeaderRecord()) {
+      skipLines(skipStartLines);
+      currentPos = position();
+      headers = format.getSkipHeaderRecord() ? read() : null;
+      while (getReaderPosition() < initialPosition && read() != null) {
+      }
+      if (getReaderPosition() != initialPosition && initialPosition > 0) {
+        throw new IOException(Utils.format("Could not position reader at position '{}', got '{}' instead",
+            initialPosition, getReaderPosition()));
+      }
+    } else {
+      IOUtils.skipFully(reader, initialPosition);
+      bufferPos = initialPosition;
+      currentPos = initialPosition;
+      headers = null;
+    }
+    reader.setEnabled(true);
+  }
+
+  private static int toInt(Character c) {
+    return (c == null) ? DISABLED : c;
+  }
+
+  private void skipLines(int lines) throws IOException {
+    int skipped = 0;
+    while (skipped < lines) {
+      int c = read0();
+      if (c == END_OF_STREAM) {
+        throw new IOException(Utils.format("Could not skip '{}' lines, reached EOF", lines));
+      }
+      // this is enough to handle \n and \r\n EOL files
+      if (c == '\n') {
+        skipped++;
+      }
+    }
+    lastChar = UNDEFINED;
+  }
+
+  @Override
+  public String[] getHeaders() {
+    return headers;
+  }
+
+  @Override
+  public long getReaderPosition() {
+    return currentPos;
+  }
+
+  @Override
+  public String[] read() throws IOException {
+    if (closed) {
+      throw new IOException("Parser has been closed");
+    }
+    if (overrun) {
+      throw new IOException("The parser is unusable, the underlying reader had an overrun");
+    }
+    reader.resetCount();
+    String[] record;
+    try {
+      record = nextRecord();
+    } catch (OverrunException ex) {
+      overrun = true;
+      throw ex;
+    }
+    long prevPos = currentPos;
+    currentPos = position();
+    if (maxObjectLen > -1) {
+      if (currentPos - prevPos > maxObjectLen) {
+        ExceptionUtils.throwUndeclared(new ObjectLengthException(Utils.format(
+            "CSV Object at offset '{}' exceeds max length '{}'", prevPos, maxObjectLen), prevPos));
+      }
+    }
+    return record;
+  }
+
+  @Override
+  public void close() {
+    try {
+      closed = true;
+      reader.close();
+    } catch (IOException ex) {
+      //NOP
+    }
+  }
+
+  private String[] nextRecord() throws IOException {
+    columns.clear();
+    TokenType type;
+    do {
+      type = nextToken();
+      switch (type) {
+        case TOKEN:
+          addValue(false);
+          break;
+        case EORECORD:
+          addValue(true);
+          break;
+        case EOF:
+          if (ready) {
+            addValue(true);
+          }
+          break;
+        case COMMENT:
+          // comment lines are not part of the records
+          type = TokenType.TOKEN;
+          break;
+        default:
+          throw new IllegalStateException("Unexpected token type: " + type);
+      }
+    } while (type == TokenType.TOKEN);
+    return columns.isEmpty() ? null : columns.toArray(new String[columns.size()]);
+  }
+
+  private void addValue(boolean lastValue) {
+    String input = (value != null) ? value : content.toString();
+    if (trim) {
+      input = input.trim();
+    }
+    if (lastValue && input.isEmpty() && trailingDelimiter) {
+      return;
+    }
+    columns.add(input.equals(nullString) ? null : input);
+  }
+
+  private TokenType nextToken() throws IOException {
+    content.setLength(0);
+    value = null;
+    ready = false;
+
+    int last = lastChar;
+    int c = read0();
+    boolean eol = readEndOfLine(c);
+
+    if (ignoreEmptyLines) {
+      while (eol && isStartOfLine(last)) {
+        last = c;
+        c = read0();
+        eol = readEndOfLine(c);
+        if (c == END_OF_STREAM) {
+          return TokenType.EOF;
+        }
+      }
+    }
+
+    if (last == END_OF_STREAM || (last != delimiter && c == END_OF_STREAM)) {
+      return TokenType.EOF;
+    }
+
+    if (isStartOfLine(last) && c == commentMarker) {
+      return skipLine() ? TokenType.COMMENT : TokenType.EOF;
+    }
+
+    if (ignoreSurroundingSpaces) {
+      while (isWhitespace(c) && !eol) {
+        c = read0();
+        eol = readEndOfLine(c);
+      }
+    }
+    if (c == delimiter) {
+      return TokenType.TOKEN;
+    } else if (eol) {
+      return TokenType.EORECORD;
+    } else if (c == quote) {
+      return parseEncapsulatedToken();
+    } else if (c == END_OF_STREAM) {
+      ready = true;
+      return TokenType.EOF;
+    } else {
+      return parseSimpleToken(c);
+    }
+  }
+
+  private TokenType parseSimpleToken(int c) throws IOException {
+    TokenType type;
+    while (true) {
+      if (readEndOfLine(c)) {
+        type = TokenType.EORECORD;
+        break;
+      } else if (c == END_OF_STREAM) {
+        ready = true;
+        type = TokenType.EOF;
+        break;
+      } else if (c == delimiter) {
+        type = TokenType.TOKEN;
+        break;
+      } else if (c == escape) {
+        appendEscaped(c);
+        c = read0();
+      } else {
+        // c is buffer[pos - 1], take it together with the plain chars after it
+        int start = pos - 1;
+        int end = pos;
+        while (end < limit && !isSimpleTokenMeta(buffer[end])) {
+          end++;
+        }
+        if (end < limit && content.length() == 0 && (buffer[end] == delimiter || buffer[end] == '\n')) {
+          // the whole value is in the buffer
+          value = new String(buffer, start, end - start);
+          pos = end + 1;
+          lastChar = buffer[end];
+          type = (lastChar == delimiter) ? TokenType.TOKEN : TokenType.EORECORD;
+          break;
+        }
+        content.append(buffer, start, end - start);
+        pos = end;
+        lastChar = buffer[end - 1];
+        c = read0();
+      }
+    }
+    if (ignoreSurroundingSpaces) {
+      trimTrailingSpaces();
+    }
+    return type;
+  }
+
+  private TokenType parseEncapsulatedToken() throws IOException {
+    while (true) {
+      int c = read0();
+      if (c == escape) {
+        appendEscaped(c);
+      } else if (c == quote) {
+        if (lookAhead() == quote) {
+          content.append((char) read0());
+        } else {
+          while (true) {
+            c = read0();
+            if (c == delimiter) {
+              return TokenType.TOKEN;
+            } else if (c == END_OF_STREAM) {
+              ready = true;
+              return TokenType.EOF;
+            } else if (readEndOfLine(c)) {
+              return TokenType.EORECORD;
+            } else if (!isWhitespace(c)) {
+              throw new IOException(Utils.format(
+                  "(position {}) invalid char between encapsulated token and delimiter",
+                  position()
+              ));
+            }
+          }
+        }
+      } else if (c == END_OF_STREAM) {
+        throw new IOException(Utils.format(
+            "(position {}) EOF reached before encapsulated token finished",
+            position()
+        ));
+      } else {
+        // c is buffer[pos - 1], take it together with the chars up to the next quote or escape
+        int start = pos - 1;
+        int end = pos;
+        while (end < limit && buffer[end] != quote && buffer[end] != escape) {
+          end++;
+        }
+        content.append(buffer, start, end - start);
+        pos = end;
+        lastChar = buffer[end - 1];
+      }
+    }
+  }
+
+  private void appendEscaped(int c) throws IOException {
+    int unescaped = readEscape();
+    if (unescaped == END_OF_STREAM) {
+      content.append((char) c).append((char) lastChar);
+    } else {
+      content.append((char) unescaped);
+    }
+  }
+
+  private int readEscape() throws IOException {
+    int c = read0();
+    switch (c) {
+      case 'r':
+        return '\r';
+      case 'n':
+        return '\n';
+      case 't':
+        return '\t';
+      case 'b':
+        return '\b';
+      case 'f':
+        return '\f';
+      case '\r':
+      case '\n':
+      case '\f':
+      case '\t':
+      case '\b':
+        return c;
+      case END_OF_STREAM:
+        throw new IOException("EOF whilst processing escape sequence");
+      default:
+        if (c == delimiter || c == escape || c == quote || c == commentMarker) {
+          return c;
+        }
+        // not an escape sequence, the escape char and the char are kept as they are
+        return END_OF_STREAM;
+    }
+  }
+
+  // reads the rest of a comment line including its line end, returns false if already at EOF
+  private boolean skipLine() throws IOException {
+    int c = read0();
+    if (c == END_OF_STREAM) {
+      return false;
+    }
+    while (c != END_OF_STREAM && c != '\n' && c != '\r') {
+      c = read0();
+    }
+    if (c == '\r' && lookAhead() == '\n') {
+      read0();
+    }
+    lastChar = '\n';
+    return true;
+  }
+
+  private void trimTrailingSpaces() {
+    if (value != null) {
+      int length = value.length();
+      while (length > 0 && Character.isWhitespace(value.charAt(length - 1))) {
+        length--;
+      }
+      value = value.substring(0, length);
+    } else {
+      int length = content.length();
+      while (length > 0 && Character.isWhitespace(content.charAt(length - 1))) {
+        length--;
+      }
+      content.setLength(length);
+    }
+  }
+
+  // a CR followed by LF is consumed as a single line end
+  private boolean readEndOfLine(int c) throws IOException {
+    if (c == '\r' && lookAhead() == '\n') {
+      c = read0();
+    }
+    return c == '\n' || c == '\r';
+  }
+
+  private boolean isSimpleTokenMeta(char c) {
+    return c == delimiter || c == '\n' || c == '\r' || c == escape;
+  }
+
+  private boolean isWhitespace(int c) {
+    return c >= 0 && c != delimiter && Character.isWhitespace((char) c);
+  }
+
+  private static boolean isStartOfLine(int c) {
+    return c == '\n' || c == '\r' || c == UNDEFINED;
+  }
+
+  private long position() {
+    return bufferPos + pos;
+  }
+
+  private int read0() throws IOException {
+    if (pos == limit && !fill()) {
+      lastChar = END_OF_STREAM;
+      return END_OF_STREAM;
+    }
+    lastChar = buffer[pos++];
+    return lastChar;
+  }
+
+  private int lookAhead() throws IOException {
+    if (pos == limit && !fill()) {
+      return END_OF_STREAM;
+    }
+    return buffer[pos];
+  }
+
+  private boolean fill() throws IOException {
+    if (eof) {
+      return false;
+    }
+    bufferPos += limit;
+    pos = 0;
+    limit = 0;
+    int read;
+    do {
+      read = reader.read(buffer, 0, buffer.length);
+    } while (read == 0);
+    if (read == END_OF_STREAM) {
+      eof = true;
+      return false;
+    }
+    limit = read;
+    return true;
+  }
+
+}
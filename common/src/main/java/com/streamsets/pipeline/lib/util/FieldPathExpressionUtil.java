@@ -16,6 +16,7 @@
 
 package com.streamsets.pipeline.lib.util;
 
+import com.streamsets.datacollector.record.FieldPath;
 import com.streamsets.datacollector.record.PathElement;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
@@ -27,6 +28,7 @@ import com.streamsets.pipeline.lib.el.RecordEL;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -65,6 +67,9 @@ public class FieldPathExpressionUtil {
     if (isFieldPathExpressionFast(fieldExpression)) {
       // this field path expression actually does contain an EL expression, so need to evaluate against all fields
       return evaluateMatchingFieldPathsImpl(fieldExpression, elEval, elVars, record);
+    } else if (!FieldRegexUtil.hasWildCards(fieldExpression)) {
+      // a single field, there is no need to gather all the field paths of the record
+      return record.has(fieldExpression) ? Collections.singletonList(fieldExpression) : Collections.emptyList();
     } else {
       // else it does NOT contain one, so the field regex util (which is faster) can be used
       return FieldRegexUtil.getMatchingFieldPaths(fieldExpression, record.getEscapedFieldPaths());
@@ -105,8 +110,8 @@ public class FieldPathExpressionUtil {
       ELEval elEval,
       ELVars elVars
   ) throws ELEvalException {
-    List<PathElement> actualPathElements = PathElement.parse(fieldPath, true);
-    List<PathElement> matcherPathElements = PathElement.parse(fieldExpression, false, true);
+    List<PathElement> actualPathElements = FieldPath.compile(fieldPath).getElements();
+    List<PathElement> matcherPathElements = FieldPath.compileExpression(fieldExpression).getElements();
 
     Iterator<PathElement> currentPathIter = actualPathElements.iterator();
     Iterator<PathElement> matcherPathIter = matcherPathElements.iterator();
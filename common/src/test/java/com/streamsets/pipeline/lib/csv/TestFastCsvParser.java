@@ -0,0 +1,198 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.csv;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.api.ext.io.ObjectLengthException;
+import com.streamsets.pipeline.api.ext.io.OverrunException;
+import com.streamsets.pipeline.api.ext.io.OverrunReader;
+import org.apache.commons.csv.CSVFormat;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestFastCsvParser {
+
+  private static final List<String> INPUTS = ImmutableList.of(
+      "a,b,c\n1,2,3\n",
+      "a,b,c\r\n1,2,3",
+      "a,b\n\n\nc,d\n\n",
+      "a,\n,b\n,\n",
+      "\"a,b\",\"c\"\"d\",\"e\nf\"\n\"g\"  ,h\n",
+      " a , b \t,\tc\n",
+      "a\tb\t\\N\nc\\td\t\te\\\\f\n",
+      "a|b\\|c|d\\xe\n",
+      "#comment\na,b\n#more\r\nc,d\n",
+      "a,b\rc,d\r",
+      Strings.repeat("abcdefghij", 2000) + "," + Strings.repeat("x", 9000) + "\n\"" + Strings.repeat("q,", 5000) + "\"\n"
+  );
+
+  private static final List<CSVFormat> FORMATS = ImmutableList.of(
+      CSVFormat.DEFAULT,
+      CSVFormat.RFC4180,
+      CSVFormat.EXCEL,
+      CSVFormat.MYSQL,
+      CSVFormat.TDF,
+      CSVFormat.DEFAULT.withDelimiter('|').withEscape('\\').withCommentMarker('#'),
+      CSVFormat.DEFAULT.withTrim().withTrailingDelimiter().withNullString("")
+  );
+
+  @Before
+  public void setUp() {
+    System.getProperties().remove(OverrunReader.READ_LIMIT_SYS_PROP);
+  }
+
+  @After
+  public void cleanUp() {
+    setUp();
+  }
+
+  private static OverrunReader createReader(String data) {
+    return new OverrunReader(new StringReader(data), OverrunReader.getDefaultReadLimit(), false, false);
+  }
+
+  private static List<String> readAll(DelimitedRecordReader parser) throws IOException {
+    List<String> result = new ArrayList<>();
+    try {
+      String[] record;
+      while ((record = parser.read()) != null) {
+        result.add(ImmutableList.copyOf(record) + "@" + parser.getReaderPosition());
+      }
+      result.add("@" + parser.getReaderPosition());
+    } catch (IOException ex) {
+      result.add(ex.getClass().getSimpleName());
+    } finally {
+      parser.close();
+    }
+    return result;
+  }
+
+  @Test
+  public void testSameAsCommonsCsv() throws Exception {
+    for (CSVFormat format : FORMATS) {
+      for (String input : INPUTS) {
+        // comment lines are consumed by commons-csv without counting them in the record positions
+        if (format.isCommentMarkerSet() && input.startsWith("#")) {
+          continue;
+        }
+        List<String> expected = readAll(new OverrunCsvParser(createReader(input), format, 0, 0, -1));
+        List<String> actual = readAll(new FastCsvParser(createReader(input), format, 0, 0, -1));
+        Assert.assertEquals(format + "\n" + input, expected, actual);
+      }
+    }
+  }
+
+  @Test
+  public void testComments() throws Exception {
+    CSVFormat format = CSVFormat.DEFAULT.withCommentMarker('#');
+    FastCsvParser parser = new FastCsvParser(createReader("#comment\na,b\n#more\r\nc,d\n#end"), format, 0, 0, -1);
+    Assert.assertArrayEquals(new String[]{"a", "b"}, parser.read());
+    Assert.assertEquals(13, parser.getReaderPosition());
+    Assert.assertArrayEquals(new String[]{"c", "d"}, parser.read());
+    Assert.assertEquals(24, parser.getReaderPosition());
+    Assert.assertNull(parser.read());
+    Assert.assertEquals(28, parser.getReaderPosition());
+    parser.close();
+  }
+
+  @Test
+  public void testHeaderAndOffsets() throws Exception {
+    String data = "h1,h2\na,b\ncc,dd\n";
+    CSVFormat format = CSVFormat.DEFAULT.withHeader((String[]) null).withSkipHeaderRecord(true);
+
+    FastCsvParser parser = new FastCsvParser(createReader(data), format, 0, 0, -1);
+    Assert.assertArrayEquals(new String[]{"h1", "h2"}, parser.getHeaders());
+    Assert.assertEquals(6, parser.getReaderPosition());
+    Assert.assertArrayEquals(new String[]{"a", "b"}, parser.read());
+    Assert.assertEquals(10, parser.getReaderPosition());
+    parser.close();
+
+    parser = new FastCsvParser(createReader(data), format, 10, 0, -1);
+    Assert.assertArrayEquals(new String[]{"h1", "h2"}, parser.getHeaders());
+    Assert.assertArrayEquals(new String[]{"cc", "dd"}, parser.read());
+    Assert.assertEquals(16, parser.getReaderPosition());
+    Assert.assertNull(parser.read());
+    parser.close();
+
+    parser = new FastCsvParser(createReader(data), CSVFormat.DEFAULT, 10, 0, -1);
+    Assert.assertNull(parser.getHeaders());
+    Assert.assertArrayEquals(new String[]{"cc", "dd"}, parser.read());
+    Assert.assertEquals(16, parser.getReaderPosition());
+    parser.close();
+  }
+
+  @Test
+  public void testSkipLines() throws Exception {
+    FastCsvParser parser = new FastCsvParser(
+        createReader("foo\nbar\r\nh1,h2\na,b\n"),
+        CSVFormat.DEFAULT.withHeader((String[]) null).withSkipHeaderRecord(true),
+        0,
+        2,
+        -1
+    );
+    Assert.assertArrayEquals(new String[]{"h1", "h2"}, parser.getHeaders());
+    Assert.assertEquals(15, parser.getReaderPosition());
+    Assert.assertArrayEquals(new String[]{"a", "b"}, parser.read());
+    Assert.assertEquals(19, parser.getReaderPosition());
+    parser.close();
+  }
+
+  @Test(expected = ObjectLengthException.class)
+  public void testMaxObjectLen() throws Exception {
+    FastCsvParser parser = new FastCsvParser(createReader("a,b,c\naa,bb,cc\n"), CSVFormat.DEFAULT, 0, 0, 6);
+    try {
+      Assert.assertArrayEquals(new String[]{"a", "b", "c"}, parser.read());
+      parser.read();
+    } finally {
+      parser.close();
+    }
+  }
+
+  @Test(expected = OverrunException.class)
+  public void testOverLimit() throws Exception {
+    System.setProperty(OverrunReader.READ_LIMIT_SYS_PROP, "10000");
+    String csv = "a," + Strings.repeat("b", 11000) + ",c";
+    FastCsvParser parser = new FastCsvParser(
+        new OverrunReader(new StringReader(csv), OverrunReader.getDefaultReadLimit(), false, false),
+        CSVFormat.DEFAULT,
+        0,
+        0,
+        -1
+    );
+    parser.read();
+  }
+
+  @Test
+  public void testUnfinishedQuote() throws Exception {
+    FastCsvParser parser = new FastCsvParser(createReader("a,\"b\nc"), CSVFormat.DEFAULT, 0, 0, -1);
+    try {
+      parser.read();
+      Assert.fail("Expected IOException");
+    } catch (IOException ex) {
+      Assert.assertTrue(ex.getMessage().contains("EOF reached before encapsulated token finished"));
+    } finally {
+      parser.close();
+    }
+  }
+
+}
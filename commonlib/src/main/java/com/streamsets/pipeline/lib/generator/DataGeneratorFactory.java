@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.Charset;
 
 public abstract class DataGeneratorFactory extends DataFactory {
 
@@ -53,6 +54,31 @@ public abstract class DataGeneratorFactory extends DataFactory {
 
   public abstract DataGenerator getGenerator(OutputStream os) throws IOException;
 
+  /**
+   * Returns a generator that can be reset after each record, or null if the data format keeps per stream state
+   * (headers, schemas, enclosing elements, ...).
+   */
+  public ResettableDataGenerator getResettableGenerator(OutputStream os) throws IOException {
+    return null;
+  }
+
+  /**
+   * Returns a serializer to write one record at a time into a byte array, reusing its buffer and generator.
+   */
+  public RecordSerializer createRecordSerializer() {
+    return new RecordSerializer(this);
+  }
+
+  /**
+   * Returns whether the charset encodes text the same way at the start and in the middle of a stream, which is not
+   * the case for charsets writing a byte order mark (UTF-16 for example). Writers of such charsets can't be reused
+   * by resettable generators.
+   */
+  protected boolean isCharsetStateless() {
+    Charset charset = getSettings().getCharset();
+    return "aa".getBytes(charset).length == 2 * "a".getBytes(charset).length;
+  }
+
   public Writer createWriter(OutputStream os) {
     return new OutputStreamWriter(os, getSettings().getCharset());
   }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator;
+
+import com.streamsets.pipeline.api.Record;
+
+import java.io.IOException;
+
+/**
+ * Serializes one record at a time into a byte array for destinations writing a message per record.
+ * <p/>
+ * The serializer writes into a buffer that is reused for every record and, if the data format supports it (see
+ * {@link DataGeneratorFactory#getResettableGenerator(java.io.OutputStream)}), reuses the same generator for all
+ * records instead of creating one per record. It is not thread safe, a stage instance should use its own.
+ */
+public class RecordSerializer {
+  private static final int INITIAL_SIZE = 1024;
+  private static final int MAX_RETAINED_SIZE = 1024 * 1024;
+
+  private final DataGeneratorFactory factory;
+  private final ReusableByteArrayOutputStream buffer;
+  private boolean resettable;
+  private ResettableDataGenerator generator;
+
+  RecordSerializer(DataGeneratorFactory factory) {
+    this.factory = factory;
+    buffer = new ReusableByteArrayOutputStream(INITIAL_SIZE, MAX_RETAINED_SIZE);
+    resettable = true;
+  }
+
+  public byte[] serialize(Record record) throws IOException, DataGeneratorException {
+    buffer.reset();
+    if (resettable && generator == null) {
+      generator = factory.getResettableGenerator(buffer);
+      resettable = generator != null;
+    }
+    if (generator != null) {
+      boolean written = false;
+      try {
+        generator.write(record);
+        generator.flush();
+        generator.reset();
+        written = true;
+      } finally {
+        if (!written) {
+          // the generator may still hold part of the failed record, the next record gets a new one
+          generator = null;
+        }
+      }
+    } else {
+      try (DataGenerator dataGenerator = factory.getGenerator(buffer)) {
+        dataGenerator.write(record);
+      }
+    }
+    return buffer.toByteArray();
+  }
+
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator;
+
+import java.io.IOException;
+
+/**
+ * A {@link DataGenerator} for a data format without per stream state (headers, schemas, enclosing elements, ...)
+ * that can be reset to write the next record as if it were the first record written to a new stream.
+ */
+public interface ResettableDataGenerator extends DataGenerator {
+
+  /**
+   * Forgets about the records written so far. The generator must have been flushed before.
+   */
+  public void reset() throws IOException;
+
+}
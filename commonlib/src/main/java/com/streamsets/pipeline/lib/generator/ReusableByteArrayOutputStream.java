@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * ByteArrayOutputStream to be reused for many short lived outputs. {@link #reset()} keeps the grown buffer, so
+ * outputs of similar size don't allocate after the first one, unless it grew beyond the given maximum size.
+ */
+public class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+  private final int initialSize;
+  private final int maxRetainedSize;
+
+  public ReusableByteArrayOutputStream(int initialSize, int maxRetainedSize) {
+    super(initialSize);
+    this.initialSize = initialSize;
+    this.maxRetainedSize = maxRetainedSize;
+  }
+
+  @Override
+  public synchronized void reset() {
+    super.reset();
+    if (buf.length > maxRetainedSize) {
+      buf = new byte[initialSize];
+    }
+  }
+
+}
@@ -17,14 +17,14 @@ package com.streamsets.pipeline.lib.generator.binary;
 
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
-import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import com.streamsets.pipeline.lib.generator.ResettableDataGenerator;
 import org.apache.commons.io.IOUtils;
 
 import java.io.IOException;
 import java.io.OutputStream;
 
-public class BinaryDataGenerator implements DataGenerator {
+public class BinaryDataGenerator implements ResettableDataGenerator {
 
   private final String fieldPath;
   private boolean closed;
@@ -67,6 +67,13 @@ public class BinaryDataGenerator implements DataGenerator {
     outputStream.flush();
   }
 
+  @Override
+  public void reset() throws IOException {
+    if (closed) {
+      throw new IOException("generator has been closed");
+    }
+  }
+
   @Override
   public void close() throws IOException {
     closed = true;
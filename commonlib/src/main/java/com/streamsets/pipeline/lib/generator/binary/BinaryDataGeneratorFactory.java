@@ -19,6 +19,7 @@ import com.google.common.collect.ImmutableSet;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.ResettableDataGenerator;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -55,6 +56,11 @@ public class BinaryDataGeneratorFactory extends DataGeneratorFactory {
 
   @Override
   public DataGenerator getGenerator(OutputStream os) throws IOException {
+    return getResettableGenerator(os);
+  }
+
+  @Override
+  public ResettableDataGenerator getResettableGenerator(OutputStream os) throws IOException {
     return new BinaryDataGenerator(os, fieldPath);
   }
 
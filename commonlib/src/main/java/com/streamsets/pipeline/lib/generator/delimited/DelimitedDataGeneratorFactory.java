@@ -19,6 +19,7 @@ import com.google.common.collect.ImmutableSet;
 import com.streamsets.pipeline.config.CsvHeader;
 import com.streamsets.pipeline.config.CsvMode;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.ResettableDataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.util.DelimitedDataConstants;
 import org.apache.commons.csv.CSVFormat;
@@ -81,6 +82,15 @@ public class DelimitedDataGeneratorFactory extends DataGeneratorFactory {
 
   @Override
   public DataGenerator getGenerator(OutputStream os) throws IOException {
+    return createGenerator(os);
+  }
+
+  @Override
+  public ResettableDataGenerator getResettableGenerator(OutputStream os) throws IOException {
+    return isCharsetStateless() ? createGenerator(os) : null;
+  }
+
+  private DelimitedCharDataGenerator createGenerator(OutputStream os) throws IOException {
     CSVFormat csvFormat = getSettings().getMode(CsvMode.class).getFormat();
     if (getSettings().getMode(CsvMode.class) == CsvMode.CUSTOM) {
       csvFormat = CSVFormat.DEFAULT.withDelimiter((char)getSettings().getConfig(DelimitedDataConstants.DELIMITER_CONFIG))
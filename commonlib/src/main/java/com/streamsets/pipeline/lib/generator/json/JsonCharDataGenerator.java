@@ -21,21 +21,27 @@ import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.ext.ContextExtensions;
 import com.streamsets.pipeline.api.ext.JsonRecordWriter;
 import com.streamsets.pipeline.api.ext.json.Mode;
-import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import com.streamsets.pipeline.lib.generator.ResettableDataGenerator;
 
+import java.io.FilterWriter;
 import java.io.IOException;
 import java.io.Writer;
 
-public class JsonCharDataGenerator implements DataGenerator {
+public class JsonCharDataGenerator implements ResettableDataGenerator {
 
-  private final JsonRecordWriter recordWriter;
+  private final ContextExtensions ext;
+  private final Writer writer;
+  private final Writer recordWriterTarget;
   private final Mode mode;
+  private JsonRecordWriter recordWriter;
 
   public JsonCharDataGenerator(ProtoConfigurableEntity.Context context, Writer writer, Mode mode) throws IOException {
     this.mode = mode;
-    ContextExtensions ext = ((ContextExtensions) context);
-    recordWriter = ext.createJsonRecordWriter(writer, mode);
+    this.writer = writer;
+    ext = ((ContextExtensions) context);
+    recordWriterTarget = new NonClosingWriter(writer);
+    recordWriter = ext.createJsonRecordWriter(recordWriterTarget, mode);
   }
 
   @VisibleForTesting
@@ -62,7 +68,31 @@ public class JsonCharDataGenerator implements DataGenerator {
   }
 
   @Override
-  public void close() throws IOException {
+  public void reset() throws IOException {
+    // the record writer separates root values, a new one writes the next record as the first one. Closing the old
+    // one releases its buffers, but leaves the writer open
     recordWriter.close();
+    recordWriter = ext.createJsonRecordWriter(recordWriterTarget, mode);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      recordWriter.close();
+    } finally {
+      writer.close();
+    }
+  }
+
+  private static class NonClosingWriter extends FilterWriter {
+
+    NonClosingWriter(Writer writer) {
+      super(writer);
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
   }
 }
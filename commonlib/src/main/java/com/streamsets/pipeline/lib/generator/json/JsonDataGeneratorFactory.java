@@ -19,6 +19,7 @@ import com.google.common.collect.ImmutableSet;
 import com.streamsets.pipeline.api.ext.json.Mode;
 import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.ResettableDataGenerator;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -45,4 +46,11 @@ public class JsonDataGeneratorFactory extends DataGeneratorFactory {
     return new JsonCharDataGenerator(getSettings().getContext(), createWriter(os), mode);
   }
 
+  @Override
+  public ResettableDataGenerator getResettableGenerator(OutputStream os) throws IOException {
+    // an array of objects is enclosed in brackets
+    return mode == Mode.MULTIPLE_OBJECTS && isCharsetStateless() ?
+        new JsonCharDataGenerator(getSettings().getContext(), createWriter(os), mode) : null;
+  }
+
 }
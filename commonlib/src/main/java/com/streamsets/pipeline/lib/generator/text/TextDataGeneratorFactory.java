@@ -18,6 +18,7 @@ package com.streamsets.pipeline.lib.generator.text;
 import com.google.common.collect.ImmutableSet;
 import com.streamsets.pipeline.config.TextFieldMissingAction;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.ResettableDataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGenerator;
 import org.apache.commons.lang.StringEscapeUtils;
 
@@ -69,6 +70,15 @@ public class TextDataGeneratorFactory extends DataGeneratorFactory {
 
   @Override
   public DataGenerator getGenerator(OutputStream os) throws IOException {
+    return createGenerator(os);
+  }
+
+  @Override
+  public ResettableDataGenerator getResettableGenerator(OutputStream os) throws IOException {
+    return isCharsetStateless() ? createGenerator(os) : null;
+  }
+
+  private TextCharDataGenerator createGenerator(OutputStream os) throws IOException {
     return new TextCharDataGenerator(
       createWriter(os),
       fieldPath,
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.io;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <code>Reader</code> over a local file that decodes from a memory mapped view of the file into the caller's buffer.
+ * Compared to an <code>InputStreamReader</code> over a <code>FileInputStream</code> wrapped by a
+ * <code>BufferedReader</code>, the bytes are not read through a native buffer into a heap buffer and the chars are not
+ * decoded into an intermediate char buffer to be copied again by the <code>BufferedReader</code>.
+ * <p/>
+ * The file is mapped in windows (64MB by default) so files larger than 2GB can be read. Bytes are bulk copied from
+ * the window in small chunks, which stay in the CPU cache, and decoded from there straight into the caller's buffer.
+ * Decoding from a heap array is much faster than decoding from the mapped buffer, the JDK decoders have array fast
+ * paths (ASCII runs are intrinsified in recent JDKs). Malformed and unmappable input is replaced, same as
+ * <code>InputStreamReader</code> does.
+ * <p/>
+ * The reader supports <code>mark()</code>/<code>reset()</code> without a read ahead limit, the mark is a position
+ * in the file.
+ * <p/>
+ * The file is expected not to change while it is read, this reader is not meant for files that are still being
+ * written to.
+ */
+public class MappedFileReader extends Reader {
+  private static final Logger LOG = LoggerFactory.getLogger(MappedFileReader.class);
+
+  static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+  private static final int CHUNK_SIZE = 8 * 1024;
+
+  private final FileChannel channel;
+  private final long size;
+  private final int windowSize;
+  private final CharsetDecoder decoder;
+  private final boolean asciiCompatible;
+  private final char[] single = new char[1];
+  private final char[] surrogate = new char[2];
+  private final byte[] chunk = new byte[CHUNK_SIZE];
+  private MappedByteBuffer window;
+  private long windowStart;
+  private long chunkStart;
+  private int chunkPos;
+  private int chunkLen;
+  private int pending = -1;
+  private long markPosition = -1;
+  private int markPending = -1;
+  private boolean closed;
+
+  public MappedFileReader(File file, Charset charset) throws IOException {
+    this(file, charset, DEFAULT_WINDOW_SIZE);
+  }
+
+  @VisibleForTesting
+  MappedFileReader(File file, Charset charset, int windowSize) throws IOException {
+    Utils.checkArgument(windowSize > 0, "windowSize must be greater than zero");
+    this.windowSize = windowSize;
+    channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    size = channel.size();
+    decoder = charset.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    asciiCompatible = charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII) ||
+        charset.equals(StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * Returns the position in the file, in bytes, of the next byte to decode.
+   */
+  public long getBytePosition() {
+    return chunkStart + chunkPos;
+  }
+
+  @Override
+  public int read() throws IOException {
+    // parsers reading a char at a time used to have a BufferedReader underneath, 7-bit chars skip the decoder
+    if (asciiCompatible && pending < 0 && chunkPos < chunkLen && chunk[chunkPos] >= 0 && !closed) {
+      return chunk[chunkPos++];
+    }
+    return (read(single, 0, 1) == -1) ? -1 : single[0];
+  }
+
+  @Override
+  public int read(char[] cbuf, int off, int len) throws IOException {
+    ensureOpen();
+    if (off < 0 || len < 0 || off + len > cbuf.length) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (len == 0) {
+      return 0;
+    }
+    int n = 0;
+    if (pending >= 0) {
+      cbuf[off + n++] = (char) pending;
+      pending = -1;
+    }
+    while (n < len && (chunkPos < chunkLen || fillChunk())) {
+      n += decode(cbuf, off + n, len - n);
+    }
+    return (n == 0) ? -1 : n;
+  }
+
+  // returns the number of chars decoded
+  private int decode(char[] cbuf, int off, int len) throws IOException {
+    // at the end of the file a truncated character is decoded as malformed input
+    boolean endOfInput = chunkStart + chunkLen == size;
+    ByteBuffer in = ByteBuffer.wrap(chunk, chunkPos, chunkLen - chunkPos);
+    CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+    CoderResult result = decoder.decode(in, out, endOfInput);
+    if (result.isOverflow() && out.position() == off) {
+      // there is room for one char only and the next character is a surrogate pair
+      CharBuffer pair = CharBuffer.wrap(surrogate);
+      decoder.decode(in, pair, endOfInput);
+      cbuf[off] = surrogate[0];
+      pending = (pair.position() > 1) ? surrogate[1] : -1;
+      chunkPos = in.position();
+      return 1;
+    }
+    chunkPos = in.position();
+    if (result.isUnderflow() && in.hasRemaining()) {
+      // incomplete character at the end of the chunk, the next chunk starts with it
+      fillChunk();
+    }
+    return out.position() - off;
+  }
+
+  // moves the bytes not consumed yet to the start of the chunk and fills the rest of it from the mapped windows,
+  // returns false if there is nothing to decode anymore
+  private boolean fillChunk() throws IOException {
+    System.arraycopy(chunk, chunkPos, chunk, 0, chunkLen - chunkPos);
+    chunkStart += chunkPos;
+    chunkLen -= chunkPos;
+    chunkPos = 0;
+    long position = chunkStart + chunkLen;
+    while (chunkLen < chunk.length && position < size) {
+      if (window == null || position < windowStart || position >= windowStart + window.limit()) {
+        unmap(window);
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+      }
+      window.position((int) (position - windowStart));
+      int count = Math.min(window.remaining(), chunk.length - chunkLen);
+      window.get(chunk, chunkLen, count);
+      chunkLen += count;
+      position += count;
+    }
+    return chunkLen > 0;
+  }
+
+  @Override
+  public boolean ready() throws IOException {
+    ensureOpen();
+    return pending >= 0 || getBytePosition() < size;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return true;
+  }
+
+  @Override
+  public void mark(int readAheadLimit) throws IOException {
+    ensureOpen();
+    markPosition = getBytePosition();
+    markPending = pending;
+  }
+
+  @Override
+  public void reset() throws IOException {
+    ensureOpen();
+    if (markPosition < 0) {
+      throw new IOException("Stream not marked");
+    }
+    if (markPosition >= chunkStart && markPosition <= chunkStart + chunkLen) {
+      chunkPos = (int) (markPosition - chunkStart);
+    } else {
+      chunkStart = markPosition;
+      chunkPos = 0;
+      chunkLen = 0;
+    }
+    pending = markPending;
+    decoder.reset();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      unmap(window);
+      window = null;
+      channel.close();
+    }
+  }
+
+  // releases the mapping right away instead of waiting for the buffer to be garbage collected, the window is never
+  // handed out so nothing can access it afterwards. If the JVM does not allow it, the GC releases the mapping.
+  private static void unmap(MappedByteBuffer buffer) {
+    if (buffer == null) {
+      return;
+    }
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      try {
+        // Java 9+
+        Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        invokeCleaner.invoke(theUnsafe.get(null), buffer);
+      } catch (NoSuchMethodException ex) {
+        // Java 8
+        Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+        cleanerMethod.setAccessible(true);
+        Object cleaner = cleanerMethod.invoke(buffer);
+        if (cleaner != null) {
+          cleaner.getClass().getMethod("clean").invoke(cleaner);
+        }
+      }
+    } catch (Exception ex) {
+      LOG.debug("Could not unmap buffer: {}", ex.toString(), ex);
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Reader closed");
+    }
+  }
+
+}
@@ -19,6 +19,7 @@ import com.streamsets.pipeline.api.FileRef;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.data.DataFactory;
 import com.streamsets.pipeline.api.ext.io.OverrunReader;
+import com.streamsets.pipeline.lib.io.MappedFileReader;
 import org.apache.commons.pool2.impl.GenericObjectPool;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 
@@ -98,7 +99,8 @@ public abstract class DataParserFactory extends DataFactory {
   }
 
   private Reader bufferReader(Reader reader) {
-    if (reader instanceof BufferedReader) {
+    // a MappedFileReader decodes straight into the caller's buffer, another buffer would just add a copy
+    if (reader instanceof BufferedReader || reader instanceof MappedFileReader) {
       return reader;
     }
     return new BufferedReader(reader);
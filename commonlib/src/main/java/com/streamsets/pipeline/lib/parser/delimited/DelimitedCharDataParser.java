@@ -17,6 +17,7 @@ package com.streamsets.pipeline.lib.parser.delimited;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.ProtoConfigurableEntity;
 import com.streamsets.pipeline.api.Record;
@@ -24,6 +25,8 @@ import com.streamsets.pipeline.api.ext.io.OverrunReader;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.config.CsvHeader;
 import com.streamsets.pipeline.config.CsvRecordType;
+import com.streamsets.pipeline.lib.csv.DelimitedRecordReader;
+import com.streamsets.pipeline.lib.csv.FastCsvParser;
 import com.streamsets.pipeline.lib.csv.OverrunCsvParser;
 import com.streamsets.pipeline.lib.parser.AbstractDataParser;
 import com.streamsets.pipeline.lib.parser.DataParserException;
@@ -32,7 +35,6 @@ import com.streamsets.pipeline.lib.parser.RecoverableDataParserException;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -40,8 +42,10 @@ import java.util.Map;
 public class DelimitedCharDataParser extends AbstractDataParser {
   private final ProtoConfigurableEntity.Context context;
   private final String readerId;
-  private final OverrunCsvParser parser;
+  private final DelimitedRecordReader parser;
   private final DelimitedDataParserSettings settings;
+  // column names used as list-map keys, the header names or the column indexes when there is no header
+  private final List<String> columnNames = new ArrayList<>();
 
   private List<Field> headers;
   private boolean eof;
@@ -69,18 +73,29 @@ public class DelimitedCharDataParser extends AbstractDataParser {
       default:
         throw new ParserRuntimeException(Utils.format("Unknown header error: {}", settings.getHeader()));
     }
-    parser = new OverrunCsvParser(
-        reader,
-        settings.getFormat(),
-        readerOffset,
-        settings.getSkipStartLines(),
-        settings.getMaxObjectLen()
-    );
+    if (settings.useFastParser()) {
+      parser = new FastCsvParser(
+          reader,
+          settings.getFormat(),
+          readerOffset,
+          settings.getSkipStartLines(),
+          settings.getMaxObjectLen()
+      );
+    } else {
+      parser = new OverrunCsvParser(
+          reader,
+          settings.getFormat(),
+          readerOffset,
+          settings.getSkipStartLines(),
+          settings.getMaxObjectLen()
+      );
+    }
     String[] hs = parser.getHeaders();
     if (settings.getHeader() != CsvHeader.IGNORE_HEADER && hs != null) {
       headers = new ArrayList<>();
       for (String h : hs) {
         headers.add(Field.create(h));
+        columnNames.add(h);
       }
     }
   }
@@ -106,7 +121,9 @@ public class DelimitedCharDataParser extends AbstractDataParser {
       int numHeaders = headers.size();
       int n = 1;
       while (numHeaders < numColumns) {
-        headers.add(Field.create(String.format("%s%02d", settings.getExtraColumnPrefix(), n++)));
+        String name = String.format("%s%02d", settings.getExtraColumnPrefix(), n++);
+        headers.add(Field.create(name));
+        columnNames.add(name);
         ++numHeaders;
       }
     }
@@ -124,9 +141,9 @@ public class DelimitedCharDataParser extends AbstractDataParser {
     }
 
     if(settings.getRecordType() == CsvRecordType.LIST) {
-      List<Field> row = new ArrayList<>();
+      List<Field> row = new ArrayList<>(columns.length);
       for (int i = 0; i < columns.length; i++) {
-        Map<String, Field> cell = new HashMap<>();
+        Map<String, Field> cell = Maps.newHashMapWithExpectedSize(2);
         Field header = (headers != null) ? headers.get(i) : null;
         if (header != null) {
           cell.put("header", header);
@@ -137,16 +154,15 @@ public class DelimitedCharDataParser extends AbstractDataParser {
       }
       record.set(Field.create(row));
     } else {
-      LinkedHashMap<String, Field> listMap = new LinkedHashMap<>();
-      for (int i = 0; i < columns.length; i++) {
-        String key;
-        Field header = (headers != null) ? headers.get(i) : null;
-        if(header != null) {
-          key = header.getValueAsString();
-        } else {
-          key = Integer.toString(i);
+      LinkedHashMap<String, Field> listMap = Maps.newLinkedHashMapWithExpectedSize(columns.length);
+      if (headers == null) {
+        // without header the keys are the column indexes, created once and reused for all the records
+        for (int i = columnNames.size(); i < columns.length; i++) {
+          columnNames.add(Integer.toString(i));
         }
-        listMap.put(key, getField(columns[i]));
+      }
+      for (int i = 0; i < columns.length; i++) {
+        listMap.put(columnNames.get(i), getField(columns[i]));
       }
       record.set(Field.createListMap(listMap));
     }
@@ -168,6 +184,9 @@ public class DelimitedCharDataParser extends AbstractDataParser {
       return Field.create(Field.Type.STRING, null);
     }
 
+    if (value != null && settings.inferTypes()) {
+      return FieldTypeInference.createField(value);
+    }
     return Field.create(Field.Type.STRING, value);
   }
 
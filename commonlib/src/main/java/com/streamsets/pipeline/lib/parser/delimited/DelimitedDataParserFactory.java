@@ -48,6 +48,8 @@ public class DelimitedDataParserFactory extends DataParserFactory {
       .put(DelimitedDataConstants.IGNORE_EMPTY_LINES_CONFIG, true)
       .put(DelimitedDataConstants.ALLOW_EXTRA_COLUMNS, false)
       .put(DelimitedDataConstants.EXTRA_COLUMN_PREFIX, DelimitedDataConstants.DEFAULT_EXTRA_COLUMN_PREFIX)
+      .put(DelimitedDataConstants.FAST_PARSER, false)
+      .put(DelimitedDataConstants.INFER_TYPES, false)
       .build();
 
   public static final Set<Class<? extends Enum>> MODES =
@@ -96,6 +98,8 @@ public class DelimitedDataParserFactory extends DataParserFactory {
           .withNullConstant(getSettings().getConfig(DelimitedDataConstants.NULL_CONSTANT))
           .withAllowExtraColumns(getSettings().getConfig(DelimitedDataConstants.ALLOW_EXTRA_COLUMNS))
           .withExtraColumnPrefix(getSettings().getConfig(DelimitedDataConstants.EXTRA_COLUMN_PREFIX))
+          .withFastParser(getSettings().getConfig(DelimitedDataConstants.FAST_PARSER))
+          .withInferTypes(getSettings().getConfig(DelimitedDataConstants.INFER_TYPES))
           .build();
 
       return new DelimitedCharDataParser(getSettings().getContext(), id, reader, offset, settings);
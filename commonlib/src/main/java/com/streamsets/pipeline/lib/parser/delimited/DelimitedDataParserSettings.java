@@ -29,6 +29,8 @@ public class DelimitedDataParserSettings {
   private String nullConstant;
   private boolean allowExtraColumns;
   private String extraColumnPrefix;
+  private boolean fastParser;
+  private boolean inferTypes;
 
   public int getSkipStartLines() {
     return skipStartLines;
@@ -70,6 +72,14 @@ public class DelimitedDataParserSettings {
     return extraColumnPrefix;
   }
 
+  public boolean useFastParser() {
+    return fastParser;
+  }
+
+  public boolean inferTypes() {
+    return inferTypes;
+  }
+
   public static Builder builder() {
     return new Builder();
   }
@@ -84,6 +94,8 @@ public class DelimitedDataParserSettings {
     private String nullConstant;
     private boolean allowExtraColumns;
     private String extraColumnPrefix;
+    private boolean fastParser;
+    private boolean inferTypes;
 
     private Builder() {
     }
@@ -133,6 +145,16 @@ public class DelimitedDataParserSettings {
       return this;
     }
 
+    public Builder withFastParser(boolean fastParser) {
+      this.fastParser = fastParser;
+      return this;
+    }
+
+    public Builder withInferTypes(boolean inferTypes) {
+      this.inferTypes = inferTypes;
+      return this;
+    }
+
     public DelimitedDataParserSettings build() {
       DelimitedDataParserSettings delimitedDataParserSettings = new DelimitedDataParserSettings();
       delimitedDataParserSettings.header = this.header;
@@ -144,6 +166,8 @@ public class DelimitedDataParserSettings {
       delimitedDataParserSettings.extraColumnPrefix = this.extraColumnPrefix;
       delimitedDataParserSettings.format = this.format;
       delimitedDataParserSettings.parseNull = this.parseNull;
+      delimitedDataParserSettings.fastParser = this.fastParser;
+      delimitedDataParserSettings.inferTypes = this.inferTypes;
       return delimitedDataParserSettings;
     }
   }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.delimited;
+
+import com.streamsets.pipeline.api.Field;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Creates the field for a delimited value, inferring its type from the value: integers become INTEGER, LONG or
+ * DECIMAL fields depending on their size, numbers with a fraction or an exponent become DOUBLE fields and
+ * true/false (any case) become BOOLEAN fields. Anything else, including numbers with leading zeros, remains a STRING
+ * field.
+ */
+final class FieldTypeInference {
+
+  private FieldTypeInference() {
+  }
+
+  static Field createField(String value) {
+    int length = value.length();
+    if (length == 0) {
+      return Field.create(value);
+    }
+    char first = value.charAt(0);
+    if (first == 't' || first == 'T' || first == 'f' || first == 'F') {
+      if ("true".equalsIgnoreCase(value)) {
+        return Field.create(true);
+      } else if ("false".equalsIgnoreCase(value)) {
+        return Field.create(false);
+      }
+      return Field.create(value);
+    }
+
+    int digitsStart = (first == '-') ? 1 : 0;
+    int i = skipDigits(value, digitsStart);
+    int digits = i - digitsStart;
+    if (digits == 0 || (digits > 1 && value.charAt(digitsStart) == '0')) {
+      return Field.create(value);
+    }
+    if (i == length) {
+      return createIntegerField(value, digits);
+    }
+    if (value.charAt(i) == '.') {
+      int fractionStart = i + 1;
+      i = skipDigits(value, fractionStart);
+      if (i == fractionStart) {
+        return Field.create(value);
+      }
+    }
+    if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+      i++;
+      if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+        i++;
+      }
+      int exponentStart = i;
+      i = skipDigits(value, exponentStart);
+      if (i == exponentStart) {
+        return Field.create(value);
+      }
+    }
+    return (i == length) ? Field.create(Double.parseDouble(value)) : Field.create(value);
+  }
+
+  private static int skipDigits(String value, int start) {
+    int i = start;
+    while (i < value.length() && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+      i++;
+    }
+    return i;
+  }
+
+  private static Field createIntegerField(String value, int digits) {
+    if (digits <= 18) {
+      long number = Long.parseLong(value);
+      if (number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE) {
+        return Field.create((int) number);
+      }
+      return Field.create(number);
+    }
+    BigInteger number = new BigInteger(value);
+    return (number.bitLength() < 64) ? Field.create(number.longValue()) : Field.create(new BigDecimal(number));
+  }
+
+}
@@ -58,7 +58,8 @@ public class JsonCharDataParser extends AbstractDataParser {
         readerOffset,
         maxObjectLen,
         mode,
-        Object.class
+        // the reader builds the fields straight from the JSON tokens, no intermediate Map/List tree
+        Field.class
     );
   }
 
@@ -98,7 +99,9 @@ public class JsonCharDataParser extends AbstractDataParser {
   @SuppressWarnings("unchecked")
   protected Field jsonToField(Object json, long offset) throws DataParserException {
     Field field;
-    if (json == null) {
+    if (json instanceof Field) {
+      field = (Field) json;
+    } else if (json == null) {
       field = Field.create(Field.Type.STRING, null);
     } else if (json instanceof List) {
       List jsonList = (List) json;
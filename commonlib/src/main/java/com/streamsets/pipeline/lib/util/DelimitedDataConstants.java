@@ -28,6 +28,8 @@ public class DelimitedDataConstants {
   public static final String NULL_CONSTANT = "nullConstant";
   public static final String ALLOW_EXTRA_COLUMNS = "allowExtraColumns";
   public static final String EXTRA_COLUMN_PREFIX = "extraColumnPrefix";
+  public static final String FAST_PARSER = "fastParser";
+  public static final String INFER_TYPES = "inferTypes";
 
   public static final String DEFAULT_EXTRA_COLUMN_PREFIX = "_extra_";
 
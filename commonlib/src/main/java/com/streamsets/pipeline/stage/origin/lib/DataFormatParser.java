@@ -338,6 +338,8 @@ public class DataFormatParser {
           .setConfig(DelimitedDataConstants.IGNORE_EMPTY_LINES_CONFIG, dataFormatConfig.csvIgnoreEmptyLines)
           .setConfig(DelimitedDataConstants.ALLOW_EXTRA_COLUMNS, dataFormatConfig.csvAllowExtraColumns)
           .setConfig(DelimitedDataConstants.EXTRA_COLUMN_PREFIX, dataFormatConfig.csvExtraColumnPrefix)
+          .setConfig(DelimitedDataConstants.FAST_PARSER, dataFormatConfig.csvFastParser)
+          .setConfig(DelimitedDataConstants.INFER_TYPES, dataFormatConfig.csvInferTypes)
           ;
         break;
       case XML:
@@ -446,6 +446,34 @@ public class DataParserFormatConfig implements DataFormatConfig {
   )
   public String nullConstant;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Fast Parser",
+      description = "Parses with a built-in parser that scans the data in bulk instead of Apache Commons CSV. " +
+          "Produces the same columns.",
+      displayPosition = 438,
+      group = "DATA_FORMAT",
+      dependsOn = "dataFormat^",
+      triggeredByValue = "DELIMITED"
+  )
+  public boolean csvFastParser;
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Infer Field Types",
+      description = "Creates INTEGER, LONG, DECIMAL, DOUBLE and BOOLEAN fields for values that are numbers or " +
+          "booleans, other values remain STRING fields",
+      displayPosition = 439,
+      group = "DATA_FORMAT",
+      dependsOn = "dataFormat^",
+      triggeredByValue = "DELIMITED"
+  )
+  public boolean csvInferTypes;
+
   @ConfigDef(
       required = false,
       type = ConfigDef.Type.STRING,
@@ -1505,6 +1533,8 @@ public class DataParserFormatConfig implements DataFormatConfig {
         .setConfig(DelimitedDataConstants.IGNORE_EMPTY_LINES_CONFIG, csvIgnoreEmptyLines)
         .setConfig(DelimitedDataConstants.ALLOW_EXTRA_COLUMNS, csvAllowExtraColumns)
         .setConfig(DelimitedDataConstants.EXTRA_COLUMN_PREFIX, csvExtraColumnPrefix)
+        .setConfig(DelimitedDataConstants.FAST_PARSER, csvFastParser)
+        .setConfig(DelimitedDataConstants.INFER_TYPES, csvInferTypes)
     ;
   }
 
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.api.ext.json.Mode;
+import com.streamsets.pipeline.config.CsvHeader;
+import com.streamsets.pipeline.config.CsvMode;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+public class TestRecordSerializer {
+
+  private Stage.Context getContext() {
+    return ContextInfoCreator.createTargetContext("i", false, OnRecordError.TO_ERROR);
+  }
+
+  private static List<Record> createRecords() {
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+      map.put("a", Field.create("a" + i));
+      map.put("b", Field.create(i));
+      Record record = RecordCreator.create();
+      record.set(Field.createListMap(map));
+      records.add(record);
+    }
+    return records;
+  }
+
+  // what a new generator per record writes
+  private static byte[] generate(DataGeneratorFactory factory, Record record) throws Exception {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (DataGenerator generator = factory.getGenerator(baos)) {
+      generator.write(record);
+    }
+    return baos.toByteArray();
+  }
+
+  private static void assertSameAsNewGenerators(DataGeneratorFactory factory) throws Exception {
+    RecordSerializer serializer = factory.createRecordSerializer();
+    for (Record record : createRecords()) {
+      Assert.assertArrayEquals(generate(factory, record), serializer.serialize(record));
+    }
+  }
+
+  @Test
+  public void testJsonMultipleObjects() throws Exception {
+    DataGeneratorFactory factory = new DataGeneratorFactoryBuilder(getContext(), DataGeneratorFormat.JSON)
+        .setMode(Mode.MULTIPLE_OBJECTS)
+        .build();
+    Assert.assertNotNull(factory.getResettableGenerator(new ByteArrayOutputStream()));
+    assertSameAsNewGenerators(factory);
+  }
+
+  @Test
+  public void testJsonArrayObjects() throws Exception {
+    DataGeneratorFactory factory = new DataGeneratorFactoryBuilder(getContext(), DataGeneratorFormat.JSON)
+        .setMode(Mode.ARRAY_OBJECTS)
+        .build();
+    Assert.assertNull(factory.getResettableGenerator(new ByteArrayOutputStream()));
+    assertSameAsNewGenerators(factory);
+  }
+
+  @Test
+  public void testDelimitedWithHeader() throws Exception {
+    DataGeneratorFactory factory = new DataGeneratorFactoryBuilder(getContext(), DataGeneratorFormat.DELIMITED)
+        .setMode(CsvMode.CSV)
+        .setMode(CsvHeader.WITH_HEADER)
+        .build();
+    Assert.assertNotNull(factory.getResettableGenerator(new ByteArrayOutputStream()));
+    assertSameAsNewGenerators(factory);
+  }
+
+  @Test
+  public void testCharsetWithByteOrderMark() throws Exception {
+    DataGeneratorFactory factory = new DataGeneratorFactoryBuilder(getContext(), DataGeneratorFormat.JSON)
+        .setMode(Mode.MULTIPLE_OBJECTS)
+        .setCharset(StandardCharsets.UTF_16)
+        .build();
+    Assert.assertNull(factory.getResettableGenerator(new ByteArrayOutputStream()));
+    assertSameAsNewGenerators(factory);
+  }
+
+  @Test
+  public void testFailedRecordDoesNotLeak() throws Exception {
+    DataGeneratorFactory factory = new DataGeneratorFactoryBuilder(getContext(), DataGeneratorFormat.DELIMITED)
+        .setMode(CsvMode.CSV)
+        .setMode(CsvHeader.NO_HEADER)
+        .build();
+    RecordSerializer serializer = factory.createRecordSerializer();
+    Record invalid = RecordCreator.create();
+    invalid.set(Field.create("not a list"));
+    try {
+      serializer.serialize(invalid);
+      Assert.fail();
+    } catch (DataGeneratorException ex) {
+      // expected
+    }
+    Record record = createRecords().get(0);
+    Assert.assertArrayEquals(generate(factory, record), serializer.serialize(record));
+    Assert.assertEquals("a0,0", new String(serializer.serialize(record), StandardCharsets.UTF_8).trim());
+  }
+
+}
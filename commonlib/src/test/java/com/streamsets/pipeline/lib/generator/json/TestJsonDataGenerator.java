@@ -123,6 +123,29 @@ public class TestJsonDataGenerator {
     Assert.assertFalse(it.hasNext());
   }
 
+  @Test
+  public void testResetKeepsWriterOpen() throws Exception {
+    boolean[] closed = new boolean[1];
+    StringWriter writer = new StringWriter() {
+      @Override
+      public void close() throws IOException {
+        closed[0] = true;
+      }
+    };
+    JsonCharDataGenerator gen = new JsonCharDataGenerator(getContext(), writer, Mode.MULTIPLE_OBJECTS);
+    Record record = RecordCreator.create();
+    record.set(Field.create("Hello"));
+    gen.write(record);
+    gen.flush();
+    gen.reset();
+    Assert.assertFalse(closed[0]);
+    gen.write(record);
+    gen.close();
+    Assert.assertTrue(closed[0]);
+    // the record after the reset is written as the first one, without a separator
+    Assert.assertEquals("\"Hello\"\"Hello\"", writer.toString());
+  }
+
   @Test
   public void testFlush() throws Exception {
     StringWriter writer = new StringWriter();
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.io;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.UUID;
+
+public class TestMappedFileReader {
+  private File testDir;
+
+  @Before
+  public void setUp() {
+    testDir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(testDir.mkdirs());
+  }
+
+  private File createFile(byte[] data) throws IOException {
+    File file = new File(testDir, UUID.randomUUID().toString());
+    Files.write(file.toPath(), data);
+    return file;
+  }
+
+  private static String createText() {
+    // ASCII plus 2, 3 and 4 byte UTF-8 characters
+    String[] pieces = {"Hello", "\u00e9", "\u20ac", "\uD83D\uDE00", "\n"};
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      sb.append(pieces[(i * 7) % pieces.length]);
+    }
+    return sb.toString();
+  }
+
+  private static String readAll(Reader reader, int bufferSize) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    char[] buffer = new char[bufferSize];
+    int read;
+    while ((read = reader.read(buffer)) > -1) {
+      sb.append(buffer, 0, read);
+    }
+    return sb.toString();
+  }
+
+  @Test
+  public void testReadAcrossWindows() throws IOException {
+    String text = createText();
+    for (Charset charset : new Charset[]{StandardCharsets.UTF_8, StandardCharsets.UTF_16}) {
+      File file = createFile(text.getBytes(charset));
+      // window sizes that split multi-byte characters
+      for (int windowSize : new int[]{17, 1000, MappedFileReader.DEFAULT_WINDOW_SIZE}) {
+        for (int bufferSize : new int[]{1, 3, 8192}) {
+          try (Reader reader = new MappedFileReader(file, charset, windowSize)) {
+            Assert.assertEquals(text, readAll(reader, bufferSize));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testReadChars() throws IOException {
+    String text = createText();
+    File file = createFile(text.getBytes(StandardCharsets.UTF_8));
+    StringBuilder sb = new StringBuilder();
+    try (Reader reader = new MappedFileReader(file, StandardCharsets.UTF_8, 17)) {
+      int c;
+      while ((c = reader.read()) > -1) {
+        sb.append((char) c);
+      }
+    }
+    Assert.assertEquals(text, sb.toString());
+  }
+
+  @Test
+  public void testSkipMarkReset() throws IOException {
+    String text = createText();
+    File file = createFile(text.getBytes(StandardCharsets.UTF_8));
+    try (Reader reader = new MappedFileReader(file, StandardCharsets.UTF_8, 1000)) {
+      Assert.assertTrue(reader.markSupported());
+      Assert.assertEquals(5000, reader.skip(5000));
+      reader.mark(1);
+      char[] first = new char[3000];
+      Assert.assertEquals(3000, reader.read(first));
+      reader.reset();
+      char[] second = new char[3000];
+      Assert.assertEquals(3000, reader.read(second));
+      Assert.assertArrayEquals(first, second);
+      Assert.assertEquals(text.substring(5000, 8000), new String(first));
+    }
+  }
+
+  @Test
+  public void testMalformedInput() throws IOException {
+    // truncated 3 byte character at the end of the file
+    File file = createFile(new byte[]{'a', (byte) 0xe2, (byte) 0x82});
+    try (Reader reader = new MappedFileReader(file, StandardCharsets.UTF_8)) {
+      Assert.assertEquals("a\uFFFD", IOUtils.toString(reader));
+    }
+  }
+
+  @Test
+  public void testEmptyFile() throws IOException {
+    File file = createFile(new byte[0]);
+    try (Reader reader = new MappedFileReader(file, StandardCharsets.UTF_8)) {
+      Assert.assertFalse(reader.ready());
+      Assert.assertEquals(-1, reader.read(new char[10]));
+      Assert.assertEquals(-1, reader.read());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testReadAfterClose() throws IOException {
+    File file = createFile("Hello".getBytes(StandardCharsets.UTF_8));
+    Reader reader = new MappedFileReader(file, StandardCharsets.UTF_8);
+    reader.close();
+    reader.read();
+  }
+
+}
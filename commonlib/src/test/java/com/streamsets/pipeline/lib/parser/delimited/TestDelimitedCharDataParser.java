@@ -32,8 +32,10 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.Assert.assertTrue;
@@ -540,4 +542,87 @@ public class TestDelimitedCharDataParser {
       Assert.assertEquals("c", columns.get(2).getValueAsString());
     }
   }
+
+  @Test
+  public void testParseWithFastParser() throws Exception {
+    OverrunReader reader = new OverrunReader(new StringReader("A,B\na,\"b,c\"\n\nd,e"), 1000, true, false);
+    DelimitedDataParserSettings settings = DelimitedDataParserSettings.builder()
+        .withSkipStartLines(0)
+        .withFormat(CSVFormat.DEFAULT)
+        .withHeader(CsvHeader.WITH_HEADER)
+        .withMaxObjectLen(-1)
+        .withRecordType(CsvRecordType.LIST_MAP)
+        .withParseNull(false)
+        .withNullConstant(null)
+        .withAllowExtraColumns(false)
+        .withFastParser(true)
+        .build();
+    DataParser parser = new DelimitedCharDataParser(getContext(), "id", reader, 0, settings);
+
+    Assert.assertEquals("4", parser.getOffset());
+    Record record = parser.parse();
+    Assert.assertNotNull(record);
+    Assert.assertEquals("id::4", record.getHeader().getSourceId());
+    Assert.assertEquals("a", record.get().getValueAsListMap().get("A").getValueAsString());
+    Assert.assertEquals("b,c", record.get().getValueAsListMap().get("B").getValueAsString());
+    Assert.assertEquals("12", parser.getOffset());
+    record = parser.parse();
+    Assert.assertNotNull(record);
+    Assert.assertEquals("id::12", record.getHeader().getSourceId());
+    Assert.assertEquals("d", record.get().getValueAsListMap().get("A").getValueAsString());
+    Assert.assertEquals("e", record.get().getValueAsListMap().get("B").getValueAsString());
+    Assert.assertEquals("16", parser.getOffset());
+    record = parser.parse();
+    Assert.assertNull(record);
+    Assert.assertEquals("-1", parser.getOffset());
+    parser.close();
+
+    reader = new OverrunReader(new StringReader("A,B\na,\"b,c\"\n\nd,e"), 1000, true, false);
+    parser = new DelimitedCharDataParser(getContext(), "id", reader, 12, settings);
+    record = parser.parse();
+    Assert.assertNotNull(record);
+    Assert.assertEquals("id::12", record.getHeader().getSourceId());
+    Assert.assertEquals("d", record.get().getValueAsListMap().get("A").getValueAsString());
+    parser.close();
+  }
+
+  @Test
+  public void testParseInferTypes() throws Exception {
+    OverrunReader reader = new OverrunReader(
+        new StringReader("1,-3000000000,12345678901234567890,1.5,2e3,TRUE,false,007,1.,abc,,\\N"),
+        1000,
+        true,
+        false
+    );
+    DelimitedDataParserSettings settings = DelimitedDataParserSettings.builder()
+        .withSkipStartLines(0)
+        .withFormat(CSVFormat.DEFAULT)
+        .withHeader(CsvHeader.NO_HEADER)
+        .withMaxObjectLen(-1)
+        .withRecordType(CsvRecordType.LIST_MAP)
+        .withParseNull(true)
+        .withNullConstant("\\N")
+        .withAllowExtraColumns(false)
+        .withFastParser(true)
+        .withInferTypes(true)
+        .build();
+    DataParser parser = new DelimitedCharDataParser(getContext(), "id", reader, 0, settings);
+
+    Record record = parser.parse();
+    Assert.assertNotNull(record);
+    Map<String, Field> row = record.get().getValueAsListMap();
+    Assert.assertEquals(Field.create(1), row.get("0"));
+    Assert.assertEquals(Field.create(-3000000000L), row.get("1"));
+    Assert.assertEquals(Field.create(new BigDecimal("12345678901234567890")), row.get("2"));
+    Assert.assertEquals(Field.create(1.5), row.get("3"));
+    Assert.assertEquals(Field.create(2000d), row.get("4"));
+    Assert.assertEquals(Field.create(true), row.get("5"));
+    Assert.assertEquals(Field.create(false), row.get("6"));
+    Assert.assertEquals(Field.create("007"), row.get("7"));
+    Assert.assertEquals(Field.create("1."), row.get("8"));
+    Assert.assertEquals(Field.create("abc"), row.get("9"));
+    Assert.assertEquals(Field.create(""), row.get("10"));
+    Assert.assertEquals(Field.create(Field.Type.STRING, null), row.get("11"));
+    parser.close();
+  }
 }
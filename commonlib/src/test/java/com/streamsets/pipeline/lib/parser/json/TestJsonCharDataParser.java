@@ -15,6 +15,7 @@
  */
 package com.streamsets.pipeline.lib.parser.json;
 
+import com.google.common.collect.ImmutableList;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Record;
@@ -22,6 +23,7 @@ import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.ext.io.OverrunReader;
 import com.streamsets.pipeline.api.ext.json.Mode;
 import com.streamsets.pipeline.lib.parser.DataParser;
+import com.streamsets.pipeline.lib.parser.DataParserException;
 import com.streamsets.pipeline.sdk.ContextInfoCreator;
 import org.junit.Assert;
 import org.junit.Test;
@@ -29,6 +31,8 @@ import org.junit.Test;
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 public class TestJsonCharDataParser {
 
@@ -220,4 +224,64 @@ public class TestJsonCharDataParser {
     parser.close();
   }
 
+  @Test
+  public void testParseFieldTypes() throws Exception {
+    OverrunReader reader = new OverrunReader(
+        new StringReader("{\"s\":\"a\",\"i\":1,\"l\":10000000000,\"d\":1.5,\"b\":true,\"n\":null," +
+            "\"list\":[1,\"x\",null,[]],\"map\":{\"z\":{},\"y\":false}}"),
+        1000,
+        true,
+        false
+    );
+    DataParser parser = new JsonCharDataParser(getContext(), "id", reader, 0, Mode.MULTIPLE_OBJECTS, 1000);
+    Record record = parser.parse();
+    Assert.assertNotNull(record);
+    Map<String, Field> map = record.get().getValueAsMap();
+    Assert.assertEquals(Field.Type.MAP, record.get().getType());
+    Assert.assertEquals(ImmutableList.of("s", "i", "l", "d", "b", "n", "list", "map"), ImmutableList.copyOf(map.keySet()));
+    Assert.assertEquals(Field.create("a"), map.get("s"));
+    Assert.assertEquals(Field.create(1), map.get("i"));
+    Assert.assertEquals(Field.create(10000000000L), map.get("l"));
+    Assert.assertEquals(Field.create(1.5d), map.get("d"));
+    Assert.assertEquals(Field.create(true), map.get("b"));
+    Assert.assertEquals(Field.create(Field.Type.STRING, null), map.get("n"));
+    List<Field> list = map.get("list").getValueAsList();
+    Assert.assertEquals(4, list.size());
+    Assert.assertEquals(Field.create(1), list.get(0));
+    Assert.assertEquals(Field.create("x"), list.get(1));
+    Assert.assertEquals(Field.create(Field.Type.STRING, null), list.get(2));
+    Assert.assertEquals(Field.Type.LIST, list.get(3).getType());
+    Assert.assertTrue(list.get(3).getValueAsList().isEmpty());
+    Map<String, Field> nested = map.get("map").getValueAsMap();
+    Assert.assertTrue(nested.get("z").getValueAsMap().isEmpty());
+    Assert.assertEquals(Field.create(false), nested.get("y"));
+    Assert.assertNull(parser.parse());
+    parser.close();
+  }
+
+  @Test
+  public void testParseObjectExceedingMaxLength() throws Exception {
+    OverrunReader reader = new OverrunReader(
+        new StringReader("{\"a\":\"A\"}\n{\"b\":\"abcdefghijabcdefghij\",\"c\":\"abcdefghijabcdefghij\"}\n{\"d\":\"D\"}"),
+        1000,
+        true,
+        false
+    );
+    DataParser parser = new JsonCharDataParser(getContext(), "id", reader, 0, Mode.MULTIPLE_OBJECTS, 30);
+    Record record = parser.parse();
+    Assert.assertEquals("A", record.get().getValueAsMap().get("a").getValueAsString());
+    try {
+      parser.parse();
+      Assert.fail();
+    } catch (DataParserException ex) {
+      Assert.assertEquals(Errors.JSON_PARSER_02, ex.getErrorCode());
+    }
+    // the parser skipped the oversized object and is usable
+    record = parser.parse();
+    Assert.assertNotNull(record);
+    Assert.assertEquals("D", record.get().getValueAsMap().get("d").getValueAsString());
+    Assert.assertNull(parser.parse());
+    parser.close();
+  }
+
 }
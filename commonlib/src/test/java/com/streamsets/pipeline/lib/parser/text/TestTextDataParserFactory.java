@@ -18,6 +18,7 @@ package com.streamsets.pipeline.lib.parser.text;
 import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.lib.io.MappedFileReader;
 import com.streamsets.pipeline.lib.parser.DataParser;
 import com.streamsets.pipeline.lib.parser.DataParserException;
 import com.streamsets.pipeline.lib.parser.DataParserFactory;
@@ -30,10 +31,14 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Collections;
 import java.util.NoSuchElementException;
+import java.util.UUID;
 
 public class TestTextDataParserFactory {
 
@@ -74,6 +79,30 @@ public class TestTextDataParserFactory {
     parser.close();
   }
 
+  @Test
+  public void testGetParserMappedFile() throws Exception {
+    File file = new File("target", UUID.randomUUID().toString());
+    Files.write(file.toPath(), "Hello\nBye".getBytes(StandardCharsets.UTF_8));
+    DataParserFactoryBuilder dataParserFactoryBuilder = new DataParserFactoryBuilder(getContext(), DataParserFormat.TEXT);
+    DataParserFactory factory = dataParserFactoryBuilder
+      .setMaxDataLen(3)
+      .build();
+    DataParser parser = factory.getParser("id", new MappedFileReader(file, StandardCharsets.UTF_8), 0);
+    Assert.assertEquals(0, Long.parseLong(parser.getOffset()));
+    Record record = parser.parse();
+    Assert.assertTrue(record.has("/text"));
+    Assert.assertTrue(record.has("/truncated"));
+    Assert.assertEquals(6, Long.parseLong(parser.getOffset()));
+    parser.close();
+
+    parser = factory.getParser("id", new MappedFileReader(file, StandardCharsets.UTF_8), 6);
+    Assert.assertEquals(6, Long.parseLong(parser.getOffset()));
+    record = parser.parse();
+    Assert.assertEquals("Bye", record.get("/text").getValueAsString());
+    Assert.assertEquals(9, Long.parseLong(parser.getOffset()));
+    parser.close();
+  }
+
   @Test
   public void testGetParserReaderWithOffset() throws Exception {
     DataParserFactoryBuilder dataParserFactoryBuilder = new DataParserFactoryBuilder(getContext(), DataParserFormat.TEXT);
@@ -24,6 +24,7 @@ import com.streamsets.datacollector.execution.PipelineInfo;
 import com.streamsets.datacollector.execution.Runner;
 import com.streamsets.datacollector.execution.runner.common.Constants;
 import com.streamsets.datacollector.http.ServerNotYetRunningException;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.BuildInfo;
 import com.streamsets.datacollector.main.LogConfigurator;
 import com.streamsets.datacollector.main.MainSlavePipelineManagerModule;
@@ -259,4 +260,9 @@ public class EmbeddedDataCollector implements DataCollector {
     throw new UnsupportedOperationException("This method is not supported.");
   }
 
+  @Override
+  public String getPipelineMetrics() throws Exception {
+    return ObjectMapperFactory.getOneLine().writeValueAsString(runner.getMetrics());
+  }
+
 }
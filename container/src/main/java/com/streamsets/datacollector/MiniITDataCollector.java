@@ -227,6 +227,12 @@ public class MiniITDataCollector implements DataCollector {
     return ObjectMapperFactory.get().writeValueAsString(BeanHelper.wrapRuleDefinitions(ruleDefinitions1));
   }
 
+  @Override
+  public String getPipelineMetrics() throws Exception {
+    Utils.checkNotNull(runner, "No pipeline running");
+    return ObjectMapperFactory.getOneLine().writeValueAsString(runner.getMetrics());
+  }
+
   @Override
   public List<Issue> validatePipeline(String name, String pipelineJson) throws IOException {
     final ObjectMapper json = ObjectMapperFactory.get();
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.el;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.streamsets.pipeline.api.el.ELEvalException;
+import com.streamsets.pipeline.api.el.ELVars;
+
+import javax.servlet.jsp.el.ELException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ELEvaluator variant that compiles each expression once (see ELCompiler) and then evaluates the compiled form
+ * rather than interpreting the parsed expression on every call.
+ */
+public class CompiledELEvaluator extends ELEvaluator {
+  private static final int MAX_COMPILED_EXPRESSIONS = 1000;
+
+  private final ELCompiler compiler;
+  private final Cache<String, ELCompiler.CompiledExpression> compiledExpressions;
+
+  public CompiledELEvaluator(String configName, boolean explicit, Map<String, Object> constants, List<Class> elFuncConstDefClasses) {
+    this(configName, explicit, constants, elFuncConstDefClasses.toArray(new Class[elFuncConstDefClasses.size()]));
+  }
+
+  public CompiledELEvaluator(String configName, boolean explicit, Map<String, Object> constants, Class<?>... elFuncConstDefClasses) {
+    super(configName, explicit, constants, elFuncConstDefClasses);
+    this.compiler = new ELCompiler(this);
+    this.compiledExpressions = CacheBuilder.newBuilder().maximumSize(MAX_COMPILED_EXPRESSIONS).build();
+  }
+
+  public CompiledELEvaluator(String configName, Class<?>... elFuncConstDefClasses) {
+    this(configName, true, elFuncConstDefClasses);
+  }
+
+  public CompiledELEvaluator(String configName, boolean explicit, Class<?>... elFuncConstDefClasses) {
+    super(configName, explicit, elFuncConstDefClasses);
+    this.compiler = new ELCompiler(this);
+    this.compiledExpressions = CacheBuilder.newBuilder().maximumSize(MAX_COMPILED_EXPRESSIONS).build();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T evaluate(ELVars vars, String expression, Class<T> returnType) throws ELEvalException {
+    try {
+      ELCompiler.CompiledExpression compiled = compiledExpressions.getIfPresent(expression);
+      if (compiled == null) {
+        // Concurrent compilations of the same expression are harmless, the last one will simply win
+        compiled = compiler.compile(expression);
+        compiledExpressions.put(expression, compiled);
+      }
+      return (T) compiled.evaluate(vars, returnType);
+    } catch (ELException e) {
+      throw createEvalException(expression, e);
+    }
+  }
+}
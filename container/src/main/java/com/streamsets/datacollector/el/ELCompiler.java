@@ -0,0 +1,402 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.el;
+
+import com.streamsets.pipeline.api.el.ELVars;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.apache.commons.el.ArraySuffix;
+import org.apache.commons.el.BinaryOperator;
+import org.apache.commons.el.BinaryOperatorExpression;
+import org.apache.commons.el.Coercions;
+import org.apache.commons.el.ComplexValue;
+import org.apache.commons.el.ConditionalExpression;
+import org.apache.commons.el.Constants;
+import org.apache.commons.el.Expression;
+import org.apache.commons.el.ExpressionString;
+import org.apache.commons.el.FunctionInvocation;
+import org.apache.commons.el.Literal;
+import org.apache.commons.el.Logger;
+import org.apache.commons.el.NamedValue;
+import org.apache.commons.el.PropertySuffix;
+import org.apache.commons.el.UnaryOperator;
+import org.apache.commons.el.UnaryOperatorExpression;
+import org.apache.commons.el.ValueSuffix;
+
+import javax.servlet.jsp.el.ELException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles expressions parsed by commons-el into a tree of closures that can be evaluated repeatedly without
+ * going through the interpreter. Variable and function resolution happens once during compilation: functions are
+ * bound to method handles and constants are looked up in advance. Sub-expressions that depend only on literals
+ * are folded into constants.
+ *
+ * Node types that are not compiled are evaluated by commons-el itself, so that the semantics stay the same.
+ */
+class ELCompiler {
+
+  // Used only to propagate errors as ELException, commons-el's logger doesn't log errors, it throws them
+  private static final Logger EL_LOGGER = new Logger(System.out);
+
+  private final ELEvaluator evaluator;
+
+  ELCompiler(ELEvaluator evaluator) {
+    this.evaluator = evaluator;
+  }
+
+  /**
+   * Compiled form of single expression.
+   */
+  interface Node {
+    Object evaluate(ELVars vars) throws ELException;
+  }
+
+  static class CompiledExpression {
+    private final Node node;
+
+    private CompiledExpression(Node node) {
+      this.node = node;
+    }
+
+    Object evaluate(ELVars vars, Class<?> returnType) throws ELException {
+      return Coercions.coerce(node.evaluate(vars), returnType, EL_LOGGER);
+    }
+  }
+
+  CompiledExpression compile(String expression) throws ELException {
+    return new CompiledExpression(compileParsed(ELEvaluator.parseExpression(expression)));
+  }
+
+  private Node compileParsed(Object parsed) throws ELException {
+    if (parsed instanceof String) {
+      return new ConstantNode(parsed);
+    } else if (parsed instanceof ExpressionString) {
+      Object[] elements = ((ExpressionString) parsed).getElements();
+      Node[] nodes = new Node[elements.length];
+      for (int i = 0; i < elements.length; i++) {
+        nodes[i] = (elements[i] instanceof String) ? new ConstantNode(elements[i]) : compile((Expression) elements[i]);
+      }
+      return fold(new ConcatNode(nodes), nodes);
+    } else {
+      return compile((Expression) parsed);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Node compile(Expression expression) throws ELException {
+    if (expression instanceof Literal) {
+      return new ConstantNode(((Literal) expression).getValue());
+    } else if (expression instanceof NamedValue) {
+      return compileNamedValue(((NamedValue) expression).getName());
+    } else if (expression instanceof FunctionInvocation) {
+      return compileFunction((FunctionInvocation) expression);
+    } else if (expression instanceof BinaryOperatorExpression) {
+      BinaryOperatorExpression binary = (BinaryOperatorExpression) expression;
+      List<BinaryOperator> operators = binary.getOperators();
+      List<Expression> expressions = binary.getExpressions();
+      Node[] nodes = new Node[expressions.size() + 1];
+      nodes[0] = compile(binary.getExpression());
+      for (int i = 0; i < expressions.size(); i++) {
+        nodes[i + 1] = compile(expressions.get(i));
+      }
+      return fold(new BinaryNode(operators.toArray(new BinaryOperator[operators.size()]), nodes), nodes);
+    } else if (expression instanceof UnaryOperatorExpression) {
+      UnaryOperatorExpression unary = (UnaryOperatorExpression) expression;
+      UnaryOperator[] operators;
+      if (unary.getOperator() != null) {
+        operators = new UnaryOperator[] {unary.getOperator()};
+      } else {
+        // Operators are applied from the last one
+        List<UnaryOperator> list = unary.getOperators();
+        operators = new UnaryOperator[list.size()];
+        for (int i = 0; i < operators.length; i++) {
+          operators[i] = list.get(list.size() - 1 - i);
+        }
+      }
+      Node node = compile(unary.getExpression());
+      return fold(new UnaryNode(operators, node), node);
+    } else if (expression instanceof ConditionalExpression) {
+      ConditionalExpression conditional = (ConditionalExpression) expression;
+      Node condition = compile(conditional.getCondition());
+      Node trueBranch = compile(conditional.getTrueBranch());
+      Node falseBranch = compile(conditional.getFalseBranch());
+      return fold(new ConditionalNode(condition, trueBranch, falseBranch), condition, trueBranch, falseBranch);
+    } else if (expression instanceof ComplexValue) {
+      ComplexValue complex = (ComplexValue) expression;
+      List<ValueSuffix> suffixes = complex.getSuffixes();
+      if (suffixes != null) {
+        for (ValueSuffix suffix : suffixes) {
+          // Suffixes with computed index need variable resolver, so we let the interpreter to take care of them
+          if (!(suffix instanceof PropertySuffix) && !(((ArraySuffix) suffix).getIndex() instanceof Literal)) {
+            return new InterpretedNode(expression);
+          }
+        }
+      }
+      ValueSuffix[] suffixArray = suffixes == null ? new ValueSuffix[0] : suffixes.toArray(new ValueSuffix[0]);
+      return new ComplexValueNode(compile(complex.getPrefix()), suffixArray);
+    }
+    return new InterpretedNode(expression);
+  }
+
+  private Node compileNamedValue(String name) {
+    Map<String, Object> constants = evaluator.getConstants();
+    return new VariableNode(name, constants.containsKey(name), constants.get(name));
+  }
+
+  private Node compileFunction(FunctionInvocation invocation) throws ELException {
+    String functionName = invocation.getFunctionName();
+    String prefix = "";
+    String localName = functionName;
+    int index = functionName.indexOf(':');
+    if (index != -1) {
+      prefix = functionName.substring(0, index);
+      localName = functionName.substring(index + 1);
+    }
+
+    Method method = evaluator.getFunctionMapper().resolveFunction(prefix, localName);
+    List<?> arguments = invocation.getArgumentList();
+    if (method == null || method.getParameterTypes().length != arguments.size()) {
+      // Unknown function or wrong number of arguments, the interpreter will report the error if the function
+      // actually gets called (it might be in branch that is never evaluated)
+      return new InterpretedNode(invocation);
+    }
+    Class<?>[] params = method.getParameterTypes();
+
+    MethodHandle handle;
+    try {
+      handle = MethodHandles.publicLookup()
+          .unreflect(method)
+          .asSpreader(Object[].class, params.length)
+          .asType(MethodType.methodType(Object.class, Object[].class));
+    } catch (IllegalAccessException e) {
+      // Not a public method, let the interpreter deal with it
+      return new InterpretedNode(invocation);
+    }
+
+    Node[] argumentNodes = new Node[arguments.size()];
+    for (int i = 0; i < argumentNodes.length; i++) {
+      argumentNodes[i] = compile((Expression) arguments.get(i));
+    }
+    return new FunctionNode(functionName, handle, params, argumentNodes);
+  }
+
+  /**
+   * Replaces the node with constant if it depends only on constants.
+   */
+  private static Node fold(Node node, Node... children) {
+    for (Node child : children) {
+      if (!(child instanceof ConstantNode)) {
+        return node;
+      }
+    }
+    try {
+      return new ConstantNode(node.evaluate(null));
+    } catch (ELException e) {
+      // The expression will fail on every evaluation, which is where the error should be reported
+      return node;
+    }
+  }
+
+  private static class ConstantNode implements Node {
+    private final Object value;
+
+    ConstantNode(Object value) {
+      this.value = value;
+    }
+
+    @Override
+    public Object evaluate(ELVars vars) {
+      return value;
+    }
+  }
+
+  private static class VariableNode implements Node {
+    private final String name;
+    private final boolean isConstant;
+    private final Object constant;
+
+    VariableNode(String name, boolean isConstant, Object constant) {
+      this.name = name;
+      this.isConstant = isConstant;
+      this.constant = constant;
+    }
+
+    @Override
+    public Object evaluate(ELVars vars) throws ELException {
+      // Variables take precedence over constants
+      if (vars.hasVariable(name)) {
+        return vars.getVariable(name);
+      }
+      if (!isConstant) {
+        throw new ELException(Utils.format("Constants/Variable '{}' cannot be resolved", name));
+      }
+      return constant;
+    }
+  }
+
+  private static class FunctionNode implements Node {
+    private final String functionName;
+    private final MethodHandle handle;
+    private final Class<?>[] params;
+    private final Node[] arguments;
+
+    FunctionNode(String functionName, MethodHandle handle, Class<?>[] params, Node[] arguments) {
+      this.functionName = functionName;
+      this.handle = handle;
+      this.params = params;
+      this.arguments = arguments;
+    }
+
+    @Override
+    public Object evaluate(ELVars vars) throws ELException {
+      Object[] values = new Object[arguments.length];
+      for (int i = 0; i < arguments.length; i++) {
+        values[i] = Coercions.coerce(arguments[i].evaluate(vars), params[i], EL_LOGGER);
+      }
+      try {
+        return (Object) handle.invokeExact(values);
+      } catch (Error e) {
+        throw e;
+      } catch (Throwable e) {
+        EL_LOGGER.logError(Constants.FUNCTION_INVOCATION_ERROR, e, functionName);
+        return null;
+      }
+    }
+  }
+
+  private static class BinaryNode implements Node {
+    private final BinaryOperator[] operators;
+    private final Node[] operands;
+
+    BinaryNode(BinaryOperator[] operators, Node[] operands) {
+      this.operators = operators;
+      this.operands = operands;
+    }
+
+    @Override
+    public Object evaluate(ELVars vars) throws ELException {
+      Object value = operands[0].evaluate(vars);
+      for (int i = 0; i < operators.length; i++) {
+        BinaryOperator operator = operators[i];
+        // For the And/Or operators, we need to coerce to a boolean before testing if we shouldEvaluate
+        if (operator.shouldCoerceToBoolean()) {
+          value = Coercions.coerceToBoolean(value, EL_LOGGER);
+        }
+        if (operator.shouldEvaluate(value)) {
+          value = operator.apply(value, operands[i + 1].evaluate(vars), EL_LOGGER);
+        }
+      }
+      return value;
+    }
+  }
+
+  private static class UnaryNode implements Node {
+    private final UnaryOperator[] operators;
+    private final Node operand;
+
+    UnaryNode(UnaryOperator[] operators, Node operand) {
+      this.operators = operators;
+      this.operand = operand;
+    }
+
+    @Override
+    public Object evaluate(ELVars vars) throws ELException {
+      Object value = operand.evaluate(vars);
+      for (UnaryOperator operator : operators) {
+        value = operator.apply(value, EL_LOGGER);
+      }
+      return value;
+    }
+  }
+
+  private static class ConditionalNode implements Node {
+    private final Node condition;
+    private final Node trueBranch;
+    private final Node falseBranch;
+
+    ConditionalNode(Node condition, Node trueBranch, Node falseBranch) {
+      this.condition = condition;
+      this.trueBranch = trueBranch;
+      this.falseBranch = falseBranch;
+    }
+
+    @Override
+    public Object evaluate(ELVars vars) throws ELException {
+      if (Coercions.coerceToBoolean(condition.evaluate(vars), EL_LOGGER)) {
+        return trueBranch.evaluate(vars);
+      }
+      return falseBranch.evaluate(vars);
+    }
+  }
+
+  private static class ComplexValueNode implements Node {
+    private final Node prefix;
+    private final ValueSuffix[] suffixes;
+
+    ComplexValueNode(Node prefix, ValueSuffix[] suffixes) {
+      this.prefix = prefix;
+      this.suffixes = suffixes;
+    }
+
+    @Override
+    public Object evaluate(ELVars vars) throws ELException {
+      Object value = prefix.evaluate(vars);
+      for (ValueSuffix suffix : suffixes) {
+        // Only suffixes with constant index are compiled, hence they don't need resolver nor functions
+        value = suffix.evaluate(value, null, null, EL_LOGGER);
+      }
+      return value;
+    }
+  }
+
+  private static class ConcatNode implements Node {
+    private final Node[] elements;
+
+    ConcatNode(Node[] elements) {
+      this.elements = elements;
+    }
+
+    @Override
+    public Object evaluate(ELVars vars) throws ELException {
+      StringBuilder sb = new StringBuilder();
+      for (Node element : elements) {
+        Object value = element.evaluate(vars);
+        if (value != null) {
+          sb.append(value.toString());
+        }
+      }
+      return sb.toString();
+    }
+  }
+
+  private class InterpretedNode implements Node {
+    private final Expression expression;
+
+    InterpretedNode(Expression expression) {
+      this.expression = expression;
+    }
+
+    @Override
+    public Object evaluate(ELVars vars) throws ELException {
+      return expression.evaluate(evaluator.createVariableResolver(vars), evaluator.getFunctionMapper(), EL_LOGGER);
+    }
+  }
+}
@@ -123,10 +123,22 @@ public class ELEvaluator extends ELEval {
     }
   }
 
+  static Object parseExpression(String el) throws ELException {
+    return EVALUATOR.parseExpressionString(el);
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   public <T> T evaluate (final ELVars vars, String expression, Class<T> returnType) throws ELEvalException {
-    VariableResolver variableResolver = new VariableResolver() {
+    try {
+      return (T) EVALUATOR.evaluate(expression, returnType, createVariableResolver(vars), functionMapper);
+    } catch (ELException e) {
+      throw createEvalException(expression, e);
+    }
+  }
+
+  VariableResolver createVariableResolver(final ELVars vars) {
+    return new VariableResolver() {
 
       @Override
       public Object resolveVariable(String name) throws ELException {
@@ -141,22 +153,29 @@ public class ELEvaluator extends ELEval {
         return value;
       }
     };
-    try {
-      return (T) EVALUATOR.evaluate(expression, returnType, variableResolver, functionMapper);
-    } catch (ELException e) {
-      // Apache evaluator is not using the getCause exception chaining that is available in Java but rather a custom
-      // chaining mechanism. This doesn't work well for us as we're effectively swallowing the cause that is not
-      // available in log, ...
-      Throwable t = e;
-      if(e.getRootCause() != null) {
-        t = e.getRootCause();
-        if(e.getCause() == null) {
-          e.initCause(t);
-        }
+  }
+
+  static ELEvalException createEvalException(String expression, ELException e) {
+    // Apache evaluator is not using the getCause exception chaining that is available in Java but rather a custom
+    // chaining mechanism. This doesn't work well for us as we're effectively swallowing the cause that is not
+    // available in log, ...
+    Throwable t = e;
+    if(e.getRootCause() != null) {
+      t = e.getRootCause();
+      if(e.getCause() == null) {
+        e.initCause(t);
       }
-      LOG.debug("Error valuating EL '{}': {}", expression, e.toString(), e);
-      throw new ELEvalException(CommonError.CMN_0104, expression, t.toString(), e);
     }
+    LOG.debug("Error valuating EL '{}': {}", expression, e.toString(), e);
+    return new ELEvalException(CommonError.CMN_0104, expression, t.toString(), e);
+  }
+
+  Map<String, Object> getConstants() {
+    return constants;
+  }
+
+  FunctionMapper getFunctionMapper() {
+    return functionMapper;
   }
 
   private class FunctionMapperImpl implements FunctionMapper {
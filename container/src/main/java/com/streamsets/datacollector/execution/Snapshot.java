@@ -15,10 +15,12 @@
  */
 package com.streamsets.datacollector.execution;
 
+import com.streamsets.datacollector.runner.StageOutput;
 import com.streamsets.datacollector.util.PipelineException;
 
 import java.io.Closeable;
 import java.io.InputStream;
+import java.util.List;
 
 public interface Snapshot extends Closeable {
 
@@ -26,4 +28,9 @@ public interface Snapshot extends Closeable {
 
   public InputStream getOutput() throws PipelineException;
 
+  // returns the output of the given stage (all stages if null) for every captured batch, every lane and the error
+  // and event records are limited to len records (all if negative) starting at offset
+  public List<List<StageOutput>> getStageOutput(String stageInstanceName, int offset, int len)
+      throws PipelineException;
+
 }
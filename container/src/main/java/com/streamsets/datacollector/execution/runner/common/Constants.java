@@ -26,6 +26,16 @@ public class Constants {
   public static final String PIPELINE_CLUSTER_TOKEN_KEY = "pipeline.cluster.token";
   public static final String MAX_BATCH_SIZE_KEY = "production.maxBatchSize";
   public static final int MAX_BATCH_SIZE_DEFAULT = 1000;
+  public static final String PIPELINED_BATCHES_KEY = "production.pipelinedBatches";
+  public static final int PIPELINED_BATCHES_DEFAULT = 0;
+  public static final String PARALLEL_BRANCHES_THREADS_KEY = "production.parallelBranches.threads";
+  public static final int PARALLEL_BRANCHES_THREADS_DEFAULT = 0;
+  public static final String OFFSET_LOG_ENABLED_KEY = "production.offsets.log";
+  public static final boolean OFFSET_LOG_ENABLED_DEFAULT = true;
+  public static final String OFFSET_LOG_COMPACTION_ENTRIES_KEY = "production.offsets.log.compactionEntries";
+  public static final int OFFSET_LOG_COMPACTION_ENTRIES_DEFAULT = 10000;
+  public static final String OFFSET_LOG_FSYNC_KEY = "production.offsets.log.fsync";
+  public static final boolean OFFSET_LOG_FSYNC_DEFAULT = false;
   public static final String DELIVERY_GUARANTEE = "deliveryGuarantee";
   public static final String MAX_ERROR_FILE_SIZE_KEY = "production.maxErrorFileSize";
   public static final String MAX_ERROR_FILE_SIZE_DEFAULT = "1024MB";
@@ -28,6 +28,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.datacollector.bundles.SupportBundleManager;
 import com.streamsets.datacollector.config.MemoryLimitConfiguration;
 import com.streamsets.datacollector.config.MemoryLimitExceeded;
@@ -66,6 +67,7 @@ import com.streamsets.datacollector.runner.StagePipe;
 import com.streamsets.datacollector.runner.StageRuntime;
 import com.streamsets.datacollector.runner.production.BadRecordsHandler;
 import com.streamsets.datacollector.runner.production.PipelineErrorNotificationRequest;
+import com.streamsets.datacollector.runner.production.ProductionSourceOffsetTracker;
 import com.streamsets.datacollector.runner.production.ReportErrorDelegate;
 import com.streamsets.datacollector.runner.production.StatsAggregationHandler;
 import com.streamsets.datacollector.util.AggregatorUtil;
@@ -97,8 +99,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
@@ -107,6 +114,8 @@ import java.util.stream.Collectors;
 public class ProductionPipelineRunner implements PipelineRunner, PushSourceContextDelegate, ReportErrorDelegate {
 
   private static final Logger LOG = LoggerFactory.getLogger(ProductionPipelineRunner.class);
+  private static final long PIPELINED_BATCH_POLL_INTERVAL_MS = 100;
+  private static final long SNAPSHOT_WRITER_SHUTDOWN_TIMEOUT_SECS = 60;
 
   private final RuntimeInfo runtimeInfo;
   private final com.streamsets.datacollector.util.Configuration configuration;
@@ -142,6 +151,7 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
   private final Counter batchErrorMessagesCounter;
   private final Counter memoryConsumedCounter;
   private final Histogram runnersHistogram;
+  private final Timer runnerWaitTimer;
   private MetricRegistryJson metricRegistryJson;
   private Long rateLimit;
 
@@ -172,6 +182,10 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
   private long lastMemoryLimitNotification;
   private ThreadHealthReporter threadHealthReporter;
   private final List<List<StageOutput>> capturedBatches = new ArrayList<>();
+  /*persists captured snapshots outside of the batch thread, created when the first snapshot is captured*/
+  private ExecutorService snapshotWriter;
+  /*runs independent branches of the pipeline concurrently, null when disabled*/
+  private volatile ForkJoinPool branchPool;
   private PipeContext pipeContext = null;
   private PipelineConfigBean pipelineConfigBean = null;
   private PipelineConfiguration pipelineConfiguration = null;
@@ -230,6 +244,7 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     memoryConsumedCounter = MetricsConfigurator.createCounter(metrics, "pipeline.memoryConsumed", pipelineName,
       revision);
     runnersHistogram = MetricsConfigurator.createHistogram5Min(metrics, "pipeline.runners", pipelineName, revision);
+    runnerWaitTimer = MetricsConfigurator.createTimer(metrics, "pipeline.runnerWait", pipelineName, revision);
   }
 
   public void setObserveRequests(BlockingQueue<Object> observeRequests) {
@@ -364,7 +379,20 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     this.pipes = pipes;
     this.badRecordsHandler = badRecordsHandler;
     this.statsAggregationHandler = statsAggregationHandler;
-    this.runnerPool = new RunnerPool<>(pipes, pipeContext.getRuntimeStats(), runnersHistogram);
+    this.runnerPool = new RunnerPool<>(pipes, pipeContext.getRuntimeStats(), runnersHistogram, runnerWaitTimer);
+
+    int branchThreads = configuration.get(
+        Constants.PARALLEL_BRANCHES_THREADS_KEY,
+        Constants.PARALLEL_BRANCHES_THREADS_DEFAULT
+    );
+    if (branchThreads > 0) {
+      LOG.info("Running independent pipeline branches in parallel using up to {} threads", branchThreads);
+      branchPool = new ForkJoinPool(branchThreads, pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("ProductionPipelineRunner Branch Worker " + thread.getPoolIndex());
+        return thread;
+      }, null, false);
+    }
 
     try {
       if (originPipe.getStage().getStage() instanceof PushSource) {
@@ -385,6 +413,35 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
       Throwables.propagateIfInstanceOf(throwable, StageException.class);
       Throwables.propagateIfInstanceOf(throwable, PipelineRuntimeException.class);
       Throwables.propagate(throwable);
+    } finally {
+      if (branchPool != null) {
+        branchPool.shutdown();
+        branchPool = null;
+      }
+      awaitSnapshotWriter();
+    }
+  }
+
+  /**
+   * Waits for captured snapshots that are still being persisted, so that they are available once the pipeline stops.
+   */
+  private void awaitSnapshotWriter() {
+    ExecutorService writer;
+    synchronized (this) {
+      writer = snapshotWriter;
+      snapshotWriter = null;
+    }
+    if (writer == null) {
+      return;
+    }
+    writer.shutdown();
+    try {
+      if (!writer.awaitTermination(SNAPSHOT_WRITER_SHUTDOWN_TIMEOUT_SECS, TimeUnit.SECONDS)) {
+        LOG.warn("Snapshots are still being persisted after {} seconds, not waiting for them anymore",
+          SNAPSHOT_WRITER_SHUTDOWN_TIMEOUT_SECS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
     }
   }
 
@@ -515,6 +572,12 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
   }
 
   public void runPollSource() throws StageException, PipelineException {
+    int pipelinedBatches = configuration.get(Constants.PIPELINED_BATCHES_KEY, Constants.PIPELINED_BATCHES_DEFAULT);
+    if (pipelinedBatches > 0) {
+      runPipelinedPollSource(pipelinedBatches);
+      return;
+    }
+
     while (!offsetTracker.isFinished() && !stop && !finished) {
       if (threadHealthReporter != null) {
         threadHealthReporter.reportHealth(ProductionPipelineRunnable.RUNNABLE_NAME, -1, System.currentTimeMillis());
@@ -538,7 +601,7 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
       processPipe(
         originPipe,
         pipeBatch,
-        false,
+        new AtomicBoolean(false),
         null,
         null,
         memoryConsumedByStage,
@@ -573,6 +636,201 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     }
   }
 
+  /**
+   * Pipelined variant of runPollSource(). The origin runs on its own thread and reads batch N+1 while batch N is
+   * going through the rest of the pipeline on this thread. Batches are handed over through bounded queue, hence
+   * at most pipelinedBatches batches can be read ahead of the one that is being processed. Since the batches are
+   * processed by a single thread in the same order in which they were produced, offsets are committed in order.
+   */
+  private void runPipelinedPollSource(int pipelinedBatches) throws StageException, PipelineException {
+    LOG.info("Running origin in pipelined mode with up to {} batches read ahead", pipelinedBatches);
+    BlockingQueue<ProducedBatch> producedBatches = new ArrayBlockingQueue<>(pipelinedBatches);
+    AtomicBoolean producerStop = new AtomicBoolean(false);
+
+    Thread producerThread = new Thread(
+      () -> produceBatches(producedBatches, producerStop),
+      Thread.currentThread().getName() + "-origin"
+    );
+    producerThread.setDaemon(true);
+    producerThread.start();
+
+    try {
+      while (!offsetTracker.isFinished() && !stop && !finished) {
+        if (threadHealthReporter != null) {
+          threadHealthReporter.reportHealth(ProductionPipelineRunnable.RUNNABLE_NAME, -1, System.currentTimeMillis());
+        }
+
+        ProducedBatch producedBatch = producedBatches.poll(PIPELINED_BATCH_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        if (producedBatch == null) {
+          // Origin is still working on the next batch, let's check whether we were not stopped in the meantime
+          continue;
+        }
+
+        if (producedBatch.throwable != null) {
+          Throwables.propagateIfInstanceOf(producedBatch.throwable, StageException.class);
+          Throwables.propagateIfInstanceOf(producedBatch.throwable, PipelineException.class);
+          Throwables.propagate(producedBatch.throwable);
+        }
+
+        if (producedBatch.pipeBatch == null) {
+          // Origin will not produce any more batches
+          break;
+        }
+
+        for (BatchListener batchListener : batchListenerList) {
+          batchListener.preBatch();
+        }
+
+        if(observer != null) {
+          observer.reconfigure();
+        }
+
+        FullPipeBatch pipeBatch = producedBatch.pipeBatch;
+        try {
+          // Run rest of the pipeline
+          runSourceLessBatch(
+            producedBatch.start,
+            pipeBatch,
+            Source.POLL_SOURCE_OFFSET_KEY,
+            pipeBatch.getNewOffset(),
+            producedBatch.memoryConsumedByStage,
+            producedBatch.stageBatchMetrics
+          );
+        } catch (Throwable t) {
+          // We try to create partial batch on processing failure
+          createFailureBatch(pipeBatch);
+
+          Throwables.propagateIfInstanceOf(t, StageException.class);
+          Throwables.propagateIfInstanceOf(t, PipelineRuntimeException.class);
+          Throwables.propagate(t);
+        }
+
+        for (BatchListener batchListener : batchListenerList) {
+          batchListener.postBatch();
+        }
+      }
+    } catch (InterruptedException e) {
+      LOG.warn("Interrupted while waiting on batch from origin");
+      Thread.currentThread().interrupt();
+    } finally {
+      // Batches that were read ahead are discarded, their offsets were not committed and hence they will be read
+      // again when the pipeline is restarted.
+      producerStop.set(true);
+      // The origin must not be running when the stages are destroyed, hence we keep waiting even when interrupted
+      // and restore the interrupt flag once the origin thread is done.
+      boolean interrupted = Thread.interrupted();
+      while (producerThread.isAlive()) {
+        producedBatches.clear();
+        try {
+          producerThread.join(PIPELINED_BATCH_POLL_INTERVAL_MS);
+        } catch (InterruptedException e) {
+          LOG.warn("Interrupted while waiting on origin thread to finish, still waiting");
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Origin side of the pipelined execution - repeatedly runs the origin and hands over the produced batches to the
+   * thread that is running the rest of the pipeline.
+   */
+  private void produceBatches(BlockingQueue<ProducedBatch> producedBatches, AtomicBoolean producerStop) {
+    PipelineEL.setConstantsInContext(pipelineConfiguration, originPipe.getStage().getContext().getUserContext());
+    // Origin is working with offset of the last produced batch rather then with the last committed one
+    String lastOffset = offsetTracker.getOffsets().get(Source.POLL_SOURCE_OFFSET_KEY);
+    try {
+      while (!producerStop.get() && !stop && !finished) {
+        long start = System.currentTimeMillis();
+        FullPipeBatch pipeBatch = createFullPipeBatch(Source.POLL_SOURCE_OFFSET_KEY, lastOffset);
+
+        Map<String, Long> memoryConsumedByStage = new HashMap<>();
+        Map<String, Object> stageBatchMetrics = new HashMap<>();
+        processPipe(
+          originPipe,
+          pipeBatch,
+          new AtomicBoolean(false),
+          null,
+          null,
+          memoryConsumedByStage,
+          stageBatchMetrics
+        );
+        lastOffset = pipeBatch.getNewOffset();
+
+        ProducedBatch producedBatch = new ProducedBatch(start, pipeBatch, memoryConsumedByStage, stageBatchMetrics);
+        if (!offerProducedBatch(producedBatches, producerStop, producedBatch)) {
+          return;
+        }
+
+        // Null offset means that the origin is done and we shouldn't call it again
+        if (lastOffset == null) {
+          offerProducedBatch(producedBatches, producerStop, ProducedBatch.END_OF_DATA);
+          return;
+        }
+      }
+    } catch (Throwable t) {
+      LOG.error("Origin failed while reading next batch", t);
+      offerProducedBatch(producedBatches, producerStop, new ProducedBatch(t));
+    } finally {
+      PipelineEL.unsetConstantsInContext();
+    }
+  }
+
+  private boolean offerProducedBatch(
+    BlockingQueue<ProducedBatch> producedBatches,
+    AtomicBoolean producerStop,
+    ProducedBatch producedBatch
+  ) {
+    try {
+      while (!producerStop.get()) {
+        if (producedBatches.offer(producedBatch, PIPELINED_BATCH_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+          return true;
+        }
+      }
+    } catch (InterruptedException e) {
+      LOG.warn("Interrupted while handing over batch from origin");
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
+  /**
+   * Batch that was produced by origin in pipelined mode and is waiting to be processed by rest of the pipeline.
+   */
+  private static class ProducedBatch {
+    private static final ProducedBatch END_OF_DATA = new ProducedBatch(null);
+
+    private final long start;
+    private final FullPipeBatch pipeBatch;
+    private final Map<String, Long> memoryConsumedByStage;
+    private final Map<String, Object> stageBatchMetrics;
+    private final Throwable throwable;
+
+    ProducedBatch(
+      long start,
+      FullPipeBatch pipeBatch,
+      Map<String, Long> memoryConsumedByStage,
+      Map<String, Object> stageBatchMetrics
+    ) {
+      this.start = start;
+      this.pipeBatch = pipeBatch;
+      this.memoryConsumedByStage = memoryConsumedByStage;
+      this.stageBatchMetrics = stageBatchMetrics;
+      this.throwable = null;
+    }
+
+    ProducedBatch(Throwable throwable) {
+      this.start = 0;
+      this.pipeBatch = null;
+      this.memoryConsumedByStage = null;
+      this.stageBatchMetrics = null;
+      this.throwable = throwable;
+    }
+  }
+
   @Override
   public void errorNotification(SourcePipe originPipe, List<PipeRunner> pipes, Throwable throwable) {
     Set<ErrorListener> listeners = Sets.newIdentityHashSet();
@@ -688,6 +946,11 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
       // Next iteration should have new and empty PipeBatch
       pipeBatch = new FullPipeBatch(null,null, batchSize, false);
     }
+
+    // Nothing will commit offsets anymore, leave them all in the offset file
+    if(offsetTracker instanceof ProductionSourceOffsetTracker) {
+      ((ProductionSourceOffsetTracker) offsetTracker).compact();
+    }
   }
 
   @Override
@@ -730,10 +993,10 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     }
   }
 
-  private boolean processPipe(
+  private void processPipe(
     Pipe pipe,
     PipeBatch pipeBatch,
-    boolean committed,
+    AtomicBoolean committed,
     String entityName,
     String newOffset,
     Map<String, Long> memoryConsumedByStage,
@@ -745,21 +1008,28 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
 
     if (deliveryGuarantee == DeliveryGuarantee.AT_MOST_ONCE
         && pipe.getStage().getDefinition().getType() == StageType.TARGET
-        && !committed
+        && !committed.get()
       ) {
-      // target cannot control offset commit in AT_MOST_ONCE mode
-      offsetTracker.commitOffset(entityName, newOffset);
-      committed = true;
+      // target cannot control offset commit in AT_MOST_ONCE mode, targets on independent branches might get here
+      // at the same time
+      synchronized (committed) {
+        if (!committed.get()) {
+          offsetTracker.commitOffset(entityName, newOffset);
+          committed.set(true);
+        }
+      }
     }
     pipe.process(pipeBatch);
     if (pipe instanceof StagePipe) {
-      memoryConsumedByStage.put(pipe.getStage().getInfo().getInstanceName(), ((StagePipe)pipe).getMemoryConsumed());
+      synchronized (memoryConsumedByStage) {
+        memoryConsumedByStage.put(pipe.getStage().getInfo().getInstanceName(), ((StagePipe)pipe).getMemoryConsumed());
+      }
       if (isStatsAggregationEnabled()) {
-        stageBatchMetrics.put(pipe.getStage().getInfo().getInstanceName(), ((StagePipe) pipe).getBatchMetrics());
+        synchronized (stageBatchMetrics) {
+          stageBatchMetrics.put(pipe.getStage().getInfo().getInstanceName(), ((StagePipe) pipe).getBatchMetrics());
+        }
       }
     }
-
-    return committed;
   }
 
   private void runSourceLessBatch(
@@ -778,9 +1048,9 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
       pipeRunner = runnerPool.getRunner();
       OffsetCommitTrigger offsetCommitTrigger = pipeRunner.getOffsetCommitTrigger();
 
-      pipeRunner.executeBatch(entityName, newOffset, start, pipe -> {
-        committed.set(processPipe(pipe, pipeBatch, committed.get(), entityName, newOffset, memoryConsumedByStage, stageBatchMetrics));
-
+      // Independent branches might be processed concurrently, all of them finish before the offset is committed
+      pipeRunner.executeBatch(entityName, newOffset, start, branchPool, pipe -> {
+        processPipe(pipe, pipeBatch, committed, entityName, newOffset, memoryConsumedByStage, stageBatchMetrics);
       });
 
       enforceMemoryLimit(memoryConsumedByStage);
@@ -842,7 +1112,7 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
 
     synchronized (this) {
       List<StageOutput> snapshot = pipeBatch.getSnapshotsOfAllStagesOutput();
-      if( batchesToCapture > 0 && isSnapshotOutputUsable(pipeBatch.getSnapshotsOfAllStagesOutput())) {
+      if( batchesToCapture > 0 && isSnapshotOutputUsable(snapshot)) {
         if (!snapshot.isEmpty()) {
           capturedBatches.add(snapshot);
         }
@@ -855,7 +1125,7 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
           snapshotBatchSize = 0;
           batchesToCapture = 0;
           if (!capturedBatches.isEmpty()) {
-            snapshotStore.save(pipelineName, revision, snapshotName, batchCountMeter.getCount(), capturedBatches);
+            saveSnapshot(snapshotName, batchCountMeter.getCount(), new ArrayList<>(capturedBatches));
             capturedBatches.clear();
           }
         }
@@ -876,6 +1146,31 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     }
   }
 
+  /**
+   * Persists the captured batches on the snapshot writer thread, serializing a large snapshot would otherwise hold up
+   * the batch (and any other runner waiting on this runner's lock) for a long time.
+   */
+  private synchronized void saveSnapshot(String name, long batchNumber, List<List<StageOutput>> batches) {
+    if (snapshotWriter == null) {
+      snapshotWriter = Executors.newSingleThreadExecutor(
+        new ThreadFactoryBuilder().setNameFormat("ProductionPipelineRunner Snapshot Writer %d").setDaemon(true).build()
+      );
+    }
+    snapshotWriter.submit(() -> {
+      try {
+        snapshotStore.save(pipelineName, revision, name, batchNumber, batches);
+      } catch (PipelineException | RuntimeException ex) {
+        LOG.error("Can't persist snapshot '{}'", name, ex);
+        // Snapshot would otherwise stay in progress forever
+        try {
+          snapshotStore.deleteSnapshot(pipelineName, revision, name);
+        } catch (PipelineException | RuntimeException e) {
+          LOG.error("Can't delete snapshot '{}' that failed to persist", name, e);
+        }
+      }
+    });
+  }
+
   /**
    * Returns true if given snapshot output is usable - e.g. if it make sense to persist.
    */
@@ -17,14 +17,22 @@ package com.streamsets.datacollector.execution.snapshot.common;
 
 import com.streamsets.datacollector.execution.Snapshot;
 import com.streamsets.datacollector.execution.SnapshotInfo;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import com.streamsets.datacollector.restapi.bean.SnapshotDataJson;
 import com.streamsets.datacollector.runner.PipelineRuntimeException;
+import com.streamsets.datacollector.runner.StageOutput;
 import com.streamsets.datacollector.util.ContainerError;
+import com.streamsets.pipeline.api.Record;
 
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class SnapshotImpl implements Snapshot, Closeable {
 
@@ -56,6 +64,60 @@ public class SnapshotImpl implements Snapshot, Closeable {
     return null;
   }
 
+  @Override
+  public List<List<StageOutput>> getStageOutput(String stageInstanceName, int offset, int len)
+      throws PipelineRuntimeException {
+    if(snapshotFile != null) {
+      // JSON snapshots can't be read partially, parse the whole file and keep only what was asked for
+      try (InputStream in = new FileInputStream(snapshotFile)) {
+        SnapshotDataJson snapshotDataJson = ObjectMapperFactory.get().readValue(in, SnapshotDataJson.class);
+        return getStageOutput(snapshotDataJson.getSnapshotData().getSnapshotBatches(), stageInstanceName, offset, len);
+      } catch (Exception ex) {
+        throw new PipelineRuntimeException(ContainerError.CONTAINER_0600, snapshotInfo.getId(), snapshotInfo.getName(),
+          snapshotInfo.getRev(), ex.toString(), ex);
+      }
+    }
+    return null;
+  }
+
+  private static List<List<StageOutput>> getStageOutput(
+      List<List<StageOutput>> snapshotBatches,
+      String stageInstanceName,
+      int offset,
+      int len
+  ) {
+    List<List<StageOutput>> result = new ArrayList<>(snapshotBatches.size());
+    for(List<StageOutput> batch : snapshotBatches) {
+      List<StageOutput> stageOutputs = new ArrayList<>();
+      for(StageOutput stageOutput : batch) {
+        if(stageInstanceName == null || stageInstanceName.equals(stageOutput.getInstanceName())) {
+          Map<String, List<Record>> output = new LinkedHashMap<>();
+          for(Map.Entry<String, List<Record>> entry : stageOutput.getOutput().entrySet()) {
+            output.put(entry.getKey(), subList(entry.getValue(), offset, len));
+          }
+          stageOutputs.add(new StageOutput(
+              stageOutput.getInstanceName(),
+              output,
+              subList(stageOutput.getErrorRecords(), offset, len),
+              stageOutput.getStageErrors(),
+              subList(stageOutput.getEventRecords(), offset, len)
+          ));
+        }
+      }
+      result.add(stageOutputs);
+    }
+    return result;
+  }
+
+  private static List<Record> subList(List<Record> records, int offset, int len) {
+    if(records == null) {
+      return null;
+    }
+    int from = Math.min(Math.max(offset, 0), records.size());
+    int to = len < 0 ? records.size() : (int) Math.min((long) from + len, records.size());
+    return new ArrayList<>(records.subList(from, to));
+  }
+
   @Override
   public void close() throws IOException {
     snapshotInfo = null;
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.snapshot.file;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamsets.datacollector.execution.Snapshot;
+import com.streamsets.datacollector.execution.SnapshotInfo;
+import com.streamsets.datacollector.io.DataStore;
+import com.streamsets.datacollector.record.io.KryoRecordReader;
+import com.streamsets.datacollector.restapi.bean.BeanHelper;
+import com.streamsets.datacollector.restapi.bean.StageOutputJson;
+import com.streamsets.datacollector.runner.PipelineRuntimeException;
+import com.streamsets.datacollector.runner.StageOutput;
+import com.streamsets.datacollector.util.ContainerError;
+import com.streamsets.pipeline.api.Record;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot stored as Kryo encoded records plus a {@link SnapshotIndex}. Records are read from the data file only
+ * when they are asked for, one stage at a time.
+ *
+ * The JSON representation returned by {@link #getOutput()} is generated (one stage at a time) on the first request
+ * and kept next to the data file for later requests.
+ */
+class BinarySnapshot implements Snapshot {
+  private final Object lock;
+  private final ObjectMapper json;
+  private final SnapshotIndex index;
+  private final File dataFile;
+  private final File jsonFile;
+  private SnapshotInfo snapshotInfo;
+  private InputStream output;
+
+  BinarySnapshot(
+      SnapshotInfo snapshotInfo,
+      SnapshotIndex index,
+      File dataFile,
+      File jsonFile,
+      Object lock,
+      ObjectMapper json
+  ) {
+    this.snapshotInfo = snapshotInfo;
+    this.index = index;
+    this.dataFile = dataFile;
+    this.jsonFile = jsonFile;
+    this.lock = lock;
+    this.json = json;
+  }
+
+  @Override
+  public SnapshotInfo getInfo() {
+    return snapshotInfo;
+  }
+
+  @Override
+  public InputStream getOutput() throws PipelineRuntimeException {
+    if (snapshotInfo == null) {
+      return null;
+    }
+    try {
+      synchronized (lock) {
+        if (!jsonFile.exists()) {
+          writeJson();
+        }
+      }
+      output = new FileInputStream(jsonFile);
+      return output;
+    } catch (Exception ex) {
+      throw new PipelineRuntimeException(ContainerError.CONTAINER_0600, snapshotInfo.getId(), snapshotInfo.getName(),
+        snapshotInfo.getRev(), ex.toString(), ex);
+    }
+  }
+
+  @Override
+  public List<List<StageOutput>> getStageOutput(String stageInstanceName, int offset, int len)
+      throws PipelineRuntimeException {
+    if (snapshotInfo == null) {
+      return null;
+    }
+    try {
+      List<List<StageOutput>> result = new ArrayList<>(index.getBatches().size());
+      for (List<SnapshotIndex.StageIndex> batch : index.getBatches()) {
+        List<StageOutput> stageOutputs = new ArrayList<>();
+        for (SnapshotIndex.StageIndex stage : batch) {
+          if (stageInstanceName == null || stageInstanceName.equals(stage.getInstanceName())) {
+            stageOutputs.add(readStage(stage, offset, len));
+          }
+        }
+        result.add(stageOutputs);
+      }
+      return result;
+    } catch (Exception ex) {
+      throw new PipelineRuntimeException(ContainerError.CONTAINER_0600, snapshotInfo.getId(), snapshotInfo.getName(),
+        snapshotInfo.getRev(), ex.toString(), ex);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    snapshotInfo = null;
+    if (output != null) {
+      output.close();
+      output = null;
+    }
+  }
+
+  // same structure SnapshotDataJson is serialized to, without having more than one stage in memory
+  private void writeJson() throws IOException {
+    DataStore dataStore = new DataStore(jsonFile);
+    try (OutputStream out = dataStore.getOutputStream()) {
+      JsonGenerator generator = json.getFactory().createGenerator(out);
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.writeStartObject();
+      generator.writeArrayFieldStart("snapshotBatches");
+      for (List<SnapshotIndex.StageIndex> batch : index.getBatches()) {
+        generator.writeStartArray();
+        for (SnapshotIndex.StageIndex stage : batch) {
+          json.writeValue(generator, new StageOutputJson(readStage(stage, 0, -1)));
+        }
+        generator.writeEndArray();
+      }
+      generator.writeEndArray();
+      generator.writeEndObject();
+      generator.close();
+      dataStore.commit(out);
+    } finally {
+      dataStore.release();
+    }
+  }
+
+  private StageOutput readStage(SnapshotIndex.StageIndex stage, int offset, int len) throws IOException {
+    Map<String, List<Record>> output = new LinkedHashMap<>();
+    for (Map.Entry<String, SnapshotIndex.Segment> entry : stage.getOutput().entrySet()) {
+      output.put(entry.getKey(), readRecords(entry.getValue(), offset, len));
+    }
+    return new StageOutput(
+        stage.getInstanceName(),
+        output,
+        readRecords(stage.getErrorRecords(), offset, len),
+        BeanHelper.unwrapErrorMessages(stage.getStageErrors()),
+        readRecords(stage.getEventRecords(), offset, len)
+    );
+  }
+
+  private List<Record> readRecords(SnapshotIndex.Segment segment, int offset, int len) throws IOException {
+    if (segment == null) {
+      return null;
+    }
+    int count = segment.getCount();
+    int from = Math.min(Math.max(offset, 0), count);
+    int to = len < 0 ? count : (int) Math.min((long) from + len, count);
+    List<Record> records = new ArrayList<>(to - from);
+    if (from == to) {
+      return records;
+    }
+    // start from the closest checkpoint before the first record asked for
+    long position = segment.getOffset();
+    int skip = from;
+    int checkpoint = Math.min(from / SnapshotIndex.CHECKPOINT_INTERVAL, segment.getCheckpoints().size());
+    if (checkpoint > 0) {
+      position = segment.getCheckpoints().get(checkpoint - 1);
+      skip = from - checkpoint * SnapshotIndex.CHECKPOINT_INTERVAL;
+    }
+    try (InputStream in = new FileInputStream(dataFile)) {
+      KryoRecordReader reader = new KryoRecordReader(in, position);
+      try {
+        for (int i = 0; i < skip; i++) {
+          reader.readRecord();
+        }
+        for (int i = from; i < to; i++) {
+          Record record = reader.readRecord();
+          if (record == null) {
+            throw new IOException("Unexpected end of snapshot data at position " + reader.getPosition());
+          }
+          records.add(record);
+        }
+      } finally {
+        reader.close();
+      }
+    }
+    return records;
+  }
+}
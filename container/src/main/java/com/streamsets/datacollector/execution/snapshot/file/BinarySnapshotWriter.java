@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.snapshot.file;
+
+import com.google.common.io.CountingOutputStream;
+import com.streamsets.datacollector.record.io.KryoRecordWriter;
+import com.streamsets.datacollector.record.io.RecordEncoding;
+import com.streamsets.datacollector.restapi.bean.BeanHelper;
+import com.streamsets.datacollector.runner.StageOutput;
+import com.streamsets.pipeline.api.Record;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the records of a snapshot as consecutive Kryo encoded records (same encoding as {@link KryoRecordWriter},
+ * including the leading magic number) and builds the {@link SnapshotIndex} pointing into them.
+ */
+final class BinarySnapshotWriter {
+
+  private BinarySnapshotWriter() {
+  }
+
+  /**
+   * Writes the records to the given stream, the stream is flushed but not closed.
+   */
+  static SnapshotIndex write(OutputStream out, List<List<StageOutput>> snapshotBatches) throws IOException {
+    CountingOutputStream counter = new CountingOutputStream(out);
+    counter.write(RecordEncoding.KRYO1.getMagicNumber());
+    // not closed as that would close the given stream
+    KryoRecordWriter writer = new KryoRecordWriter(counter);
+    SnapshotIndex index = new SnapshotIndex();
+    for (List<StageOutput> batch : snapshotBatches) {
+      List<SnapshotIndex.StageIndex> stages = new ArrayList<>(batch.size());
+      for (StageOutput stageOutput : batch) {
+        SnapshotIndex.StageIndex stage = new SnapshotIndex.StageIndex();
+        stage.setInstanceName(stageOutput.getInstanceName());
+        for (Map.Entry<String, List<Record>> entry : stageOutput.getOutput().entrySet()) {
+          stage.getOutput().put(entry.getKey(), write(writer, counter, entry.getValue()));
+        }
+        stage.setErrorRecords(write(writer, counter, stageOutput.getErrorRecords()));
+        stage.setStageErrors(BeanHelper.wrapErrorMessages(stageOutput.getStageErrors()));
+        stage.setEventRecords(write(writer, counter, stageOutput.getEventRecords()));
+        stages.add(stage);
+      }
+      index.getBatches().add(stages);
+    }
+    writer.flush();
+    return index;
+  }
+
+  private static SnapshotIndex.Segment write(
+      KryoRecordWriter writer,
+      CountingOutputStream counter,
+      List<Record> records
+  ) throws IOException {
+    if (records == null) {
+      return null;
+    }
+    SnapshotIndex.Segment segment = new SnapshotIndex.Segment();
+    // the writer buffers, positions are only known after a flush
+    writer.flush();
+    segment.setOffset(counter.getCount());
+    for (int i = 0; i < records.size(); i++) {
+      if (i > 0 && i % SnapshotIndex.CHECKPOINT_INTERVAL == 0) {
+        writer.flush();
+        segment.getCheckpoints().add(counter.getCount());
+      }
+      writer.write(records.get(i));
+    }
+    segment.setCount(records.size());
+    return segment;
+  }
+}
@@ -15,6 +15,7 @@
  */
 package com.streamsets.datacollector.execution.snapshot.file;
 
+import com.esotericsoftware.kryo.KryoException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.streamsets.datacollector.execution.Snapshot;
 import com.streamsets.datacollector.execution.SnapshotInfo;
@@ -34,6 +35,8 @@ import com.streamsets.datacollector.util.ContainerError;
 import com.streamsets.datacollector.util.LockCache;
 import com.streamsets.datacollector.util.PipelineDirectoryUtil;
 import com.streamsets.datacollector.util.PipelineException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 
@@ -48,7 +51,10 @@ import java.util.Collections;
 import java.util.List;
 
 public class FileSnapshotStore implements SnapshotStore {
+  private static final Logger LOG = LoggerFactory.getLogger(FileSnapshotStore.class);
   private static final String SNAPSHOT_FILE_NAME = "snapshot.json";
+  private static final String SNAPSHOT_DATA_FILE_NAME = "snapshot.bin";
+  private static final String SNAPSHOT_INDEX_FILE_NAME = "snapshot.idx.json";
   private static final String INFO_FILE_NAME = "info.json";
   private final LockCache<String> lockCache;
   private final RuntimeInfo runtimeInfo;
@@ -128,6 +134,16 @@ public class FileSnapshotStore implements SnapshotStore {
   public Snapshot get(String name, String rev, String id) throws PipelineException {
     synchronized (lockCache.getLock(name)) {
       SnapshotInfo info = getInfo(name, rev, id);
+      File indexFile = getPipelineSnapshotFile(name, rev, id, SNAPSHOT_INDEX_FILE_NAME);
+      if (info != null && indexFile.exists()) {
+        try (InputStream in = new FileInputStream(indexFile)) {
+          SnapshotIndex index = json.readValue(in, SnapshotIndex.class);
+          return new BinarySnapshot(info, index, getPipelineSnapshotFile(name, rev, id, SNAPSHOT_DATA_FILE_NAME),
+            getPipelineSnapshotFile(name, rev, id), lockCache.getLock(name), json);
+        } catch (IOException e) {
+          throw new PipelineRuntimeException(ContainerError.CONTAINER_0600, id, name, rev, e.toString(), e);
+        }
+      }
       File data = getData(name, rev, id);
       return new SnapshotImpl(info, data);
     }
@@ -200,8 +216,12 @@ public class FileSnapshotStore implements SnapshotStore {
   }
 
   private File getPipelineSnapshotFile(String pipelineName, String rev, String snapshotName) {
+    return getPipelineSnapshotFile(pipelineName, rev, snapshotName, SNAPSHOT_FILE_NAME);
+  }
+
+  private File getPipelineSnapshotFile(String pipelineName, String rev, String snapshotName, String fileName) {
     return new File(PipelineDirectoryUtil.getPipelineSnapshotDir(runtimeInfo, pipelineName, rev, snapshotName),
-      SNAPSHOT_FILE_NAME);
+      fileName);
   }
 
   private File getPipelineSnapshotInfoFile(String name, String rev, String id) {
@@ -224,6 +244,41 @@ public class FileSnapshotStore implements SnapshotStore {
   }
 
   private void persistSnapshot(String name, String rev, String id, List<List<StageOutput>> snapshotBatches)
+    throws PipelineRuntimeException {
+    // a snapshot can be saved more than once, data from the previous save must not be picked up instead
+    deleteFiles(name, rev, id, SNAPSHOT_FILE_NAME, SNAPSHOT_INDEX_FILE_NAME, SNAPSHOT_DATA_FILE_NAME);
+    try {
+      persistBinarySnapshot(name, rev, id, snapshotBatches);
+    } catch (IOException | KryoException e) {
+      // records holding values Kryo can't handle can still be saved as JSON
+      LOG.warn("Can't persist snapshot '{}' for pipeline '{}' in binary format, falling back to JSON: {}", id, name,
+        e.toString(), e);
+      deleteFiles(name, rev, id, SNAPSHOT_INDEX_FILE_NAME, SNAPSHOT_DATA_FILE_NAME);
+      persistJsonSnapshot(name, rev, id, snapshotBatches);
+    }
+  }
+
+  private void persistBinarySnapshot(String name, String rev, String id, List<List<StageOutput>> snapshotBatches)
+    throws IOException {
+    SnapshotIndex index;
+    DataStore dataStore = new DataStore(getPipelineSnapshotFile(name, rev, id, SNAPSHOT_DATA_FILE_NAME));
+    try (OutputStream out = dataStore.getOutputStream()) {
+      index = BinarySnapshotWriter.write(out, snapshotBatches);
+      dataStore.commit(out);
+    } finally {
+      dataStore.release();
+    }
+    // the index is written last, a snapshot is only read as binary once it exists
+    dataStore = new DataStore(getPipelineSnapshotFile(name, rev, id, SNAPSHOT_INDEX_FILE_NAME));
+    try (OutputStream out = dataStore.getOutputStream()) {
+      json.writeValue(out, index);
+      dataStore.commit(out);
+    } finally {
+      dataStore.release();
+    }
+  }
+
+  private void persistJsonSnapshot(String name, String rev, String id, List<List<StageOutput>> snapshotBatches)
     throws PipelineRuntimeException {
     DataStore dataStore = new DataStore(getPipelineSnapshotFile(name, rev, id));
     try (OutputStream out = dataStore.getOutputStream()) {
@@ -236,4 +291,14 @@ public class FileSnapshotStore implements SnapshotStore {
     }
   }
 
+  private void deleteFiles(String name, String rev, String id, String... fileNames) throws PipelineRuntimeException {
+    for (String fileName : fileNames) {
+      try {
+        new DataStore(getPipelineSnapshotFile(name, rev, id, fileName)).delete();
+      } catch (IOException e) {
+        throw new PipelineRuntimeException(ContainerError.CONTAINER_0603, id, name, rev, e.toString(), e);
+      }
+    }
+  }
+
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.snapshot.file;
+
+import com.streamsets.datacollector.restapi.bean.ErrorMessageJson;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of a binary snapshot. For every captured batch and every stage it records where the records of each lane,
+ * the error records and the event records start in the data file and how many of them there are, so that the output
+ * of a single stage (or a page of it) can be read without reading the rest of the snapshot.
+ *
+ * Stage errors are small and are kept in the index itself.
+ */
+public class SnapshotIndex {
+  // a checkpoint is recorded every CHECKPOINT_INTERVAL records of a segment to speed up paging
+  public static final int CHECKPOINT_INTERVAL = 128;
+
+  private List<List<StageIndex>> batches = new ArrayList<>();
+
+  public List<List<StageIndex>> getBatches() {
+    return batches;
+  }
+
+  public void setBatches(List<List<StageIndex>> batches) {
+    this.batches = batches;
+  }
+
+  public static class StageIndex {
+    private String instanceName;
+    private Map<String, Segment> output = new LinkedHashMap<>();
+    private Segment errorRecords;
+    private List<ErrorMessageJson> stageErrors;
+    private Segment eventRecords;
+
+    public String getInstanceName() {
+      return instanceName;
+    }
+
+    public void setInstanceName(String instanceName) {
+      this.instanceName = instanceName;
+    }
+
+    public Map<String, Segment> getOutput() {
+      return output;
+    }
+
+    public void setOutput(Map<String, Segment> output) {
+      this.output = output;
+    }
+
+    public Segment getErrorRecords() {
+      return errorRecords;
+    }
+
+    public void setErrorRecords(Segment errorRecords) {
+      this.errorRecords = errorRecords;
+    }
+
+    public List<ErrorMessageJson> getStageErrors() {
+      return stageErrors;
+    }
+
+    public void setStageErrors(List<ErrorMessageJson> stageErrors) {
+      this.stageErrors = stageErrors;
+    }
+
+    public Segment getEventRecords() {
+      return eventRecords;
+    }
+
+    public void setEventRecords(Segment eventRecords) {
+      this.eventRecords = eventRecords;
+    }
+  }
+
+  /**
+   * Consecutive records in the data file.
+   */
+  public static class Segment {
+    private long offset;
+    private int count;
+    // position of record CHECKPOINT_INTERVAL * (i + 1)
+    private List<Long> checkpoints = new ArrayList<>();
+
+    public long getOffset() {
+      return offset;
+    }
+
+    public void setOffset(long offset) {
+      this.offset = offset;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(int count) {
+      this.count = count;
+    }
+
+    public List<Long> getCheckpoints() {
+      return checkpoints;
+    }
+
+    public void setCheckpoints(List<Long> checkpoints) {
+      this.checkpoints = checkpoints;
+    }
+  }
+}
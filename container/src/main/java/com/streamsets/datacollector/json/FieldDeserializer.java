@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.streamsets.pipeline.api.Field;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deserializes JSON straight into {@link Field}s from the token stream, without building the intermediate
+ * Map/List object tree first. The produced fields are the same the untyped Map/List tree would be converted to:
+ * objects become MAP fields backed by a LinkedHashMap, arrays become LIST fields, integers become INTEGER, LONG or
+ * DECIMAL fields depending on their size, floating point numbers become DOUBLE fields and nulls become STRING
+ * fields with a null value.
+ */
+public class FieldDeserializer extends JsonDeserializer<Field> {
+
+  @Override
+  public Field deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
+    return readField(jp, ctxt);
+  }
+
+  /**
+   * Called after every entry of an object and every element of an array has been read.
+   */
+  protected void entryRead(JsonParser jp) {
+  }
+
+  private Field readField(JsonParser jp, DeserializationContext ctxt) throws IOException {
+    JsonToken token = jp.getCurrentToken();
+    if (token == null) {
+      throw ctxt.mappingException(Field.class);
+    }
+    switch (token) {
+      case START_OBJECT:
+      case FIELD_NAME:
+        return readMap(jp, ctxt);
+      case START_ARRAY:
+        return readList(jp, ctxt);
+      case VALUE_STRING:
+        return Field.create(jp.getText());
+      case VALUE_NUMBER_INT:
+        switch (jp.getNumberType()) {
+          case INT:
+            return Field.create(jp.getIntValue());
+          case LONG:
+            return Field.create(jp.getLongValue());
+          default:
+            return Field.create(new BigDecimal(jp.getBigIntegerValue()));
+        }
+      case VALUE_NUMBER_FLOAT:
+        return Field.create(jp.getDoubleValue());
+      case VALUE_TRUE:
+        return Field.create(true);
+      case VALUE_FALSE:
+        return Field.create(false);
+      case VALUE_NULL:
+        return Field.create(Field.Type.STRING, null);
+      case VALUE_EMBEDDED_OBJECT:
+        return readEmbedded(jp, ctxt);
+      default:
+        throw ctxt.mappingException(Field.class, token);
+    }
+  }
+
+  private Field readMap(JsonParser jp, DeserializationContext ctxt) throws IOException {
+    Map<String, Field> map = new LinkedHashMap<>();
+    JsonToken token = jp.getCurrentToken();
+    if (token == JsonToken.START_OBJECT) {
+      token = jp.nextToken();
+    }
+    while (token == JsonToken.FIELD_NAME) {
+      String name = jp.getCurrentName();
+      jp.nextToken();
+      map.put(name, readField(jp, ctxt));
+      entryRead(jp);
+      token = jp.nextToken();
+    }
+    return Field.create(map);
+  }
+
+  private Field readList(JsonParser jp, DeserializationContext ctxt) throws IOException {
+    List<Field> list = new ArrayList<>();
+    while (jp.nextToken() != JsonToken.END_ARRAY) {
+      list.add(readField(jp, ctxt));
+      entryRead(jp);
+    }
+    return Field.create(list);
+  }
+
+  private Field readEmbedded(JsonParser jp, DeserializationContext ctxt) throws IOException {
+    Object value = jp.getEmbeddedObject();
+    if (value == null) {
+      return Field.create(Field.Type.STRING, null);
+    } else if (value instanceof byte[]) {
+      return Field.create((byte[]) value);
+    } else if (value instanceof Date) {
+      return Field.createDate((Date) value);
+    } else if (value instanceof BigDecimal) {
+      return Field.create((BigDecimal) value);
+    } else if (value instanceof BigInteger) {
+      return Field.create(new BigDecimal((BigInteger) value));
+    }
+    throw ctxt.mappingException(Field.class, JsonToken.VALUE_EMBEDDED_OBJECT);
+  }
+}
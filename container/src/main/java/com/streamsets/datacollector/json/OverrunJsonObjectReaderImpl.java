@@ -22,6 +22,7 @@ import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.ext.io.CountingReader;
 import com.streamsets.pipeline.api.ext.io.OverrunReader;
 import com.streamsets.pipeline.api.ext.json.Mode;
@@ -54,6 +55,7 @@ public class OverrunJsonObjectReaderImpl extends JsonObjectReaderImpl {
     SimpleModule module = new SimpleModule();
     module.addDeserializer(Map.class, new MapDeserializer());
     module.addDeserializer(List.class, new ListDeserializer());
+    module.addDeserializer(Field.class, new EnforcerFieldDeserializer());
     DEFAULT_OVERRUN_OBJECT_MAPPER.registerModule(module);
     DEFAULT_OVERRUN_OBJECT_MAPPER.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
     DEFAULT_OVERRUN_OBJECT_MAPPER.configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
@@ -137,6 +139,15 @@ public class OverrunJsonObjectReaderImpl extends JsonObjectReaderImpl {
 
   }
 
+  private static class EnforcerFieldDeserializer extends FieldDeserializer {
+
+    @Override
+    protected void entryRead(JsonParser jp) {
+      checkIfLengthExceededForObjectRead(null);
+    }
+
+  }
+
   public OverrunJsonObjectReaderImpl(Reader reader, long initialPosition, int maxObjectLen, Mode mode) throws IOException {
     this(reader, initialPosition, maxObjectLen, mode, Object.class);
   }
@@ -158,6 +158,26 @@ public class MemoryUsageCollector {
     }
   }
 
+  /**
+   * Returns the classes loaded by the given classloader or null if they can't be obtained.
+   */
+  @SuppressWarnings("unchecked")
+  static Collection<Class<?>> getClassLoaderClasses(ClassLoader classLoader) {
+    if (CLASSLOADER_CLASSES_FIELD == null || classLoader == null) {
+      return null;
+    }
+    try {
+      return (Vector<Class<?>>) CLASSLOADER_CLASSES_FIELD.get(classLoader);
+    } catch (Exception e) {
+      LOG.debug("Error getting classes from classLoader: {}", e.toString(), e);
+      return null;
+    }
+  }
+
+  static Instrumentation getSharedInstrumentation() {
+    return sharedInstrumentation;
+  }
+
   public MemoryUsageSnapshot collect() {
     stack.clear();
     countedObjectSet.release();
@@ -295,7 +315,7 @@ public class MemoryUsageCollector {
     return total;
   }
 
-  private Field[] getFields(final Class clz) {
+  static Field[] getFields(final Class clz) {
     Field[] result = classToFieldCache.get(clz);
     if (result != null) {
       return result;
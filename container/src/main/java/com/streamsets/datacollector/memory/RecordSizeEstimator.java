@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.memory;
+
+import com.streamsets.datacollector.record.HeaderImpl;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates the heap used by records from their structure rather than by walking the object graph. The estimate
+ * assumes a 64 bit JVM with compressed oops and is meant to be cheap enough to be computed on every batch.
+ */
+public final class RecordSizeEstimator {
+  private static final long OBJECT_HEADER = 16;
+  private static final long REFERENCE = 4;
+  // Field instance: type, value and attributes
+  private static final long FIELD = 24;
+  // boxed primitive, Date, ...
+  private static final long BOXED = 16;
+  private static final long BIG_DECIMAL = 72;
+  // String instance plus its char[] header
+  private static final long STRING = 24 + OBJECT_HEADER;
+  // HashMap/LinkedHashMap entry plus table slot
+  private static final long MAP_ENTRY = 40 + REFERENCE;
+  private static final long MAP = 56 + OBJECT_HEADER;
+  private static final long LIST = 24 + OBJECT_HEADER;
+  // RecordImpl plus HeaderImpl and its attribute map
+  private static final long RECORD = 24 + 16 + MAP;
+  // reserved header attributes (source id, stage creator, tracking ids, ...) are usually around
+  private static final int RECORD_HEADER_ATTRIBUTES = 6;
+
+  private RecordSizeEstimator() {
+  }
+
+  /**
+   * Estimates the size of all records in the given lanes by estimating at most maxSamples evenly spaced records of
+   * every lane and extrapolating to the size of the lane.
+   */
+  public static long estimate(Map<String, List<Record>> lanes, int maxSamples) {
+    long total = 0;
+    for (List<Record> records : lanes.values()) {
+      total += estimate(records, maxSamples);
+    }
+    return total;
+  }
+
+  /**
+   * Estimates the size of the given records by estimating at most maxSamples evenly spaced records and extrapolating
+   * to the size of the list.
+   */
+  public static long estimate(List<Record> records, int maxSamples) {
+    int size = records.size();
+    if (size == 0 || maxSamples <= 0) {
+      return 0;
+    }
+    int samples = Math.min(size, maxSamples);
+    long sampled = 0;
+    for (int i = 0; i < samples; i++) {
+      sampled += estimate(records.get((int) ((long) i * size / samples)));
+    }
+    return sampled * size / samples;
+  }
+
+  public static long estimate(Record record) {
+    long size = RECORD;
+    if (record.getHeader() instanceof HeaderImpl) {
+      size += estimateAttributes(((HeaderImpl) record.getHeader()).getAllAttributes().values());
+    } else {
+      size += RECORD_HEADER_ATTRIBUTES * (MAP_ENTRY + STRING * 2);
+    }
+    Field value;
+    if (record instanceof RecordImpl) {
+      // don't force a copy of values shared with other records, they are counted as if they were not shared
+      value = ((RecordImpl) record).peekValue();
+    } else {
+      value = record.get();
+    }
+    return size + estimate(value);
+  }
+
+  public static long estimate(Field field) {
+    if (field == null) {
+      return 0;
+    }
+    long size = FIELD;
+    Object value = field.getValue();
+    if (value == null) {
+      return size;
+    }
+    switch (field.getType()) {
+      case STRING:
+        size += estimate((String) value);
+        break;
+      case BYTE_ARRAY:
+        size += OBJECT_HEADER + ((byte[]) value).length;
+        break;
+      case DECIMAL:
+        size += BIG_DECIMAL;
+        break;
+      case MAP:
+      case LIST_MAP:
+        Map<String, Field> map = field.getValueAsMap();
+        size += MAP;
+        for (Map.Entry<String, Field> entry : map.entrySet()) {
+          size += MAP_ENTRY + estimate(entry.getKey()) + estimate(entry.getValue());
+        }
+        break;
+      case LIST:
+        List<Field> list = field.getValueAsList();
+        size += LIST + REFERENCE * list.size();
+        for (Field element : list) {
+          size += estimate(element);
+        }
+        break;
+      default:
+        // numbers, booleans, dates, file refs, ...
+        size += BOXED;
+    }
+    return size;
+  }
+
+  private static long estimateAttributes(Collection<Object> values) {
+    long size = 0;
+    for (Object value : values) {
+      size += MAP_ENTRY + STRING;
+      if (value instanceof String) {
+        size += estimate((String) value);
+      } else if (value instanceof byte[]) {
+        size += OBJECT_HEADER + ((byte[]) value).length;
+      } else if (value != null) {
+        size += BOXED;
+      }
+    }
+    return size;
+  }
+
+  private static long estimate(String value) {
+    return value == null ? 0 : STRING + 2L * value.length();
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.memory;
+
+import com.codahale.metrics.Counter;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.streamsets.pipeline.api.impl.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Memory monitor for the sampled mode. The memory consumed by a stage is the sum of what the stage retains, estimated
+ * by an incremental {@link SampledMemoryUsageCollector} walk on every run, and of the records the stage produced in
+ * its last batch, which are reported by the pipeline thread through {@link #updateBatchEstimate(long)}.
+ */
+public class SampledMemoryMonitor implements Runnable {
+  private static final Logger LOG = LoggerFactory.getLogger(SampledMemoryMonitor.class);
+
+  private final Counter memoryConsumed;
+  private final Supplier<SampledMemoryUsageCollector> memoryUsageCollector;
+  private volatile long retainedBytes;
+  private volatile long batchBytes;
+
+  public SampledMemoryMonitor(Counter memoryConsumed, Supplier<SampledMemoryUsageCollector> memoryUsageCollector) {
+    this.memoryConsumed = memoryConsumed;
+    // the collector keeps the state of the walk between runs
+    this.memoryUsageCollector = Suppliers.memoize(memoryUsageCollector);
+  }
+
+  @Override
+  public void run() {
+    retainedBytes = memoryUsageCollector.get().collect();
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(Utils.format("Stage retains {}, last batch {}",
+        Utils.humanReadableInt(retainedBytes), Utils.humanReadableInt(batchBytes)));
+    }
+    publish();
+  }
+
+  public void updateBatchEstimate(long bytes) {
+    batchBytes = bytes;
+    publish();
+  }
+
+  public long getRetainedBytes() {
+    return retainedBytes;
+  }
+
+  public long getBatchBytes() {
+    return batchBytes;
+  }
+
+  private synchronized void publish() {
+    long currentValue = memoryConsumed.getCount();
+    memoryConsumed.inc(((retainedBytes + batchBytes) / 1000000) - currentValue);
+  }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.memory;
+
+import com.carrotsearch.hppc.IntHashSet;
+import com.google.common.base.Preconditions;
+import com.streamsets.datacollector.runner.StageRuntime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.ref.Reference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Cheaper alternative to {@link MemoryUsageCollector}. Instead of walking the whole object graph in one go, the walk
+ * is spread over several calls to {@link #collect()}, each of them bounded by a time budget. The traversal state is
+ * kept between calls and once a walk completes its total becomes the new estimate and a new walk is started.
+ *
+ * Large object arrays (which also back most collections) are sampled: only up to maxArraySamples evenly spaced
+ * elements are visited and the size of their sub graphs is scaled up to the length of the array.
+ */
+public class SampledMemoryUsageCollector {
+  private static final Logger LOG = LoggerFactory.getLogger(SampledMemoryUsageCollector.class);
+  private static final int INITIAL_STACK_SIZE = 1024;
+
+  private final Instrumentation instrumentation;
+  private final Object targetObject;
+  private final ClassLoader targetClassloader;
+  private final boolean traverseClassLoaderClasses;
+  private final long timeBudgetNanos;
+  private final int maxArraySamples;
+  private final IntHashSet countedObjectSet;
+
+  // pending objects and the weight (how many objects each of them stands for) they have to be counted with
+  private Object[] stack;
+  private long[] weights;
+  private int stackSize;
+
+  private long currentTotal;
+  private long currentStart;
+  private volatile long estimate;
+  private int completedWalks;
+
+  public static class Builder {
+    private StageRuntime stageRuntime;
+    private Object targetObject;
+    private ClassLoader targetClassloader;
+    private boolean traverseClassLoaderClasses = true;
+    private long timeBudgetMillis = 50;
+    private int maxArraySamples = 64;
+
+    public Builder setStageRuntime(StageRuntime stageRuntime) {
+      this.stageRuntime = stageRuntime;
+      return this;
+    }
+    /**
+     * Visible for tests only
+     */
+    Builder setTarget(Object targetObject, ClassLoader targetClassloader) {
+      this.targetObject = targetObject;
+      this.targetClassloader = targetClassloader;
+      return this;
+    }
+    public Builder setTraverseClassLoaderClasses(boolean traverseClassLoaderClasses) {
+      this.traverseClassLoaderClasses = traverseClassLoaderClasses;
+      return this;
+    }
+    public Builder setTimeBudgetMillis(long timeBudgetMillis) {
+      this.timeBudgetMillis = timeBudgetMillis;
+      return this;
+    }
+    public Builder setMaxArraySamples(int maxArraySamples) {
+      this.maxArraySamples = maxArraySamples;
+      return this;
+    }
+    public SampledMemoryUsageCollector build() {
+      Instrumentation instrumentation = MemoryUsageCollector.getSharedInstrumentation();
+      if (instrumentation == null) {
+        throw new IllegalStateException("MemoryUsageCollector has not been initialized");
+      }
+      Preconditions.checkArgument(timeBudgetMillis > 0, "Time budget must be positive: %s", timeBudgetMillis);
+      Preconditions.checkArgument(maxArraySamples > 0, "Max array samples must be positive: %s", maxArraySamples);
+      if (stageRuntime != null) {
+        targetObject = stageRuntime.getStage();
+        targetClassloader = stageRuntime.getDefinition().getStageClassLoader();
+      }
+      Preconditions.checkNotNull(targetObject, "Either a stage runtime or a target object must be set");
+      return new SampledMemoryUsageCollector(instrumentation, targetObject, targetClassloader,
+        traverseClassLoaderClasses, timeBudgetMillis, maxArraySamples);
+    }
+  }
+
+  private SampledMemoryUsageCollector(Instrumentation instrumentation, Object targetObject,
+                                      ClassLoader targetClassloader, boolean traverseClassLoaderClasses,
+                                      long timeBudgetMillis, int maxArraySamples) {
+    this.instrumentation = instrumentation;
+    this.targetObject = targetObject;
+    this.targetClassloader = targetClassloader;
+    this.traverseClassLoaderClasses = traverseClassLoaderClasses;
+    this.timeBudgetNanos = timeBudgetMillis * 1000000;
+    this.maxArraySamples = maxArraySamples;
+    this.countedObjectSet = new IntHashSet();
+    this.stack = new Object[INITIAL_STACK_SIZE];
+    this.weights = new long[INITIAL_STACK_SIZE];
+  }
+
+  /**
+   * Continues the current walk for at most the configured time budget.
+   *
+   * @return the bytes estimated by the last completed walk or, while the first walk is still in progress, the bytes
+   * counted so far.
+   */
+  public synchronized long collect() {
+    long start = System.nanoTime();
+    if (stackSize == 0) {
+      startWalk(start);
+    }
+    long deadline = start + timeBudgetNanos;
+    int steps = 0;
+    while (stackSize > 0) {
+      // System.nanoTime() is not free, only check the deadline every few objects
+      if ((++steps & 0xFF) == 0 && System.nanoTime() - deadline > 0) {
+        break;
+      }
+      stackSize--;
+      Object obj = stack[stackSize];
+      long weight = weights[stackSize];
+      stack[stackSize] = null;
+      visit(obj, weight);
+    }
+    if (stackSize == 0) {
+      finishWalk();
+    } else if (completedWalks == 0) {
+      // better than reporting nothing until the first walk completes
+      estimate = currentTotal;
+    }
+    return estimate;
+  }
+
+  /**
+   * Returns the bytes estimated by the last completed walk or, while the first walk is still in progress, the bytes
+   * counted so far.
+   */
+  public long getEstimate() {
+    return estimate;
+  }
+
+  /**
+   * Returns the number of walks completed so far.
+   */
+  public synchronized int getCompletedWalks() {
+    return completedWalks;
+  }
+
+  private void startWalk(long now) {
+    countedObjectSet.release();
+    currentTotal = 0;
+    currentStart = now;
+    push(targetObject, 1);
+    if (traverseClassLoaderClasses) {
+      Collection<Class<?>> classes = MemoryUsageCollector.getClassLoaderClasses(targetClassloader);
+      if (classes != null) {
+        // see MemoryUsageCollector on why this collection is not locked
+        push(classes, 1);
+      }
+    }
+  }
+
+  private void finishWalk() {
+    estimate = currentTotal;
+    completedWalks++;
+    countedObjectSet.release();
+    if (stack.length > INITIAL_STACK_SIZE) {
+      stack = new Object[INITIAL_STACK_SIZE];
+      weights = new long[INITIAL_STACK_SIZE];
+    }
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Sampled walk of {} estimated {} bytes in {}ms", targetObject.getClass().getName(), estimate,
+        (System.nanoTime() - currentStart) / 1000000);
+    }
+  }
+
+  private void visit(Object obj, long weight) {
+    if (obj instanceof Reference) {
+      return;
+    }
+    boolean isObjectClass = (obj instanceof Class);
+    Class clz = isObjectClass ? (Class) obj : obj.getClass();
+    if (!countedObjectSet.add(System.identityHashCode(obj))) {
+      return;
+    }
+    currentTotal += instrumentation.getObjectSize(obj) * weight;
+    Class componentType = clz.getComponentType();
+    if (componentType != null && !isObjectClass) {
+      if (!componentType.isPrimitive()) {
+        pushArrayElements((Object[]) obj, weight);
+      }
+      return;
+    }
+    boolean isClassOwnedByClassLoader = clz.getClassLoader() == targetClassloader;
+    for (; clz != null; clz = clz.getSuperclass()) {
+      for (Field field : MemoryUsageCollector.getFields(clz)) {
+        if (field.isSynthetic() || field.getType().isPrimitive()) {
+          continue;
+        }
+        boolean isStatic = Modifier.isStatic(field.getModifiers());
+        // same rules as MemoryUsageCollector: statics only for classes owned by the classloader, instance fields
+        // only for real instances
+        if ((isStatic && !isClassOwnedByClassLoader) || (!isStatic && isObjectClass)) {
+          continue;
+        }
+        Object child = null;
+        try {
+          child = field.get(isStatic ? null : obj);
+        } catch (Throwable ignored) {
+          if (ignored instanceof OutOfMemoryError) {
+            throw (OutOfMemoryError) ignored;
+          }
+        }
+        if (child != null) {
+          push(child, weight);
+        }
+      }
+    }
+  }
+
+  private void pushArrayElements(Object[] array, long weight) {
+    int length = array.length;
+    if (length <= maxArraySamples) {
+      for (Object item : array) {
+        if (item != null) {
+          push(item, weight);
+        }
+      }
+      return;
+    }
+    // visit evenly spaced elements, each one standing for the elements up to the next sample
+    long sampleWeight = weight * length / maxArraySamples;
+    for (int i = 0; i < maxArraySamples; i++) {
+      Object item = array[(int) ((long) i * length / maxArraySamples)];
+      if (item != null) {
+        push(item, sampleWeight);
+      }
+    }
+  }
+
+  private void push(Object obj, long weight) {
+    if (stackSize == stack.length) {
+      int newSize = stack.length * 2;
+      stack = Arrays.copyOf(stack, newSize);
+      weights = Arrays.copyOf(weights, newSize);
+    }
+    stack[stackSize] = obj;
+    weights[stackSize] = weight;
+    stackSize++;
+  }
+}
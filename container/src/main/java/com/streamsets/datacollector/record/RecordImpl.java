@@ -29,10 +29,15 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class RecordImpl implements Record, Cloneable {
   private final HeaderImpl header;
   private Field value;
+  // Not null when the value is shared with other records (see clone()), it has to be copied before it's handed out
+  private transient SharedValue sharedValue;
+  // True once fields of the value were handed out to (or set by) a caller, who may still change them
+  private transient boolean valueHandedOut;
   //Default true: so as to denote the record is just created
   //and initialized in a stage and did not pass through any other stage.
   private boolean isInitialRecord = true;
@@ -74,10 +79,77 @@ public class RecordImpl implements Record, Cloneable {
   protected RecordImpl(RecordImpl record) {
     Preconditions.checkNotNull(record, "record cannot be null");
     header = record.header.clone();
-    value = (record.value != null) ? record.value.clone() : null;
+    if (record.valueHandedOut) {
+      // the caller holding the fields may still change them, the clone needs its own copy right away
+      value = (record.value == null) ? null : record.value.clone();
+    } else {
+      value = record.value;
+      if (value != null) {
+        sharedValue = record.share();
+      }
+    }
     isInitialRecord = record.isInitialRecord();
   }
 
+  /**
+   * Tracks how many records share the same value. Sharing records don't copy the value right away, but only
+   * when they access it for the first time. The last remaining record can keep the original value.
+   *
+   * Since Field is mutable and we don't know what the caller will do with it, every access that hands out
+   * a field (or changes the value) is considered to be a write. A record whose fields were handed out is not
+   * shared at all, its clones get a copy right away.
+   */
+  private static class SharedValue {
+    private final AtomicInteger owners = new AtomicInteger(1);
+
+    void acquire() {
+      owners.incrementAndGet();
+    }
+
+    Field release(Field value) {
+      if (owners.get() == 1) {
+        return value;
+      }
+      Field copy = value.clone();
+      owners.decrementAndGet();
+      return copy;
+    }
+  }
+
+  private SharedValue share() {
+    if (sharedValue == null) {
+      sharedValue = new SharedValue();
+    }
+    sharedValue.acquire();
+    return sharedValue;
+  }
+
+  /**
+   * Returns value that is owned by this record, copying it first if it's currently shared with other records.
+   */
+  private Field ownValue() {
+    if (sharedValue != null) {
+      value = sharedValue.release(value);
+      sharedValue = null;
+    }
+    valueHandedOut = true;
+    return value;
+  }
+
+  /**
+   * Returns true if the value of this record is still shared with other records and hence was not copied yet.
+   */
+  boolean isValueShared() {
+    return sharedValue != null;
+  }
+
+  /**
+   * Returns the value without copying it first if it's shared with other records, callers must not modify it.
+   */
+  public Field peekValue() {
+    return value;
+  }
+
   public void addStageToStagePath(String stage) {
     Preconditions.checkNotNull(stage, "stage cannot be null");
     String currentPath = (header.getStagesPath() == null) ? "" : header.getStagesPath() + ":";
@@ -108,12 +180,12 @@ public class RecordImpl implements Record, Cloneable {
 
   @Override
   public Field get() {
-    return value;
+    return ownValue();
   }
 
   @Override
   public Field set(Field field) {
-    Field oldData = value;
+    Field oldData = ownValue();
     value = field;
     return oldData;
   }
@@ -264,91 +336,50 @@ public class RecordImpl implements Record, Cloneable {
   }
 
   public FieldWithPath getValue() {
-    return createFieldWithPath("", "", get());
-  }
-
-  List<PathElement> parse(String fieldPath) {
-    return PathElement.parse(fieldPath, true);
-  }
-
-  private List<Field> get(List<PathElement> elements) {
-    List<Field> fields = new ArrayList<>(elements.size());
-    if (value != null) {
-      Field current = value;
-      for (int i = 0; current != null &&  i < elements.size(); i++) {
-        Field next = null;
-        PathElement element = elements.get(i);
-        switch (element.getType()) {
-          case ROOT:
-            fields.add(current);
-            next = current;
-            break;
-          case MAP:
-            if (current.getType().isOneOf(Field.Type.MAP, Field.Type.LIST_MAP)) {
-              String name = element.getName();
-              Map<String, Field> map = current.getValueAsMap();
-              if (map != null) {
-                Field field = map.get(name);
-                if (field != null) {
-                  fields.add(field);
-                  next = field;
-                }
-              }
-            }
-            break;
-          case LIST:
-            if (current.getType().isOneOf(Field.Type.LIST, Field.Type.LIST_MAP)) {
-              int index = element.getIndex();
-              List<Field> list = current.getValueAsList();
-              if (list != null) {
-                if (list.size() > index) {
-                  Field field = list.get(index);
-                  fields.add(field);
-                  next = field;
-                }
-              }
-            }
-            break;
-          case FIELD_EXPRESSION:
-          default:
-            break;
-        }
-        current = next;
-      }
-    }
-    return fields;
+    // FieldWithPath copies the structure and doesn't leak the fields, so we don't need to own the value
+    return createFieldWithPath("", "", value);
   }
 
   @Override
   public Field get(String fieldPath) {
-    List<PathElement> elements = parse(fieldPath);
-    List<Field> fields = get(elements);
-    return (elements.size() == fields.size()) ? fields.get(fields.size() - 1) : null;
+    return get(FieldPath.compile(fieldPath));
   }
 
+  /**
+   * Same as {@link #get(String)} for an already compiled field path.
+   */
+  public Field get(FieldPath fieldPath) {
+    ownValue();
+    return find(fieldPath, fieldPath.size());
+  }
 
   @Override
   public Field delete(String fieldPath) {
-    List<PathElement> elements = parse(fieldPath);
-    List<Field> fields = get(elements);
+    return delete(FieldPath.compile(fieldPath));
+  }
+
+  /**
+   * Same as {@link #delete(String)} for an already compiled field path.
+   */
+  public Field delete(FieldPath fieldPath) {
+    ownValue();
+    int last = fieldPath.size() - 1;
     Field deleted = null;
-    int fieldPos = fields.size();
-    if (elements.size() == fieldPos) {
-      fieldPos--;
-
-      if (fieldPos == 0) {
-        // the field to delete must be a primitive. delete it directly.
-        deleted = value;
-        value = null;
-      } else {
-        // the field to delete is a map or list element, so to delete, you must remove it from the parent collection.
-        PathElement element = elements.get(fieldPos);
+    if (last == 0) {
+      // the field to delete is the root field. delete it directly.
+      deleted = value;
+      value = null;
+    } else {
+      // the field to delete is a map or list element, so to delete, you must remove it from the parent collection.
+      Field parent = find(fieldPath, last);
+      PathElement element = fieldPath.getElement(last);
+      if (parent != null && child(parent, element) != null) {
         switch (element.getType()) {
           case MAP:
-            deleted = fields.get(fieldPos - 1).getValueAsMap().remove(element.getName());
+            deleted = parent.getValueAsMap().remove(element.getName());
             break;
           case LIST:
-            deleted = fields.get(fieldPos - 1).getValueAsList().remove(element.getIndex());
+            deleted = parent.getValueAsList().remove(element.getIndex());
             break;
           case FIELD_EXPRESSION:
           default:
@@ -361,9 +392,51 @@ public class RecordImpl implements Record, Cloneable {
 
   @Override
   public boolean has(String fieldPath) {
-    List<PathElement> elements = parse(fieldPath);
-    List<Field> fields = get(elements);
-    return (elements.size() == fields.size());
+    return has(FieldPath.compile(fieldPath));
+  }
+
+  /**
+   * Same as {@link #has(String)} for an already compiled field path.
+   */
+  public boolean has(FieldPath fieldPath) {
+    return find(fieldPath, fieldPath.size()) != null;
+  }
+
+  /**
+   * Returns the field the first elements of the given path lead to, or null if there is no such field.
+   */
+  private Field find(FieldPath fieldPath, int elements) {
+    Field current = value;
+    for (int i = 0; current != null && i < elements; i++) {
+      current = child(current, fieldPath.getElement(i));
+    }
+    return current;
+  }
+
+  private static Field child(Field field, PathElement element) {
+    switch (element.getType()) {
+      case ROOT:
+        return field;
+      case MAP:
+        if (field.getType().isOneOf(Field.Type.MAP, Field.Type.LIST_MAP)) {
+          Map<String, Field> map = field.getValueAsMap();
+          if (map != null) {
+            return map.get(element.getName());
+          }
+        }
+        return null;
+      case LIST:
+        if (field.getType().isOneOf(Field.Type.LIST, Field.Type.LIST_MAP)) {
+          List<Field> list = field.getValueAsList();
+          if (list != null && list.size() > element.getIndex()) {
+            return list.get(element.getIndex());
+          }
+        }
+        return null;
+      case FIELD_EXPRESSION:
+      default:
+        return null;
+    }
   }
 
   @Override
@@ -512,55 +585,44 @@ public class RecordImpl implements Record, Cloneable {
 
   @Override
   public Field set(String fieldPath, Field newField) {
-    //get all the elements present in the fieldPath, including the newest element
-    //For example, if the existing record has /a/b/c and the argument fieldPath is /a/b/d the parser returns three
-    // elements - a, b and d
-    List<PathElement> elements = parse(fieldPath);
-    //return all *existing* fields form the list of elements
-    //In the above case it is going to return only field a and field b. Field d does not exist.
-    List<Field> fields = get(elements);
-    Field fieldToReplace;
-    int fieldPos = fields.size();
-    if (elements.size() == fieldPos) {
-      //The number of elements in the path is same as the number of fields => set use case
-      fieldPos--;
-      fieldToReplace = doSet(fieldPos, newField, elements, fields);
-    } else if (elements.size() -1 == fieldPos) {
-      //The number of elements in the path is on more than the number of fields => add use case
-      fieldToReplace = doSet(fieldPos, newField, elements, fields);
-    } else {
-      throw new IllegalArgumentException(Utils.format("Field-path '{}' not reachable", fieldPath));
-    }
-    return fieldToReplace;
+    return set(FieldPath.compile(fieldPath), newField);
   }
 
-  private Field doSet(int fieldPos, Field newField, List<PathElement> elements, List<Field> fields) {
+  /**
+   * Same as {@link #set(String, Field)} for an already compiled field path.
+   */
+  public Field set(FieldPath fieldPath, Field newField) {
+    ownValue();
+    int last = fieldPath.size() - 1;
     Field fieldToReplace = null;
-    if (fieldPos == 0) {
+    if (last == 0) {
       //root element
       fieldToReplace = value;
       value = newField;
     } else {
+      //the parent must exist, the field itself is either replaced or added.
+      //For example, if the existing record has /a/b/c and the argument fieldPath is /a/b/d, d is added to /a/b
+      Field parent = find(fieldPath, last);
+      if (parent == null) {
+        throw new IllegalArgumentException(Utils.format("Field-path '{}' not reachable", fieldPath.getPath()));
+      }
       //get the type of the element based on the output of the parser.
       //Note that this is not the real type of the field, this is how the parser interpreted the fieldPath argument
       //to the set API above. For example if fieldPath is /a/b parser interprets a as type map, if fieldPath is a[0]/b
       //parser interprets a as of type list
-      switch (elements.get(fieldPos).getType()) {
+      PathElement element = fieldPath.getElement(last);
+      switch (element.getType()) {
         case MAP:
-          //get the name of the field which must be added
-          String elementName = elements.get(fieldPos).getName();
-          //attempt to get the parent as a map type.
-          fieldToReplace = fields.get(fieldPos - 1).getValueAsMap().put(elementName, newField);
+          fieldToReplace = parent.getValueAsMap().put(element.getName(), newField);
           break;
         case LIST:
-          int elementIndex = elements.get(fieldPos).getIndex();
-          Field parentField = fields.get(fieldPos - 1);
-          if(elementIndex == parentField.getValueAsList().size()){
+          List<Field> list = parent.getValueAsList();
+          if (element.getIndex() == list.size()) {
             //add at end
-            parentField.getValueAsList().add(newField);
+            list.add(newField);
           } else {
             //replace existing value
-            fieldToReplace = parentField.getValueAsList().set(elementIndex, newField);
+            fieldToReplace = list.set(element.getIndex(), newField);
           }
           break;
         case FIELD_EXPRESSION:
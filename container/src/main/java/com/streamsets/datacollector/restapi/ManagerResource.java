@@ -22,6 +22,7 @@ import com.streamsets.datacollector.execution.PipelineStatus;
 import com.streamsets.datacollector.execution.Runner;
 import com.streamsets.datacollector.execution.SnapshotInfo;
 import com.streamsets.datacollector.execution.alerts.AlertInfo;
+import com.streamsets.datacollector.execution.snapshot.common.SnapshotData;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.main.UserGroupManager;
 import com.streamsets.datacollector.restapi.bean.AlertInfoJson;
@@ -37,6 +38,7 @@ import com.streamsets.datacollector.restapi.bean.SnapshotInfoJson;
 import com.streamsets.datacollector.restapi.bean.SourceOffsetJson;
 import com.streamsets.datacollector.restapi.bean.UserJson;
 import com.streamsets.datacollector.runner.PipelineRuntimeException;
+import com.streamsets.datacollector.runner.StageOutput;
 import com.streamsets.datacollector.store.AclStoreTask;
 import com.streamsets.datacollector.store.PipelineInfo;
 import com.streamsets.datacollector.store.PipelineStoreTask;
@@ -675,13 +677,22 @@ public class ManagerResource {
       @PathParam("pipelineId") String pipelineId,
       @PathParam("snapshotName") String snapshotName,
       @QueryParam("rev") @DefaultValue("0") String rev,
-      @QueryParam("attachment") @DefaultValue("false") Boolean attachment
+      @QueryParam("attachment") @DefaultValue("false") Boolean attachment,
+      @QueryParam("stageInstanceName") String stageInstanceName,
+      @QueryParam("offset") @DefaultValue("0") int offset,
+      @QueryParam("len") @DefaultValue("-1") int len
   ) throws PipelineException {
     PipelineInfo pipelineInfo = store.getInfo(pipelineId);
     RestAPIUtils.injectPipelineInMDC(pipelineInfo.getTitle(), pipelineInfo.getPipelineId());
     Runner runner = manager.getRunner(pipelineId, rev);
     if(runner != null) {
-      if (attachment) {
+      if (!attachment && (stageInstanceName != null || offset > 0 || len >= 0)) {
+        // only the requested stage and/or page of records
+        List<List<StageOutput>> snapshotBatches =
+            runner.getSnapshot(snapshotName).getStageOutput(stageInstanceName, offset, len);
+        return Response.ok().type(MediaType.APPLICATION_JSON).entity(
+            snapshotBatches == null ? null : new SnapshotDataJson(new SnapshotData(snapshotBatches))).build();
+      } else if (attachment) {
         String fileName = pipelineId + "_" + snapshotName;
         return Response.ok().
             header("Content-Disposition", "attachment; filename=\"" + fileName + ".json\"").
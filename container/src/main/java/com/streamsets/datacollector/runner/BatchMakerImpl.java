@@ -91,7 +91,8 @@ public class BatchMakerImpl implements BatchMaker {
 
   @VisibleForTesting
   RecordImpl getRecordForBatchMaker(Record record) {
-    // in the constructor we figured out if we can do recordByRef or not
+    // in the constructor we figured out if we can do recordByRef or not, the clone copies the record value right
+    // away if the stage accessed its fields, otherwise it shares the value until it's accessed
     return (recordByRef) ? (RecordImpl) record: ((RecordImpl) record).clone();
   }
 
@@ -37,8 +37,9 @@ public class ErrorSink implements ReportErrorDelegate {
   private int totalErrorMessages;
 
   public ErrorSink() {
-    stageErrors = new LinkedHashMap<>();
-    errorRecords = new LinkedHashMap<>();
+    // stages on independent branches of the pipeline can report errors concurrently
+    stageErrors = Collections.synchronizedMap(new LinkedHashMap<>());
+    errorRecords = Collections.synchronizedMap(new LinkedHashMap<>());
     size = 0;
     totalErrorMessages = 0;
     totalErrorRecords = 0;
@@ -51,12 +52,12 @@ public class ErrorSink implements ReportErrorDelegate {
   }
 
   @Override
-  public void reportError(String stage, ErrorMessage errorMessage) {
+  public synchronized void reportError(String stage, ErrorMessage errorMessage) {
     addError(stageErrors, stage, errorMessage);
     totalErrorMessages++;
   }
 
-  public void addRecord(String stage, Record errorRecord) {
+  public synchronized void addRecord(String stage, Record errorRecord) {
     addError(errorRecords, stage, errorRecord);
     totalErrorRecords++;
   }
@@ -89,7 +90,7 @@ public class ErrorSink implements ReportErrorDelegate {
     return getErrors(stageErrors, stage);
   }
 
-  public int size() {
+  public synchronized int size() {
     return size;
   }
 
@@ -100,11 +101,11 @@ public class ErrorSink implements ReportErrorDelegate {
     return Utils.format("ErrorSink[reportingInstances='{}' size='{}']", stages, size());
   }
 
-  public int getTotalErrorRecords() {
+  public synchronized int getTotalErrorRecords() {
     return totalErrorRecords;
   }
 
-  public int getTotalErrorMessages() {
+  public synchronized int getTotalErrorMessages() {
     return totalErrorMessages;
   }
 
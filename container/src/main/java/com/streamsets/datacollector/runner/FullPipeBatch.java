@@ -34,6 +34,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+/**
+ * Methods that touch the state shared by all stages are synchronized as independent branches of the pipeline can
+ * be processed concurrently (see PipeRunner).
+ */
 public class FullPipeBatch implements PipeBatch {
 
   private final String sourceEntity;
@@ -92,7 +96,7 @@ public class FullPipeBatch implements PipeBatch {
 
   @Override
   @SuppressWarnings("unchecked")
-  public BatchImpl getBatch(final Pipe pipe) {
+  public synchronized BatchImpl getBatch(final Pipe pipe) {
     List<Record> records = new ArrayList<>();
     List<String> inputLanes = pipe.getInputLanes();
     for (String inputLane : inputLanes) {
@@ -105,7 +109,7 @@ public class FullPipeBatch implements PipeBatch {
   }
 
   @Override
-  public BatchMakerImpl startStage(StagePipe pipe) {
+  public synchronized BatchMakerImpl startStage(StagePipe pipe) {
     String stageName = pipe.getStage().getInfo().getInstanceName();
     Preconditions.checkState(!processedStages.contains(stageName), Utils.formatL(
       "The stage '{}' has been processed already", stageName));
@@ -122,7 +126,7 @@ public class FullPipeBatch implements PipeBatch {
 
   @Override
   @SuppressWarnings("unchecked")
-  public void skipStage(Pipe pipe) {
+  public synchronized void skipStage(Pipe pipe) {
     // Fill expected stage output lanes with empty lists
     pipe.getOutputLanes().stream().forEach(lane -> fullPayload.put((String)lane, Collections.emptyList()));
     // Components are allowed to generate events on destroy phase and hence we need to use default empty
@@ -131,7 +135,7 @@ public class FullPipeBatch implements PipeBatch {
   }
 
   @Override
-  public void completeStage(BatchMakerImpl batchMaker) {
+  public synchronized void completeStage(BatchMakerImpl batchMaker) {
     StagePipe pipe = batchMaker.getStagePipe();
     if (pipe.getStage().getDefinition().getType() == StageType.SOURCE) {
       inputRecords += batchMaker.getSize() +
@@ -157,7 +161,7 @@ public class FullPipeBatch implements PipeBatch {
   }
 
   @Override
-  public void completeStage(StagePipe pipe) {
+  public synchronized void completeStage(StagePipe pipe) {
     List<String> inputLanes = pipe.getInputLanes();
     for(String inputLane : inputLanes) {
       fullPayload.remove(inputLane);
@@ -169,7 +173,7 @@ public class FullPipeBatch implements PipeBatch {
   }
 
   @Override
-  public Map<String, List<Record>> getLaneOutputRecords(List<String> pipeLanes) {
+  public synchronized Map<String, List<Record>> getLaneOutputRecords(List<String> pipeLanes) {
     Map<String, List<Record>> snapshot = new HashMap<>();
     for (String pipeLane : pipeLanes) {
       //The observer will copy
@@ -197,7 +201,7 @@ public class FullPipeBatch implements PipeBatch {
 
   @Override
   @SuppressWarnings("unchecked")
-  public void overrideStageOutput(StagePipe pipe, StageOutput stageOutput) {
+  public synchronized void overrideStageOutput(StagePipe pipe, StageOutput stageOutput) {
     startStage(pipe);
     for (String pipeLaneName : pipe.getOutputLanes()) {
       String stageLaneName = LaneResolver.removePostFixFromLane(pipeLaneName);
@@ -223,7 +227,7 @@ public class FullPipeBatch implements PipeBatch {
   }
 
   @Override
-  public List<StageOutput> createFailureSnapshot() {
+  public synchronized List<StageOutput> createFailureSnapshot() {
     // Stage name -> (Lane name -> Records)
     Map<String, Map<String, List<Record>>> salvagedStageOutputs = new LinkedHashMap<>();
 
@@ -274,18 +278,29 @@ public class FullPipeBatch implements PipeBatch {
   }
 
   @Override
-  public void moveLane(String inputLane, String outputLane) {
+  public synchronized void moveLane(String inputLane, String outputLane) {
     fullPayload.put(outputLane, Preconditions.checkNotNull(fullPayload.remove(inputLane), Utils.formatL(
         "Stream '{}' does not exist", inputLane)));
   }
 
   @Override
   public void moveLaneCopying(String inputLane, List<String> outputLanes) {
-    List<Record> records = Preconditions.checkNotNull(fullPayload.remove(inputLane), Utils.formatL(
-        "Stream '{}' does not exist", inputLane));
-    for (String lane : outputLanes) {
-      Preconditions.checkState(!fullPayload.containsKey(lane), Utils.formatL("Lane '{}' already exists", lane));
-      fullPayload.put(lane, createCopy(records));
+    List<Record> records;
+    synchronized (this) {
+      records = Preconditions.checkNotNull(fullPayload.remove(inputLane), Utils.formatL(
+          "Stream '{}' does not exist", inputLane));
+    }
+    // copying can take a while, don't block other branches of the pipeline meanwhile
+    List<List<Record>> copies = new ArrayList<>(outputLanes.size());
+    for (int i = 0; i < outputLanes.size(); i++) {
+      copies.add(createCopy(records));
+    }
+    synchronized (this) {
+      for (int i = 0; i < outputLanes.size(); i++) {
+        String lane = outputLanes.get(i);
+        Preconditions.checkState(!fullPayload.containsKey(lane), Utils.formatL("Lane '{}' already exists", lane));
+        fullPayload.put(lane, copies.get(i));
+      }
     }
   }
 
@@ -304,12 +319,12 @@ public class FullPipeBatch implements PipeBatch {
   }
 
   @Override
-  public int getInputRecords() {
+  public synchronized int getInputRecords() {
     return inputRecords;
   }
 
   @Override
-  public int getOutputRecords() {
+  public synchronized int getOutputRecords() {
     return outputRecords;
   }
 
@@ -16,9 +16,11 @@
 package com.streamsets.datacollector.runner;
 
 import com.streamsets.datacollector.validation.Issue;
+import com.streamsets.pipeline.api.Record;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public class ObserverPipe extends Pipe<Pipe.Context> {
   private final Observer observer;
@@ -40,7 +42,11 @@ public class ObserverPipe extends Pipe<Pipe.Context> {
   @Override
   public void process(PipeBatch pipeBatch) throws PipelineRuntimeException {
     if (observer != null && observer.isObserving(getInputLanes())) {
-      observer.observe(this, pipeBatch.getLaneOutputRecords(getInputLanes()));
+      Map<String, List<Record>> records = pipeBatch.getLaneOutputRecords(getInputLanes());
+      // the observer is shared by all pipes, which might run concurrently
+      synchronized (observer) {
+        observer.observe(this, records);
+      }
     }
     for (int i = 0; i < getInputLanes().size(); i++) {
       pipeBatch.moveLane(getInputLanes().get(i), getOutputLanes().get(i));
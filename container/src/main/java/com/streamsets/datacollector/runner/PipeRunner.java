@@ -16,7 +16,9 @@
 package com.streamsets.datacollector.runner;
 
 import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.streamsets.datacollector.metrics.MetricsConfigurator;
 import com.streamsets.datacollector.util.PipelineException;
 import com.streamsets.pipeline.api.OffsetCommitTrigger;
@@ -24,12 +26,22 @@ import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.Target;
+import com.streamsets.datacollector.util.ContainerError;
 import com.streamsets.pipeline.lib.log.LogConstants;
 import org.slf4j.MDC;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Pipe Runner that wraps one source-less instance of the pipeline.
@@ -62,6 +74,21 @@ public class PipeRunner {
    */
   private final List<Pipe> pipes;
 
+  /**
+   * Indexes of the pipes that consume output of given pipe (e.g. have to wait for the given pipe to finish).
+   */
+  private final int[][] dependents;
+
+  /**
+   * Number of pipes that given pipe has to wait for.
+   */
+  private final int[] dependencyCounts;
+
+  /**
+   * True if at least two pipes consume output of the same pipe (e.g. the pipeline forks).
+   */
+  private final boolean hasIndependentBranches;
+
   /**
    * Gauge with runtime metrics of this runner.
    */
@@ -77,6 +104,38 @@ public class PipeRunner {
     this.runnerId = runnerId;
     this.pipes = ImmutableList.copyOf(pipes);
 
+    // Pipe j depends on pipe i if it reads any lane that pipe i writes
+    List<List<Integer>> consumers = new ArrayList<>();
+    this.dependencyCounts = new int[this.pipes.size()];
+    boolean independentBranches = false;
+    for(int i = 0; i < this.pipes.size(); i++) {
+      Set<String> producedLanes = new HashSet<>(this.pipes.get(i).getOutputLanes());
+      producedLanes.addAll(this.pipes.get(i).getEventLanes());
+      List<Integer> pipeConsumers = new ArrayList<>();
+      for(int j = i + 1; j < this.pipes.size(); j++) {
+        if(!Collections.disjoint(producedLanes, this.pipes.get(j).getInputLanes())) {
+          pipeConsumers.add(j);
+          dependencyCounts[j]++;
+        }
+      }
+      consumers.add(pipeConsumers);
+      // Branches exist only when at least two pipes consume output of the same pipe
+      independentBranches |= pipeConsumers.size() > 1;
+    }
+    // Pipes that don't read any lane produced by other pipes (e.g. stages without input lanes) keep their position
+    // in the original order by waiting on the preceding pipe
+    for(int i = 1; i < this.pipes.size(); i++) {
+      if(dependencyCounts[i] == 0) {
+        consumers.get(i - 1).add(i);
+        dependencyCounts[i]++;
+      }
+    }
+    this.dependents = new int[this.pipes.size()][];
+    for(int i = 0; i < this.pipes.size(); i++) {
+      dependents[i] = consumers.get(i).stream().mapToInt(Integer::intValue).toArray();
+    }
+    this.hasIndependentBranches = independentBranches;
+
     // Create metric gauge for this particular runner
     this.runtimeMetricGauge = MetricsConfigurator.createStageGauge(
       metricRegistry,
@@ -140,6 +199,151 @@ public class PipeRunner {
     }
   }
 
+  /**
+   * Run batch with given consumer for each pipe, running independent branches of the pipeline on the given pool.
+   *
+   * A pipe is processed once all pipes producing its input lanes have been processed, pipes on different branches
+   * (for example destinations after a Stream Selector) are processed concurrently. The method returns once all pipes
+   * have been processed, so the caller can commit the offset as usual. If processing of any pipe fails, no further
+   * pipes are started and the first failure is rethrown. The consumer must be thread safe.
+   *
+   * Falls back to executeBatch() when the pool is null or the pipeline does not fork.
+   */
+  public void executeBatch(
+      String offsetKey,
+      String offsetValue,
+      long batchStartTime,
+      ForkJoinPool pool,
+      ThrowingConsumer<Pipe> consumer
+  ) throws PipelineRuntimeException, StageException {
+    if(pool == null || !hasIndependentBranches) {
+      executeBatch(offsetKey, offsetValue, batchStartTime, consumer);
+      return;
+    }
+
+    MDC.put(LogConstants.RUNNER, String.valueOf(runnerId));
+    this.runtimeMetricGauge.put(METRIC_BATCH_START_TIME, batchStartTime);
+    this.runtimeMetricGauge.put(METRIC_OFFSET_KEY, Optional.ofNullable(offsetKey).orElse(""));
+    this.runtimeMetricGauge.put(METRIC_OFFSET_KEY, Optional.ofNullable(offsetValue).orElse(""));
+    this.runtimeMetricGauge.put(METRIC_STAGE_START_TIME, System.currentTimeMillis());
+    try {
+      new BranchExecution(pool, consumer).run();
+
+      // We've successfully finished batch
+      this.runtimeMetricGauge.computeIfPresent(METRIC_BATCH_COUNT, (key, value) -> ((long)value) + 1);
+    } finally {
+      resetBatchSpecificMetrics();
+      MDC.put(LogConstants.RUNNER, "");
+    }
+  }
+
+  /**
+   * State of one parallel batch execution.
+   */
+  private class BranchExecution {
+    private final ForkJoinPool pool;
+    private final ThrowingConsumer<Pipe> consumer;
+    private final AtomicInteger[] remainingDependencies;
+    private final CountDownLatch finished;
+    private final AtomicReference<Throwable> failure;
+    private final Map<String, String> mdc;
+    private final ClassLoader classLoader;
+
+    BranchExecution(ForkJoinPool pool, ThrowingConsumer<Pipe> consumer) {
+      this.pool = pool;
+      this.consumer = consumer;
+      this.remainingDependencies = new AtomicInteger[pipes.size()];
+      for(int i = 0; i < pipes.size(); i++) {
+        remainingDependencies[i] = new AtomicInteger(dependencyCounts[i]);
+      }
+      this.finished = new CountDownLatch(pipes.size());
+      this.failure = new AtomicReference<>();
+      this.mdc = MDC.getCopyOfContextMap();
+      this.classLoader = Thread.currentThread().getContextClassLoader();
+    }
+
+    void run() throws PipelineRuntimeException, StageException {
+      for(int i = 0; i < pipes.size(); i++) {
+        if(dependencyCounts[i] == 0) {
+          final int idx = i;
+          pool.execute(() -> processChain(idx));
+        }
+      }
+
+      try {
+        finished.await();
+      } catch (InterruptedException e) {
+        // Don't start any new pipes, but the batch can't be released while the running ones still use it
+        failure.compareAndSet(null, e);
+        Uninterruptibles.awaitUninterruptibly(finished);
+        Thread.currentThread().interrupt();
+        throw new PipelineRuntimeException(ContainerError.CONTAINER_0801, e);
+      }
+
+      Throwable throwable = failure.get();
+      if(throwable != null) {
+        Throwables.propagateIfInstanceOf(throwable, PipelineRuntimeException.class);
+        Throwables.propagateIfInstanceOf(throwable, StageException.class);
+        Throwables.propagate(throwable);
+      }
+    }
+
+    /**
+     * Processes given pipe and then continues with the first of its dependents that became ready on the same thread,
+     * other dependents that became ready are forked.
+     */
+    private void processChain(int idx) {
+      Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+      ClassLoader previousClassLoader = Thread.currentThread().getContextClassLoader();
+      if(mdc != null) {
+        MDC.setContextMap(mdc);
+      }
+      Thread.currentThread().setContextClassLoader(classLoader);
+      try {
+        int next = idx;
+        while(next >= 0) {
+          int current = next;
+          next = -1;
+          process(pipes.get(current));
+          for(int dependent : dependents[current]) {
+            if(remainingDependencies[dependent].decrementAndGet() == 0) {
+              if(next < 0) {
+                next = dependent;
+              } else {
+                final int dependentIdx = dependent;
+                ForkJoinTask.adapt(() -> processChain(dependentIdx)).fork();
+              }
+            }
+          }
+          finished.countDown();
+        }
+      } finally {
+        Thread.currentThread().setContextClassLoader(previousClassLoader);
+        if(previousMdc != null) {
+          MDC.setContextMap(previousMdc);
+        } else {
+          MDC.clear();
+        }
+      }
+    }
+
+    private void process(Pipe pipe) {
+      // After first failure the remaining pipes are only walked through so that the caller is released
+      if(failure.get() != null) {
+        return;
+      }
+      try {
+        runtimeMetricGauge.put(METRIC_CURRENT_STAGE, pipe.getStage().getInfo().getInstanceName());
+        if(pipe instanceof StagePipe) {
+          runtimeMetricGauge.put(METRIC_STAGE_START_TIME, System.currentTimeMillis());
+        }
+        consumer.accept(pipe);
+      } catch (Throwable t) {
+        failure.compareAndSet(null, t);
+      }
+    }
+  }
+
   private void resetBatchSpecificMetrics() {
     // Fill in default values when there is no batch running
     this.runtimeMetricGauge.put(METRIC_CURRENT_STAGE, IDLE);
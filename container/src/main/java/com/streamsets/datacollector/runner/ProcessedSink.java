@@ -38,21 +38,21 @@ public class ProcessedSink {
     this.processedRecords = new LinkedHashMap<>();
   }
 
-  public void addRecord(String stage, Record record) {
+  public synchronized void addRecord(String stage, Record record) {
     List<Record> records = processedRecords.computeIfAbsent(stage, k -> new LinkedList<>());
     records.add(record);
   }
 
-  public void addRecords(String stage, Collection<Record> records) {
+  public synchronized void addRecords(String stage, Collection<Record> records) {
     Collection<Record> r = processedRecords.computeIfAbsent(stage, k -> new LinkedList<>());
     r.addAll(records);
   }
 
-  public Optional<List<Record>> getProcessedRecords(String stage) {
+  public synchronized Optional<List<Record>> getProcessedRecords(String stage) {
     return Optional.ofNullable(processedRecords.get(stage));
   }
 
-  public void clear() {
+  public synchronized void clear() {
     this.processedRecords.clear();
   }
 }
\ No newline at end of file
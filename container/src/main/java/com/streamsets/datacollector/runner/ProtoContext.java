@@ -24,6 +24,7 @@ import com.codahale.metrics.Timer;
 import com.google.common.base.Preconditions;
 import com.streamsets.datacollector.config.ConfigDefinition;
 import com.streamsets.datacollector.config.StageType;
+import com.streamsets.datacollector.el.CompiledELEvaluator;
 import com.streamsets.datacollector.el.ELEvaluator;
 import com.streamsets.datacollector.el.ELVariables;
 import com.streamsets.datacollector.email.EmailException;
@@ -78,6 +79,7 @@ public abstract class ProtoContext implements ProtoConfigurableEntity.Context, C
   protected static final String STAGE_CONF_PREFIX = "stage.conf_";
   private static final String SDC_RECORD_SAMPLING_POPULATION_SIZE = "sdc.record.sampling.population.size";
   private static final String SDC_RECORD_SAMPLING_SAMPLE_SIZE = "sdc.record.sampling.sample.size";
+  private static final String EL_COMPILER_ENABLED = "el.compiler.enabled";
 
   protected final Configuration configuration;
   private final Map<String, Class<?>[]> configToElDefMap;
@@ -90,6 +92,7 @@ public abstract class ProtoContext implements ProtoConfigurableEntity.Context, C
   protected final String stageInstanceName;
   protected final String serviceInstanceName;
   protected final String resourcesDir;
+  private final boolean elCompilerEnabled;
 
   protected ProtoContext(
       Configuration configuration,
@@ -114,6 +117,7 @@ public abstract class ProtoContext implements ProtoConfigurableEntity.Context, C
     this.stageInstanceName = stageInstanceName;
     this.serviceInstanceName = serviceInstanceName;
     this.resourcesDir = resourcesDir;
+    this.elCompilerEnabled = configuration.get(EL_COMPILER_ENABLED, false);
 
     // Initialize Sampler
     int sampleSize = configuration.get(SDC_RECORD_SAMPLING_SAMPLE_SIZE, 1);
@@ -272,6 +276,9 @@ public abstract class ProtoContext implements ProtoConfigurableEntity.Context, C
       Collections.addAll(classes, elDefClasses);
     }
     // assert non of the EL functions is implicit only
+    if (elCompilerEnabled) {
+      return new CompiledELEvaluator(configName, true, constants, classes.toArray(new Class[classes.size()]));
+    }
     return new ELEvaluator(configName, true, constants, classes.toArray(new Class[classes.size()]));
   }
 
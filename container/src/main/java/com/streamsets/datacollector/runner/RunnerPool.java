@@ -16,21 +16,46 @@
 package com.streamsets.datacollector.runner;
 
 import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
 import com.streamsets.datacollector.util.ContainerError;
 
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
- * Small abstraction on top of blocking queue to model a pool of runners.
+ * Pool of runners shared by all origin threads.
+ *
+ * Every runner has a fixed slot and is always returned to it. Slots are claimed with a compare-and-set, the semaphore
+ * guarding them only blocks when all runners are busy, so that threads don't serialize on a single queue lock. Each
+ * thread first tries the slot of the runner it used last, which keeps the same runner (and its stage state) on the same
+ * thread as long as there are enough runners.
  */
 public class RunnerPool <T> {
 
   /**
-   * Internal blocking queue with all available runners
+   * Runners that are currently available, indexed by their slot; null if the runner is in use.
+   */
+  private final AtomicReferenceArray<T> slots;
+
+  /**
+   * Slot of each runner.
+   */
+  private final Map<T, Integer> runnerSlots;
+
+  /**
+   * Number of available runners, threads block here when all runners are in use.
    */
-  private final ArrayBlockingQueue<T> queue;
+  private final Semaphore available;
+
+  /**
+   * Slot of the runner that the current thread used last.
+   */
+  private final ThreadLocal<Integer> affinity;
 
   /**
    * Runtime stats to keep info about available runners.
@@ -42,6 +67,11 @@ public class RunnerPool <T> {
    */
   private final Histogram histogram;
 
+  /**
+   * Time that threads spent waiting for a runner when none was available.
+   */
+  private final Timer waitTimer;
+
   /**
    * Internal flag keeping state of the runner.
    */
@@ -53,13 +83,30 @@ public class RunnerPool <T> {
    * @param runners Runners that this pool object should manage
    */
   public RunnerPool(List<T> runners, RuntimeStats runtimeStats, Histogram histogram) {
-    queue = new ArrayBlockingQueue<>(runners.size());
-    queue.addAll(runners);
+    this(runners, runtimeStats, histogram, new Timer());
+  }
+
+  /**
+   * Create new runner pool.
+   *
+   * @param runners Runners that this pool object should manage
+   * @param waitTimer Timer updated whenever a thread had to wait for a runner
+   */
+  public RunnerPool(List<T> runners, RuntimeStats runtimeStats, Histogram histogram, Timer waitTimer) {
+    slots = new AtomicReferenceArray<>(runners.size());
+    runnerSlots = new IdentityHashMap<>();
+    for (int i = 0; i < runners.size(); i++) {
+      slots.set(i, runners.get(i));
+      runnerSlots.put(runners.get(i), i);
+    }
+    available = new Semaphore(runners.size());
+    affinity = new ThreadLocal<>();
 
     this.runtimeStats = runtimeStats;
-    this.runtimeStats.setTotalRunners(queue.size());
-    this.runtimeStats.setAvailableRunners(queue.size());
+    this.runtimeStats.setTotalRunners(runners.size());
+    this.runtimeStats.setAvailableRunners(runners.size());
     this.histogram = histogram;
+    this.waitTimer = waitTimer;
     this.destroyed = new AtomicBoolean(false);
   }
 
@@ -73,12 +120,39 @@ public class RunnerPool <T> {
     validateNotDestroyed();
 
     try {
-      return queue.take();
+      if (!available.tryAcquire()) {
+        long start = System.nanoTime();
+        available.acquire();
+        waitTimer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+      return claimRunner();
     } catch (InterruptedException e) {
       throw new PipelineRuntimeException(ContainerError.CONTAINER_0801, e);
     } finally {
-      runtimeStats.setAvailableRunners(queue.size());
-      histogram.update(queue.size());
+      runtimeStats.setAvailableRunners(available.availablePermits());
+      histogram.update(available.availablePermits());
+    }
+  }
+
+  /**
+   * Claims an available slot, must be called only after acquiring a permit.
+   */
+  private T claimRunner() {
+    int size = slots.length();
+    Integer preferred = affinity.get();
+    int start = preferred != null ? preferred : (int) (Thread.currentThread().getId() % size);
+
+    // The permit guarantees that a runner is available, but it might be returned to a slot that was already visited
+    // while another thread takes the one we were heading to, hence the outer loop.
+    while (true) {
+      for (int i = 0; i < size; i++) {
+        int slot = (start + i) % size;
+        T runner = slots.get(slot);
+        if (runner != null && slots.compareAndSet(slot, runner, null)) {
+          affinity.set(slot);
+          return runner;
+        }
+      }
     }
   }
 
@@ -90,9 +164,13 @@ public class RunnerPool <T> {
   public void returnRunner(T runner) throws PipelineRuntimeException {
     validateNotDestroyed();
 
-    queue.add(runner);
-    runtimeStats.setAvailableRunners(queue.size());
-    histogram.update(queue.size());
+    Integer slot = runnerSlots.get(runner);
+    if (slot == null || !slots.compareAndSet(slot, null, runner)) {
+      throw new IllegalArgumentException("Runner doesn't belong to this pool or was already returned: " + runner);
+    }
+    available.release();
+    runtimeStats.setAvailableRunners(available.availablePermits());
+    histogram.update(available.availablePermits());
   }
 
   /**
@@ -109,8 +187,12 @@ public class RunnerPool <T> {
 
     // Validate that this thread pool have all runners back, otherwise we're missing something and that is sign of
     // a trouble.
-    if(queue.size() < runtimeStats.getTotalRunners()) {
-      throw new PipelineRuntimeException(ContainerError.CONTAINER_0802, queue.size(), runtimeStats.getTotalRunners());
+    if(available.availablePermits() < runtimeStats.getTotalRunners()) {
+      throw new PipelineRuntimeException(
+        ContainerError.CONTAINER_0802,
+        available.availablePermits(),
+        runtimeStats.getTotalRunners()
+      );
     }
   }
 
@@ -121,7 +203,11 @@ public class RunnerPool <T> {
    */
   private void validateNotDestroyed() throws PipelineRuntimeException {
     if(destroyed.get()) {
-      throw new PipelineRuntimeException(ContainerError.CONTAINER_0803, queue.size(), runtimeStats.getTotalRunners());
+      throw new PipelineRuntimeException(
+        ContainerError.CONTAINER_0803,
+        available.availablePermits(),
+        runtimeStats.getTotalRunners()
+      );
     }
   }
 }
@@ -26,6 +26,9 @@ import com.streamsets.datacollector.config.StageType;
 import com.streamsets.datacollector.memory.MemoryMonitor;
 import com.streamsets.datacollector.memory.MemoryUsageCollector;
 import com.streamsets.datacollector.memory.MemoryUsageCollectorResourceBundle;
+import com.streamsets.datacollector.memory.RecordSizeEstimator;
+import com.streamsets.datacollector.memory.SampledMemoryMonitor;
+import com.streamsets.datacollector.memory.SampledMemoryUsageCollector;
 import com.streamsets.datacollector.metrics.MetricsConfigurator;
 import com.streamsets.datacollector.restapi.bean.CounterJson;
 import com.streamsets.datacollector.restapi.bean.HistogramJson;
@@ -49,6 +52,15 @@ public class StagePipe extends Pipe<StagePipe.Context> {
   private static final Logger LOG = LoggerFactory.getLogger(StagePipe.class);
   //Runtime stat gauge name
   public static final String RUNTIME_STATS_GAUGE = "RuntimeStatsGauge";
+  public static final String MONITOR_MEMORY_KEY = "monitor.memory";
+  // full: walk the stage's object graph, sampled: time budgeted incremental walk plus batch record estimates
+  public static final String MONITOR_MEMORY_MODE_KEY = "monitor.memory.mode";
+  public static final String MONITOR_MEMORY_MODE_DEFAULT = "full";
+  public static final String MONITOR_MEMORY_MODE_SAMPLED = "sampled";
+  public static final String MONITOR_MEMORY_TIME_BUDGET_KEY = "monitor.memory.sampled.timeBudget.ms";
+  public static final long MONITOR_MEMORY_TIME_BUDGET_DEFAULT = 50;
+  public static final String MONITOR_MEMORY_RECORD_SAMPLES_KEY = "monitor.memory.sampled.recordSamples";
+  public static final int MONITOR_MEMORY_RECORD_SAMPLES_DEFAULT = 16;
   private Timer processingTimer;
   private Counter memoryConsumedCounter;
   private Meter inputRecordsMeter;
@@ -73,6 +85,8 @@ public class StagePipe extends Pipe<StagePipe.Context> {
   private final Configuration configuration;
   private final MetricRegistryJson metricRegistryJson;
   private Map<String, Object> batchMetrics;
+  private SampledMemoryMonitor sampledMemoryMonitor;
+  private int memoryRecordSamples;
   FilterRecordBatch.Predicate[] predicates;
 
   @VisibleForTesting
@@ -184,12 +198,26 @@ public class StagePipe extends Pipe<StagePipe.Context> {
         }
       }
       this.context = pipeContext;
-      if (configuration.get("monitor.memory", false)) {
-        LOG.info("Starting memory collector for {}", getStage().getInfo().getInstanceName());
-        scheduledExecutorService.submit(
-          new MemoryMonitor(memoryConsumedCounter, () -> new MemoryUsageCollector.Builder()
-            .setMemoryUsageCollectorResourceBundle(memoryUsageCollectorResourceBundle)
-            .setStageRuntime(getStage()).build()));
+      if (configuration.get(MONITOR_MEMORY_KEY, false)) {
+        String mode = configuration.get(MONITOR_MEMORY_MODE_KEY, MONITOR_MEMORY_MODE_DEFAULT);
+        LOG.info("Starting {} memory collector for {}", mode, getStage().getInfo().getInstanceName());
+        if (MONITOR_MEMORY_MODE_SAMPLED.equalsIgnoreCase(mode)) {
+          long timeBudget = configuration.get(MONITOR_MEMORY_TIME_BUDGET_KEY, MONITOR_MEMORY_TIME_BUDGET_DEFAULT);
+          memoryRecordSamples = configuration.get(
+              MONITOR_MEMORY_RECORD_SAMPLES_KEY,
+              MONITOR_MEMORY_RECORD_SAMPLES_DEFAULT
+          );
+          sampledMemoryMonitor = new SampledMemoryMonitor(memoryConsumedCounter,
+            () -> new SampledMemoryUsageCollector.Builder()
+              .setTimeBudgetMillis(timeBudget)
+              .setStageRuntime(getStage()).build());
+          scheduledExecutorService.submit(sampledMemoryMonitor);
+        } else {
+          scheduledExecutorService.submit(
+            new MemoryMonitor(memoryConsumedCounter, () -> new MemoryUsageCollector.Builder()
+              .setMemoryUsageCollectorResourceBundle(memoryUsageCollectorResourceBundle)
+              .setStageRuntime(getStage()).build()));
+        }
       }
       createRuntimeStatsGauge(metrics);
 
@@ -302,6 +330,12 @@ public class StagePipe extends Pipe<StagePipe.Context> {
     batchMetrics.put(AggregatorUtil.STAGE_ERROR, stageErrorsCount);
     batchMetrics.put(AggregatorUtil.OUTPUT_RECORDS_PER_LANE, outputRecordsPerLane);
 
+    if (sampledMemoryMonitor != null) {
+      sampledMemoryMonitor.updateBatchEstimate(
+          RecordSizeEstimator.estimate(batchMaker.getStageOutput(), memoryRecordSamples)
+      );
+    }
+
     pipeBatch.completeStage(batchMaker);
 
     // In this is source pipe, update source-specific metrics
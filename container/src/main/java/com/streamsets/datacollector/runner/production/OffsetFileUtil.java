@@ -30,7 +30,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 public class OffsetFileUtil {
@@ -46,14 +48,23 @@ public class OffsetFileUtil {
     return new File(PipelineDirectoryUtil.getPipelineDir(runtimeInfo, pipelineName, rev), OFFSET_FILE);
   }
 
+  /**
+   * Log of offset changes that were not yet folded into the offset file, see {@link OffsetLog}.
+   */
+  public static File getPipelineOffsetLogFile(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
+    return new File(PipelineDirectoryUtil.getPipelineDir(runtimeInfo, pipelineName, rev), OffsetLog.OFFSET_LOG_FILE);
+  }
+
   public static Map<String, String> saveIfEmpty(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
     File pipelineOffsetFile =  getPipelineOffsetFile(runtimeInfo, pipelineName, rev);
     SourceOffset sourceOffset;
     DataStore ds = new DataStore(pipelineOffsetFile);
     try {
       if (ds.exists()) {
-        return readSourceOffsetFromDataStore(ds).getOffsets();
+        return readSourceOffset(ds, getPipelineOffsetLogFile(runtimeInfo, pipelineName, rev)).getOffsets();
       } else {
+        // A log without offset file has nothing to be applied on
+        deleteOffsetLog(runtimeInfo, pipelineName, rev);
         sourceOffset = new SourceOffset(SourceOffset.CURRENT_VERSION, DEFAULT_OFFSET);
         try (OutputStream os = ds.getOutputStream()) {
           ObjectMapperFactory.get().writeValue(os, BeanHelper.wrapSourceOffset(sourceOffset));
@@ -68,6 +79,9 @@ public class OffsetFileUtil {
     return sourceOffset.getOffsets();
   }
 
+  /**
+   * Saves complete offsets of the pipeline, changes recorded in the offset log are dropped once the offsets are saved.
+   */
   public static void saveOffsets(RuntimeInfo runtimeInfo, String pipelineName, String rev, Map<String, String> offset) {
     LOG.debug("Saving offset {} for pipeline {}", offset, pipelineName);
     SourceOffset sourceOffset = new SourceOffset(SourceOffset.CURRENT_VERSION, offset);
@@ -81,10 +95,15 @@ public class OffsetFileUtil {
     } finally {
       dataStore.release();
     }
+    // Deleted only after the offsets are saved, replaying the log again on top of them doesn't change anything
+    deleteOffsetLog(runtimeInfo, pipelineName, rev);
   }
+
   public static void saveSourceOffset(RuntimeInfo runtimeInfo, String pipelineName, String rev, SourceOffset offset) {
     // Assumes that the argument offset confirms to the format on disk. hence just writes it to offset file
     LOG.debug("Saving offset {} for pipeline {}", offset, pipelineName);
+    // The offset log must not be applied on top of the given offset
+    deleteOffsetLog(runtimeInfo, pipelineName, rev);
     DataStore dataStore = new DataStore(OffsetFileUtil.getPipelineOffsetFile(runtimeInfo, pipelineName, rev));
     try (OutputStream os = dataStore.getOutputStream()) {
       ObjectMapperFactory.get().writeValue(os, offset);
@@ -98,6 +117,7 @@ public class OffsetFileUtil {
   }
 
   public static void resetOffsets(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
+    deleteOffsetLog(runtimeInfo, pipelineName, rev);
     saveOffsets(runtimeInfo, pipelineName, rev, DEFAULT_OFFSET);
   }
 
@@ -133,7 +153,7 @@ public class OffsetFileUtil {
         if (pipelineOffsetFile.exists()) {
           DataStore ds = new DataStore(pipelineOffsetFile);
           if (ds.exists()) {
-            return readSourceOffsetFromDataStore(ds);
+            return readSourceOffset(ds, getPipelineOffsetLogFile(runtimeInfo, pipelineName, rev));
           }
         }
 
@@ -147,12 +167,27 @@ public class OffsetFileUtil {
     throw new IllegalStateException(Utils.format("Retrieving offset failed for last attempt {}", retries));
   }
 
-  private static SourceOffset readSourceOffsetFromDataStore(DataStore ds) throws IOException {
+  private static SourceOffset readSourceOffset(DataStore ds, File offsetLogFile) throws IOException {
+    SourceOffset sourceOffset;
     try (InputStream is = ds.getInputStream()) {
       SourceOffsetJson sourceOffsetJson = ObjectMapperFactory.get().readValue(is, SourceOffsetJson.class);
-      SourceOffset sourceOffset = BeanHelper.unwrapSourceOffset(sourceOffsetJson);
+      sourceOffset = BeanHelper.unwrapSourceOffset(sourceOffsetJson);
       SourceOffsetUpgrader.upgrade(sourceOffset);
-      return sourceOffset;
+    }
+    if (offsetLogFile.exists()) {
+      Map<String, String> offsets = new HashMap<>(sourceOffset.getOffsets());
+      OffsetLog.replay(offsetLogFile, offsets);
+      sourceOffset.setOffsets(offsets);
+    }
+    return sourceOffset;
+  }
+
+  private static void deleteOffsetLog(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
+    try {
+      Files.deleteIfExists(getPipelineOffsetLogFile(runtimeInfo, pipelineName, rev).toPath());
+    } catch (IOException e) {
+      LOG.error("Failed to delete offset log for pipeline {}. Reason {}", pipelineName, e.toString(), e);
+      throw new IllegalStateException(e);
     }
   }
 }
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner.production;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of offset changes kept next to the offset file. Every committed offset is appended as a single
+ * entry instead of rewriting the whole offset file, the offset file is the snapshot the log is applied on top of.
+ * The log is folded back into the offset file (compacted) by {@link ProductionSourceOffsetTracker}.
+ *
+ * Entry format: payload length (int), CRC32 of the payload (int) and the payload itself - entity length (int),
+ * entity (UTF-8), offset length (int, -1 for removed entity) and offset (UTF-8). Reading stops at the first entry
+ * that is incomplete or fails the checksum, which is what a crash in the middle of an append leaves behind.
+ */
+class OffsetLog {
+  private static final Logger LOG = LoggerFactory.getLogger(OffsetLog.class);
+
+  static final String OFFSET_LOG_FILE = "offset.log";
+
+  private final File file;
+  private final boolean fsync;
+  private final Object syncLock = new Object();
+  // guarded by this
+  private long appended;
+  private int entries;
+  // guarded by syncLock
+  private long synced;
+
+  OffsetLog(File file, boolean fsync) {
+    this.file = file;
+    this.fsync = fsync;
+  }
+
+  /**
+   * Appends the new offset of the given entity (null offset removes the entity) and returns the sequence number
+   * of the entry, to be passed to {@link #sync(long)}.
+   */
+  synchronized long append(String entity, String offset) throws IOException {
+    byte[] entry = encode(entity, offset);
+    try (OutputStream os = new FileOutputStream(file, true)) {
+      os.write(entry);
+    }
+    entries++;
+    return ++appended;
+  }
+
+  /**
+   * Makes sure that the entry with given sequence number is on disk when fsync is enabled. The entries are synced
+   * together (group commit): a caller that finds its entry already synced by another thread returns right away.
+   */
+  void sync(long sequence) throws IOException {
+    if (!fsync) {
+      return;
+    }
+    synchronized (syncLock) {
+      if (synced >= sequence) {
+        return;
+      }
+      long target;
+      synchronized (this) {
+        target = appended;
+      }
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+        channel.force(false);
+      } catch (NoSuchFileException ex) {
+        // The log was compacted in the meantime, the entries are in the offset file now
+      }
+      synced = target;
+    }
+  }
+
+  /**
+   * Number of entries appended since the log was created or last truncated.
+   */
+  synchronized int size() {
+    return entries;
+  }
+
+  /**
+   * Forgets the entries, needs to be called once they were saved to the offset file.
+   */
+  synchronized void truncate() throws IOException {
+    Files.deleteIfExists(file.toPath());
+    entries = 0;
+  }
+
+  /**
+   * Applies all complete entries of the given log file on the offsets, returns number of applied entries.
+   */
+  static int replay(File file, Map<String, String> offsets) throws IOException {
+    if (!file.exists()) {
+      return 0;
+    }
+    // an entry can't be longer than the log itself, guards against garbage lengths
+    long maxLength = file.length();
+    int count = 0;
+    CRC32 crc = new CRC32();
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      while (true) {
+        byte[] payload;
+        try {
+          int length = in.readInt();
+          int checksum = in.readInt();
+          if (length < 0 || length > maxLength) {
+            LOG.warn("Invalid entry length {} in offset log '{}', ignoring rest of the log", length, file);
+            break;
+          }
+          payload = new byte[length];
+          in.readFully(payload);
+          crc.reset();
+          crc.update(payload, 0, length);
+          if ((int) crc.getValue() != checksum) {
+            LOG.warn("Checksum mismatch in offset log '{}', ignoring rest of the log", file);
+            break;
+          }
+        } catch (EOFException ex) {
+          // End of the log or an incomplete entry from an interrupted append
+          break;
+        }
+        DataInputStream entry = new DataInputStream(new ByteArrayInputStream(payload));
+        String entity = readString(entry);
+        String offset = readString(entry);
+        if (offset == null) {
+          offsets.remove(entity);
+        } else {
+          offsets.put(entity, offset);
+        }
+        count++;
+      }
+    }
+    return count;
+  }
+
+  static byte[] encode(String entity, String offset) throws IOException {
+    ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(payload);
+    writeString(out, entity);
+    writeString(out, offset);
+    out.flush();
+
+    CRC32 crc = new CRC32();
+    crc.update(payload.toByteArray(), 0, payload.size());
+    ByteArrayOutputStream entry = new ByteArrayOutputStream(payload.size() + 8);
+    DataOutputStream entryOut = new DataOutputStream(entry);
+    entryOut.writeInt(payload.size());
+    entryOut.writeInt((int) crc.getValue());
+    payload.writeTo(entryOut);
+    entryOut.flush();
+    return entry.toByteArray();
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
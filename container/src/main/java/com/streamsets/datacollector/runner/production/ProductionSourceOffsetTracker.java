@@ -15,8 +15,10 @@
  */
 package com.streamsets.datacollector.runner.production;
 
+import com.streamsets.datacollector.execution.runner.common.Constants;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.runner.SourceOffsetTracker;
+import com.streamsets.datacollector.util.Configuration;
 
 import com.streamsets.pipeline.api.Source;
 import org.slf4j.Logger;
@@ -24,6 +26,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -37,17 +40,42 @@ public class ProductionSourceOffsetTracker implements SourceOffsetTracker {
   private final String pipelineName;
   private final String rev;
   private final RuntimeInfo runtimeInfo;
+  // null when offsets are saved by rewriting the whole offset file on each commit
+  private final OffsetLog offsetLog;
+  private final int compactionEntries;
+
+  public ProductionSourceOffsetTracker(String pipelineName, String rev, RuntimeInfo runtimeInfo) {
+    this(pipelineName, rev, runtimeInfo, new Configuration());
+  }
 
   @Inject
   public ProductionSourceOffsetTracker(
       @Named("name") String pipelineName,
       @Named("rev") String rev,
-      RuntimeInfo runtimeInfo
+      RuntimeInfo runtimeInfo,
+      Configuration configuration
   ) {
     this.pipelineName = pipelineName;
     this.rev = rev;
     this.runtimeInfo = runtimeInfo;
+    // Includes changes left in the offset log by previous run
     this.offsets = new HashMap<>(getSourceOffset(pipelineName, rev));
+    this.compactionEntries = Math.max(1, configuration.get(
+        Constants.OFFSET_LOG_COMPACTION_ENTRIES_KEY,
+        Constants.OFFSET_LOG_COMPACTION_ENTRIES_DEFAULT
+    ));
+    if (configuration.get(Constants.OFFSET_LOG_ENABLED_KEY, Constants.OFFSET_LOG_ENABLED_DEFAULT)) {
+      offsetLog = new OffsetLog(
+          OffsetFileUtil.getPipelineOffsetLogFile(runtimeInfo, pipelineName, rev),
+          configuration.get(Constants.OFFSET_LOG_FSYNC_KEY, Constants.OFFSET_LOG_FSYNC_DEFAULT)
+      );
+    } else {
+      offsetLog = null;
+    }
+    // Start with empty log, so that next start doesn't have to replay this one
+    if (OffsetFileUtil.getPipelineOffsetLogFile(runtimeInfo, pipelineName, rev).exists()) {
+      compact();
+    }
   }
 
   @Override
@@ -72,6 +100,7 @@ public class ProductionSourceOffsetTracker implements SourceOffsetTracker {
     }
 
     // This object can be called from multiple threads, so we have to synchronize access to the offset map
+    long sequence;
     synchronized (offsets) {
       if (newOffset == null) {
         offsets.remove(entity);
@@ -79,8 +108,46 @@ public class ProductionSourceOffsetTracker implements SourceOffsetTracker {
         offsets.put(entity, newOffset);
       }
 
-      // Finally write new variant of the offset file
+      if (offsetLog == null) {
+        // Finally write new variant of the offset file
+        saveOffset(pipelineName, rev, offsets);
+        return;
+      }
+
+      try {
+        sequence = offsetLog.append(entity, newOffset);
+      } catch (IOException e) {
+        LOG.error("Failed to append offset for entity {}. Reason {}", entity, e.toString(), e);
+        throw new IllegalStateException(e);
+      }
+      if (offsetLog.size() >= compactionEntries) {
+        compact();
+        return;
+      }
+    }
+
+    // Outside of the lock so that commits from other threads can be appended (and synced) meanwhile
+    try {
+      offsetLog.sync(sequence);
+    } catch (IOException e) {
+      LOG.error("Failed to sync offset log. Reason {}", e.toString(), e);
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Saves all offsets to the offset file and empties the offset log.
+   */
+  public void compact() {
+    synchronized (offsets) {
       saveOffset(pipelineName, rev, offsets);
+      if (offsetLog != null) {
+        try {
+          offsetLog.truncate();
+        } catch (IOException e) {
+          throw new IllegalStateException(e);
+        }
+      }
     }
   }
 
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.el;
+
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.ElFunction;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.el.ELEval;
+import com.streamsets.pipeline.api.el.ELEvalException;
+import com.streamsets.pipeline.api.el.ELVars;
+import com.streamsets.pipeline.lib.el.RecordEL;
+import com.streamsets.pipeline.lib.el.StringEL;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestCompiledELEvaluator {
+
+  public static class CountingEl {
+    static int calls = 0;
+
+    @ElFunction(prefix = "count", name = "inc")
+    public static int inc(int value) {
+      calls++;
+      return value + 1;
+    }
+
+    @ElFunction(prefix = "count", name = "fail")
+    public static String fail() {
+      throw new IllegalStateException("Expected failure");
+    }
+  }
+
+  private static final List<String> EXPRESSIONS = Arrays.asList(
+    "plain text",
+    "${1 + 2 * 3}",
+    "${10 / 4}",
+    "${10 mod 3}",
+    "${-5 + 1}",
+    "${not true}",
+    "${empty ''}",
+    "${true and false or true}",
+    "${1 < 2 ? 'yes' : 'no'}",
+    "${CITY}",
+    "${CITY eq 'San Francisco'}",
+    "${location:city()}",
+    "prefix ${location:city()} suffix ${1 + 1}",
+    "${count:inc(41)}",
+    "${count:inc('41') == 42}",
+    "${str:toUpper(record:value('/name'))}",
+    "${str:concat(record:value('/name'), var)}",
+    "${record:value('/list')[1]}",
+    "${record:value('/map')['key']}",
+    "${record:value('/map').key}",
+    "${record:value('/number') > 5 && record:value('/number') < 20}",
+    "${record:exists('/missing') ? record:value('/missing') : 'default'}",
+    "${var}"
+  );
+
+  private ELVars createVariables(ELEval eval) {
+    RecordImpl record = new RecordImpl("stage", "id", null, null);
+    Map<String, Field> map = new HashMap<>();
+    map.put("name", Field.create("sdc"));
+    map.put("number", Field.create(10));
+    map.put("list", Field.create(Arrays.asList(Field.create("a"), Field.create("b"))));
+    map.put("map", Field.create(ImmutableMap.of("key", Field.create("value"))));
+    record.set(Field.create(map));
+
+    ELVars vars = eval.createVariables();
+    vars.addVariable("var", "_suffix");
+    RecordEL.setRecordInContext(vars, record);
+    return vars;
+  }
+
+  @Test
+  public void testSameResultsAsInterpreter() throws Exception {
+    Class<?>[] elClasses = {TestELEvaluator.ValidTestEl.class, CountingEl.class, RecordEL.class, StringEL.class};
+    ELEval interpreted = new ELEvaluator("test", false, new HashMap<>(), elClasses);
+    ELEval compiled = new CompiledELEvaluator("test", false, new HashMap<>(), elClasses);
+
+    for (String expression : EXPRESSIONS) {
+      for (Class<?> type : Arrays.asList(Object.class, String.class)) {
+        Object expected = interpreted.eval(createVariables(interpreted), expression, type);
+        // Evaluate twice to exercise the compiled expression cache
+        Assert.assertEquals(expression, expected, compiled.eval(createVariables(compiled), expression, type));
+        Assert.assertEquals(expression, expected, compiled.eval(createVariables(compiled), expression, type));
+      }
+    }
+  }
+
+  @Test
+  public void testVariableOverridesConstant() throws Exception {
+    ELEval eval = new CompiledELEvaluator("test", false, TestELEvaluator.ValidTestEl.class);
+    ELVars vars = eval.createVariables();
+    Assert.assertEquals("San Francisco", eval.eval(vars, "${CITY}", String.class));
+    vars.addVariable("CITY", "Prague");
+    Assert.assertEquals("Prague", eval.eval(vars, "${CITY}", String.class));
+  }
+
+  @Test
+  public void testFunctionsAreNotFolded() throws Exception {
+    ELEval eval = new CompiledELEvaluator("test", false, CountingEl.class);
+    int before = CountingEl.calls;
+    for (int i = 0; i < 3; i++) {
+      Assert.assertEquals(2, (int) eval.eval(eval.createVariables(), "${count:inc(1)}", Integer.class));
+    }
+    Assert.assertEquals(before + 3, CountingEl.calls);
+  }
+
+  @Test
+  public void testUnknownVariable() throws Exception {
+    ELEval eval = new CompiledELEvaluator("test", false);
+    try {
+      eval.eval(eval.createVariables(), "${unknown}", String.class);
+      Assert.fail();
+    } catch (ELEvalException ex) {
+      Assert.assertTrue(ex.getMessage(), ex.getMessage().contains("unknown"));
+    }
+  }
+
+  @Test
+  public void testUnknownFunctionInBranchNotTaken() throws Exception {
+    ELEval eval = new CompiledELEvaluator("test", false);
+    Assert.assertEquals("ok", eval.eval(eval.createVariables(), "${true ? 'ok' : unknown:f()}", String.class));
+  }
+
+  @Test(expected = ELEvalException.class)
+  public void testUnknownFunction() throws Exception {
+    ELEval eval = new CompiledELEvaluator("test", false);
+    eval.eval(eval.createVariables(), "${unknown:f()}", String.class);
+  }
+
+  @Test
+  public void testFunctionFailure() throws Exception {
+    ELEval eval = new CompiledELEvaluator("test", false, CountingEl.class);
+    try {
+      eval.eval(eval.createVariables(), "${count:fail()}", String.class);
+      Assert.fail();
+    } catch (ELEvalException ex) {
+      Assert.assertTrue(ex.getMessage(), ex.getMessage().contains("Expected failure"));
+    }
+  }
+
+  @Test(expected = ELEvalException.class)
+  public void testParseError() throws Exception {
+    ELEval eval = new CompiledELEvaluator("test", false);
+    eval.eval(eval.createVariables(), "${1 + }", String.class);
+  }
+}
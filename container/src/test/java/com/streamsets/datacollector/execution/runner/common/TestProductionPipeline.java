@@ -88,6 +88,7 @@ public class TestProductionPipeline {
   private MetricRegistry runtimeInfoMetrics;
   private MemoryLimitConfiguration memoryLimit;
   private RuntimeInfo runtimeInfo;
+  private Configuration config;
 
   // Private enum for this testcase to figure out which pipeline should be used for test
   private enum PipelineType {
@@ -118,6 +119,8 @@ public class TestProductionPipeline {
                                   Arrays.asList(getClass().getClassLoader()));
     runtimeInfo.init();
     memoryLimit = new MemoryLimitConfiguration();
+    config = new Configuration();
+    config.set("monitor.memory", true);
     MetricsConfigurator.registerJmxMetrics(runtimeInfoMetrics);
 
     MockStages.setSourceCapture(null);
@@ -395,8 +398,6 @@ public class TestProductionPipeline {
         new SnapshotInfoImpl("user", "SNAPSHOT_NAME", "SNAPSHOT LABEL", PIPELINE_NAME, REVISION,
             System.currentTimeMillis(), false, 0));
     BlockingQueue<Object> productionObserveRequests = new ArrayBlockingQueue<>(100, true /* FIFO */);
-    Configuration config = new Configuration();
-    config.set("monitor.memory", true);
     ProductionPipelineRunner runner = new ProductionPipelineRunner(
       PIPELINE_NAME,
       REVISION,
@@ -634,6 +635,76 @@ public class TestProductionPipeline {
     Assert.assertTrue(rateAchieved.longValue() <= 10);
   }
 
+  private static class PipelinedSource extends BaseSource {
+    final List<String> lastOffsets = Collections.synchronizedList(new ArrayList<>());
+    final int batches;
+    int count = 0;
+
+    PipelinedSource(int batches) {
+      this.batches = batches;
+    }
+
+    @Override
+    public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+      lastOffsets.add(lastSourceOffset);
+      if (count == batches) {
+        throw new StageException(ContainerError.CONTAINER_0001, "Origin called after it finished");
+      }
+      Record record = getContext().createRecord("e" + count);
+      record.set(Field.create(count));
+      batchMaker.addRecord(record);
+      count++;
+      return count == batches ? null : String.valueOf(count);
+    }
+  }
+
+  private static class PipelinedProcessor extends BaseProcessor {
+    final List<Integer> values = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public void process(Batch batch, BatchMaker batchMaker) throws StageException {
+      Iterator<Record> it = batch.getRecords();
+      while (it.hasNext()) {
+        values.add(it.next().get().getValueAsInteger());
+      }
+    }
+  }
+
+  @Test
+  public void testPipelinedPollSource() throws Exception {
+    config.set(Constants.PIPELINED_BATCHES_KEY, 2);
+    PipelinedSource source = new PipelinedSource(10);
+    PipelinedProcessor processor = new PipelinedProcessor();
+    MockStages.setSourceCapture(source);
+    MockStages.setProcessorCapture(processor);
+
+    ProductionPipeline pipeline = createProductionPipeline(DeliveryGuarantee.AT_LEAST_ONCE, false, PipelineType.DEFAULT);
+    pipeline.registerStatusListener(new MyStateListener());
+    pipeline.run();
+
+    // Origin always continues from the offset of the previously produced batch
+    Assert.assertEquals(Arrays.asList("1", "1", "2", "3", "4", "5", "6", "7", "8", "9"), source.lastOffsets);
+    // Batches are processed in the same order in which they were produced
+    Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), processor.values);
+    // And the last (null) offset was committed
+    Assert.assertTrue(pipeline.getCommittedOffsets().isEmpty());
+  }
+
+  @Test(expected = StageException.class)
+  public void testPipelinedPollSourcePropagatesOriginFailure() throws Exception {
+    config.set(Constants.PIPELINED_BATCHES_KEY, 2);
+    MockStages.setSourceCapture(new BaseSource() {
+      @Override
+      public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+        throw new StageException(ContainerError.CONTAINER_0001, "Origin failure");
+      }
+    });
+
+    ProductionPipeline pipeline = createProductionPipeline(DeliveryGuarantee.AT_LEAST_ONCE, false, PipelineType.DEFAULT);
+    pipeline.registerStatusListener(new MyStateListener());
+    pipeline.run();
+  }
+
   private static class ProduceEventOnDestroySource extends BaseSource {
     @Override
     public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
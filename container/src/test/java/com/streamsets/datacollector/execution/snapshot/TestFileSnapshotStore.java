@@ -15,10 +15,19 @@
  */
 package com.streamsets.datacollector.execution.snapshot;
 
+import com.streamsets.datacollector.execution.Snapshot;
 import com.streamsets.datacollector.execution.snapshot.file.FileSnapshotStore;
 import com.streamsets.datacollector.execution.snapshot.file.dagger.FileSnapshotStoreModule;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.main.RuntimeModule;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.datacollector.restapi.bean.SnapshotDataJson;
+import com.streamsets.datacollector.runner.StageOutput;
+import com.streamsets.datacollector.util.PipelineException;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.impl.ErrorMessage;
 
 import org.junit.BeforeClass;
 
@@ -33,6 +42,10 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 public class TestFileSnapshotStore extends TestSnapshotStore {
 
@@ -64,4 +77,68 @@ public class TestFileSnapshotStore extends TestSnapshotStore {
     Assert.assertTrue(snapshotStore instanceof FileSnapshotStore);
   }
 
+  @Test
+  public void testPaging() throws PipelineException {
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      Record record = new RecordImpl("s", "s:" + i, null, null);
+      record.set(Field.create(i));
+      records.add(record);
+    }
+    StageOutput stageOutput = new StageOutput(
+        "source",
+        Collections.singletonMap("lane", records),
+        records.subList(0, 300),
+        Collections.singletonList(new ErrorMessage("E", "error", 1)),
+        Collections.<Record>emptyList()
+    );
+    snapshotStore.create("user", "pipeline", "0", "paging", "label");
+    snapshotStore.save("pipeline", "0", "paging", 1, Collections.singletonList(Collections.singletonList(stageOutput)));
+
+    Snapshot snapshot = snapshotStore.get("pipeline", "0", "paging");
+    // pages starting before, at and after checkpoints
+    for (int offset : new int[] {0, 100, 127, 128, 129, 500, 990, 1000, 2000}) {
+      StageOutput page = snapshot.getStageOutput("source", offset, 20).get(0).get(0);
+      List<Record> lane = page.getOutput().get("lane");
+      Assert.assertEquals(Math.max(0, Math.min(20, 1000 - offset)), lane.size());
+      for (int i = 0; i < lane.size(); i++) {
+        Assert.assertEquals(offset + i, lane.get(i).get().getValueAsInteger());
+      }
+      Assert.assertEquals(Math.max(0, Math.min(20, 300 - offset)), page.getErrorRecords().size());
+      Assert.assertTrue(page.getEventRecords().isEmpty());
+      Assert.assertEquals(1, page.getStageErrors().size());
+      Assert.assertEquals("E", page.getStageErrors().get(0).getErrorCode());
+    }
+  }
+
+  @Test
+  public void testOutputOfBinarySnapshot() throws PipelineException, IOException {
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      Record record = new RecordImpl("s", "s:" + i, null, null);
+      record.set(Field.create("value" + i));
+      records.add(record);
+    }
+    StageOutput stageOutput = new StageOutput("source", Collections.singletonMap("lane", records), null, null, null);
+    snapshotStore.create("user", "pipeline", "0", "output", "label");
+    snapshotStore.save("pipeline", "0", "output", 1, Collections.singletonList(Collections.singletonList(stageOutput)));
+
+    // the second time the already generated JSON is returned
+    for (int i = 0; i < 2; i++) {
+      Snapshot snapshot = snapshotStore.get("pipeline", "0", "output");
+      try (InputStream in = snapshot.getOutput()) {
+        SnapshotDataJson snapshotDataJson = ObjectMapperFactory.get().readValue(in, SnapshotDataJson.class);
+        List<List<StageOutput>> batches = snapshotDataJson.getSnapshotData().getSnapshotBatches();
+        Assert.assertEquals(1, batches.size());
+        StageOutput output = batches.get(0).get(0);
+        Assert.assertEquals("source", output.getInstanceName());
+        List<Record> lane = output.getOutput().get("lane");
+        Assert.assertEquals(200, lane.size());
+        Assert.assertEquals("s:199", lane.get(199).getHeader().getSourceId());
+        Assert.assertEquals("value199", lane.get(199).get().getValueAsString());
+      }
+      snapshot.close();
+    }
+  }
+
 }
@@ -216,6 +216,42 @@ public abstract class TestSnapshotStore {
 
   }
 
+  @Test
+  public void testGetStageOutput() throws PipelineException {
+    snapshotStore.create(USER, PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, SNAPSHOT_LABEL);
+    snapshotStore.save(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, 0, getSnapshotData());
+
+    Snapshot snapshot = snapshotStore.get(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID);
+    List<List<StageOutput>> batches = snapshot.getStageOutput("source", 0, -1);
+    Assert.assertEquals(2, batches.size());
+    for (List<StageOutput> batch : batches) {
+      Assert.assertEquals(1, batch.size());
+      Assert.assertEquals("source", batch.get(0).getInstanceName());
+      List<Record> records = batch.get(0).getOutput().get("lane");
+      Assert.assertEquals(2, records.size());
+      Assert.assertEquals("s:1", records.get(0).getHeader().getSourceId());
+      Assert.assertEquals(1, records.get(0).get().getValueAsInteger());
+      Assert.assertEquals("s:2", records.get(1).getHeader().getSourceId());
+      Assert.assertEquals(2, records.get(1).get().getValueAsInteger());
+    }
+
+    // second record of every lane of every stage
+    batches = snapshot.getStageOutput(null, 1, 1);
+    Assert.assertEquals(2, batches.size());
+    for (List<StageOutput> batch : batches) {
+      Assert.assertEquals(2, batch.size());
+      List<Record> records = batch.get(0).getOutput().get("lane");
+      Assert.assertEquals(1, records.size());
+      Assert.assertEquals("s:2", records.get(0).getHeader().getSourceId());
+      Assert.assertEquals("processor", batch.get(1).getInstanceName());
+      Assert.assertTrue(batch.get(1).getOutput().get("lane").isEmpty());
+    }
+
+    batches = snapshot.getStageOutput("unknown", 0, -1);
+    Assert.assertEquals(2, batches.size());
+    Assert.assertTrue(batches.get(0).isEmpty());
+  }
+
   private List<List<StageOutput>> getSnapshotData() {
     List<List<StageOutput>> snapshotBatches = new ArrayList<>();
     snapshotBatches.add(createSnapshotData());
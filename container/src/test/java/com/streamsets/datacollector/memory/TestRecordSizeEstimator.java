@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.memory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestRecordSizeEstimator {
+
+  private static Record createRecord(String value) {
+    RecordImpl record = new RecordImpl("stage", "id", null, null);
+    Map<String, Field> map = new HashMap<>();
+    map.put("a", Field.create(value));
+    map.put("b", Field.create(1L));
+    map.put("c", Field.create(Field.Type.LIST, ImmutableList.of(Field.create(1), Field.create(2))));
+    record.set(Field.create(map));
+    return record;
+  }
+
+  @Test
+  public void testFieldSizes() {
+    Assert.assertEquals(0, RecordSizeEstimator.estimate((Field) null));
+    long shortString = RecordSizeEstimator.estimate(Field.create("a"));
+    long longString = RecordSizeEstimator.estimate(Field.create("aaaaaaaaaaa"));
+    Assert.assertEquals(20, longString - shortString);
+
+    long smallBytes = RecordSizeEstimator.estimate(Field.create(new byte[10]));
+    long largeBytes = RecordSizeEstimator.estimate(Field.create(new byte[1010]));
+    Assert.assertEquals(1000, largeBytes - smallBytes);
+
+    long map = RecordSizeEstimator.estimate(Field.create(ImmutableMap.of("a", Field.create(1))));
+    long largerMap = RecordSizeEstimator.estimate(Field.create(ImmutableMap.of(
+        "a", Field.create(1),
+        "b", Field.create(ImmutableMap.of("c", Field.create("value")))
+    )));
+    Assert.assertTrue(largerMap > map);
+    Assert.assertTrue(map > RecordSizeEstimator.estimate(Field.create(1)));
+  }
+
+  @Test
+  public void testRecordSize() {
+    long small = RecordSizeEstimator.estimate(createRecord("a"));
+    long large = RecordSizeEstimator.estimate(createRecord(new String(new char[1000])));
+    Assert.assertTrue(small > 0);
+    Assert.assertEquals(2 * 999, large - small);
+
+    Record withAttributes = createRecord("a");
+    withAttributes.getHeader().setAttribute("attribute", "value");
+    Assert.assertTrue(RecordSizeEstimator.estimate(withAttributes) > small);
+  }
+
+  @Test
+  public void testSampling() {
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      records.add(createRecord("value"));
+    }
+    long single = RecordSizeEstimator.estimate(records.get(0));
+    Assert.assertEquals(1000 * single, RecordSizeEstimator.estimate(records, 10));
+    Assert.assertEquals(1000 * single, RecordSizeEstimator.estimate(records, 10000));
+    Assert.assertEquals(0, RecordSizeEstimator.estimate(new ArrayList<Record>(), 10));
+    Assert.assertEquals(0, RecordSizeEstimator.estimate(records, 0));
+
+    Map<String, List<Record>> lanes = ImmutableMap.of("a", records, "b", records.subList(0, 10));
+    Assert.assertEquals(1010 * single, RecordSizeEstimator.estimate(lanes, 10));
+  }
+
+  @Test
+  public void testSharedValueIsNotCopied() {
+    // the record created by the test was handed out, its first clone is a copy that nobody accessed yet
+    RecordImpl record = ((RecordImpl) createRecord("value")).clone();
+    RecordImpl clone = record.clone();
+    Assert.assertEquals(RecordSizeEstimator.estimate(record), RecordSizeEstimator.estimate(clone));
+    Assert.assertSame(record.peekValue(), clone.peekValue());
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.memory;
+
+import com.codahale.metrics.Counter;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+public class TestSampledMemoryUsageCollector {
+
+  @BeforeClass
+  public static void setupClass() throws Exception {
+    TestMemoryUsageCollector.initalizeMemoryUtility();
+  }
+
+  private static SampledMemoryUsageCollector create(Object target, long timeBudget, int maxArraySamples) {
+    return new SampledMemoryUsageCollector.Builder()
+        .setTarget(target, ClassLoader.getSystemClassLoader())
+        .setTraverseClassLoaderClasses(false)
+        .setTimeBudgetMillis(timeBudget)
+        .setMaxArraySamples(maxArraySamples)
+        .build();
+  }
+
+  private static long collectUntilComplete(SampledMemoryUsageCollector collector) {
+    int walks = collector.getCompletedWalks();
+    long estimate = 0;
+    while (collector.getCompletedWalks() == walks) {
+      estimate = collector.collect();
+    }
+    return estimate;
+  }
+
+  @Test
+  public void testSmallObjectsMatchFullCollector() throws Exception {
+    Object[] targets = {new Object(), new int[10], new byte[1024], "a string", new ArrayList<>(), new long[3][3]};
+    for (Object target : targets) {
+      Assert.assertEquals(
+          MemoryUsageCollector.getMemoryUsageOfForTests(target),
+          collectUntilComplete(create(target, 1000, 64))
+      );
+    }
+  }
+
+  @Test
+  public void testArraySampling() throws Exception {
+    List<byte[]> list = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      list.add(new byte[100]);
+    }
+    long exact = MemoryUsageCollector.getMemoryUsageOfForTests(list);
+    long sampled = collectUntilComplete(create(list, 1000, 64));
+    // every element has the same size, the extrapolation is within the rounding of the sample weights
+    Assert.assertTrue("Expected " + sampled + " to be close to " + exact, Math.abs(exact - sampled) < exact / 20);
+  }
+
+  @Test
+  public void testIncrementalWalk() throws Exception {
+    // linked list nodes are not sampled, every one of them has to be visited
+    List<Object> list = new LinkedList<>();
+    for (int i = 0; i < 500000; i++) {
+      list.add(new Object());
+    }
+    long exact = MemoryUsageCollector.getMemoryUsageOfForTests(list);
+    SampledMemoryUsageCollector collector = create(list, 1, 64);
+    int runs = 0;
+    while (collector.getCompletedWalks() == 0) {
+      long partial = collector.collect();
+      Assert.assertTrue(partial <= exact);
+      runs++;
+    }
+    Assert.assertTrue("Expected walk to take several runs, took " + runs, runs > 1);
+    Assert.assertEquals(exact, collector.getEstimate());
+
+    // next walk starts from scratch and keeps the previous estimate until it completes
+    collector.collect();
+    Assert.assertEquals(exact, collector.getEstimate());
+    Assert.assertEquals(exact, collectUntilComplete(collector));
+  }
+
+  @Test
+  public void testMonitorAddsBatchEstimate() throws Exception {
+    Counter counter = new Counter();
+    byte[] retained = new byte[3 * 1000 * 1000];
+    SampledMemoryMonitor monitor = new SampledMemoryMonitor(counter, () -> create(retained, 1000, 64));
+    monitor.run();
+    Assert.assertEquals(3, counter.getCount());
+    monitor.updateBatchEstimate(2 * 1000 * 1000);
+    Assert.assertEquals(5, counter.getCount());
+    monitor.run();
+    Assert.assertEquals(5, counter.getCount());
+    monitor.updateBatchEstimate(0);
+    Assert.assertEquals(3, counter.getCount());
+  }
+}
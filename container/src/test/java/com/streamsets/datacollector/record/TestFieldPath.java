@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.record;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Field;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+public class TestFieldPath {
+
+  @Test
+  public void testCompile() {
+    FieldPath path = FieldPath.compile("/a[1]/'b/c'");
+    Assert.assertEquals("/a[1]/'b/c'", path.getPath());
+    Assert.assertEquals(4, path.size());
+    Assert.assertEquals(PathElement.ROOT, path.getElement(0));
+    Assert.assertEquals("a", path.getElement(1).getName());
+    Assert.assertEquals(1, path.getElement(2).getIndex());
+    Assert.assertEquals("b/c", path.getElement(3).getName());
+    Assert.assertTrue(path.isLiteral());
+    Assert.assertEquals(4, path.getElements().size());
+  }
+
+  @Test
+  public void testCompileIsCached() {
+    Assert.assertSame(FieldPath.compile("/cached"), FieldPath.compile(new String("/cached")));
+    Assert.assertSame(FieldPath.compileExpression("/cached[*]"), FieldPath.compileExpression("/cached[*]"));
+  }
+
+  @Test
+  public void testCompileExpression() {
+    Assert.assertTrue(FieldPath.compileExpression("/a/b").isLiteral());
+    Assert.assertFalse(FieldPath.compileExpression("/a/*").isLiteral());
+    Assert.assertFalse(FieldPath.compileExpression("/a[*]").isLiteral());
+
+    FieldPath expression = FieldPath.compileExpression("/*[${f:type() == 'STRING'}]");
+    Assert.assertFalse(expression.isLiteral());
+    Assert.assertEquals(PathElement.Type.FIELD_EXPRESSION, expression.getElement(2).getType());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCompileInvalid() {
+    FieldPath.compile("a/b");
+  }
+
+  @Test
+  public void testRecordAccess() {
+    RecordImpl record = new RecordImpl("stage", "id", null, null);
+    record.set(Field.create(new LinkedHashMap<>(ImmutableMap.of(
+        "a", Field.create(new ArrayList<>(ImmutableList.of(Field.create(1), Field.create(2))))
+    ))));
+
+    FieldPath first = FieldPath.compile("/a[0]");
+    FieldPath missing = FieldPath.compile("/b/c");
+    Assert.assertTrue(record.has(first));
+    Assert.assertEquals(1, record.get(first).getValueAsInteger());
+    Assert.assertFalse(record.has(missing));
+    Assert.assertNull(record.get(missing));
+
+    Assert.assertEquals(1, record.set(first, Field.create(10)).getValueAsInteger());
+    Assert.assertNull(record.set(FieldPath.compile("/a[2]"), Field.create(3)));
+    Assert.assertEquals(3, record.get("/a[2]").getValueAsInteger());
+    Assert.assertNull(record.set(FieldPath.compile("/b"), Field.create("b")));
+    Assert.assertEquals("b", record.get("/b").getValueAsString());
+
+    Assert.assertEquals(10, record.delete(first).getValueAsInteger());
+    Assert.assertEquals(2, record.get(first).getValueAsInteger());
+    Assert.assertNull(record.delete(missing));
+
+    try {
+      record.set(FieldPath.compile("/x/y"), Field.create("c"));
+      Assert.fail();
+    } catch (IllegalArgumentException ex) {
+      // expected
+    }
+  }
+}
@@ -119,6 +119,78 @@ public class TestRecordImpl {
     Assert.assertNotSame(clone, record);
   }
 
+  @Test
+  public void testCloneIsCopyOnWrite() {
+    Map<String, Field> map = new HashMap<>();
+    map.put("a", Field.create("A"));
+    RecordImpl record = new RecordImpl(new HeaderImpl(), Field.create(map));
+
+    RecordImpl clone = record.clone();
+    Assert.assertTrue(record.isValueShared());
+    Assert.assertTrue(clone.isValueShared());
+
+    // Read only operations don't need own copy of the value
+    Assert.assertTrue(clone.has("/a"));
+    Assert.assertEquals(record, clone);
+    Assert.assertNotNull(clone.getValue());
+    Assert.assertTrue(clone.isValueShared());
+
+    // Changing the clone will not change the original record
+    clone.set("/b", Field.create("B"));
+    Assert.assertFalse(clone.isValueShared());
+    Assert.assertTrue(clone.has("/b"));
+    Assert.assertFalse(record.has("/b"));
+
+    // The original record is the last owner and hence can keep the value
+    Field value = record.get();
+    Assert.assertFalse(record.isValueShared());
+    Assert.assertSame(map, value.getValueAsMap());
+  }
+
+  @Test
+  public void testCloneIsolatedFromChangesToOriginal() {
+    Map<String, Field> map = new HashMap<>();
+    map.put("a", Field.create("A"));
+    RecordImpl record = new RecordImpl(new HeaderImpl(), Field.create(map));
+
+    RecordImpl clone1 = record.clone();
+    RecordImpl clone2 = clone1.clone();
+
+    // Mutating fields handed out by the original record must not be visible in the clones
+    record.get().getValueAsMap().put("b", Field.create("B"));
+    record.delete("/a");
+    Assert.assertTrue(clone1.has("/a"));
+    Assert.assertFalse(clone1.has("/b"));
+    Assert.assertTrue(clone2.has("/a"));
+    Assert.assertFalse(clone2.has("/b"));
+
+    clone1.set(Field.create(1));
+    Assert.assertEquals("A", clone2.get("/a").getValueAsString());
+    Assert.assertEquals(1, clone1.get().getValueAsInteger());
+  }
+
+  @Test
+  public void testCloneIsolatedFromFieldsHandedOutBefore() {
+    RecordImpl record = new RecordImpl("stage", "source", null, null);
+    Map<String, Field> map = new HashMap<>();
+    map.put("a", Field.create("A"));
+    Field root = Field.create(map);
+    record.set(root);
+    Field a = record.get("/a");
+
+    // The stage still holds fields of the record, the clone can't share them
+    RecordImpl clone = record.clone();
+    Assert.assertFalse(clone.isValueShared());
+    root.getValueAsMap().put("b", Field.create("B"));
+    a.setAttribute("attr", "value");
+    Assert.assertFalse(clone.has("/b"));
+    Assert.assertNull(clone.get("/a").getAttribute("attr"));
+
+    // A clone nobody accessed yet can be shared
+    RecordImpl cloneOfClone = record.clone().clone();
+    Assert.assertTrue(cloneOfClone.isValueShared());
+  }
+
   // tests for field-path expressions
 
   @Test
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableList;
+import com.streamsets.datacollector.util.ContainerError;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.api.StageException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+public class TestPipeRunner {
+
+  private ForkJoinPool pool;
+
+  @Before
+  public void setUp() {
+    pool = new ForkJoinPool(4);
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  private static Pipe createPipe(String name, List<String> inputLanes, List<String> outputLanes) {
+    Stage.Info info = Mockito.mock(Stage.Info.class);
+    Mockito.when(info.getInstanceName()).thenReturn(name);
+    StageRuntime stageRuntime = Mockito.mock(StageRuntime.class);
+    Mockito.when(stageRuntime.getInfo()).thenReturn(info);
+    Pipe pipe = Mockito.mock(Pipe.class);
+    Mockito.when(pipe.getStage()).thenReturn(stageRuntime);
+    Mockito.when(pipe.getInputLanes()).thenReturn(inputLanes);
+    Mockito.when(pipe.getOutputLanes()).thenReturn(outputLanes);
+    Mockito.when(pipe.getEventLanes()).thenReturn(Collections.emptyList());
+    return pipe;
+  }
+
+  private static String name(Pipe pipe) {
+    return pipe.getStage().getInfo().getInstanceName();
+  }
+
+  // origin -> (left, right) -> join
+  private static PipeRunner createForkingRunner() {
+    return new PipeRunner("p", "0", 0, new MetricRegistry(), ImmutableList.of(
+        createPipe("origin", ImmutableList.of("o"), ImmutableList.of("l", "r")),
+        createPipe("left", ImmutableList.of("l"), ImmutableList.of("lo")),
+        createPipe("right", ImmutableList.of("r"), ImmutableList.of("ro")),
+        createPipe("join", ImmutableList.of("lo", "ro"), Collections.emptyList())
+    ));
+  }
+
+  @Test
+  public void testBranchesRunConcurrently() throws Exception {
+    PipeRunner runner = createForkingRunner();
+    List<String> processed = new CopyOnWriteArrayList<>();
+    // left and right can only get past the barrier when they run at the same time
+    CyclicBarrier barrier = new CyclicBarrier(2);
+
+    runner.executeBatch("key", "offset", 0, pool, pipe -> {
+      if (name(pipe).equals("left") || name(pipe).equals("right")) {
+        try {
+          barrier.await(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }
+      processed.add(name(pipe));
+    });
+
+    Assert.assertEquals(4, processed.size());
+    Assert.assertEquals("origin", processed.get(0));
+    Assert.assertEquals("join", processed.get(3));
+  }
+
+  @Test
+  public void testSerialWithoutPool() throws Exception {
+    PipeRunner runner = createForkingRunner();
+    List<String> processed = new CopyOnWriteArrayList<>();
+
+    runner.executeBatch("key", "offset", 0, null, pipe -> processed.add(name(pipe)));
+
+    Assert.assertEquals(ImmutableList.of("origin", "left", "right", "join"), processed);
+  }
+
+  @Test
+  public void testLinearPipelineRunsOnCallingThread() throws Exception {
+    PipeRunner runner = new PipeRunner("p", "0", 0, new MetricRegistry(), ImmutableList.of(
+        createPipe("a", ImmutableList.of("o"), ImmutableList.of("a")),
+        createPipe("b", ImmutableList.of("a"), ImmutableList.of("b")),
+        createPipe("c", ImmutableList.of("b"), Collections.emptyList())
+    ));
+    Thread caller = Thread.currentThread();
+    List<String> processed = new CopyOnWriteArrayList<>();
+
+    runner.executeBatch("key", "offset", 0, pool, pipe -> {
+      Assert.assertSame(caller, Thread.currentThread());
+      processed.add(name(pipe));
+    });
+
+    Assert.assertEquals(ImmutableList.of("a", "b", "c"), processed);
+  }
+
+  @Test
+  public void testPipesWithoutInputLanesDoNotFork() throws Exception {
+    PipeRunner runner = new PipeRunner("p", "0", 0, new MetricRegistry(), ImmutableList.of(
+        createPipe("a", ImmutableList.of("o"), ImmutableList.of("a")),
+        createPipe("b", Collections.emptyList(), ImmutableList.of("b")),
+        createPipe("c", Collections.emptyList(), Collections.emptyList())
+    ));
+    Thread caller = Thread.currentThread();
+    List<String> processed = new CopyOnWriteArrayList<>();
+
+    runner.executeBatch("key", "offset", 0, pool, pipe -> {
+      Assert.assertSame(caller, Thread.currentThread());
+      processed.add(name(pipe));
+    });
+
+    Assert.assertEquals(ImmutableList.of("a", "b", "c"), processed);
+  }
+
+  @Test
+  public void testFailureStopsDependents() throws Exception {
+    PipeRunner runner = createForkingRunner();
+    List<String> processed = new CopyOnWriteArrayList<>();
+
+    try {
+      runner.executeBatch("key", "offset", 0, pool, pipe -> {
+        if (name(pipe).equals("left")) {
+          throw new StageException(ContainerError.CONTAINER_0001, "left failed");
+        }
+        processed.add(name(pipe));
+      });
+      Assert.fail("Expected StageException");
+    } catch (StageException e) {
+      Assert.assertEquals(ContainerError.CONTAINER_0001, e.getErrorCode());
+    }
+
+    Assert.assertTrue(processed.contains("origin"));
+    Assert.assertFalse(processed.contains("join"));
+  }
+}
@@ -17,11 +17,22 @@ package com.streamsets.datacollector.runner;
 
 import com.codahale.metrics.ExponentiallyDecayingReservoir;
 import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
 import com.google.common.collect.ImmutableList;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public class TestRunnerPool {
 
   private RunnerPool<String> runnerPool;
@@ -48,4 +59,99 @@ public class TestRunnerPool {
     runnerPool.destroy();
     runnerPool.getRunner();
   }
+
+  @Test
+  public void testRunnerAffinity() throws Exception {
+    String runner = runnerPool.getRunner();
+    runnerPool.returnRunner(runner);
+
+    // Same thread gets the same runner back as long as it's available
+    for (int i = 0; i < 10; i++) {
+      String next = runnerPool.getRunner();
+      Assert.assertEquals(runner, next);
+      runnerPool.returnRunner(next);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testReturnUnknownRunner() throws Exception {
+    runnerPool.returnRunner("c");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testReturnRunnerTwice() throws Exception {
+    String runner = runnerPool.getRunner();
+    runnerPool.returnRunner(runner);
+    runnerPool.returnRunner(runner);
+  }
+
+  @Test
+  public void testWaitTimer() throws Exception {
+    Timer waitTimer = new Timer();
+    RuntimeStats runtimeStats = new RuntimeStats();
+    RunnerPool<String> pool = new RunnerPool<>(
+      ImmutableList.of("a"),
+      runtimeStats,
+      new Histogram(new ExponentiallyDecayingReservoir()),
+      waitTimer
+    );
+
+    String runner = pool.getRunner();
+    Assert.assertEquals(0, runtimeStats.getAvailableRunners());
+    Assert.assertEquals(0, waitTimer.getCount());
+
+    CountDownLatch waiting = new CountDownLatch(1);
+    Thread thread = new Thread(() -> {
+      try {
+        waiting.countDown();
+        pool.returnRunner(pool.getRunner());
+      } catch (PipelineRuntimeException e) {
+        throw new RuntimeException(e);
+      }
+    });
+    thread.start();
+    waiting.await();
+    Thread.sleep(50);
+    pool.returnRunner(runner);
+    thread.join();
+
+    Assert.assertEquals(1, waitTimer.getCount());
+    Assert.assertEquals(1, runtimeStats.getAvailableRunners());
+    pool.destroy();
+  }
+
+  @Test
+  public void testConcurrentUse() throws Exception {
+    List<String> runners = ImmutableList.of("a", "b", "c", "d");
+    RunnerPool<String> pool = new RunnerPool<>(
+      runners,
+      new RuntimeStats(),
+      new Histogram(new ExponentiallyDecayingReservoir())
+    );
+    Set<String> inUse = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    AtomicBoolean failed = new AtomicBoolean(false);
+
+    ExecutorService executor = Executors.newFixedThreadPool(16);
+    for (int t = 0; t < 16; t++) {
+      executor.submit(() -> {
+        try {
+          for (int i = 0; i < 1000; i++) {
+            String runner = pool.getRunner();
+            // No runner can be handed out twice at the same time
+            if (!inUse.add(runner)) {
+              failed.set(true);
+            }
+            inUse.remove(runner);
+            pool.returnRunner(runner);
+          }
+        } catch (Exception e) {
+          failed.set(true);
+        }
+      });
+    }
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    Assert.assertFalse(failed.get());
+    pool.destroy();
+  }
 }
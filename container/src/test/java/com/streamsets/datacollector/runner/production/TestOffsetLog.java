@@ -0,0 +1,170 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner.production;
+
+import com.streamsets.datacollector.execution.runner.common.Constants;
+import com.streamsets.datacollector.main.RuntimeInfo;
+import com.streamsets.datacollector.util.Configuration;
+import com.streamsets.datacollector.util.PipelineDirectoryUtil;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class TestOffsetLog {
+  private static final String NAME = "pipeline";
+  private static final String REV = "0";
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private RuntimeInfo runtimeInfo;
+  private File logFile;
+
+  @Before
+  public void setUp() throws Exception {
+    runtimeInfo = Mockito.mock(RuntimeInfo.class);
+    Mockito.when(runtimeInfo.getDataDir()).thenReturn(tempFolder.newFolder().getPath());
+    Files.createDirectories(PipelineDirectoryUtil.getPipelineDir(runtimeInfo, NAME, REV).toPath());
+    logFile = OffsetFileUtil.getPipelineOffsetLogFile(runtimeInfo, NAME, REV);
+  }
+
+  @Test
+  public void testAppendAndReplay() throws Exception {
+    OffsetLog log = new OffsetLog(logFile, true);
+    log.sync(log.append("a", "1"));
+    log.sync(log.append("b", "2"));
+    log.sync(log.append("a", "3"));
+    log.sync(log.append("b", null));
+    Assert.assertEquals(4, log.size());
+
+    Map<String, String> offsets = new HashMap<>();
+    offsets.put("c", "snapshot");
+    Assert.assertEquals(4, OffsetLog.replay(logFile, offsets));
+    Assert.assertEquals(2, offsets.size());
+    Assert.assertEquals("3", offsets.get("a"));
+    Assert.assertEquals("snapshot", offsets.get("c"));
+
+    log.truncate();
+    Assert.assertFalse(logFile.exists());
+    Assert.assertEquals(0, log.size());
+  }
+
+  @Test
+  public void testReplayStopsAtTornEntry() throws Exception {
+    OffsetLog log = new OffsetLog(logFile, false);
+    log.append("a", "1");
+    byte[] entry = OffsetLog.encode("a", "2");
+    try (OutputStream os = new FileOutputStream(logFile, true)) {
+      os.write(entry, 0, entry.length - 1);
+    }
+
+    Map<String, String> offsets = new HashMap<>();
+    Assert.assertEquals(1, OffsetLog.replay(logFile, offsets));
+    Assert.assertEquals("1", offsets.get("a"));
+  }
+
+  @Test
+  public void testReplayStopsAtCorruptedEntry() throws Exception {
+    OffsetLog log = new OffsetLog(logFile, false);
+    log.append("a", "1");
+    byte[] entry = OffsetLog.encode("a", "2");
+    entry[entry.length - 1]++;
+    try (OutputStream os = new FileOutputStream(logFile, true)) {
+      os.write(entry);
+    }
+    log.append("a", "3");
+
+    Map<String, String> offsets = new HashMap<>();
+    Assert.assertEquals(1, OffsetLog.replay(logFile, offsets));
+    Assert.assertEquals("1", offsets.get("a"));
+  }
+
+  @Test
+  public void testTrackerRecoversFromLog() throws Exception {
+    OffsetFileUtil.saveOffsets(runtimeInfo, NAME, REV, Collections.singletonMap("old", "0"));
+
+    ProductionSourceOffsetTracker tracker = new ProductionSourceOffsetTracker(NAME, REV, runtimeInfo);
+    tracker.commitOffset("a", "1");
+    tracker.commitOffset("old", null);
+    Assert.assertTrue(logFile.exists());
+
+    // Readers see the logged changes before they are compacted
+    Map<String, String> offsets = OffsetFileUtil.getOffsets(runtimeInfo, NAME, REV);
+    Assert.assertEquals(1, offsets.size());
+    Assert.assertEquals("1", offsets.get("a"));
+
+    // Simulates crash, next start applies the log and compacts it
+    tracker = new ProductionSourceOffsetTracker(NAME, REV, runtimeInfo);
+    Assert.assertEquals(offsets, tracker.getOffsets());
+    Assert.assertFalse(logFile.exists());
+    Assert.assertEquals(offsets, OffsetFileUtil.getOffsets(runtimeInfo, NAME, REV));
+  }
+
+  @Test
+  public void testCompaction() throws Exception {
+    Configuration configuration = new Configuration();
+    configuration.set(Constants.OFFSET_LOG_COMPACTION_ENTRIES_KEY, 3);
+    configuration.set(Constants.OFFSET_LOG_FSYNC_KEY, true);
+    ProductionSourceOffsetTracker tracker = new ProductionSourceOffsetTracker(NAME, REV, runtimeInfo, configuration);
+
+    tracker.commitOffset("a", "1");
+    tracker.commitOffset("b", "1");
+    Assert.assertTrue(logFile.exists());
+    tracker.commitOffset("c", "1");
+    Assert.assertFalse(logFile.exists());
+    tracker.commitOffset("a", "2");
+    Assert.assertTrue(logFile.exists());
+
+    tracker.compact();
+    Assert.assertFalse(logFile.exists());
+    Map<String, String> offsets = OffsetFileUtil.getOffsets(runtimeInfo, NAME, REV);
+    Assert.assertEquals(3, offsets.size());
+    Assert.assertEquals("2", offsets.get("a"));
+  }
+
+  @Test
+  public void testLogDisabled() throws Exception {
+    Configuration configuration = new Configuration();
+    configuration.set(Constants.OFFSET_LOG_ENABLED_KEY, false);
+    ProductionSourceOffsetTracker tracker = new ProductionSourceOffsetTracker(NAME, REV, runtimeInfo, configuration);
+
+    tracker.commitOffset("a", "1");
+    Assert.assertFalse(logFile.exists());
+    Assert.assertEquals("1", OffsetFileUtil.getOffsets(runtimeInfo, NAME, REV).get("a"));
+  }
+
+  @Test
+  public void testResetDropsLog() throws Exception {
+    ProductionSourceOffsetTracker tracker = new ProductionSourceOffsetTracker(NAME, REV, runtimeInfo);
+    tracker.commitOffset("a", "1");
+    Assert.assertTrue(logFile.exists());
+
+    OffsetFileUtil.resetOffsets(runtimeInfo, NAME, REV);
+    Assert.assertFalse(logFile.exists());
+    Assert.assertTrue(OffsetFileUtil.getOffsets(runtimeInfo, NAME, REV).isEmpty());
+  }
+}
@@ -119,6 +119,22 @@ public class TestFieldPathExpressionUtil {
     );
   }
 
+  @Test
+  public void testLiteralFieldPath() throws ELEvalException {
+
+    ELEval eval = new ELEvaluator("testLiteralFieldPath", TimeNowEL.class, RecordEL.class, FieldEL.class);
+    ELVars variables = new ELVariables();
+
+    Record record1 = new RecordImpl("testLiteralFieldPath", "record1", null, null);
+    final MapFieldBuilder builder = MapFieldBuilder.builder();
+    builder.startMap("first").add("first_1", 1).end();
+    record1.set(builder.build());
+
+    assertExpressionMatches("/first/first_1", eval, variables, record1, "/first/first_1");
+    assertExpressionMatches("/first/missing", eval, variables, record1);
+    assertExpressionMatches("/missing", eval, variables, record1);
+  }
+
   private static void assertExpressionMatches(
       String expression,
       ELEval eval,
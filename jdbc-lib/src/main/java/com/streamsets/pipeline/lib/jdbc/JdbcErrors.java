@@ -112,6 +112,10 @@ public enum JdbcErrors implements ErrorCode {
   JDBC_86("Redo log files for the current session window are no longer available"),
   JDBC_87("Interrupted while waiting to read data"),
   JDBC_88("'{}' is not a valid decimal number"),
+  JDBC_89("Batch lookups require a Lookup Key Column"),
+  JDBC_90("Lookup Key Column '{}' is missing or null in the results of query '{}'"),
+  JDBC_91("Max Keys per Query must be greater than zero: {}"),
+  JDBC_92("Number of Write Threads ({}) must be between 1 and the Maximum Pool Size ({})"),
 
   JDBC_100("Could not enable partitioning for table {}: {}"),
   JDBC_101("Invalid partition size for table {}: {}"),
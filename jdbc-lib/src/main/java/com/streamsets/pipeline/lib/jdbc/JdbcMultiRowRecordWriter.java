@@ -17,10 +17,13 @@ package com.streamsets.pipeline.lib.jdbc;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Charsets;
+import com.google.common.base.Throwables;
 import com.google.common.hash.Funnel;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
@@ -33,11 +36,17 @@ import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import static com.streamsets.pipeline.lib.operation.OperationType.DELETE_CODE;
 import static com.streamsets.pipeline.lib.operation.OperationType.INSERT_CODE;
@@ -55,6 +64,8 @@ public class JdbcMultiRowRecordWriter extends JdbcBaseRecordWriter {
   public static final int UNLIMITED_PARAMETERS = -1;
   private final boolean caseSensitive;
   private int maxPrepStmtParameters;
+  private final int numPartitions;
+  private final ExecutorService executor;
 
   /**
    * Class constructor
@@ -111,12 +122,49 @@ public class JdbcMultiRowRecordWriter extends JdbcBaseRecordWriter {
       List<JdbcFieldColumnMapping> generatedColumnMappings,
       JdbcRecordReader recordReader,
       boolean caseSensitive
+  ) throws StageException {
+    this(connectionString, dataSource, schema, tableName, rollbackOnError, customMappings, maxPrepStmtParameters,
+        defaultOp, unsupportedAction, generatedColumnMappings, recordReader, caseSensitive, 1, null);
+  }
+
+  /**
+   * Class constructor
+   * @param connectionString database connection string
+   * @param dataSource a JDBC {@link DataSource} to get a connection from
+   * @param tableName the name of the table to write to
+   * @param rollbackOnError whether to attempt rollback of failed queries
+   * @param customMappings any custom mappings the user provided
+   * @param maxPrepStmtParameters max number of parameters to include in each INSERT statement
+   * @param defaultOp Default Opertaion
+   * @param unsupportedAction What action to take if operation is invalid
+   * @param generatedColumnMappings mappings from field names to generated column names
+   * @param numPartitions number of partitions, each written on its own connection, a batch is split into
+   * @param executor executor writing the partitions, only used when numPartitions is greater than one
+   * @throws StageException
+   */
+  public JdbcMultiRowRecordWriter(
+      String connectionString,
+      DataSource dataSource,
+      String schema,
+      String tableName,
+      boolean rollbackOnError,
+      List<JdbcFieldColumnParamMapping> customMappings,
+      int maxPrepStmtParameters,
+      JDBCOperationType defaultOp,
+      UnsupportedOperationAction unsupportedAction,
+      List<JdbcFieldColumnMapping> generatedColumnMappings,
+      JdbcRecordReader recordReader,
+      boolean caseSensitive,
+      int numPartitions,
+      ExecutorService executor
   ) throws StageException {
     super(connectionString, dataSource, schema, tableName, rollbackOnError, customMappings,
         defaultOp, unsupportedAction, recordReader, generatedColumnMappings, caseSensitive);
     this.maxPrepStmtParameters = maxPrepStmtParameters == UNLIMITED_PARAMETERS ? Integer.MAX_VALUE :
         maxPrepStmtParameters;
     this.caseSensitive = caseSensitive;
+    this.numPartitions = numPartitions;
+    this.executor = executor;
   }
 
   @Override
@@ -130,7 +178,126 @@ public class JdbcMultiRowRecordWriter extends JdbcBaseRecordWriter {
   @Override
   public List<OnRecordErrorException> writeBatch(Collection<Record> batch) throws StageException {
     final boolean perRecord = false;
-    return write(batch, perRecord);
+    if (numPartitions <= 1 || executor == null || getPrimaryKeyColumns().isEmpty() || batch.size() < 2) {
+      return write(batch, perRecord);
+    }
+    return writeInParallel(batch, perRecord);
+  }
+
+  /**
+   * Splits the batch by primary key and writes every partition on its own connection. Records with the same primary
+   * key always end up in the same partition, so their relative order is preserved. The partitions are committed only
+   * once all of them were written, if any of them failed all of them are rolled back so that the batch can be retried
+   * or sent to error as a whole.
+   */
+  private List<OnRecordErrorException> writeInParallel(
+      Collection<Record> batch,
+      boolean perRecord
+  ) throws StageException {
+    List<Connection> connections = Collections.synchronizedList(new ArrayList<>(numPartitions));
+    List<Future<List<OnRecordErrorException>>> futures = new ArrayList<>(numPartitions);
+    for (List<Record> partition : partitionByPrimaryKey(batch)) {
+      if (!partition.isEmpty()) {
+        futures.add(executor.submit(() -> {
+          Connection connection = getDataSource().getConnection();
+          connections.add(connection);
+          List<OnRecordErrorException> errorRecords = new LinkedList<>();
+          write(connection, partition, perRecord, errorRecords);
+          return errorRecords;
+        }));
+      }
+    }
+
+    try {
+      // Wait for all partitions, even if some of them failed, nothing can be committed before they are done
+      List<OnRecordErrorException> errorRecords = new LinkedList<>();
+      Throwable failure = null;
+      for (Future<List<OnRecordErrorException>> future : futures) {
+        try {
+          errorRecords.addAll(Uninterruptibles.getUninterruptibly(future));
+        } catch (ExecutionException e) {
+          LOG.debug("Failed to write partition", e.getCause());
+          if (failure == null) {
+            failure = e.getCause();
+          }
+        }
+      }
+      if (failure != null) {
+        rollback(connections);
+        Throwables.propagateIfPossible(failure, StageException.class);
+        if (failure instanceof SQLException) {
+          handleSqlException((SQLException) failure);
+        }
+        throw new StageException(JdbcErrors.JDBC_14, failure.toString(), failure);
+      }
+      try {
+        for (Connection connection : connections) {
+          connection.commit();
+        }
+      } catch (SQLException e) {
+        // partitions committed already can't be undone, the rest is rolled back
+        rollback(connections);
+        handleSqlException(e);
+      }
+      return errorRecords;
+    } finally {
+      for (Connection connection : connections) {
+        try {
+          connection.close();
+        } catch (SQLException e) {
+          LOG.debug("Failed to close connection", e);
+        }
+      }
+    }
+  }
+
+  private static void rollback(List<Connection> connections) {
+    for (Connection connection : connections) {
+      try {
+        connection.rollback();
+      } catch (SQLException e) {
+        LOG.warn("Failed to roll back partition: {}", e.toString(), e);
+      }
+    }
+  }
+
+  private List<List<Record>> partitionByPrimaryKey(Collection<Record> batch) {
+    List<List<Record>> partitions = new ArrayList<>(numPartitions);
+    for (int i = 0; i < numPartitions; i++) {
+      partitions.add(new ArrayList<>());
+    }
+    // Invalid operations are reported when the partition is written, here the operation is only needed to find the
+    // primary key fields
+    List<OnRecordErrorException> ignored = new ArrayList<>();
+    for (Record record : batch) {
+      int opCode = recordReader.getOperationFromRecord(record, defaultOp, unsupportedAction, ignored);
+      ignored.clear();
+      partitions.get(opCode > 0 ? Math.floorMod(getPrimaryKeyHash(record, opCode), numPartitions) : 0).add(record);
+    }
+    return partitions;
+  }
+
+  /**
+   * The hash is based on the string representation of the values so that keys that are equal in the database but
+   * were read into different types (e.g. INTEGER and LONG) end up in the same partition.
+   */
+  private int getPrimaryKeyHash(Record record, int opCode) {
+    int hash = 1;
+    for (String key : getPrimaryKeyColumns()) {
+      Field field = record.get(recordReader.getFieldPath(key, getColumnsToFields(), opCode));
+      Object value = field == null ? null : field.getValue();
+      int valueHash;
+      if (value == null) {
+        valueHash = 0;
+      } else if (value instanceof byte[]) {
+        valueHash = Arrays.hashCode((byte[]) value);
+      } else {
+        valueHash = value.toString().hashCode();
+      }
+      hash = 31 * hash + valueHash;
+    }
+    // spread the bits, small consecutive keys would otherwise be distributed poorly
+    return hash * 0x9E3779B9;
   }
 
   /**
@@ -146,12 +313,50 @@ public class JdbcMultiRowRecordWriter extends JdbcBaseRecordWriter {
     Connection connection = null;
     try {
       connection = getDataSource().getConnection();
+      write(connection, batch, perRecord, errorRecords);
+      connection.commit();
+    } catch (SQLException e) {
+      handleSqlException(e);
+    } finally {
+      if (connection != null) {
+        try {
+          connection.commit();
+          connection.close();
+        } catch (SQLException e) {
+          handleSqlException(e);
+        }
+      }
+    }
+    return errorRecords;
+  }
+
+  /**
+   * Writes the records on the given connection without committing them.
+   */
+  private void write(
+      Connection connection,
+      Collection<Record> batch,
+      boolean perRecord,
+      List<OnRecordErrorException> errorRecords
+  ) throws StageException, SQLException {
+    PreparedStatementMap statements = null;
+    try {
       // compute number of rows per batch
       if (getColumnsToParameters().isEmpty()) {
         throw new StageException(JdbcErrors.JDBC_22);
       }
 
-      int maxRowsPerBatch = maxPrepStmtParameters / getColumnsToParameters().size();
+      statements = new PreparedStatementMap(
+          connection,
+          getTableName(),
+          getGeneratedColumnMappings(),
+          getPrimaryKeyColumns(),
+          getPrimaryKeyParams(),
+          PreparedStatementCache.UNLIMITED_CACHE,
+          caseSensitive
+      );
+
+      int maxRowsPerBatch = Math.max(1, maxPrepStmtParameters / getColumnsToParameters().size());
       int prevOpCode = -1;
       HashCode prevColumnHash = null;
       // put all the records with the same operation in a queue to create a multi-row query
@@ -176,7 +381,7 @@ public class JdbcMultiRowRecordWriter extends JdbcBaseRecordWriter {
         }
 
         // Process enqueued records.
-        processQueue(queue, errorRecords, connection, maxRowsPerBatch, prevOpCode, perRecord);
+        processQueue(queue, errorRecords, connection, statements, maxRowsPerBatch, prevOpCode, perRecord);
 
         if (!queue.isEmpty()) {
           throw new IllegalStateException("Queue processed, but was not empty upon completion.");
@@ -189,30 +394,23 @@ public class JdbcMultiRowRecordWriter extends JdbcBaseRecordWriter {
 
 
       // Check if any records are left in queue unprocessed
-      processQueue(queue, errorRecords, connection, maxRowsPerBatch, prevOpCode, perRecord);
-      connection.commit();
-    } catch (SQLException e) {
-      handleSqlException(e);
+      processQueue(queue, errorRecords, connection, statements, maxRowsPerBatch, prevOpCode, perRecord);
     } finally {
-      if (connection != null) {
-        try {
-          connection.commit();
-          connection.close();
-        } catch (SQLException e) {
-          handleSqlException(e);
-        }
+      if (statements != null) {
+        statements.destroy();
       }
     }
-    return errorRecords;
   }
 
   /**
    * Process all records in queue. All records have same operation to same table.
    * Generate a query and set parameters from each record. INSERT and DELETE can be multi-row operation
    * but UPDATE is single-row operation.
-   * If maxStatement
+   * Records are written in chunks of maxRowsPerBatch rows followed by a single statement for the remainder. The
+   * statements are prepared once per write, hence all full chunks share the same statement.
    * @param errorRecords
    * @param connection
+   * @param statements
    * @param maxRowsPerBatch
    * @param opCode
    * @param queue
@@ -223,6 +421,7 @@ public class JdbcMultiRowRecordWriter extends JdbcBaseRecordWriter {
       LinkedList<Record> queue,
       List<OnRecordErrorException> errorRecords,
       Connection connection,
+      PreparedStatementMap statements,
       int maxRowsPerBatch,
       int opCode,
       boolean perRecord
@@ -231,7 +430,6 @@ public class JdbcMultiRowRecordWriter extends JdbcBaseRecordWriter {
       return;
     }
 
-    int rowCount = 0;
     // Assume that columns are all same for the same operation to the same table
     // If some columns are missing in record, the record goes to error.
     SortedMap<String, String> columnsToParameters = recordReader.getColumnsToParameters(
@@ -241,74 +439,32 @@ public class JdbcMultiRowRecordWriter extends JdbcBaseRecordWriter {
         opCode == OperationType.UPDATE_CODE ? getColumnsToFieldNoPK() : getColumnsToFields()
     );
 
-    String query = generateQueryForMultiRow(
-        opCode,
-        columnsToParameters,
-        getPrimaryKeyColumns(),
-        // the next batch will have either the max number of records, or however many are left.
-        Math.min(maxRowsPerBatch, queue.size())
-    );
-
     // Need to store removed records from queue, because we might need to add newly generated columns
     // to records for Jdbc Tee Processor.
     LinkedList<Record> removed = new LinkedList<>();
 
-    try (PreparedStatement statement = JdbcUtil.getPreparedStatement(getGeneratedColumnMappings(), query, connection)) {
-      int paramIdx = 1;
+    try {
       // Start processing records in queue. All records have the same operation to the same table.
       while (!queue.isEmpty()) {
-        Record r = queue.removeFirst();
-        if (opCode != DELETE_CODE) {
-          paramIdx = setParamsToStatement(paramIdx, statement, columnsToParameters, r, connection, opCode);
-        }
-        if (opCode != OperationType.INSERT_CODE) {
-          paramIdx = setPrimaryKeys(paramIdx, r, statement, opCode);
-        }
-        removed.add(r);
-        ++rowCount;
-        if (rowCount == maxRowsPerBatch) {
-          // time to execute the current batch
-          processBatch(removed, errorRecords, statement, connection, perRecord);
-          // reset our counters
-          rowCount = 0;
-          paramIdx = 1;
-          removed.clear();
-        }
-      }
-    } catch (SQLException e) {
-      handleSqlException(e);
-    }
-
-    // Process the rest of the records that are removed from queue but haven't processed yet
-    // this happens when rowCount is still less than maxRowsPerBatch.
-    // This is a bit of an ugly fix as its not very DRY but sufficient until there's a larger
-    // refactoring of this code.
-    if (!removed.isEmpty()) {
-      query = generateQueryForMultiRow(
-          opCode,
-          columnsToParameters,
-          getPrimaryKeyColumns(),
-          removed.size() // always the remainder
-      );
-
-      try (PreparedStatement statement = JdbcUtil.getPreparedStatement(
-          getGeneratedColumnMappings(),
-          query,
-          connection
-      )) {
+        // the next batch will have either the max number of records, or however many are left.
+        int rowCount = Math.min(maxRowsPerBatch, queue.size());
+        PreparedStatement statement = statements.getPreparedStatement(opCode, columnsToParameters, rowCount);
         int paramIdx = 1;
-        for (Record r : removed) {
+        for (int i = 0; i < rowCount; i++) {
+          Record r = queue.removeFirst();
           if (opCode != DELETE_CODE) {
             paramIdx = setParamsToStatement(paramIdx, statement, columnsToParameters, r, connection, opCode);
           }
           if (opCode != OperationType.INSERT_CODE) {
             paramIdx = setPrimaryKeys(paramIdx, r, statement, opCode);
           }
+          removed.add(r);
         }
         processBatch(removed, errorRecords, statement, connection, perRecord);
-      } catch (SQLException e) {
-        handleSqlException(e);
+        removed.clear();
       }
+    } catch (SQLException e) {
+      handleSqlException(e);
     }
   }
 
@@ -21,6 +21,7 @@ import com.streamsets.pipeline.lib.operation.UnsupportedOperationAction;
 import com.zaxxer.hikari.HikariDataSource;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 public final class JdbcRecordReaderWriterFactory {
 
@@ -40,7 +41,9 @@ public final class JdbcRecordReaderWriterFactory {
       JDBCOperationType defaultOperation,
       UnsupportedOperationAction unsupportedAction,
       JdbcRecordReader recordReader,
-      boolean caseSensitive
+      boolean caseSensitive,
+      int writeThreads,
+      ExecutorService writeExecutor
   ) throws StageException {
 
     return createJdbcRecordWriter(
@@ -57,7 +60,9 @@ public final class JdbcRecordReaderWriterFactory {
         defaultOperation,
         unsupportedAction,
         recordReader,
-        caseSensitive
+        caseSensitive,
+        writeThreads,
+        writeExecutor
     );
   }
 
@@ -79,6 +84,45 @@ public final class JdbcRecordReaderWriterFactory {
        boolean caseSensitive
   ) throws StageException {
 
+    return createJdbcRecordWriter(
+        connectionString,
+        dataSource,
+        schema,
+        tableName,
+        customMappings,
+        generatedColumnMappings,
+        rollbackOnError,
+        useMultiRowOp,
+        maxPrepStmtParameters,
+        maxPrepStmtCache,
+        defaultOperation,
+        unsupportedAction,
+        recordReader,
+        caseSensitive,
+        1,
+        null
+    );
+  }
+
+  private static JdbcRecordWriter createJdbcRecordWriter(
+       String connectionString,
+       HikariDataSource dataSource,
+       String schema,
+       String tableName,
+       List<JdbcFieldColumnParamMapping> customMappings,
+       List<JdbcFieldColumnMapping> generatedColumnMappings,
+       boolean rollbackOnError,
+       boolean useMultiRowOp,
+       int maxPrepStmtParameters,
+       int maxPrepStmtCache,
+       JDBCOperationType defaultOperation,
+       UnsupportedOperationAction unsupportedAction,
+       JdbcRecordReader recordReader,
+       boolean caseSensitive,
+       int writeThreads,
+       ExecutorService writeExecutor
+  ) throws StageException {
+
     JdbcRecordWriter recordWriter;
 
     if (useMultiRowOp) {
@@ -94,7 +138,9 @@ public final class JdbcRecordReaderWriterFactory {
           unsupportedAction,
           generatedColumnMappings,
           recordReader,
-          caseSensitive
+          caseSensitive,
+          writeThreads,
+          writeExecutor
       );
     } else {
       recordWriter = new JdbcGenericRecordWriter(
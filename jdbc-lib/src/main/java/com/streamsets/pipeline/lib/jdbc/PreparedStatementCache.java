@@ -44,14 +44,46 @@ public class PreparedStatementCache {
   private final List<String> primaryKeyColumns;
   private final int opCode;
   private final boolean caseSensitive;
+  // Only set for multi-row statements, single-row statements take the primary key parameters from the columns
+  private final List<String> multiRowPrimaryKeyParams;
   public static final int UNLIMITED_CACHE = -1;
 
-  private final LoadingCache<SortedMap<String, String>, PreparedStatement> cacheMap;
+  private final LoadingCache<StatementKey, PreparedStatement> cacheMap;
+
+  /**
+   * Statements are cached per column set and number of rows they were generated for.
+   */
+  private static final class StatementKey {
+    private final SortedMap<String, String> columns;
+    private final int numRecords;
+
+    StatementKey(SortedMap<String, String> columns, int numRecords) {
+      this.columns = columns;
+      this.numRecords = numRecords;
+    }
 
-  class PreparedStatementLoader extends CacheLoader<SortedMap<String, String>, PreparedStatement> {
     @Override
-    public PreparedStatement load(SortedMap<String, String> columns) throws Exception {
-      String query = generateQuery(columns);
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      StatementKey that = (StatementKey) o;
+      return numRecords == that.numRecords && columns.equals(that.columns);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * columns.hashCode() + numRecords;
+    }
+  }
+
+  class PreparedStatementLoader extends CacheLoader<StatementKey, PreparedStatement> {
+    @Override
+    public PreparedStatement load(StatementKey key) throws Exception {
+      String query = generateQuery(key.columns, key.numRecords);
       LOG.debug("Generated query: {}", query);
 
       PreparedStatement statement = JdbcUtil.getPreparedStatement(generatedColumnMappings, query, connection);
@@ -59,9 +91,9 @@ public class PreparedStatementCache {
     }
   }
 
-  class PreparedStatementRemovalListener implements RemovalListener<SortedMap<String, String>, PreparedStatement> {
+  class PreparedStatementRemovalListener implements RemovalListener<StatementKey, PreparedStatement> {
     @Override
-    public void onRemoval(RemovalNotification<SortedMap<String, String>, PreparedStatement> removal) {
+    public void onRemoval(RemovalNotification<StatementKey, PreparedStatement> removal) {
       PreparedStatement stmt = removal.getValue();
       try {
         if (stmt != null){
@@ -80,11 +112,27 @@ public class PreparedStatementCache {
                          int opCode,
                          int maxCacheSize,
                          boolean caseSensitive)
+  {
+    this(connection, tableName, generatedColumnMappings, primaryKeyColumns, null, opCode, maxCacheSize, caseSensitive);
+  }
+
+  /**
+   * Creates a cache of multi-row statements when primaryKeyParams is not null, see {@link #get(SortedMap, int)}.
+   */
+  PreparedStatementCache(Connection connection,
+                         String tableName,
+                         List<JdbcFieldColumnMapping> generatedColumnMappings,
+                         List<String> primaryKeyColumns,
+                         List<String> primaryKeyParams,
+                         int opCode,
+                         int maxCacheSize,
+                         boolean caseSensitive)
   {
     this.connection = connection;
     this.tableName = tableName;
     this.generatedColumnMappings = generatedColumnMappings;
     this.primaryKeyColumns = primaryKeyColumns;
+    this.multiRowPrimaryKeyParams = primaryKeyParams;
     this.opCode = opCode;
     this.caseSensitive = caseSensitive;
 
@@ -98,14 +146,29 @@ public class PreparedStatementCache {
   }
 
   PreparedStatement get(final SortedMap<String, String> columns) throws StageException {
+    return get(columns, 1);
+  }
+
+  /**
+   * Returns statement for the given columns that operates on numRecords rows. Only caches of multi-row statements
+   * support more than one row.
+   */
+  PreparedStatement get(final SortedMap<String, String> columns, int numRecords) throws StageException {
     try {
-      return cacheMap.get(columns);
+      return cacheMap.get(new StatementKey(columns, numRecords));
     } catch (ExecutionException ex) {
       throw new StageException(JdbcErrors.JDBC_14, ex);
     }
   }
 
-  private String generateQuery(final SortedMap<String, String> columns) throws OnRecordErrorException {
+  private String generateQuery(final SortedMap<String, String> columns, int numRecords)
+      throws OnRecordErrorException {
+    if (multiRowPrimaryKeyParams != null) {
+      String query = JdbcUtil.generateQuery(opCode, tableName, primaryKeyColumns, multiRowPrimaryKeyParams, columns, numRecords, caseSensitive, true);
+      LOG.debug("Generated multi-row query:" + query);
+      return query;
+    }
+
     List<String> primaryKeyParams = new LinkedList<>();
     for (String key: primaryKeyColumns) {
       primaryKeyParams.add(columns.get(key));
@@ -39,6 +39,21 @@ final class PreparedStatementMap {
       List<String> primaryKeyColumns,
       int maxPrepStmtCache,
       boolean caseSensitive)
+  {
+    this(connection, tableName, generatedColumnMappings, primaryKeyColumns, null, maxPrepStmtCache, caseSensitive);
+  }
+
+  /**
+   * Map of multi-row statements when primaryKeyParams is not null.
+   */
+  public PreparedStatementMap(
+      Connection connection,
+      String tableName,
+      List<JdbcFieldColumnMapping> generatedColumnMappings,
+      List<String> primaryKeyColumns,
+      List<String> primaryKeyParams,
+      int maxPrepStmtCache,
+      boolean caseSensitive)
   {
     for (JDBCOperationType type: JDBCOperationType.values()) {
       cache.put(type.code, new PreparedStatementCache(
@@ -46,6 +61,7 @@ final class PreparedStatementMap {
           tableName,
           generatedColumnMappings,
           primaryKeyColumns,
+          primaryKeyParams,
           type.code,
           maxPrepStmtCache,
           caseSensitive)
@@ -65,12 +81,20 @@ final class PreparedStatementMap {
   @VisibleForTesting
   PreparedStatement getPreparedStatement(int opCode, SortedMap<String, String> columns)
       throws StageException {
+    return getPreparedStatement(opCode, columns, 1);
+  }
+
+  /**
+   * Same as {@link #getPreparedStatement(int, SortedMap)} for a multi-row statement operating on numRecords rows.
+   */
+  PreparedStatement getPreparedStatement(int opCode, SortedMap<String, String> columns, int numRecords)
+      throws StageException {
     //Cache already has PreparedStatementCache for all opCode.
     if (!cache.containsKey(opCode)){
       // This check has been done earlier, so shouldn't come here.
       throw new StageException(JdbcErrors.JDBC_70, opCode);
     }
-    return cache.get(opCode).get(columns);
+    return cache.get(opCode).get(columns, numRecords);
   }
 
   void destroy(){
@@ -41,7 +41,7 @@ import java.util.List;
 
 @GenerateResourceBundle
 @StageDef(
-    version = 6,
+    version = 7,
     label = "JDBC Producer",
     description = "Insert, update, delete data to a JDBC destination.",
     upgrader = JdbcTargetUpgrader.class,
@@ -163,6 +163,22 @@ public class JdbcDTarget extends DTarget {
   )
   public int maxPrepStmtParameters;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Write Threads",
+      description = "Number of connections a batch is written with in parallel when using multi-row operations. " +
+          "Records are distributed by primary key, so records with the same key are written in order. Every " +
+          "connection commits (or rolls back) its part of the batch independently. Requires a primary key.",
+      dependsOn = "useMultiRowInsert",
+      triggeredByValue = "true",
+      min = 1,
+      displayPosition = 60,
+      group = "JDBC"
+  )
+  public int writeThreads;
+
   @ConfigDef(
       required = false,
       type = ConfigDef.Type.NUMBER,
@@ -202,6 +218,7 @@ public class JdbcDTarget extends DTarget {
         useMultiRowInsert,
         maxPrepStmtParameters,
         maxPrepStmtCache,
+        writeThreads,
         changeLogFormat,
         defaultOperation,
         unsupportedAction,
@@ -18,6 +18,7 @@ package com.streamsets.pipeline.stage.destination.jdbc;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.Target;
@@ -44,6 +45,8 @@ import org.slf4j.LoggerFactory;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -59,6 +62,7 @@ public class JdbcTarget extends BaseTarget {
   private final boolean useMultiRowOp;
   private final int maxPrepStmtParameters;
   private final int maxPrepStmtCache;
+  private final int writeThreads;
 
   private final String schema;
   private final String tableNameTemplate;
@@ -75,6 +79,7 @@ public class JdbcTarget extends BaseTarget {
   private ELVars tableNameVars = null;
 
   private Connection connection = null;
+  private ExecutorService writeExecutor = null;
 
   private JDBCOperationType defaultOperation;
   private UnsupportedOperationAction unsupportedAction;
@@ -95,7 +100,9 @@ public class JdbcTarget extends BaseTarget {
           defaultOperation,
           unsupportedAction,
           JdbcRecordReaderWriterFactory.createRecordReader(changeLogFormat),
-          caseSensitive
+          caseSensitive,
+          writeThreads,
+          writeExecutor
       );
     }
   }
@@ -115,6 +122,38 @@ public class JdbcTarget extends BaseTarget {
       final JDBCOperationType defaultOperation,
       final UnsupportedOperationAction unsupportedAction,
       final HikariPoolConfigBean hikariConfigBean
+  ) {
+    this(
+        schema,
+        tableNameTemplate,
+        customMappings,
+        caseSensitive,
+        rollbackOnError,
+        useMultiRowOp,
+        maxPrepStmtParameters,
+        maxPrepStmtCache,
+        1,
+        changeLogFormat,
+        defaultOperation,
+        unsupportedAction,
+        hikariConfigBean
+    );
+  }
+
+  public JdbcTarget(
+      final String schema,
+      final String tableNameTemplate,
+      final List<JdbcFieldColumnParamMapping> customMappings,
+      final boolean caseSensitive,
+      final boolean rollbackOnError,
+      final boolean useMultiRowOp,
+      int maxPrepStmtParameters,
+      int maxPrepStmtCache,
+      int writeThreads,
+      final ChangeLogFormat changeLogFormat,
+      final JDBCOperationType defaultOperation,
+      final UnsupportedOperationAction unsupportedAction,
+      final HikariPoolConfigBean hikariConfigBean
   ) {
     this.schema = schema;
     this.tableNameTemplate = tableNameTemplate;
@@ -124,6 +163,7 @@ public class JdbcTarget extends BaseTarget {
     this.useMultiRowOp = useMultiRowOp;
     this.maxPrepStmtParameters = maxPrepStmtParameters;
     this.maxPrepStmtCache = maxPrepStmtCache;
+    this.writeThreads = writeThreads;
     this.changeLogFormat = changeLogFormat;
     this.defaultOperation = defaultOperation;
     this.unsupportedAction = unsupportedAction;
@@ -151,6 +191,17 @@ public class JdbcTarget extends BaseTarget {
 
     issues = hikariConfigBean.validateConfigs(context, issues);
 
+    // Write threads are only used by parallel multi-row writes
+    if (useMultiRowOp && (writeThreads < 1 || writeThreads > hikariConfigBean.maximumPoolSize)) {
+      issues.add(context.createConfigIssue(
+          Groups.JDBC.name(),
+          "writeThreads",
+          JdbcErrors.JDBC_92,
+          writeThreads,
+          hikariConfigBean.maximumPoolSize
+      ));
+    }
+
     tableNameVars = getContext().createELVars();
     tableNameEval = context.createELEval(JdbcUtil.TABLE_NAME);
     ELUtils.validateExpression(
@@ -183,6 +234,13 @@ public class JdbcTarget extends BaseTarget {
       }
     }
 
+    if (issues.isEmpty() && useMultiRowOp && writeThreads > 1) {
+      writeExecutor = Executors.newFixedThreadPool(
+          writeThreads,
+          new ThreadFactoryBuilder().setNameFormat("JDBC Producer Writer %d").setDaemon(true).build()
+      );
+    }
+
     return issues;
   }
 
@@ -190,6 +248,10 @@ public class JdbcTarget extends BaseTarget {
   public void destroy() {
     JdbcUtil.closeQuietly(connection);
 
+    if (null != writeExecutor) {
+      writeExecutor.shutdownNow();
+    }
+
     if (null != dataSource) {
       dataSource.close();
     }
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.jdbclookup;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.common.cache.CacheLoader;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.jdbc.DataType;
+import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
+import com.streamsets.pipeline.lib.jdbc.JdbcUtil;
+import com.streamsets.pipeline.lib.jdbc.UnknownTypeAction;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Loader for batch lookups. Instead of running one query per key, all keys that share the same base query are
+ * resolved together by wrapping the base query and restricting it with a parameterized IN list on the key column:
+ *
+ * SELECT * FROM (base query) sdc_lookup WHERE sdc_lookup.key_column IN (?, ?, ...)
+ *
+ * Returned rows are matched back to their keys by comparing normalized key values (numbers regardless of their
+ * scale, strings without the trailing padding of CHAR columns). When some rows can't be matched to any key (e.g. due
+ * to a case insensitive collation), the keys that are left without rows are looked up one by one.
+ */
+public class JdbcBatchLookupLoader extends CacheLoader<JdbcLookupKey, Optional<List<Map<String, Field>>>> {
+  private static final Logger LOG = LoggerFactory.getLogger(JdbcBatchLookupLoader.class);
+  private static final String TABLE_ALIAS = "sdc_lookup";
+
+  private final int maxClobSize;
+  private final int maxBlobSize;
+  private final ErrorRecordHandler errorRecordHandler;
+  private final Map<String, DataType> columnsToTypes;
+  private final DataSource dataSource;
+  private final String keyColumn;
+  private final int maxKeysPerQuery;
+  private final Meter selectMeter;
+  private final Timer selectTimer;
+
+  public JdbcBatchLookupLoader(
+    Stage.Context context,
+    DataSource dataSource,
+    Map<String, DataType> columnsToTypes,
+    int maxClobSize,
+    int maxBlobSize,
+    ErrorRecordHandler errorRecordHandler,
+    String keyColumn,
+    int maxKeysPerQuery
+  ) {
+    this.dataSource = dataSource;
+    this.columnsToTypes = columnsToTypes;
+    this.maxClobSize = maxClobSize;
+    this.maxBlobSize = maxBlobSize;
+    this.errorRecordHandler = errorRecordHandler;
+    this.keyColumn = keyColumn;
+    this.maxKeysPerQuery = maxKeysPerQuery;
+    this.selectMeter = context.createMeter("Select Queries");
+    this.selectTimer = context.createTimer("Select Queries");
+  }
+
+  @Override
+  public Optional<List<Map<String, Field>>> load(JdbcLookupKey key) throws Exception {
+    return loadAll(Collections.singletonList(key)).get(key);
+  }
+
+  @Override
+  public Map<JdbcLookupKey, Optional<List<Map<String, Field>>>> loadAll(
+      Iterable<? extends JdbcLookupKey> keys
+  ) throws Exception {
+    // Group the keys by base query, every group is resolved with as few queries as possible
+    Map<String, List<JdbcLookupKey>> keysByQuery = new LinkedHashMap<>();
+    Map<JdbcLookupKey, Optional<List<Map<String, Field>>>> results = new HashMap<>();
+    for (JdbcLookupKey key : keys) {
+      // Default for every key, replaced below if the database returns any rows for it
+      results.put(key, Optional.empty());
+      // NULL never matches in an IN list, so there is no point in sending it to the database
+      if (key.getKeyValue() != null) {
+        keysByQuery.computeIfAbsent(key.getQuery(), q -> new ArrayList<>()).add(key);
+      }
+    }
+
+    for (Map.Entry<String, List<JdbcLookupKey>> entry : keysByQuery.entrySet()) {
+      for (List<JdbcLookupKey> chunk : Lists.partition(entry.getValue(), maxKeysPerQuery)) {
+        lookupValues(entry.getKey(), chunk, results);
+      }
+    }
+    return results;
+  }
+
+  private String createQuery(String baseQuery, int numKeys) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("SELECT * FROM (").append(baseQuery).append(") ").append(TABLE_ALIAS);
+    sb.append(" WHERE ").append(TABLE_ALIAS).append(".").append(keyColumn).append(" IN (");
+    for (int i = 0; i < numKeys; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append("?");
+    }
+    sb.append(")");
+    return sb.toString();
+  }
+
+  private void lookupValues(
+      String baseQuery,
+      List<JdbcLookupKey> keys,
+      Map<JdbcLookupKey, Optional<List<Map<String, Field>>>> results
+  ) throws StageException {
+    // Several keys might share the same normalized value (e.g. 1 and 1L), all of them get the same rows
+    Map<Object, List<JdbcLookupKey>> keysByValue = new HashMap<>();
+    for (JdbcLookupKey key : keys) {
+      keysByValue.computeIfAbsent(normalize(key.getKeyValue()), k -> new ArrayList<>()).add(key);
+    }
+
+    boolean unmatchedRows = false;
+    Map<Object, List<Map<String, Field>>> lookupItems = new HashMap<>();
+    for (Map<String, Field> fields : executeQuery(baseQuery, keys)) {
+      Field keyField = getKeyField(fields);
+      if (keyField == null || keyField.getValue() == null) {
+        throw new OnRecordErrorException(JdbcErrors.JDBC_90, keyColumn, baseQuery);
+      }
+      Object value = normalize(keyField.getValue());
+      if (keysByValue.containsKey(value)) {
+        lookupItems.computeIfAbsent(value, k -> new ArrayList<>()).add(fields);
+      } else {
+        unmatchedRows = true;
+      }
+    }
+
+    for (Map.Entry<Object, List<JdbcLookupKey>> entry : keysByValue.entrySet()) {
+      List<Map<String, Field>> items = lookupItems.get(entry.getKey());
+      if (items == null && unmatchedRows) {
+        // The database considers the key equal to a value we can't match it with, let it resolve the key alone
+        items = executeQuery(baseQuery, entry.getValue().subList(0, 1));
+        if (items.isEmpty()) {
+          items = null;
+        }
+      }
+      if (items != null) {
+        for (JdbcLookupKey key : entry.getValue()) {
+          results.put(key, Optional.of(items));
+        }
+      }
+    }
+  }
+
+  private List<Map<String, Field>> executeQuery(String baseQuery, List<JdbcLookupKey> keys) throws StageException {
+    String preparedQuery = createQuery(baseQuery, keys.size());
+    LOG.debug("Executing SQL: {} with {} keys", preparedQuery, keys.size());
+
+    List<Map<String, Field>> rows = new ArrayList<>();
+    Timer.Context t = selectTimer.time();
+    try (
+      Connection connection = dataSource.getConnection();
+      PreparedStatement stmt = connection.prepareStatement(preparedQuery)
+    ) {
+      int paramIdx = 1;
+      for (JdbcLookupKey key : keys) {
+        stmt.setObject(paramIdx++, key.getKeyValue());
+      }
+
+      try (ResultSet resultSet = stmt.executeQuery()) {
+        // Stop timer immediately so that we're calculating only query execution time and not the processing time
+        t.stop();
+        t = null;
+
+        int numColumns = resultSet.getMetaData().getColumnCount();
+        while (resultSet.next()) {
+          LinkedHashMap<String, Field> fields = JdbcUtil.resultSetToFields(resultSet,
+            maxClobSize,
+            maxBlobSize,
+            columnsToTypes,
+            errorRecordHandler,
+            UnknownTypeAction.STOP_PIPELINE
+          );
+
+          if (fields.size() != numColumns) {
+            throw new OnRecordErrorException(JdbcErrors.JDBC_35, fields.size(), numColumns);
+          }
+          rows.add(fields);
+        }
+      }
+    } catch (SQLException e) {
+      // Exception executing query
+      LOG.error(JdbcErrors.JDBC_02.getMessage(), preparedQuery, e);
+      throw new OnRecordErrorException(JdbcErrors.JDBC_02, preparedQuery, e.getMessage());
+    } finally {
+      // If the timer wasn't stopped due to exception yet, stop it now
+      if (t != null) {
+        t.stop();
+      }
+      selectMeter.mark();
+    }
+    return rows;
+  }
+
+  /**
+   * Normalizes key values so that the values in the records can be compared with the values returned by the
+   * database: numbers are compared by value regardless of their type and scale and strings without trailing spaces.
+   */
+  private static Object normalize(Object value) {
+    if (value instanceof Field) {
+      value = ((Field) value).getValue();
+    }
+    if (value instanceof Number) {
+      BigDecimal decimal;
+      if (value instanceof BigDecimal) {
+        decimal = (BigDecimal) value;
+      } else if (value instanceof Double || value instanceof Float) {
+        decimal = BigDecimal.valueOf(((Number) value).doubleValue());
+      } else {
+        decimal = new BigDecimal(value.toString());
+      }
+      return decimal.signum() == 0 ? BigDecimal.ZERO : decimal.stripTrailingZeros();
+    }
+    if (value instanceof String) {
+      String string = (String) value;
+      int end = string.length();
+      while (end > 0 && string.charAt(end - 1) == ' ') {
+        end--;
+      }
+      return string.substring(0, end);
+    }
+    return value;
+  }
+
+  private Field getKeyField(Map<String, Field> fields) {
+    Field field = fields.get(keyColumn);
+    if (field == null) {
+      // Databases differ in how they report the case of unquoted identifiers
+      String column = Iterables.find(fields.keySet(), keyColumn::equalsIgnoreCase, null);
+      field = column == null ? null : fields.get(column);
+    }
+    return field;
+  }
+}
@@ -38,7 +38,7 @@ import com.streamsets.pipeline.stage.processor.kv.CacheConfig;
 import java.util.List;
 
 @StageDef(
-    version = 3,
+    version = 4,
     label = "JDBC Lookup",
     description = "Lookup values via JDBC to enrich records.",
     icon = "rdbms.png",
@@ -118,6 +118,59 @@ public class JdbcLookupDProcessor extends DProcessor {
   )
   public int maxBlobSize;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Batch Lookups",
+      description = "Looks up all keys missing in the cache for a batch with a few set-based queries instead of one " +
+          "query per record. The SQL Query must then select the candidate rows without restricting the lookup key.",
+      displayPosition = 60,
+      group = "JDBC"
+  )
+  public boolean batchLookup = false;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.STRING,
+      label = "Lookup Key Column",
+      description = "Column returned by the SQL Query that is matched against the lookup key",
+      displayPosition = 70,
+      group = "JDBC",
+      dependsOn = "batchLookup",
+      triggeredByValue = "true"
+  )
+  public String lookupKeyColumn = "";
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.STRING,
+      label = "Lookup Key",
+      description = "Expression that evaluates to the lookup key of the record",
+      defaultValue = "${record:value('/id')}",
+      elDefs = {StringEL.class, RecordEL.class},
+      evaluation = ConfigDef.Evaluation.EXPLICIT,
+      displayPosition = 80,
+      group = "JDBC",
+      dependsOn = "batchLookup",
+      triggeredByValue = "true"
+  )
+  public String lookupKey = "${record:value('/id')}";
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "500",
+      label = "Max Keys per Query",
+      description = "Maximum number of keys resolved by a single query",
+      min = 1,
+      displayPosition = 90,
+      group = "JDBC",
+      dependsOn = "batchLookup",
+      triggeredByValue = "true"
+  )
+  public int maxKeysPerQuery = 500;
+
   @ConfigDefBean()
   public HikariPoolConfigBean hikariConfigBean;
 
@@ -134,7 +187,11 @@ public class JdbcLookupDProcessor extends DProcessor {
       maxClobSize,
       maxBlobSize,
       hikariConfigBean,
-      cacheConfig
+      cacheConfig,
+      batchLookup,
+      lookupKeyColumn,
+      lookupKey,
+      maxKeysPerQuery
     );
   }
 }
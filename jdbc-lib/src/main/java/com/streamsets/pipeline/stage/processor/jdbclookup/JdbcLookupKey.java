@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.jdbclookup;
+
+import java.util.Objects;
+
+/**
+ * Cache key used for batch lookups: the (already evaluated) base query together with the lookup key value.
+ */
+final class JdbcLookupKey {
+  private final String query;
+  private final Object keyValue;
+
+  JdbcLookupKey(String query, Object keyValue) {
+    this.query = query;
+    this.keyValue = keyValue;
+  }
+
+  String getQuery() {
+    return query;
+  }
+
+  Object getKeyValue() {
+    return keyValue;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    JdbcLookupKey that = (JdbcLookupKey) o;
+    return Objects.equals(query, that.query) && Objects.equals(keyValue, that.keyValue);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(query, keyValue);
+  }
+
+  @Override
+  public String toString() {
+    return query + " [" + keyValue + "]";
+  }
+}
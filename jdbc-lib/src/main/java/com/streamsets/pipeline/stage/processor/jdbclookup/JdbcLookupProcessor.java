@@ -49,7 +49,10 @@ import org.joda.time.format.DateTimeFormatter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -68,9 +71,12 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
   private static final String HIKARI_CONFIG_PREFIX = "hikariConfigBean.";
   private static final String CONNECTION_STRING = HIKARI_CONFIG_PREFIX + "connectionString";
   private static final String COLUMN_MAPPINGS = "columnMappings";
+  private static final String LOOKUP_KEY_COLUMN = "lookupKeyColumn";
+  private static final String MAX_KEYS_PER_QUERY = "maxKeysPerQuery";
   private final CacheConfig cacheConfig;
 
   private ELEval queryEval;
+  private ELEval lookupKeyEval;
 
   private final String query;
   private final List<JdbcFieldColumnMapping> columnMappings;
@@ -78,6 +84,10 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
   private final int maxClobSize;
   private final int maxBlobSize;
   private final HikariPoolConfigBean hikariConfigBean;
+  private final boolean batchLookup;
+  private final String lookupKeyColumn;
+  private final String lookupKey;
+  private final int maxKeysPerQuery;
 
   private ErrorRecordHandler errorRecordHandler;
   private HikariDataSource dataSource = null;
@@ -86,6 +96,7 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
   private Map<String, DataType> columnsToTypes = new HashMap<>();
 
   private LoadingCache<String, Optional<List<Map<String, Field>>>> cache;
+  private LoadingCache<JdbcLookupKey, Optional<List<Map<String, Field>>>> batchCache;
   private Optional<List<Map<String, Field>>> defaultValue;
   private CacheCleaner cacheCleaner;
   private final MissingValuesBehavior missingValuesBehavior;
@@ -98,7 +109,11 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
       int maxClobSize,
       int maxBlobSize,
       HikariPoolConfigBean hikariConfigBean,
-      CacheConfig cacheConfig
+      CacheConfig cacheConfig,
+      boolean batchLookup,
+      String lookupKeyColumn,
+      String lookupKey,
+      int maxKeysPerQuery
   ) {
     this.query = query;
     this.columnMappings = columnMappings;
@@ -108,6 +123,10 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     this.maxBlobSize = maxBlobSize;
     this.hikariConfigBean = hikariConfigBean;
     this.cacheConfig = cacheConfig;
+    this.batchLookup = batchLookup;
+    this.lookupKeyColumn = lookupKeyColumn;
+    this.lookupKey = lookupKey;
+    this.maxKeysPerQuery = maxKeysPerQuery;
   }
 
   /** {@inheritDoc} */
@@ -121,6 +140,16 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
 
     queryEval = getContext().createELEval("query");
 
+    if (batchLookup) {
+      lookupKeyEval = getContext().createELEval("lookupKey");
+      if (StringUtils.isEmpty(lookupKeyColumn)) {
+        issues.add(context.createConfigIssue(Groups.JDBC.name(), LOOKUP_KEY_COLUMN, JdbcErrors.JDBC_89));
+      }
+      if (maxKeysPerQuery < 1) {
+        issues.add(context.createConfigIssue(Groups.JDBC.name(), MAX_KEYS_PER_QUERY, JdbcErrors.JDBC_91, maxKeysPerQuery));
+      }
+    }
+
     issues = hikariConfigBean.validateConfigs(context, issues);
 
     if (issues.isEmpty() && null == dataSource) {
@@ -136,8 +165,13 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     }
 
     if (issues.isEmpty()) {
-      cache = buildCache();
-      cacheCleaner = new CacheCleaner(cache, "JdbcLookupProcessor", 10 * 60 * 1000);
+      if (batchLookup) {
+        batchCache = buildBatchCache();
+        cacheCleaner = new CacheCleaner(batchCache, "JdbcLookupProcessor", 10 * 60 * 1000);
+      } else {
+        cache = buildCache();
+        cacheCleaner = new CacheCleaner(cache, "JdbcLookupProcessor", 10 * 60 * 1000);
+      }
     }
     // If issues is not empty, the UI will inform the user of each configuration issue in the list.
     return issues;
@@ -228,7 +262,78 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
       // No records - take the opportunity to clean up the cache so that we don't hold on to memory indefinitely
       cacheCleaner.periodicCleanUp();
     }
-    super.process(batch, batchMaker);
+    if (batchLookup) {
+      processBatchLookup(batch, batchMaker);
+    } else {
+      super.process(batch, batchMaker);
+    }
+  }
+
+  /**
+   * Evaluates the lookup key of every record in the batch first, resolves all keys that are not cached yet with
+   * a bulk load of the cache and only then enriches the records.
+   */
+  private void processBatchLookup(Batch batch, SingleLaneBatchMaker batchMaker) throws StageException {
+    List<Record> records = new ArrayList<>();
+    List<JdbcLookupKey> keys = new ArrayList<>();
+    ELVars elVars = getContext().createELVars();
+
+    Iterator<Record> it = batch.getRecords();
+    while (it.hasNext()) {
+      Record record = it.next();
+      RecordEL.setRecordInContext(elVars, record);
+      String preparedQuery;
+      try {
+        preparedQuery = queryEval.eval(elVars, query, String.class);
+      } catch (ELEvalException e) {
+        LOG.error(JdbcErrors.JDBC_01.getMessage(), query, e);
+        errorRecordHandler.onError(new OnRecordErrorException(record, JdbcErrors.JDBC_01, query));
+        continue;
+      }
+      try {
+        keys.add(new JdbcLookupKey(preparedQuery, lookupKeyEval.eval(elVars, lookupKey, Object.class)));
+        records.add(record);
+      } catch (ELEvalException e) {
+        LOG.error(JdbcErrors.JDBC_01.getMessage(), lookupKey, e);
+        errorRecordHandler.onError(new OnRecordErrorException(record, JdbcErrors.JDBC_01, lookupKey));
+      }
+    }
+
+    if (records.isEmpty()) {
+      return;
+    }
+
+    Map<JdbcLookupKey, Optional<List<Map<String, Field>>>> values = null;
+    try {
+      // Keys that are not cached yet are resolved together through JdbcBatchLookupLoader.loadAll()
+      values = batchCache.getAll(new LinkedHashSet<>(keys));
+    } catch (ExecutionException e) {
+      if (!(e.getCause() instanceof OnRecordErrorException)) {
+        Throwables.propagateIfPossible(e.getCause(), StageException.class);
+        throw new IllegalStateException(e); // The cache loader shouldn't throw anything that isn't a StageException.
+      }
+      // A single bad key must not fail the whole batch, the keys are looked up one by one instead so that the error
+      // is reported only for the records it belongs to.
+      LOG.warn("Batch lookup failed, looking up the keys one by one: {}", e.getCause().toString());
+    }
+
+    for (int i = 0; i < records.size(); i++) {
+      Record record = records.get(i);
+      JdbcLookupKey key = keys.get(i);
+      try {
+        Optional<List<Map<String, Field>>> value = (values != null) ? values.get(key) : batchCache.get(key);
+        processLookupResult(record, value, key.toString(), batchMaker);
+      } catch (ExecutionException e) {
+        if (!(e.getCause() instanceof OnRecordErrorException)) {
+          Throwables.propagateIfPossible(e.getCause(), StageException.class);
+          throw new IllegalStateException(e); // The cache loader shouldn't throw anything that isn't a StageException.
+        }
+        OnRecordErrorException error = (OnRecordErrorException) e.getCause();
+        errorRecordHandler.onError(new OnRecordErrorException(record, error.getErrorCode(), error.getParams()));
+      } catch (OnRecordErrorException error) { // NOSONAR
+        errorRecordHandler.onError(new OnRecordErrorException(record, error.getErrorCode(), error.getParams()));
+      }
+    }
   }
 
   /** {@inheritDoc} */
@@ -239,40 +344,7 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
       RecordEL.setRecordInContext(elVars, record);
       String preparedQuery = queryEval.eval(elVars, query, String.class);
       Optional<List<Map<String, Field>>> entry = cache.get(preparedQuery);
-
-      if (!entry.isPresent()) {
-        // No results
-        switch (missingValuesBehavior) {
-          case SEND_TO_ERROR:
-            LOG.error(JdbcErrors.JDBC_04.getMessage(), preparedQuery);
-            errorRecordHandler.onError(new OnRecordErrorException(record, JdbcErrors.JDBC_04, preparedQuery));
-            break;
-          case PASS_RECORD_ON:
-            batchMaker.addRecord(record);
-            break;
-          default:
-            throw new IllegalStateException("Unknown missing value behavior: " + missingValuesBehavior);
-        }
-      } else {
-        List<Map<String, Field>> values = entry.get();
-        switch (multipleValuesBehavior) {
-          case FIRST_ONLY:
-            setFieldsInRecord(record, values.get(0));
-            batchMaker.addRecord(record);
-            break;
-          case SPLIT_INTO_MULTIPLE_RECORDS:
-            for(Map<String, Field> lookupItem : values) {
-              Record newRecord = getContext().cloneRecord(record);
-              setFieldsInRecord(newRecord, lookupItem);
-              batchMaker.addRecord(newRecord);
-            }
-            break;
-          default:
-            throw new IllegalStateException("Unknown multiple value behavior: " + multipleValuesBehavior);
-        }
-
-      }
-
+      processLookupResult(record, entry, preparedQuery, batchMaker);
     } catch (ELEvalException e) {
       LOG.error(JdbcErrors.JDBC_01.getMessage(), query, e);
       throw new OnRecordErrorException(record, JdbcErrors.JDBC_01, query);
@@ -284,6 +356,46 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     }
   }
 
+  private void processLookupResult(
+      Record record,
+      Optional<List<Map<String, Field>>> entry,
+      String preparedQuery,
+      SingleLaneBatchMaker batchMaker
+  ) throws StageException {
+    if (!entry.isPresent()) {
+      // No results
+      switch (missingValuesBehavior) {
+        case SEND_TO_ERROR:
+          LOG.error(JdbcErrors.JDBC_04.getMessage(), preparedQuery);
+          errorRecordHandler.onError(new OnRecordErrorException(record, JdbcErrors.JDBC_04, preparedQuery));
+          break;
+        case PASS_RECORD_ON:
+          batchMaker.addRecord(record);
+          break;
+        default:
+          throw new IllegalStateException("Unknown missing value behavior: " + missingValuesBehavior);
+      }
+    } else {
+      List<Map<String, Field>> values = entry.get();
+      switch (multipleValuesBehavior) {
+        case FIRST_ONLY:
+          setFieldsInRecord(record, values.get(0));
+          batchMaker.addRecord(record);
+          break;
+        case SPLIT_INTO_MULTIPLE_RECORDS:
+          for(Map<String, Field> lookupItem : values) {
+            Record newRecord = getContext().cloneRecord(record);
+            setFieldsInRecord(newRecord, lookupItem);
+            batchMaker.addRecord(newRecord);
+          }
+          break;
+        default:
+          throw new IllegalStateException("Unknown multiple value behavior: " + multipleValuesBehavior);
+      }
+
+    }
+  }
+
   private void setFieldsInRecord(Record record, Map<String, Field>fields) {
     for (Map.Entry<String, Field> entry : fields.entrySet()) {
       String columnName = entry.getKey();
@@ -326,4 +438,19 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     );
     return LookupUtils.buildCache(loader, cacheConfig, defaultValue);
   }
+
+  @SuppressWarnings("unchecked")
+  private LoadingCache<JdbcLookupKey, Optional<List<Map<String, Field>>>> buildBatchCache() {
+    JdbcBatchLookupLoader loader = new JdbcBatchLookupLoader(
+      getContext(),
+      dataSource,
+      columnsToTypes,
+      maxClobSize,
+      maxBlobSize,
+      errorRecordHandler,
+      lookupKeyColumn,
+      maxKeysPerQuery
+    );
+    return LookupUtils.buildCache(loader, cacheConfig, defaultValue);
+  }
 }
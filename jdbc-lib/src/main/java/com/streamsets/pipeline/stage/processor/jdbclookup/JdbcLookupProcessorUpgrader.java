@@ -40,9 +40,18 @@ public class JdbcLookupProcessorUpgrader implements StageUpgrader {
     switch (fromVersion) {
       case 1:
         upgradeV1ToV2(configs);
-        break;
+        if (toVersion == 2) {
+          break;
+        }
+        // fall through
       case 2:
         upgradeV2ToV3(configs);
+        if (toVersion == 3) {
+          break;
+        }
+        // fall through
+      case 3:
+        upgradeV3ToV4(configs);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unexpected fromVersion {}", fromVersion));
@@ -62,4 +71,11 @@ public class JdbcLookupProcessorUpgrader implements StageUpgrader {
   private static void upgradeV2ToV3(List<Config> configs) {
     configs.add(new Config("missingValuesBehavior", MissingValuesBehavior.SEND_TO_ERROR));
   }
+
+  private static void upgradeV3ToV4(List<Config> configs) {
+    configs.add(new Config("batchLookup", false));
+    configs.add(new Config("lookupKeyColumn", ""));
+    configs.add(new Config("lookupKey", "${record:value('/id')}"));
+    configs.add(new Config("maxKeysPerQuery", 500));
+  }
 }
@@ -49,6 +49,8 @@ import java.util.Map;
 import java.util.Random;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.assertEquals;
 
@@ -433,6 +435,155 @@ public class TestJdbcMultiRowRecordWriter {
     }
   }
 
+  @Test
+  public void testFullChunksAndRemainder() throws Exception {
+    JdbcRecordWriter writer = new JdbcMultiRowRecordWriter(
+        connectionString,
+        dataSource,
+        "TEST",
+        "TEST_TABLE",
+        false,
+        new ArrayList<>(),
+        40, // 8 rows of 5 columns
+        JDBCOperationType.INSERT,
+        UnsupportedOperationAction.DISCARD,
+        new JdbcRecordReader(),
+        false
+    );
+
+    // written with a statement for 8 rows and one for the remaining 5 rows
+    List<Record> batch = new ArrayList<>();
+    for (int i = 0; i < 13; i++) {
+      batch.add(createRecord(i, i, OperationType.INSERT_CODE));
+    }
+    Assert.assertTrue(writer.writeBatch(batch).isEmpty());
+
+    connection = DriverManager.getConnection(connectionString, username, password);
+    try (Statement statement = connection.createStatement()) {
+      ResultSet rs = statement.executeQuery("SELECT COUNT(*), SUM(F1) FROM TEST.TEST_TABLE");
+      rs.next();
+      assertEquals(13, rs.getInt(1));
+      assertEquals(78, rs.getInt(2));
+    }
+  }
+
+  @Test
+  public void testParallelWrite() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      JdbcRecordWriter writer = new JdbcMultiRowRecordWriter(
+          connectionString,
+          dataSource,
+          "TEST",
+          "TEST_TABLE",
+          false,
+          new ArrayList<>(),
+          JdbcMultiRowRecordWriter.UNLIMITED_PARAMETERS,
+          JDBCOperationType.INSERT,
+          UnsupportedOperationAction.SEND_TO_ERROR,
+          null,
+          new JdbcRecordReader(),
+          false,
+          2,
+          executor
+      );
+
+      // Every key is inserted and then updated, which only works if the records of a key stay in order
+      List<Record> batch = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        batch.add(createRecord(i, i, OperationType.INSERT_CODE));
+      }
+      for (int i = 0; i < 100; i++) {
+        batch.add(createRecord(i, -1, OperationType.UPDATE_CODE));
+      }
+      Record invalid = createRecord(1000, 1000, OperationType.INSERT_CODE);
+      invalid.getHeader().setAttribute(OperationType.SDC_OPERATION_TYPE, "-5");
+      batch.add(invalid);
+
+      List<OnRecordErrorException> errors = writer.writeBatch(batch);
+      assertEquals(1, errors.size());
+      Assert.assertSame(invalid, errors.get(0).getRecord());
+
+      connection = DriverManager.getConnection(connectionString, username, password);
+      try (Statement statement = connection.createStatement()) {
+        ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM TEST.TEST_TABLE WHERE F1 = -1");
+        rs.next();
+        assertEquals(100, rs.getInt(1));
+        rs = statement.executeQuery("SELECT COUNT(*) FROM TEST.TEST_TABLE");
+        rs.next();
+        assertEquals(100, rs.getInt(1));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testParallelWritePartitionFailureRollsBackAll() throws Exception {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("INSERT INTO TEST.TEST_TABLE (P_ID, F1) VALUES (5, 5)");
+    }
+
+    // Like the pools of the stages, the partitions must not auto commit
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl(connectionString);
+    config.setUsername(username);
+    config.setPassword(password);
+    config.setMaximumPoolSize(3);
+    config.setAutoCommit(false);
+    HikariDataSource partitionDataSource = new HikariDataSource(config);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      JdbcRecordWriter writer = new JdbcMultiRowRecordWriter(
+          connectionString,
+          partitionDataSource,
+          "TEST",
+          "TEST_TABLE",
+          false,
+          new ArrayList<>(),
+          JdbcMultiRowRecordWriter.UNLIMITED_PARAMETERS,
+          JDBCOperationType.INSERT,
+          UnsupportedOperationAction.SEND_TO_ERROR,
+          null,
+          new JdbcRecordReader(),
+          false,
+          2,
+          executor
+      );
+
+      // Only the partition of key 5 fails, the other one must not be committed either
+      List<Record> batch = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        batch.add(createRecord(i, i, OperationType.INSERT_CODE));
+      }
+      try {
+        writer.writeBatch(batch);
+        Assert.fail("Expected StageException");
+      } catch (StageException e) {
+        assertEquals(JdbcErrors.JDBC_14, e.getErrorCode());
+      }
+
+      try (Statement statement = connection.createStatement()) {
+        ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM TEST.TEST_TABLE");
+        rs.next();
+        assertEquals(1, rs.getInt(1));
+      }
+    } finally {
+      executor.shutdownNow();
+      partitionDataSource.close();
+    }
+  }
+
+  private Record createRecord(int pk, int f1, int opCode) {
+    Record record = RecordCreator.create();
+    Map<String, Field> fields = new HashMap<>();
+    fields.put("P_ID", Field.create(pk));
+    fields.put("F1", Field.create(f1));
+    record.set(Field.create(fields));
+    record.getHeader().setAttribute(OperationType.SDC_OPERATION_TYPE, String.valueOf(opCode));
+    return record;
+  }
+
   private List<Record> generateRecords(int numRecords) {
     List<Record> records = new ArrayList<>(numRecords);
     for (int i = 0; i < numRecords; i++) {
@@ -626,6 +626,120 @@ public class TestJdbcTarget {
     assertEquals(1, issues.size());
   }
 
+  @Test
+  public void testWriteThreadsExceedPoolSize() throws Exception {
+    List<JdbcFieldColumnParamMapping> fieldMappings = ImmutableList.of(
+        new JdbcFieldColumnParamMapping("[0]", "P_ID"),
+        new JdbcFieldColumnParamMapping("[1]", "FIRST_NAME"),
+        new JdbcFieldColumnParamMapping("[2]", "LAST_NAME"),
+        new JdbcFieldColumnParamMapping("[3]", "TS")
+    );
+
+    Target target = new JdbcTarget(
+        schema,
+        tableName,
+        fieldMappings,
+        caseSensitive,
+        false,
+        true,
+        JdbcMultiRowRecordWriter.UNLIMITED_PARAMETERS,
+        PreparedStatementCache.UNLIMITED_CACHE,
+        4,
+        ChangeLogFormat.NONE,
+        JDBCOperationType.INSERT,
+        UnsupportedOperationAction.DISCARD,
+        createConfigBean(h2ConnectionString, username, password)
+    );
+    TargetRunner targetRunner = new TargetRunner.Builder(JdbcDTarget.class, target).build();
+
+    List<Stage.ConfigIssue> issues = targetRunner.runValidateConfigs();
+    assertEquals(1, issues.size());
+    assertTrue(issues.get(0).toString().contains(JdbcErrors.JDBC_92.name()));
+  }
+
+  @Test
+  public void testWriteThreadsIgnoredWithoutMultiRow() throws Exception {
+    List<JdbcFieldColumnParamMapping> fieldMappings = ImmutableList.of(
+        new JdbcFieldColumnParamMapping("[0]", "P_ID"),
+        new JdbcFieldColumnParamMapping("[1]", "FIRST_NAME"),
+        new JdbcFieldColumnParamMapping("[2]", "LAST_NAME"),
+        new JdbcFieldColumnParamMapping("[3]", "TS")
+    );
+
+    Target target = new JdbcTarget(
+        schema,
+        tableName,
+        fieldMappings,
+        caseSensitive,
+        false,
+        false,
+        JdbcMultiRowRecordWriter.UNLIMITED_PARAMETERS,
+        PreparedStatementCache.UNLIMITED_CACHE,
+        4,
+        ChangeLogFormat.NONE,
+        JDBCOperationType.INSERT,
+        UnsupportedOperationAction.DISCARD,
+        createConfigBean(h2ConnectionString, username, password)
+    );
+    TargetRunner targetRunner = new TargetRunner.Builder(JdbcDTarget.class, target).build();
+
+    List<Stage.ConfigIssue> issues = targetRunner.runValidateConfigs();
+    assertEquals(0, issues.size());
+  }
+
+  @Test
+  public void testParallelWrite() throws Exception {
+    List<JdbcFieldColumnParamMapping> fieldMappings = ImmutableList.of(
+        new JdbcFieldColumnParamMapping("[0]", "P_ID"),
+        new JdbcFieldColumnParamMapping("[1]", "FIRST_NAME"),
+        new JdbcFieldColumnParamMapping("[2]", "LAST_NAME"),
+        new JdbcFieldColumnParamMapping("[3]", "TS")
+    );
+
+    HikariPoolConfigBean configBean = createConfigBean(h2ConnectionString, username, password);
+    configBean.maximumPoolSize = 3;
+    Target target = new JdbcTarget(
+        schema,
+        tableName,
+        fieldMappings,
+        caseSensitive,
+        false,
+        true,
+        JdbcMultiRowRecordWriter.UNLIMITED_PARAMETERS,
+        PreparedStatementCache.UNLIMITED_CACHE,
+        3,
+        ChangeLogFormat.NONE,
+        JDBCOperationType.INSERT,
+        UnsupportedOperationAction.DISCARD,
+        configBean
+    );
+    TargetRunner targetRunner = new TargetRunner.Builder(JdbcDTarget.class, target).build();
+
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      Record record = RecordCreator.create();
+      List<Field> fields = new ArrayList<>();
+      fields.add(Field.create(i));
+      fields.add(Field.create("Adam"));
+      fields.add(Field.create("Kunicki"));
+      fields.add(Field.createDatetime(new Instant().toDate()));
+      record.set(Field.create(fields));
+      records.add(record);
+    }
+
+    targetRunner.runInit();
+    targetRunner.runWrite(records);
+    assertTrue(targetRunner.getErrorRecords().isEmpty());
+    targetRunner.runDestroy();
+
+    connection = DriverManager.getConnection(h2ConnectionString, username, password);
+    try (Statement statement = connection.createStatement()) {
+      ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM TEST.TEST_TABLE");
+      rs.next();
+      assertEquals(50, rs.getInt(1));
+    }
+  }
+
   @Test
   public void testBadCredentials() throws Exception {
     List<JdbcFieldColumnParamMapping> fieldMappings = ImmutableList.of(
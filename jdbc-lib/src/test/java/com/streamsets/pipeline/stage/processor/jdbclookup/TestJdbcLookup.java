@@ -16,6 +16,7 @@
 package com.streamsets.pipeline.stage.processor.jdbclookup;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.streamsets.pipeline.api.ConfigIssue;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.OnRecordError;
@@ -724,4 +725,203 @@ public class TestJdbcLookup {
       processorRunner.runDestroy();
     }
   }
+
+  private Record createIdRecord(Object id) {
+    Record record = RecordCreator.create();
+    LinkedHashMap<String, Field> fields = new LinkedHashMap<>();
+    fields.put("id", id instanceof Integer ? Field.create((Integer) id) : Field.create((String) id));
+    record.set(Field.create(fields));
+    return record;
+  }
+
+  @Test
+  public void testBatchLookup() throws Exception {
+    List<JdbcFieldColumnMapping> columnMappings = ImmutableList.of(
+        new JdbcFieldColumnMapping("FIRST_NAME", "/first_name")
+    );
+
+    JdbcLookupDProcessor processor = createProcessor();
+    processor.cacheConfig.enabled = true;
+
+    ProcessorRunner processorRunner = new ProcessorRunner.Builder(JdbcLookupDProcessor.class, processor)
+        .addConfiguration("query", "SELECT P_ID, FIRST_NAME FROM TEST.TEST_TABLE")
+        .addConfiguration("columnMappings", columnMappings)
+        .addConfiguration("multipleValuesBehavior", MultipleValuesBehavior.FIRST_ONLY)
+        .addConfiguration("missingValuesBehavior", MissingValuesBehavior.PASS_RECORD_ON)
+        .addConfiguration("maxClobSize", 1000)
+        .addConfiguration("maxBlobSize", 1000)
+        .addConfiguration("batchLookup", true)
+        .addConfiguration("lookupKeyColumn", "P_ID")
+        .addConfiguration("lookupKey", "${record:value('/id')}")
+        .addConfiguration("maxKeysPerQuery", 2)
+        .addOutputLane("lane")
+        .build();
+
+    List<Record> records = ImmutableList.of(
+        createIdRecord(1),
+        createIdRecord(2),
+        createIdRecord(1),
+        createIdRecord(42),
+        createIdRecord(4)
+    );
+    processorRunner.runInit();
+    try {
+      List<Record> outputRecords = processorRunner.runProcess(records).getRecords().get("lane");
+      Assert.assertEquals(5, outputRecords.size());
+      Assert.assertEquals("Adam", outputRecords.get(0).get("/first_name").getValueAsString());
+      Assert.assertEquals("Jon", outputRecords.get(1).get("/first_name").getValueAsString());
+      Assert.assertEquals("Adam", outputRecords.get(2).get("/first_name").getValueAsString());
+      Assert.assertNull(outputRecords.get(3).get("/first_name"));
+      Assert.assertEquals("Girish", outputRecords.get(4).get("/first_name").getValueAsString());
+
+      // Second batch is served from the cache
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("UPDATE TEST.TEST_TABLE SET FIRST_NAME = 'Changed' WHERE P_ID = 1");
+      }
+      outputRecords = processorRunner.runProcess(ImmutableList.of(createIdRecord(1))).getRecords().get("lane");
+      Assert.assertEquals("Adam", outputRecords.get(0).get("/first_name").getValueAsString());
+    } finally {
+      processorRunner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testBatchLookupMultipleValues() throws Exception {
+    List<JdbcFieldColumnMapping> columnMappings = ImmutableList.of(new JdbcFieldColumnMapping("P_ID", "/p_id"));
+
+    JdbcLookupDProcessor processor = createProcessor();
+
+    ProcessorRunner processorRunner = new ProcessorRunner.Builder(JdbcLookupDProcessor.class, processor)
+        .addConfiguration("query", "SELECT P_ID, LAST_NAME FROM TEST.TEST_TABLE")
+        .addConfiguration("columnMappings", columnMappings)
+        .addConfiguration("multipleValuesBehavior", MultipleValuesBehavior.SPLIT_INTO_MULTIPLE_RECORDS)
+        .addConfiguration("missingValuesBehavior", MissingValuesBehavior.SEND_TO_ERROR)
+        .addConfiguration("maxClobSize", 1000)
+        .addConfiguration("maxBlobSize", 1000)
+        .addConfiguration("batchLookup", true)
+        .addConfiguration("lookupKeyColumn", "last_name")
+        .addConfiguration("lookupKey", "${record:value('/id')}")
+        .addConfiguration("maxKeysPerQuery", 500)
+        .setOnRecordError(OnRecordError.TO_ERROR)
+        .addOutputLane("lane")
+        .build();
+
+    processorRunner.runInit();
+    try {
+      StageRunner.Output output = processorRunner.runProcess(
+          ImmutableList.of(createIdRecord("Pancha"), createIdRecord("Unknown"))
+      );
+      List<Record> outputRecords = output.getRecords().get("lane");
+      Assert.assertEquals(2, outputRecords.size());
+      Assert.assertEquals(
+          ImmutableSet.of(4, 5),
+          ImmutableSet.of(
+              outputRecords.get(0).get("/p_id").getValueAsInteger(),
+              outputRecords.get(1).get("/p_id").getValueAsInteger()
+          )
+      );
+      Assert.assertEquals(1, processorRunner.getErrorRecords().size());
+    } finally {
+      processorRunner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testBatchLookupMatchesNormalizedKeys() throws Exception {
+    List<JdbcFieldColumnMapping> columnMappings = ImmutableList.of(
+        new JdbcFieldColumnMapping("FIRST_NAME", "/first_name")
+    );
+
+    JdbcLookupDProcessor processor = createProcessor();
+
+    // Key column is returned with a different scale and the last key is a string that the database converts
+    ProcessorRunner processorRunner = new ProcessorRunner.Builder(JdbcLookupDProcessor.class, processor)
+        .addConfiguration("query", "SELECT CAST(P_ID AS DECIMAL(10, 2)) AS P_ID, FIRST_NAME FROM TEST.TEST_TABLE")
+        .addConfiguration("columnMappings", columnMappings)
+        .addConfiguration("multipleValuesBehavior", MultipleValuesBehavior.FIRST_ONLY)
+        .addConfiguration("missingValuesBehavior", MissingValuesBehavior.PASS_RECORD_ON)
+        .addConfiguration("maxClobSize", 1000)
+        .addConfiguration("maxBlobSize", 1000)
+        .addConfiguration("batchLookup", true)
+        .addConfiguration("lookupKeyColumn", "P_ID")
+        .addConfiguration("lookupKey", "${record:value('/id')}")
+        .addConfiguration("maxKeysPerQuery", 500)
+        .addOutputLane("lane")
+        .build();
+
+    processorRunner.runInit();
+    try {
+      List<Record> outputRecords = processorRunner.runProcess(
+          ImmutableList.of(createIdRecord(1), createIdRecord(2), createIdRecord("4.0"))
+      ).getRecords().get("lane");
+      Assert.assertEquals(3, outputRecords.size());
+      Assert.assertEquals("Adam", outputRecords.get(0).get("/first_name").getValueAsString());
+      Assert.assertEquals("Jon", outputRecords.get(1).get("/first_name").getValueAsString());
+      Assert.assertEquals("Girish", outputRecords.get(2).get("/first_name").getValueAsString());
+    } finally {
+      processorRunner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testBatchLookupBadKeyFailsOnlyItsRecord() throws Exception {
+    List<JdbcFieldColumnMapping> columnMappings = ImmutableList.of(
+        new JdbcFieldColumnMapping("FIRST_NAME", "/first_name")
+    );
+
+    JdbcLookupDProcessor processor = createProcessor();
+
+    ProcessorRunner processorRunner = new ProcessorRunner.Builder(JdbcLookupDProcessor.class, processor)
+        .addConfiguration("query", "SELECT P_ID, FIRST_NAME FROM TEST.TEST_TABLE")
+        .addConfiguration("columnMappings", columnMappings)
+        .addConfiguration("multipleValuesBehavior", MultipleValuesBehavior.FIRST_ONLY)
+        .addConfiguration("missingValuesBehavior", MissingValuesBehavior.PASS_RECORD_ON)
+        .addConfiguration("maxClobSize", 1000)
+        .addConfiguration("maxBlobSize", 1000)
+        .addConfiguration("batchLookup", true)
+        .addConfiguration("lookupKeyColumn", "P_ID")
+        .addConfiguration("lookupKey", "${record:value('/id')}")
+        .addConfiguration("maxKeysPerQuery", 500)
+        .setOnRecordError(OnRecordError.TO_ERROR)
+        .addOutputLane("lane")
+        .build();
+
+    processorRunner.runInit();
+    try {
+      StageRunner.Output output = processorRunner.runProcess(
+          ImmutableList.of(createIdRecord(1), createIdRecord("not a number"), createIdRecord(2))
+      );
+      List<Record> outputRecords = output.getRecords().get("lane");
+      Assert.assertEquals(2, outputRecords.size());
+      Assert.assertEquals("Adam", outputRecords.get(0).get("/first_name").getValueAsString());
+      Assert.assertEquals("Jon", outputRecords.get(1).get("/first_name").getValueAsString());
+      Assert.assertEquals(1, processorRunner.getErrorRecords().size());
+      Assert.assertEquals("not a number", processorRunner.getErrorRecords().get(0).get("/id").getValueAsString());
+    } finally {
+      processorRunner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testBatchLookupRequiresKeyColumn() throws Exception {
+    JdbcLookupDProcessor processor = createProcessor();
+
+    ProcessorRunner processorRunner = new ProcessorRunner.Builder(JdbcLookupDProcessor.class, processor)
+        .addConfiguration("query", "SELECT P_ID FROM TEST.TEST_TABLE")
+        .addConfiguration("columnMappings", ImmutableList.of(new JdbcFieldColumnMapping("P_ID", "/p_id")))
+        .addConfiguration("multipleValuesBehavior", MultipleValuesBehavior.FIRST_ONLY)
+        .addConfiguration("missingValuesBehavior", MissingValuesBehavior.PASS_RECORD_ON)
+        .addConfiguration("maxClobSize", 1000)
+        .addConfiguration("maxBlobSize", 1000)
+        .addConfiguration("batchLookup", true)
+        .addConfiguration("lookupKeyColumn", "")
+        .addConfiguration("lookupKey", "${record:value('/id')}")
+        .addConfiguration("maxKeysPerQuery", 500)
+        .addOutputLane("lane")
+        .build();
+
+    List<Stage.ConfigIssue> issues = processorRunner.runValidateConfigs();
+    assertEquals(1, issues.size());
+    Assert.assertTrue(issues.get(0).toString().contains("JDBC_89"));
+  }
 }
@@ -56,4 +56,16 @@ public class TestJdbcLookupUpgrader {
 
     UpgraderTestUtils.assertExists(upgradedConfigs, "missingValuesBehavior", MissingValuesBehavior.SEND_TO_ERROR);
   }
+
+  @Test
+  public void testUpgradeV3toV4() throws StageException {
+    List<Config> configs = new ArrayList<>();
+
+    JdbcLookupProcessorUpgrader upgrader = new JdbcLookupProcessorUpgrader();
+    List<Config> upgradedConfigs = upgrader.upgrade("lib", "stage", "stageInst", 3, 4, configs);
+
+    UpgraderTestUtils.assertExists(upgradedConfigs, "batchLookup", false);
+    UpgraderTestUtils.assertExists(upgradedConfigs, "lookupKeyColumn", "");
+    UpgraderTestUtils.assertExists(upgradedConfigs, "maxKeysPerQuery", 500);
+  }
 }
@@ -29,8 +29,8 @@ import com.streamsets.pipeline.api.el.ELVars;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.config.DataFormat;
 import com.streamsets.pipeline.lib.el.RecordEL;
-import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.RecordSerializer;
 import com.streamsets.pipeline.lib.jms.config.JmsErrors;
 import com.streamsets.pipeline.lib.jms.config.JmsGroups;
 import com.streamsets.pipeline.stage.common.CredentialsConfig;
@@ -51,7 +51,6 @@ import javax.jms.MessageProducer;
 import javax.jms.Session;
 import javax.naming.InitialContext;
 import javax.naming.NameNotFoundException;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
@@ -76,6 +75,8 @@ public class JmsMessageProducerImpl implements JmsMessageProducer {
   private Session session;
   private Destination destination;
   private LoadingCache<String, MessageProducer> messageProducers;
+  private DataGeneratorFactory serializerFactory;
+  private RecordSerializer recordSerializer;
 
   public JmsMessageProducerImpl(
     InitialContext initialContext,
@@ -173,21 +174,24 @@ public class JmsMessageProducerImpl implements JmsMessageProducer {
   @Override
   public int put(Batch batch, DataGeneratorFactory generatorFactory) throws StageException {
     Iterator<Record> records = batch.getRecords();
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    if (recordSerializer == null || serializerFactory != generatorFactory) {
+      recordSerializer = generatorFactory.createRecordSerializer();
+      serializerFactory = generatorFactory;
+    }
 
     int count = 0;
     while (records.hasNext()) {
-      baos.reset();
       Record record = records.next();
 
-      try (DataGenerator generator = generatorFactory.getGenerator(baos)) {
-        generator.write(record);
+      byte[] payload;
+      try {
+        payload = recordSerializer.serialize(record);
       } catch (IOException e) {
         LOG.error("Failed to write Records: {}", e);
         throw new StageException(JmsErrors.JMS_12, e.getMessage(), e);
       }
 
-      handleDelivery(record, baos.toByteArray());
+      handleDelivery(record, payload);
       count++;
     }
 
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.kafka;
+
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.kafka.api.SendCallback;
+import com.streamsets.pipeline.lib.kafka.KafkaErrors;
+import com.streamsets.pipeline.lib.kafka.exception.KafkaConnectionException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Keeps track of the messages sent asynchronously that have not been acknowledged yet and of the batches they
+ * belong to. Sending blocks while there are too many batches or bytes in flight.
+ * <p/>
+ * Messages that failed are kept, with the records they were created from, until the target collects them.
+ * Callbacks run on producer threads, all the state is guarded by this object's monitor.
+ */
+class InFlightMessages {
+
+  /**
+   * Records of a message that could not be sent and why.
+   */
+  static class Failure {
+    private final List<Record> records;
+    private final StageException error;
+
+    Failure(List<Record> records, StageException error) {
+      this.records = records;
+      this.error = error;
+    }
+
+    List<Record> getRecords() {
+      return records;
+    }
+
+    StageException getError() {
+      return error;
+    }
+  }
+
+  private final int maxBatches;
+  private final long maxBytes;
+  private final long timeoutMillis;
+  // batch number -> messages of the batch not acknowledged yet, in batch order
+  private final Map<Long, Integer> pendingPerBatch = new LinkedHashMap<>();
+  private final List<Failure> failures = new ArrayList<>();
+  private long batch;
+  private int messages;
+  private long bytes;
+
+  InFlightMessages(int maxBatches, long maxBytes, long timeoutMillis) {
+    this.maxBatches = maxBatches;
+    this.maxBytes = maxBytes;
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  /**
+   * Starts a new batch, waiting while the maximum number of batches is in flight.
+   */
+  synchronized void startBatch() throws StageException {
+    await(() -> pendingPerBatch.size() < maxBatches);
+    batch++;
+  }
+
+  /**
+   * Registers a message of the current batch, waiting while it does not fit in the bytes in flight (a message is
+   * always let through when nothing is in flight), and returns the callback to send it with.
+   */
+  synchronized SendCallback track(final List<Record> records, final int size) throws StageException {
+    await(() -> bytes == 0 || bytes + size <= maxBytes);
+    final long messageBatch = batch;
+    pendingPerBatch.merge(messageBatch, 1, Integer::sum);
+    messages++;
+    bytes += size;
+    return error -> completed(messageBatch, records, size, error);
+  }
+
+  private synchronized void completed(long messageBatch, List<Record> records, int size, StageException error) {
+    if (pendingPerBatch.merge(messageBatch, -1, Integer::sum) == 0) {
+      pendingPerBatch.remove(messageBatch);
+    }
+    messages--;
+    bytes -= size;
+    if (error != null) {
+      failures.add(new Failure(records, error));
+    }
+    notifyAll();
+  }
+
+  /**
+   * Returns and forgets the messages that failed so far.
+   */
+  synchronized List<Failure> drainFailures() {
+    List<Failure> drained = new ArrayList<>(failures);
+    failures.clear();
+    return drained;
+  }
+
+  /**
+   * Returns true if all the messages sent so far have been acknowledged and none of them failed.
+   */
+  synchronized boolean isAcknowledged() {
+    return messages == 0 && failures.isEmpty();
+  }
+
+  /**
+   * Waits for all the messages sent so far to be acknowledged or to fail.
+   */
+  synchronized void awaitAll() throws StageException {
+    await(() -> messages == 0);
+  }
+
+  synchronized int getBatches() {
+    return pendingPerBatch.size();
+  }
+
+  synchronized int getMessages() {
+    return messages;
+  }
+
+  synchronized long getBytes() {
+    return bytes;
+  }
+
+  // brokers not acknowledging are handled like brokers that can't be reached, the pipeline fails
+  private void await(BooleanSupplier condition) throws StageException {
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    try {
+      while (!condition.getAsBoolean()) {
+        long wait = deadline - System.currentTimeMillis();
+        if (wait <= 0) {
+          throw new KafkaConnectionException(KafkaErrors.KAFKA_75, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis), messages);
+        }
+        wait(wait);
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new KafkaConnectionException(KafkaErrors.KAFKA_75, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis), messages, ex);
+    }
+  }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.kafka;
+
+import com.streamsets.pipeline.api.ConfigDef;
+
+public class KafkaAsyncConfig {
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "4",
+      label = "Max Batches In Flight",
+      description = "Number of batches that can wait for acknowledgements. Offsets are committed once all the " +
+          "batches up to the current one are acknowledged, waiting for them when the limit is reached",
+      displayPosition = 100,
+      group = "#0",
+      min = 1,
+      max = Integer.MAX_VALUE
+  )
+  public int maxInFlightBatches = 4;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "64",
+      label = "Max Data In Flight (MB)",
+      description = "Size of the messages that can wait for acknowledgements, sending more waits for them",
+      displayPosition = 110,
+      group = "#0",
+      min = 1,
+      max = Integer.MAX_VALUE
+  )
+  public int maxInFlightMB = 64;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "300",
+      label = "Acknowledgement Timeout (secs)",
+      description = "Time to wait for in-flight messages to be acknowledged before failing the pipeline",
+      displayPosition = 120,
+      group = "#0",
+      min = 1,
+      max = Integer.MAX_VALUE
+  )
+  public int ackTimeoutSecs = 300;
+
+}
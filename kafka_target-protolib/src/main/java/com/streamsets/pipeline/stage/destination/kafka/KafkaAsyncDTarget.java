@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.kafka;
+
+import com.streamsets.pipeline.api.ConfigDefBean;
+import com.streamsets.pipeline.api.ConfigGroups;
+import com.streamsets.pipeline.api.ExecutionMode;
+import com.streamsets.pipeline.api.GenerateResourceBundle;
+import com.streamsets.pipeline.api.StageDef;
+import com.streamsets.pipeline.api.Target;
+import com.streamsets.pipeline.configurablestage.DTargetOffsetCommitTrigger;
+import com.streamsets.pipeline.kafka.api.KafkaDestinationGroups;
+
+/**
+ * Kafka Producer that does not wait for the messages of a batch to be acknowledged before taking the next batch,
+ * the pipeline offset is committed once they are. It is a separate stage because a pipeline can have only one
+ * stage deciding when offsets are committed.
+ */
+@StageDef(
+  version = 1,
+  label = "Kafka Producer (Asynchronous)",
+  description = "Writes data to Kafka without waiting for each batch to be acknowledged",
+  icon = "kafka.png",
+    execution = {
+        ExecutionMode.STANDALONE,
+        ExecutionMode.CLUSTER_BATCH,
+        ExecutionMode.CLUSTER_YARN_STREAMING,
+        ExecutionMode.CLUSTER_MESOS_STREAMING,
+        ExecutionMode.EDGE
+    },
+  onlineHelpRefUrl ="index.html#datacollector/UserGuide/Destinations/KProducer.html#task_q4d_4yl_zq"
+)
+@ConfigGroups(value = KafkaDestinationGroups.class)
+@GenerateResourceBundle
+public class KafkaAsyncDTarget extends DTargetOffsetCommitTrigger {
+
+  @ConfigDefBean()
+  public KafkaTargetConfig conf;
+
+  @ConfigDefBean()
+  public KafkaAsyncConfig async;
+
+  @Override
+  protected Target createTarget() {
+    return new KafkaTarget(conf, async);
+  }
+}
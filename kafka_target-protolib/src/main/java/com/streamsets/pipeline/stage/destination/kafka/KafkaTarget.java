@@ -16,12 +16,15 @@
 package com.streamsets.pipeline.stage.destination.kafka;
 
 import com.streamsets.pipeline.api.Batch;
+import com.streamsets.pipeline.api.OffsetCommitTrigger;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.base.BaseTarget;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.kafka.api.SdcKafkaProducer;
 import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.lib.generator.RecordSerializer;
+import com.streamsets.pipeline.lib.generator.ReusableByteArrayOutputStream;
 import com.streamsets.pipeline.lib.kafka.KafkaErrors;
 import com.streamsets.pipeline.lib.kafka.exception.KafkaConnectionException;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
@@ -29,26 +32,45 @@ import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
-public class KafkaTarget extends BaseTarget {
+/**
+ * Writes records to Kafka, either waiting for every batch to be written (the default) or, when created with a
+ * {@link KafkaAsyncConfig}, sending batches asynchronously. In the asynchronous mode a batch returns while its
+ * messages are in flight and {@link #commit()} holds back the offset commit until all the messages up to the
+ * current batch are acknowledged, failed messages are handled at the next batch.
+ */
+public class KafkaTarget extends BaseTarget implements OffsetCommitTrigger {
 
   private static final Logger LOG = LoggerFactory.getLogger(KafkaTarget.class);
+  private static final int MESSAGE_BUFFER_INITIAL_SIZE = 64 * 1024;
+  private static final int MESSAGE_BUFFER_MAX_RETAINED_SIZE = 8 * 1024 * 1024;
 
   private final KafkaTargetConfig conf;
+  private final KafkaAsyncConfig asyncConf;
 
   private long recordCounter = 0;
   private SdcKafkaProducer kafkaProducer;
   private ErrorRecordHandler errorRecordHandler;
+  private RecordSerializer recordSerializer;
+  private ReusableByteArrayOutputStream messageBuffer;
+  private InFlightMessages inFlight;
+  private int uncommittedBatches;
 
   public KafkaTarget(KafkaTargetConfig conf) {
+    this(conf, null);
+  }
+
+  public KafkaTarget(KafkaTargetConfig conf, KafkaAsyncConfig asyncConf) {
     this.conf = conf;
+    this.asyncConf = asyncConf;
   }
 
   @Override
@@ -57,11 +79,22 @@ public class KafkaTarget extends BaseTarget {
     conf.init(getContext(), issues);
     kafkaProducer = conf.getKafkaProducer();
     errorRecordHandler = new DefaultErrorRecordHandler(getContext());
+    if (asyncConf != null) {
+      inFlight = new InFlightMessages(
+          asyncConf.maxInFlightBatches,
+          asyncConf.maxInFlightMB * 1024L * 1024L,
+          TimeUnit.SECONDS.toMillis(asyncConf.ackTimeoutSecs)
+      );
+    }
     return issues;
   }
 
   @Override
   public void write(Batch batch) throws StageException {
+    if (inFlight != null) {
+      handleFailures();
+      inFlight.startBatch();
+    }
     if (conf.singleMessagePerBatch) {
       writeOneMessagePerBatch(batch);
     } else {
@@ -121,11 +154,17 @@ public class KafkaTarget extends BaseTarget {
           for (Map.Entry<Object, List<Record>> entry : perPartition.entrySet()) {
             Object partition = entry.getKey();
             List<Record> list = entry.getValue();
-            ByteArrayOutputStream baos = new ByteArrayOutputStream(1024 * list.size());
+            if (messageBuffer == null) {
+              messageBuffer = new ReusableByteArrayOutputStream(
+                  MESSAGE_BUFFER_INITIAL_SIZE,
+                  MESSAGE_BUFFER_MAX_RETAINED_SIZE
+              );
+            }
+            messageBuffer.reset();
             Record currentRecord = null;
             try {
               DataGenerator generator = conf.dataGeneratorFormatConfig.getDataGeneratorFactory()
-                .getGenerator(baos);
+                .getGenerator(messageBuffer);
               for (Record record : list) {
                 currentRecord = record;
                 generator.write(record);
@@ -133,8 +172,10 @@ public class KafkaTarget extends BaseTarget {
               }
               currentRecord = null;
               generator.close();
-              byte[] bytes = baos.toByteArray();
-              kafkaProducer.enqueueMessage(entryTopic, bytes, partition);
+              byte[] bytes = messageBuffer.toByteArray();
+              send(entryTopic, bytes, partition, list);
+            } catch (KafkaConnectionException ex) {
+              throw ex;
             } catch (StageException ex) {
               errorRecordHandler.onError(
                   list,
@@ -160,26 +201,28 @@ public class KafkaTarget extends BaseTarget {
                   )
               );
             }
-            try {
-              kafkaProducer.write();
-            } catch (StageException ex) {
-              if (ex.getErrorCode().getCode().equals(KafkaErrors.KAFKA_69.name())) {
-                List<Exception> failedRecordException = (List<Exception>) ex.getParams()[1];
-                Exception error = failedRecordException.get(0);
-                errorRecordHandler.onError(
-                    list,
-                    new StageException(
-                        KafkaErrors.KAFKA_60,
-                        "<NONE>",
-                        batch.getSourceEntity(),
-                        batch.getSourceOffset(),
-                        partition,
-                        error.toString(),
-                        error
-                    )
-                );
-              } else {
-                throw ex;
+            if (inFlight == null) {
+              try {
+                kafkaProducer.write();
+              } catch (StageException ex) {
+                if (ex.getErrorCode().getCode().equals(KafkaErrors.KAFKA_69.name())) {
+                  List<Exception> failedRecordException = (List<Exception>) ex.getParams()[1];
+                  Exception error = failedRecordException.get(0);
+                  errorRecordHandler.onError(
+                      list,
+                      new StageException(
+                          KafkaErrors.KAFKA_60,
+                          "<NONE>",
+                          batch.getSourceEntity(),
+                          batch.getSourceOffset(),
+                          partition,
+                          error.toString(),
+                          error
+                      )
+                  );
+                } else {
+                  throw ex;
+                }
               }
             }
             recordCounter += count;
@@ -201,7 +244,7 @@ public class KafkaTarget extends BaseTarget {
       try {
         String topic = conf.getTopic(record);
         Object partitionKey = conf.getPartitionKey(record, topic);
-        kafkaProducer.enqueueMessage(topic, serializeRecord(record), partitionKey);
+        send(topic, serializeRecord(record), partitionKey, Collections.singletonList(record));
         count++;
       } catch (KafkaConnectionException ex) {
         // Kafka connection exception is thrown when the client cannot connect to the list of brokers
@@ -228,43 +271,104 @@ public class KafkaTarget extends BaseTarget {
         );
       }
     }
-    try {
-      kafkaProducer.write();
-    } catch (StageException ex) {
-      if (ex.getErrorCode().getCode().equals(KafkaErrors.KAFKA_69.name())) {
-        List<Integer> failedRecordIndices = (List<Integer>) ex.getParams()[0];
-        List<Exception> failedRecordExceptions = (List<Exception>) ex.getParams()[1];
-        for (int i = 0; i < failedRecordIndices.size(); i++) {
-          Record record = recordList.get(failedRecordIndices.get(i));
-          Exception error = failedRecordExceptions.get(i);
-          errorRecordHandler.onError(
-              new OnRecordErrorException(
-                  record,
-                  KafkaErrors.KAFKA_51,
-                  record.getHeader().getSourceId(),
-                  error.toString(),
-                  error
-              )
-          );
+    if (inFlight == null) {
+      try {
+        kafkaProducer.write();
+      } catch (StageException ex) {
+        if (ex.getErrorCode().getCode().equals(KafkaErrors.KAFKA_69.name())) {
+          List<Integer> failedRecordIndices = (List<Integer>) ex.getParams()[0];
+          List<Exception> failedRecordExceptions = (List<Exception>) ex.getParams()[1];
+          for (int i = 0; i < failedRecordIndices.size(); i++) {
+            Record record = recordList.get(failedRecordIndices.get(i));
+            Exception error = failedRecordExceptions.get(i);
+            errorRecordHandler.onError(
+                new OnRecordErrorException(
+                    record,
+                    KafkaErrors.KAFKA_51,
+                    record.getHeader().getSourceId(),
+                    error.toString(),
+                    error
+                )
+            );
+          }
+        } else {
+          throw ex;
         }
-      } else {
-        throw ex;
       }
     }
     recordCounter += count;
     LOG.debug("Wrote {} records in this batch.", count);
   }
 
-  private Object serializeRecord(Record record) throws StageException, IOException {
-    ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
-    DataGenerator generator = conf.dataGeneratorFormatConfig.getDataGeneratorFactory().getGenerator(baos);
-    generator.write(record);
-    generator.close();
-    return baos.toByteArray();
+  // enqueues the message for write() or, in asynchronous mode, sends it right away once there is room in flight
+  private void send(String topic, byte[] message, Object partitionKey, List<Record> records) throws StageException {
+    if (inFlight == null) {
+      kafkaProducer.enqueueMessage(topic, message, partitionKey);
+    } else {
+      kafkaProducer.sendMessage(topic, message, partitionKey, inFlight.track(records, message.length));
+    }
+  }
+
+  // messages too large for the broker are error records, any other failure stops the pipeline
+  private void handleFailures() throws StageException {
+    for (InFlightMessages.Failure failure : inFlight.drainFailures()) {
+      StageException ex = failure.getError();
+      if (!ex.getErrorCode().getCode().equals(KafkaErrors.KAFKA_69.name())) {
+        throw ex;
+      }
+      Throwable error = (ex.getCause() == null) ? ex : ex.getCause();
+      for (Record record : failure.getRecords()) {
+        errorRecordHandler.onError(
+            new OnRecordErrorException(
+                record,
+                KafkaErrors.KAFKA_51,
+                record.getHeader().getSourceId(),
+                error.toString(),
+                error
+            )
+        );
+      }
+    }
+  }
+
+  /**
+   * In asynchronous mode, the offset of the batch is committed only if all messages sent so far are acknowledged.
+   * Every {@link KafkaAsyncConfig#maxInFlightBatches} batches it waits for them so the committed offset does not
+   * fall further behind.
+   */
+  @Override
+  public boolean commit() {
+    if (inFlight == null) {
+      return true;
+    }
+    uncommittedBatches++;
+    if (uncommittedBatches >= asyncConf.maxInFlightBatches) {
+      try {
+        inFlight.awaitAll();
+      } catch (StageException ex) {
+        // the next batch fails waiting as well
+        LOG.warn("Not committing offset: {}", ex.toString(), ex);
+      }
+    }
+    if (inFlight.isAcknowledged()) {
+      uncommittedBatches = 0;
+      return true;
+    }
+    return false;
+  }
+
+  private byte[] serializeRecord(Record record) throws StageException, IOException {
+    if (recordSerializer == null) {
+      recordSerializer = conf.dataGeneratorFormatConfig.getDataGeneratorFactory().createRecordSerializer();
+    }
+    return recordSerializer.serialize(record);
   }
 
   @Override
   public void destroy() {
+    if (inFlight != null && inFlight.getMessages() > 0) {
+      LOG.info("Closing producer with {} messages in flight, their offsets were not committed", inFlight.getMessages());
+    }
     LOG.info("Wrote {} number of records to Kafka Broker", recordCounter);
     conf.destroy();
   }
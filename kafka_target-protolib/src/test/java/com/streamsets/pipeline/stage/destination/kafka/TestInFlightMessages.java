@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.kafka;
+
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.kafka.api.SendCallback;
+import com.streamsets.pipeline.lib.kafka.KafkaErrors;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class TestInFlightMessages {
+
+  private static List<Record> records() {
+    return Collections.singletonList(Mockito.mock(Record.class));
+  }
+
+  @Test
+  public void testAcknowledged() throws Exception {
+    InFlightMessages inFlight = new InFlightMessages(2, 1024, 1000);
+    inFlight.startBatch();
+    SendCallback first = inFlight.track(records(), 10);
+    SendCallback second = inFlight.track(records(), 20);
+    Assert.assertEquals(1, inFlight.getBatches());
+    Assert.assertEquals(2, inFlight.getMessages());
+    Assert.assertEquals(30, inFlight.getBytes());
+    Assert.assertFalse(inFlight.isAcknowledged());
+
+    first.onCompletion(null);
+    Assert.assertFalse(inFlight.isAcknowledged());
+    second.onCompletion(null);
+    Assert.assertTrue(inFlight.isAcknowledged());
+    Assert.assertEquals(0, inFlight.getBatches());
+    Assert.assertEquals(0, inFlight.getBytes());
+  }
+
+  @Test
+  public void testFailures() throws Exception {
+    InFlightMessages inFlight = new InFlightMessages(2, 1024, 1000);
+    inFlight.startBatch();
+    List<Record> records = records();
+    inFlight.track(records, 10).onCompletion(new StageException(KafkaErrors.KAFKA_69, "too large"));
+    Assert.assertFalse(inFlight.isAcknowledged());
+
+    List<InFlightMessages.Failure> failures = inFlight.drainFailures();
+    Assert.assertEquals(1, failures.size());
+    Assert.assertSame(records, failures.get(0).getRecords());
+    Assert.assertEquals(KafkaErrors.KAFKA_69, failures.get(0).getError().getErrorCode());
+    Assert.assertTrue(inFlight.drainFailures().isEmpty());
+    Assert.assertTrue(inFlight.isAcknowledged());
+  }
+
+  @Test
+  public void testMaxBatches() throws Exception {
+    InFlightMessages inFlight = new InFlightMessages(2, 1024, 10000);
+    inFlight.startBatch();
+    SendCallback first = inFlight.track(records(), 10);
+    inFlight.startBatch();
+    inFlight.track(records(), 10);
+
+    CountDownLatch started = new CountDownLatch(1);
+    Thread thread = new Thread(() -> {
+      try {
+        inFlight.startBatch();
+        started.countDown();
+      } catch (StageException ex) {
+        throw new RuntimeException(ex);
+      }
+    });
+    thread.start();
+    Assert.assertFalse(started.await(100, TimeUnit.MILLISECONDS));
+
+    // the oldest batch is acknowledged, a new one can start
+    first.onCompletion(null);
+    Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+    thread.join();
+  }
+
+  @Test
+  public void testMaxBytes() throws Exception {
+    InFlightMessages inFlight = new InFlightMessages(2, 100, 10000);
+    inFlight.startBatch();
+    // larger than the limit, but nothing else is in flight
+    SendCallback large = inFlight.track(records(), 150);
+
+    CountDownLatch tracked = new CountDownLatch(1);
+    Thread thread = new Thread(() -> {
+      try {
+        inFlight.track(records(), 10);
+        tracked.countDown();
+      } catch (StageException ex) {
+        throw new RuntimeException(ex);
+      }
+    });
+    thread.start();
+    Assert.assertFalse(tracked.await(100, TimeUnit.MILLISECONDS));
+
+    large.onCompletion(null);
+    Assert.assertTrue(tracked.await(10, TimeUnit.SECONDS));
+    thread.join();
+    Assert.assertEquals(10, inFlight.getBytes());
+  }
+
+  @Test
+  public void testTimeout() throws Exception {
+    InFlightMessages inFlight = new InFlightMessages(1, 1024, 50);
+    inFlight.startBatch();
+    inFlight.track(records(), 10);
+    try {
+      inFlight.awaitAll();
+      Assert.fail("Expected StageException");
+    } catch (StageException ex) {
+      Assert.assertEquals(KafkaErrors.KAFKA_75, ex.getErrorCode());
+    }
+    try {
+      inFlight.startBatch();
+      Assert.fail("Expected StageException");
+    } catch (StageException ex) {
+      Assert.assertEquals(KafkaErrors.KAFKA_75, ex.getErrorCode());
+    }
+  }
+}
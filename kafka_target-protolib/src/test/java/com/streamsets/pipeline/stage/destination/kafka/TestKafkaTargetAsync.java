@@ -0,0 +1,187 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.kafka;
+
+import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.kafka.api.SdcKafkaProducer;
+import com.streamsets.pipeline.kafka.api.SendCallback;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.RecordSerializer;
+import com.streamsets.pipeline.lib.kafka.KafkaErrors;
+import com.streamsets.pipeline.lib.kafka.exception.KafkaConnectionException;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import com.streamsets.pipeline.sdk.TargetRunner;
+import com.streamsets.pipeline.stage.destination.lib.DataGeneratorFormatConfig;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class TestKafkaTargetAsync {
+
+  /**
+   * Producer that only keeps the callbacks of the sent messages, the test acknowledges them.
+   */
+  private static class FakeProducer implements SdcKafkaProducer {
+    private final List<SendCallback> callbacks = Collections.synchronizedList(new ArrayList<>());
+    private final List<Object> messages = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public void init() {
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    @Override
+    public void enqueueMessage(String topic, Object message, Object partitionKey) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void sendMessage(String topic, Object message, Object partitionKey, SendCallback callback) {
+      messages.add(message);
+      callbacks.add(callback);
+    }
+
+    @Override
+    public void write() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clearMessages() {
+    }
+
+    @Override
+    public String getVersion() {
+      return "fake";
+    }
+  }
+
+  private FakeProducer producer;
+
+  private KafkaTarget createTarget(int messageSize, int maxInFlightMB, int ackTimeoutSecs) throws Exception {
+    producer = new FakeProducer();
+    RecordSerializer serializer = Mockito.mock(RecordSerializer.class);
+    Mockito.when(serializer.serialize(Mockito.any(Record.class))).thenAnswer(invocation -> new byte[messageSize]);
+    DataGeneratorFactory factory = Mockito.mock(DataGeneratorFactory.class);
+    Mockito.when(factory.createRecordSerializer()).thenReturn(serializer);
+
+    KafkaTargetConfig conf = Mockito.mock(KafkaTargetConfig.class);
+    conf.dataGeneratorFormatConfig = Mockito.mock(DataGeneratorFormatConfig.class);
+    Mockito.when(conf.dataGeneratorFormatConfig.getDataGeneratorFactory()).thenReturn(factory);
+    Mockito.when(conf.getKafkaProducer()).thenReturn(producer);
+    Mockito.when(conf.getTopic(Mockito.any(Record.class))).thenReturn("topic");
+
+    KafkaAsyncConfig async = new KafkaAsyncConfig();
+    async.maxInFlightBatches = 2;
+    async.maxInFlightMB = maxInFlightMB;
+    async.ackTimeoutSecs = ackTimeoutSecs;
+    return new KafkaTarget(conf, async);
+  }
+
+  private static TargetRunner createRunner(KafkaTarget target) throws StageException {
+    TargetRunner runner = new TargetRunner.Builder(KafkaAsyncDTarget.class, target)
+        .setOnRecordError(OnRecordError.TO_ERROR)
+        .build();
+    runner.runInit();
+    return runner;
+  }
+
+  @Test
+  public void testOffsetCommittedOnlyAfterAcks() throws Exception {
+    KafkaTarget target = createTarget(10, 1, 10);
+    TargetRunner runner = createRunner(target);
+    try {
+      runner.runWrite(ImmutableList.of(RecordCreator.create(), RecordCreator.create()));
+      Assert.assertEquals(2, producer.callbacks.size());
+      Assert.assertEquals(10, ((byte[]) producer.messages.get(0)).length);
+      Assert.assertFalse(target.commit());
+
+      producer.callbacks.get(0).onCompletion(null);
+      Assert.assertFalse(target.commit());
+
+      producer.callbacks.get(1).onCompletion(null);
+      Assert.assertTrue(target.commit());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testTooLargeMessageIsErrorRecord() throws Exception {
+    KafkaTarget target = createTarget(10, 1, 10);
+    TargetRunner runner = createRunner(target);
+    try {
+      runner.runWrite(ImmutableList.of(RecordCreator.create(), RecordCreator.create()));
+      producer.callbacks.get(0).onCompletion(new StageException(KafkaErrors.KAFKA_69, "too large"));
+      producer.callbacks.get(1).onCompletion(null);
+      Assert.assertFalse(target.commit());
+
+      // failures are handled when the next batch is written
+      runner.runWrite(Collections.emptyList());
+      Assert.assertEquals(1, runner.getErrorRecords().size());
+      Assert.assertTrue(target.commit());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testProducerFailureStopsPipeline() throws Exception {
+    KafkaTarget target = createTarget(10, 1, 10);
+    TargetRunner runner = createRunner(target);
+    try {
+      runner.runWrite(ImmutableList.of(RecordCreator.create()));
+      producer.callbacks.get(0).onCompletion(new StageException(KafkaErrors.KAFKA_50, "broker failed"));
+      Assert.assertFalse(target.commit());
+
+      try {
+        runner.runWrite(Collections.emptyList());
+        Assert.fail("Expected StageException");
+      } catch (StageException ex) {
+        Assert.assertEquals(KafkaErrors.KAFKA_50, ex.getErrorCode());
+      }
+      Assert.assertTrue(runner.getErrorRecords().isEmpty());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testUnacknowledgedBytesTimeOut() throws Exception {
+    // every message takes the whole 1 MB in flight, the second one waits for the first to be acknowledged
+    KafkaTarget target = createTarget(1024 * 1024, 1, 1);
+    TargetRunner runner = createRunner(target);
+    try {
+      runner.runWrite(ImmutableList.of(RecordCreator.create(), RecordCreator.create()));
+      Assert.fail("Expected KafkaConnectionException");
+    } catch (KafkaConnectionException ex) {
+      Assert.assertEquals(KafkaErrors.KAFKA_75, ex.getErrorCode());
+      Assert.assertEquals(1, producer.callbacks.size());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+}
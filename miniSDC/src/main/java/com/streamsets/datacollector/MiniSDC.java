@@ -125,6 +125,19 @@ public class MiniSDC {
     dataCollector.stopPipeline();
   }
 
+  public String getPipelineMetrics() throws Exception {
+    if(dataCollector == null) {
+      throw new IllegalStateException("DataCollector is not initialized.");
+    }
+    ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
+    try {
+      Thread.currentThread().setContextClassLoader(containerCL);
+      return dataCollector.getPipelineMetrics();
+    } finally {
+      Thread.currentThread().setContextClassLoader(originalClassLoader);
+    }
+  }
+
   private void injectStageLibraries(ClassLoader containerCL, List<ClassLoader> stageLibrariesCLs) {
     ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
     try {
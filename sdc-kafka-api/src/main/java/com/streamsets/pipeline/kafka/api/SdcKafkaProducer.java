@@ -25,6 +25,12 @@ public interface SdcKafkaProducer {
 
   public void enqueueMessage(String topic, Object message, Object partitionKey);
 
+  /**
+   * Sends the message without waiting for it to be acknowledged, the callback is called once it is. Messages sent
+   * this way are not part of the messages {@link #write()} waits for.
+   */
+  public void sendMessage(String topic, Object message, Object partitionKey, SendCallback callback);
+
   public void write() throws StageException;
 
   public void clearMessages();
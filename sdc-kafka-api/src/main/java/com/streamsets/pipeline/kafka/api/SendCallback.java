@@ -0,0 +1,34 @@
+/*
+ * Copyright 2017 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.kafka.api;
+
+import com.streamsets.pipeline.api.StageException;
+
+/**
+ * Completion callback of {@link SdcKafkaProducer#sendMessage(String, Object, Object, SendCallback)}.
+ */
+public interface SendCallback {
+
+  /**
+   * Called once the message has been acknowledged, with a <code>null</code> error, or once sending it failed. A
+   * <code>KAFKA_69</code> error means only this message was rejected (it is too large), any other error means the
+   * producer failed.
+   * <p/>
+   * It is called from a producer thread, it must not block.
+   */
+  public void onCompletion(StageException error);
+
+}
@@ -19,6 +19,7 @@ import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.config.DataFormat;
 import com.streamsets.pipeline.kafka.api.PartitionStrategy;
 import com.streamsets.pipeline.kafka.api.SdcKafkaProducer;
+import com.streamsets.pipeline.kafka.api.SendCallback;
 import com.streamsets.pipeline.lib.kafka.KafkaErrors;
 import com.streamsets.pipeline.lib.kafka.exception.KafkaConnectionException;
 import kafka.javaapi.producer.Producer;
@@ -109,6 +110,20 @@ public class KafkaProducer08 implements SdcKafkaProducer {
     messageList.add(new KeyedMessage<>(topic, partitionKey, message));
   }
 
+  @SuppressWarnings("unchecked")
+  @Override
+  public void sendMessage(String topic, Object message, Object partitionKey, SendCallback callback) {
+    // the 0.8 producer does not report acknowledgements asynchronously, the message is sent right away
+    StageException error = null;
+    try {
+      producer.send(new KeyedMessage<>(topic, partitionKey, message));
+    } catch (Exception e) {
+      LOG.error(KafkaErrors.KAFKA_50.getMessage(), e.toString(), e);
+      error = new KafkaConnectionException(KafkaErrors.KAFKA_50, e.toString(), e);
+    }
+    callback.onCompletion(error);
+  }
+
   @Override
   public void clearMessages() {
     messageList.clear();
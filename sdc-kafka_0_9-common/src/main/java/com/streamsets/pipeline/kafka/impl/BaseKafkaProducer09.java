@@ -18,6 +18,7 @@ package com.streamsets.pipeline.kafka.impl;
 
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.kafka.api.SdcKafkaProducer;
+import com.streamsets.pipeline.kafka.api.SendCallback;
 import com.streamsets.pipeline.lib.kafka.KafkaErrors;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
@@ -58,6 +59,21 @@ public abstract class BaseKafkaProducer09 implements SdcKafkaProducer {
     futureList.add(producer.send(e));
   }
 
+  @SuppressWarnings("unchecked")
+  @Override
+  public void sendMessage(String topic, Object message, Object partitionKey, final SendCallback callback) {
+    ProducerRecord e = new ProducerRecord<>(topic, partitionKey, message);
+    producer.send(e, (metadata, exception) -> {
+      if (exception == null) {
+        callback.onCompletion(null);
+      } else if (exception instanceof RecordTooLargeException) {
+        callback.onCompletion(new StageException(KafkaErrors.KAFKA_69, exception));
+      } else {
+        callback.onCompletion(createWriteException(exception));
+      }
+    });
+  }
+
   @Override
   public void write() throws StageException {
     // force all records in the buffer to be written out